@@ -10,16 +10,25 @@ import sdk.datasources.*;
 import sdk.datasources.base.UserDataSource;
 import sdk.utils.Constants;
 
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 public class AppTree {
-    public static HashMap<String, DataSourceBase> dataSources = new HashMap<>();
-    public static HashMap<String, ListDataSource> listSources = new HashMap<>();
-    public static HashMap<String, DashboardSourceBase> dashBoardSources = new HashMap<>();
-    public static HashMap<String, DataCollectionSource> dataCollectionSources = new HashMap<>();
-    public static HashMap<String, InspectionSourceBase> inspectionSources = new HashMap<>();
-    public static HashMap<String, ConversionDataSourceBase> conversionSources = new HashMap<>();
+    public static final ConcurrentHashMap<String, DataSourceBase> dataSources = new ConcurrentHashMap<>();
+    public static final ConcurrentHashMap<String, ListDataSource> listSources = new ConcurrentHashMap<>();
+    public static final ConcurrentHashMap<String, DashboardSourceBase> dashBoardSources = new ConcurrentHashMap<>();
+    public static final ConcurrentHashMap<String, DataCollectionSource> dataCollectionSources = new ConcurrentHashMap<>();
+    public static final ConcurrentHashMap<String, InspectionSourceBase> inspectionSources = new ConcurrentHashMap<>();
+    public static final ConcurrentHashMap<String, ConversionDataSourceBase> conversionSources = new ConcurrentHashMap<>();
+
+    // the adapters for the sources above, built when a source is registered and shared by every request
+    private static final ConcurrentHashMap<String, Handler<DataSourceBase, DataSource_Internal>> dataSetHandlers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Handler<ListDataSource, ListDataSource_Internal>> listHandlers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Handler<DashboardSourceBase, DashboardSource_Internal>> dashboardHandlers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Handler<InspectionSourceBase, InspectionSource_Internal>> inspectionHandlers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Handler<ConversionDataSourceBase, ConversionDataSource_Internal>> conversionHandlers = new ConcurrentHashMap<>();
 
     private static AuthenticationSource authenticationSource;
     private static UserDataSource_Internal userDataSource;
@@ -30,19 +39,26 @@ public class AppTree {
     }
 
     public static void registerDataSourceWithName(String name, DataSourceBase dataSource) {
-        dataSources.putIfAbsent(name, dataSource);
+        if (dataSources.putIfAbsent(name, dataSource) == null) {
+            lookupDataSetHandler(name);
+        }
     }
 
     public static void registerConversionDataSourceWithName(String name, ConversionDataSourceBase dataSource) {
-        conversionSources.putIfAbsent(name, dataSource);
+        if (conversionSources.putIfAbsent(name, dataSource) == null) {
+            lookupConversionHandler(name);
+        }
     }
 
     public static void registerListDataSourceWithName(String name, ListDataSource dataSource) {
-        listSources.putIfAbsent(name, dataSource);
+        if (listSources.putIfAbsent(name, dataSource) == null) {
+            lookupListHandler(name);
+        }
     }
 
     public static void registerDashboardSourceWithName(String name, DashboardSourceBase sourceBase) {
         dashBoardSources.put(name, sourceBase);
+        lookupDashBoardHandler(name);
     }
 
     public static void registerDataCollectionSourceWithName(String name, DataCollectionSource dataCollectionSource) {
@@ -51,53 +67,67 @@ public class AppTree {
 
     @Nullable
     public static DataSource_Internal lookupDataSetHandler(String name) {
-        DataSourceBase dataSourceBase = dataSources.get(name);
-        if (dataSourceBase == null) {
-            return null;
-        }
-        return new DataSource_Internal(dataSourceBase);
+        return lookupHandler(name, dataSetHandlers, dataSources, DataSource_Internal::new);
     }
 
     @Nullable
     public static DashboardSource_Internal lookupDashBoardHandler(String name) {
-        DashboardSourceBase dashboardSourceBase = dashBoardSources.get(name);
-        if (dashboardSourceBase == null) {
-            return null;
-        }
-        return new DashboardSource_Internal(dashboardSourceBase);
+        return lookupHandler(name, dashboardHandlers, dashBoardSources, DashboardSource_Internal::new);
     }
 
     @Nullable
     public static ConversionDataSource_Internal lookupConversionHandler(String name) {
-        ConversionDataSourceBase dataSourceBase = conversionSources.get(name);
-        if (dataSourceBase == null) {
-            return null;
-        }
-        return new ConversionDataSource_Internal(dataSourceBase);
+        return lookupHandler(name, conversionHandlers, conversionSources, (key, source) -> new ConversionDataSource_Internal(source));
     }
 
     public static void registerInspectionSource(String name, InspectionSourceBase inspectionSource) {
-        inspectionSources.putIfAbsent(name, inspectionSource);
+        if (inspectionSources.putIfAbsent(name, inspectionSource) == null) {
+            lookupInspectionHandler(name);
+        }
     }
 
     public static InspectionSource_Internal lookupInspectionHandler(String name) {
-        InspectionSourceBase inspectionSourceBase = inspectionSources.get(name);
-        if (inspectionSourceBase == null) {
-            return null;
-        }
-        return new InspectionSource_Internal(inspectionSourceBase);
+        return lookupHandler(name, inspectionHandlers, inspectionSources, InspectionSource_Internal::new);
     }
 
     public static Optional<DataCollectionSource> lookupDataCollectionHandler(String name) {
-        return Optional.ofNullable(dataCollectionSources.get(name));
+        return name != null ? Optional.ofNullable(dataCollectionSources.get(name)) : Optional.empty();
     }
 
     public static Optional<ListDataSource_Internal> lookupListHandler(String name) {
-        ListDataSource dataSource = listSources.get(name);
-        if (dataSource != null) {
-            return Optional.of(new ListDataSource_Internal(dataSource));
+        return Optional.ofNullable(lookupHandler(name, listHandlers, listSources, ListDataSource_Internal::new));
+    }
+
+    /**
+     * Finds the adapter built when the source was registered. The public maps can still be
+     * changed directly, so the adapter is only used while it wraps the source in the map. A
+     * source that was put there or replaced gets a new adapter, a removed one is not found.
+     */
+    private static <S, H> H lookupHandler(String name, ConcurrentHashMap<String, Handler<S, H>> handlers, Map<String, S> sources, BiFunction<String, S, H> newHandler) {
+        if (name == null) {
+            return null;
+        }
+        S source = sources.get(name);
+        if (source == null) {
+            handlers.remove(name);
+            return null;
+        }
+        Handler<S, H> handler = handlers.get(name);
+        if (handler == null || handler.source != source) {
+            handler = handlers.compute(name, (key, current) ->
+                current != null && current.source == source ? current : new Handler<>(source, newHandler.apply(key, source)));
+        }
+        return handler.adapter;
+    }
+
+    private static class Handler<S, H> {
+        final S source;
+        final H adapter;
+
+        Handler(S source, H adapter) {
+            this.source = source;
+            this.adapter = adapter;
         }
-        return Optional.empty();
     }
 
     public static void registerAuthenticationSource(AuthenticationSource source) {
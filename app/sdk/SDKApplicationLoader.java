@@ -5,6 +5,7 @@ import play.Logger;
 import play.api.inject.guice.GuiceApplicationBuilder;
 import play.api.inject.guice.GuiceApplicationLoader;
 import play.libs.Json;
+import sdk.converter.TypeManager;
 import sdk.serializers.DataSetModule;
 import sdk.serializers.DateTimeModule;
 
@@ -15,6 +16,8 @@ public class SDKApplicationLoader extends GuiceApplicationLoader {
     @Override
     public GuiceApplicationBuilder builder(Context context) {
         Logger.debug("Loading SDKApplicationLoader");
+        // Model classes are reloaded in dev mode so drop any reflection metadata from the last run
+        TypeManager.clearClassMetadata();
         ObjectMapper mapper = Json.newDefaultMapper();
         mapper.registerModule(new DataSetModule());
         mapper.registerModule(new DateTimeModule());
@@ -0,0 +1,24 @@
+package sdk;
+
+import play.inject.ApplicationLifecycle;
+import sdk.list.ListFileJanitor;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stops the background threads of the SDK when the application stops, so they do not outlive
+ * it in dev mode reloads and tests.
+ */
+@Singleton
+public class SDKLifecycle {
+
+    @Inject
+    public SDKLifecycle(ApplicationLifecycle lifecycle) {
+        lifecycle.addStopHook(() -> {
+            ListFileJanitor.shutdown();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+}
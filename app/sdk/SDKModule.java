@@ -0,0 +1,16 @@
+package sdk;
+
+import com.google.inject.AbstractModule;
+import sdk.utils.CallbackQueue;
+
+/**
+ * Binds the parts of the SDK that have to start and stop with the application. It is enabled
+ * in the reference.conf of the SDK.
+ */
+public class SDKModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(SDKLifecycle.class).asEagerSingleton();
+        bind(CallbackQueue.class).asEagerSingleton();
+    }
+}
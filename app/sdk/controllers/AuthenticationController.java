@@ -7,6 +7,7 @@ import play.mvc.Result;
 import sdk.AppTree;
 import sdk.auth.AuthenticationSource;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.JsonUtils;
 import sdk.utils.ResponseExceptionHandler;
 
@@ -30,8 +31,8 @@ public class AuthenticationController extends Controller {
         String password = json.path("password").textValue();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request().headers());
 
-        return CompletableFuture
-                .supplyAsync(() -> source.login(username, password, authenticationInfo))
+        return ExecutorPools
+                .supplyAsync(() -> source.login(username, password, authenticationInfo), ExecutorPools.getDataSourceExecutor(null))
                 .thenApply(loginResponse -> ok(JsonUtils.toJson(loginResponse)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -43,8 +44,8 @@ public class AuthenticationController extends Controller {
         }
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request().headers());
 
-        return CompletableFuture
-                .supplyAsync(() -> source.logout(authenticationInfo))
+        return ExecutorPools
+                .supplyAsync(() -> source.logout(authenticationInfo), ExecutorPools.getDataSourceExecutor(null))
                 .thenApply(response -> ok(JsonUtils.toJson(response)));
     }
 
@@ -55,8 +56,8 @@ public class AuthenticationController extends Controller {
         }
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request().headers());
 
-        return CompletableFuture
-                .supplyAsync(() -> source.validateAuthenticationInfo(authenticationInfo))
+        return ExecutorPools
+                .supplyAsync(() -> source.validateAuthenticationInfo(authenticationInfo), ExecutorPools.getDataSourceExecutor(null))
                 .thenApply(result -> {
                     if (!result) {
                         return unauthorized();
@@ -3,8 +3,6 @@ package sdk.controllers;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.Inject;
 import play.libs.Json;
-import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
@@ -18,12 +16,12 @@ import sdk.utils.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
-import static sdk.utils.CallbackLogger.logCallbackInfo;
-import static sdk.utils.CallbackLogger.logExceptionCallback;
+import static sdk.utils.CallbackLogger.logCallbackDelivery;
+import static sdk.utils.CallbackLogger.logExceptionCallbackDelivery;
 
 public class DashboardController extends Controller {
     @Inject
-    protected WSClient wsClient;
+    protected CallbackQueue callbackQueue;
 
     public CompletionStage<Result> getDashboard(String name) {
         Http.Request request = request();
@@ -56,18 +54,18 @@ public class DashboardController extends Controller {
 
 
     private void sendDashboardExceptionCallBack(Throwable throwable, String callBackURL) {
-        CompletableFuture.runAsync(() -> {
-            WSRequest wsRequest = wsClient.url(callBackURL);
-            ResponseExceptionHandler.updateCallbackWithException(wsRequest, throwable);
-            wsRequest.execute("POST")
-                     .whenComplete((wsResponse, callbackThrowable) -> {
-                         logExceptionCallback(wsResponse, throwable, callbackThrowable, callBackURL);
+        ExecutorPools.runAsync(() -> {
+            CallbackRequest request = new CallbackRequest(callBackURL);
+            ResponseExceptionHandler.updateCallbackWithException(request, throwable);
+            callbackQueue.send(request)
+                     .whenComplete((done, callbackThrowable) -> {
+                         logExceptionCallbackDelivery(throwable, callbackThrowable, callBackURL);
                      });
-        });
+        }, ExecutorPools.getCallbackExecutor());
     }
 
     private void sendDashboardResponse(Dashboard dashboard, String callBackURL) {
-        WSRequest request = wsClient.url(callBackURL);
+        CallbackRequest request = new CallbackRequest(callBackURL);
         if(dashboard.isSuccess()) {
             request.setHeader(Constants.CORE_CALLBACK_TYPE, Constants.CORE_CALLBACK_TYPE_SUCCESS);
             request.setHeader(Constants.CORE_ITEM_COUNT_HEADER, dashboard.getTotalRecords() + "");
@@ -81,9 +79,10 @@ public class DashboardController extends Controller {
 
         try {
             ObjectNode node = dashboard.toJson();
-            request.post(node)
-                   .whenComplete((response, throwable) -> {
-                    logCallbackInfo(response, throwable, callBackURL);
+            request.setBody(node);
+            callbackQueue.send(request)
+                   .whenComplete((done, throwable) -> {
+                    logCallbackDelivery(throwable, callBackURL);
                    });
         } catch (Exception e) {
             sendDashboardExceptionCallBack(e, callBackURL);
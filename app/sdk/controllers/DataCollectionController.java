@@ -16,8 +16,10 @@ import sdk.utils.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 /**
  * Created by Matthew on 5/24/2016.
@@ -30,11 +32,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.getConfiguration(authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.getConfiguration(authenticationInfo, parameters))
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -43,11 +41,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.getDataSet(sessionID, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.getDataSet(sessionID, authenticationInfo, parameters))
                 .thenApply(dataSourceResponse -> ok(dataSourceResponse.toJSON()))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -60,11 +54,7 @@ public class DataCollectionController extends Controller {
         JsonNode json = request.body().asJson();
         String inspectionItemID = json.get("collectionItem").asText();
         if ( inspectionItemID == null ) return CompletableFuture.completedFuture(badRequest("No primary key was passed for the item you want to collect data against."));
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.startDataCollectionSession(inspectionItemID, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.startDataCollectionSession(inspectionItemID, authenticationInfo, parameters))
                 .thenApply(StartResponse::new)
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
@@ -74,11 +64,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.cancelDataCollection(sessionID, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.cancelDataCollection(sessionID, authenticationInfo, parameters))
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -87,11 +73,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.endDataCollection(sessionID, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.endDataCollection(sessionID, authenticationInfo, parameters))
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -100,11 +82,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.saveDataCollection(sessionID, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.saveDataCollection(sessionID, authenticationInfo, parameters))
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -113,11 +91,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("No data collection handler exists for " + endpoint));
-                    return dataSource.searchExternalItem(sessionID, dataSetPrimaryKey, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "No data collection handler exists for " + endpoint, dataSource -> dataSource.searchExternalItem(sessionID, dataSetPrimaryKey, authenticationInfo, parameters))
                 .thenApply(dataSourceResponse -> ok(dataSourceResponse.toJSON()))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -129,11 +103,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("Invalid Data Set"));
-                    return dataSource.updateEventForDataSetItem(dataSetItemID, event, authenticationInfo, parameters);
-                })
+        return supplyFromSource(endpoint, "Invalid Data Set", dataSource -> dataSource.updateEventForDataSetItem(dataSetItemID, event, authenticationInfo, parameters))
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -143,9 +113,7 @@ public class DataCollectionController extends Controller {
         Http.Request request = request();
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
-        return CompletableFuture
-                .supplyAsync(() -> {
-                    DataCollectionSource dataSource = AppTree.lookupDataCollectionHandler(endpoint).orElseThrow(() -> new RuntimeException("Invalid Data Set"));
+        return supplyFromSource(endpoint, "Invalid Data Set", dataSource -> {
                     ServiceConfiguration serviceConfiguration = dataSource.getConfiguration(authenticationInfo, parameters);
                     DataSet dataSet = new DataSet(serviceConfiguration.getAttributes());
                     Http.MultipartFormData body = request.body().asMultipartFormData();
@@ -164,6 +132,20 @@ public class DataCollectionController extends Controller {
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
 
+    /**
+     * Runs a call to the data collection source of the endpoint on the pool of the source. An
+     * endpoint without a source fails straight away, so no pool is created for it.
+     */
+    private static <T> CompletableFuture<T> supplyFromSource(String endpoint, String missingMessage, Function<DataCollectionSource, T> call) {
+        Optional<DataCollectionSource> dataSource = AppTree.lookupDataCollectionHandler(endpoint);
+        if (!dataSource.isPresent()) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new RuntimeException(missingMessage));
+            return future;
+        }
+        return ExecutorPools.supplyAsync(() -> call.apply(dataSource.get()), ExecutorPools.getDataSourceExecutor(endpoint));
+    }
+
     private DataSetItem dataSetItemForJSON(ObjectNode json, DataSet dataSet, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap) {
         DataSetItem dataSetItem = dataSet.addNewDataSetItem();
         dataSetItem.updateFromJSON(json, attachmentMap, false);
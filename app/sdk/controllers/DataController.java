@@ -1,27 +1,32 @@
 package sdk.controllers;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.Inject;
 import play.Logger;
 import play.libs.Json;
-import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
 import play.mvc.Controller;
 import play.mvc.Http;
+import play.mvc.Result;
 import sdk.data.DataSet;
 import sdk.data.DataSetItem;
+import sdk.data.InvalidAttributeValueException;
 import sdk.data.ServiceConfiguration;
+import sdk.utils.CallbackQueue;
+import sdk.utils.CallbackRequest;
 import sdk.utils.Constants;
+import sdk.utils.DataSetStreamer;
+import sdk.utils.ExecutorPools;
 import sdk.utils.ResponseExceptionHandler;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
-import static sdk.utils.CallbackLogger.logCallbackInfo;
-import static sdk.utils.CallbackLogger.logExceptionCallback;
+import static sdk.utils.CallbackLogger.logCallbackDelivery;
+import static sdk.utils.CallbackLogger.logExceptionCallbackDelivery;
 
 /**
  * Created by Matthew Smith on 9/7/16.
@@ -30,10 +35,10 @@ import static sdk.utils.CallbackLogger.logExceptionCallback;
 public abstract class DataController extends Controller {
 
     @Inject
-    protected WSClient wsClient;
+    protected CallbackQueue callbackQueue;
 
     protected CompletionStage<DataSetItem> dataSetItemFromRequest(ServiceConfiguration configuration, Http.Request request, boolean search) {
-        return CompletableFuture.supplyAsync(() -> new DataSet(configuration.getAttributes()))
+        return ExecutorPools.supplyAsync(() -> new DataSet(configuration.getAttributes()), ExecutorPools.getConversionExecutor())
                 .thenApply(dataSet -> {
                     if ( !search ) {
                         Http.MultipartFormData body = request.body().asMultipartFormData();
@@ -44,35 +49,63 @@ public abstract class DataController extends Controller {
                         for (Http.MultipartFormData.FilePart file : files) {
                             attachmentMap.put(file.getKey(), file);
                         }
-                        ObjectNode json = (ObjectNode) Json.parse(formJSON);
-                        return dataSetItemForJSON(json, dataSet,search, attachmentMap);
+                        try (JsonParser parser = Json.mapper().getFactory().createParser(formJSON)) {
+                            return dataSetItemForJSON(parser, dataSet, search, attachmentMap);
+                        } catch (IOException e) {
+                            throw new InvalidAttributeValueException("Unable to read formJSON", e);
+                        }
                     } else {
-                        ObjectNode json = (ObjectNode) request.body().asJson();
-                        return dataSetItemForJSON(json, dataSet,search, new HashMap<>());
+                        try (JsonParser parser = request.body().asJson().traverse()) {
+                            return dataSetItemForJSON(parser, dataSet, search, new HashMap<>());
+                        } catch (IOException e) {
+                            throw new InvalidAttributeValueException("Unable to read search json", e);
+                        }
                     }
                 });
     }
 
-
-    DataSetItem dataSetItemForJSON(ObjectNode json, DataSet dataSet, boolean search, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap) {
+    /**
+     * Reads a data set item from a json stream and adds it to the data set
+     *
+     * @param parser A parser that has not been advanced yet
+     * @param dataSet
+     * @param search
+     * @param attachmentMap
+     * @return
+     * @throws IOException
+     */
+    DataSetItem dataSetItemForJSON(JsonParser parser, DataSet dataSet, boolean search, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap) throws IOException {
         DataSetItem dataSetItem = dataSet.addNewDataSetItem();
-        dataSetItem.updateFromJSON(json, attachmentMap, search);
+        parser.nextToken();
+        dataSetItem.updateFromJSON(parser, attachmentMap, search);
         return dataSetItem;
     }
 
+    /**
+     * Creates a 200 result that streams the data set json in chunks
+     *
+     * @param dataSet
+     * @return
+     */
+    protected Result streamDataSet(DataSet dataSet) {
+        return ok().chunked(DataSetStreamer.toSource(dataSet))
+                .as(DataSetStreamer.JSON_CONTENT_TYPE)
+                .withHeader(Constants.CORE_ITEM_COUNT_HEADER, dataSet.getTotalRecords() + "");
+    }
+
     void sendDataSetExceptionCallback(Throwable throwable, String callbackURL) {
-        CompletableFuture.runAsync(() -> {
-            WSRequest request = wsClient.url(callbackURL);
+        ExecutorPools.runAsync(() -> {
+            CallbackRequest request = new CallbackRequest(callbackURL);
             ResponseExceptionHandler.updateCallbackWithException(request, throwable);
-            request.execute("POST")
-                    .whenComplete((wsResponse, callbackThrowable) -> {
-                        logExceptionCallback(wsResponse, throwable, callbackThrowable, callbackURL);
+            callbackQueue.send(request)
+                    .whenComplete((done, callbackThrowable) -> {
+                        logExceptionCallbackDelivery(throwable, callbackThrowable, callbackURL);
                     });
-        });
+        }, ExecutorPools.getCallbackExecutor());
     }
 
     void sendDataSetResponse(DataSet dataSet, String callbackURL) {
-        WSRequest request = wsClient.url(callbackURL);
+        CallbackRequest request = new CallbackRequest(callbackURL);
         if (dataSet.isSuccess()) {
             request.setHeader(Constants.CORE_CALLBACK_TYPE, Constants.CORE_CALLBACK_TYPE_SUCCESS);
             request.setHeader(Constants.CORE_ITEM_COUNT_HEADER, dataSet.getTotalRecords()+"");
@@ -83,10 +116,12 @@ public abstract class DataController extends Controller {
             request.setBody(json);
         }
         try {
-            ObjectNode json = dataSet.toJSON();
-            request.post(json)
-                    .whenComplete((wsResponse, throwable) -> {
-                        logCallbackInfo(wsResponse, throwable, callbackURL);
+            dataSet.validatePrimaryKeys();
+            request.setContentType(DataSetStreamer.JSON_CONTENT_TYPE);
+            request.setBody(dataSet::writeJSON);
+            callbackQueue.send(request)
+                    .whenComplete((done, throwable) -> {
+                        logCallbackDelivery(throwable, callbackURL);
                     });
         } catch (Exception e) {
             sendDataSetExceptionCallback(e, callbackURL);
@@ -45,7 +45,7 @@ public class DataSetController extends DataController {
             return CompletableFuture.completedFuture(ok(JsonUtils.toJson(Response.asyncSuccess())));
         } else {
             return dataSource.getDataSet(authenticationInfo, parameters)
-                    .thenApply(dataSet -> ok(dataSet.toJSON()).withHeader(Constants.CORE_ITEM_COUNT_HEADER, dataSet.getTotalRecords() + ""))
+                    .thenApply(this::streamDataSet)
                     .exceptionally(ResponseExceptionHandler::handleException);
         }
     }
@@ -60,7 +60,7 @@ public class DataSetController extends DataController {
         DataSource_Internal dataSource = AppTree.lookupDataSetHandler(dataSetName);
         if (dataSource == null) return CompletableFuture.completedFuture(notFound());
         if (callbackURL == null) return CompletableFuture.completedFuture(badRequest("No callback URL provided"));
-        BatchManager batchManager = new BatchManager(callbackURL, wsClient);
+        BatchManager batchManager = new BatchManager(callbackURL, callbackQueue);
         Response response = dataSource.getPagedDataSet(authenticationInfo, parameters, batchManager);
         return CompletableFuture.completedFuture(ok(JsonUtils.toJson(response)));
     }
@@ -80,7 +80,7 @@ public class DataSetController extends DataController {
                         generateDataSourceSearchResponse(dataSource, dataSetItem, callbackURL, authenticationInfo, parameters);
                         return CompletableFuture.completedFuture(ok(JsonUtils.toJson(Response.asyncSuccess())));
                     } else {
-                        return dataSource.queryDataSet(dataSetItem, authenticationInfo, parameters).thenApply(dataSet -> ok(dataSet.toJSON()).withHeader(Constants.CORE_ITEM_COUNT_HEADER, dataSet.getTotalRecords() + ""));
+                        return dataSource.queryDataSet(dataSetItem, authenticationInfo, parameters).thenApply(this::streamDataSet);
                     }
                 })
                 .exceptionally(throwable -> ResponseExceptionHandler.handleException(throwable, callbackURL != null));
@@ -146,8 +146,8 @@ public class DataSetController extends DataController {
         DataSource_Internal dataSource = AppTree.lookupDataSetHandler(dataSetName);
         if (dataSource == null) return CompletableFuture.completedFuture(notFound());
 
-        return CompletableFuture
-                .supplyAsync(dataSource::getConfiguration)
+        return ExecutorPools
+                .supplyAsync(dataSource::getConfiguration, dataSource.getExecutor())
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -305,6 +305,6 @@ public class DataSetController extends DataController {
     }
 
     private CompletionStage<ServiceConfiguration> getServiceConfiguration(DataSource_Internal dataSource, Http.Request request) {
-        return CompletableFuture.supplyAsync(dataSource::getConfiguration);
+        return ExecutorPools.supplyAsync(dataSource::getConfiguration, dataSource.getExecutor());
     }
 }
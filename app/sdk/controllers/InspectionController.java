@@ -33,7 +33,7 @@ public class InspectionController extends DataController {
         if ( dataSource == null ) {
             return CompletableFuture.completedFuture(notFound());
         }
-        return CompletableFuture.supplyAsync(dataSource::getInspectionConfiguration)
+        return ExecutorPools.supplyAsync(dataSource::getInspectionConfiguration, dataSource.getExecutor())
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -43,7 +43,7 @@ public class InspectionController extends DataController {
         if ( dataSource == null ) {
             return CompletableFuture.completedFuture(notFound());
         }
-        return CompletableFuture.supplyAsync(dataSource::getInspectionSearchConfiguration)
+        return ExecutorPools.supplyAsync(dataSource::getInspectionSearchConfiguration, dataSource.getExecutor())
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -169,7 +169,7 @@ public class InspectionController extends DataController {
     }
 
     private CompletionStage<InspectionConfiguration> getConfiguration(InspectionSource_Internal dataSource, Http.Request request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return ExecutorPools.supplyAsync(() -> {
             AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
             Parameters parameters = new Parameters(request.queryString());
             Collection<ServiceConfigurationAttribute> searchAttributes = dataSource.getInspectionSearchAttributes(authenticationInfo, parameters);
@@ -184,7 +184,7 @@ public class InspectionController extends DataController {
                     .withAttributes(inspectionAttributes)
                     .build();
             return new InspectionConfiguration(inspectionDataSetConfiguration, inspectionSearchConfiguration, dataSource.shouldSendIncrementalUpdates());
-        });
+        }, dataSource.getExecutor());
     }
 
     private CompletionStage<InspectionDataSet> completedInspectionDataSet(ServiceConfiguration configuration, Http.Request request) {
@@ -218,7 +218,7 @@ public class InspectionController extends DataController {
                 if ( dataSetItemNode.isArray() ) {
                     dataSetItemNode = dataSetItemNode.get(0);
                 }
-                dataSetItemForJSON((ObjectNode)dataSetItemNode, dataSet, false, null);
+                dataSet.addNewDataSetItem().updateFromJSON((ObjectNode) dataSetItemNode, null, false);
             }
         }
         return CompletableFuture.completedFuture(dataSet);
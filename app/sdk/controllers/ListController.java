@@ -1,12 +1,14 @@
 package sdk.controllers;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.inject.Inject;
+import org.joda.time.DateTime;
 import org.springframework.cglib.core.CollectionUtils;
 import play.Logger;
 import play.libs.Json;
-import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
+import play.http.HttpEntity;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
@@ -15,19 +17,30 @@ import sdk.AppTree;
 import sdk.ValidateRequestAction;
 import sdk.datasources.ListDataSource;
 import sdk.datasources.ListDataSource_Internal;
-import sdk.list.CacheListSQLGenerator;
 import sdk.list.List;
+import sdk.list.ListArtifactCache;
+import sdk.list.ListBuildCoalescer;
+import sdk.list.ListChanges;
+import sdk.list.ListChangesResponse;
+import sdk.list.ListCompression;
 import sdk.list.ListDataSourceResponse;
+import sdk.list.ListDatabaseSchema;
+import sdk.list.ListDatabaseWriter;
+import sdk.list.ListDiff;
+import sdk.list.ListSearchIndex;
+import sdk.list.ListSearchIndexCache;
 import sdk.list.ListServiceConfiguration;
+import sdk.list.ListSyncToken;
 import sdk.utils.*;
 
-import java.io.File;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
-import static sdk.utils.CallbackLogger.logCallbackInfo;
-import static sdk.utils.CallbackLogger.logExceptionCallback;
+import static sdk.utils.CallbackLogger.logCallbackDelivery;
+import static sdk.utils.CallbackLogger.logExceptionCallbackDelivery;
 import static sdk.utils.Constants.CORE_CALLBACK_URL;
 
 /**
@@ -37,14 +50,18 @@ import static sdk.utils.Constants.CORE_CALLBACK_URL;
 public class ListController extends Controller {
 
     @Inject
-    WSClient wsClient;
+    CallbackQueue callbackQueue;
 
     public CompletionStage<Result> getListConfiguration(String listName) {
-        return CompletableFuture.supplyAsync(() -> {
-            ListDataSource_Internal dataSource = AppTree.lookupListHandler(listName).orElseThrow(() -> new RuntimeException("Invalid List Data Source"));
-            ListServiceConfiguration configuration = dataSource.getListServiceConfiguration();
+        // looked up first so unknown names never get a pool of their own
+        Optional<ListDataSource_Internal> dataSource = AppTree.lookupListHandler(listName);
+        if (!dataSource.isPresent()) {
+            return CompletableFuture.completedFuture(ok(JsonUtils.toJson(new Response(false, "Invalid List Data Source"))));
+        }
+        return ExecutorPools.supplyAsync(() -> {
+            ListServiceConfiguration configuration = dataSource.get().getListServiceConfiguration();
             return ok(JsonUtils.toJson(configuration));
-        }).exceptionally(exception -> {
+        }, dataSource.get().getExecutor()).exceptionally(exception -> {
             Response response = new Response(false, exception.getMessage());
             return ok(JsonUtils.toJson(response));
         });
@@ -62,55 +79,294 @@ public class ListController extends Controller {
         AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
         if (callbackURL != null) {
-            generateListDataResponse(dataSource, callbackURL, authenticationInfo, parameters);
+            generateListDataResponse(listName, dataSource, callbackURL, authenticationInfo, parameters);
             return CompletableFuture.completedFuture(ok(JsonUtils.toJson(Response.asyncSuccess())));
+        } else if (!json) {
+            long fetchTime = System.currentTimeMillis();
+            return getListArtifact(listName, dataSource, authenticationInfo, parameters)
+                    .thenApply(artifact -> listDatabaseResult(artifact)
+                            .withHeader(Constants.CORE_ITEM_COUNT_HEADER, artifact.getItemCount()+"")
+                            .withHeader(Constants.CORE_LIST_VERSION_HEADER, new ListSyncToken(fetchTime, artifact.getContentKey()).toString()))
+                    .exceptionally(exception -> internalServerError().withHeader("ListError", exception.getMessage()));
+        } else if (dataSource.isStreamingSupported()) {
+            return CompletableFuture.completedFuture(ok().chunked(ListStreamer.toSource(dataSource, authenticationInfo, parameters))
+                                                             .as(DataSetStreamer.JSON_CONTENT_TYPE));
         } else {
             return dataSource.getList(authenticationInfo, parameters)
                     .thenApply(list -> {
-                        if (json) {
-                            ListDataSourceResponse response = new ListDataSourceResponse.Builder().setSuccess(true).setRecords(list).createListDataSourceResponse();
-                            return ok(JsonUtils.toJson(response)).withHeader(Constants.CORE_ITEM_COUNT_HEADER, response.getRecords().size()+"");
-                        } else {
-                            File sqlFile = CacheListSQLGenerator.generateDatabaseForList(list);
-                            return ok(sqlFile).withHeader(Constants.CORE_ITEM_COUNT_HEADER, list.listItems.size()+"");
-                        }
+                        ListDataSourceResponse response = new ListDataSourceResponse.Builder().setSuccess(true).setRecords(list).createListDataSourceResponse();
+                        return ok(JsonUtils.toJson(response)).withHeader(Constants.CORE_ITEM_COUNT_HEADER, response.getRecords().size()+"");
                     }).exceptionally(exception -> {
-                        if (json) {
-                            exception = ResponseExceptionHandler.findRootCause(exception);
-                            ListDataSourceResponse response = new ListDataSourceResponse.Builder().setSuccess(false).setMessage(exception.getMessage()).createListDataSourceResponse();
-                            return ok(JsonUtils.toJson(response));
-                        } else {
-                            return internalServerError().withHeader("ListError", exception.getMessage());
-                        }
+                        exception = ResponseExceptionHandler.findRootCause(exception);
+                        ListDataSourceResponse response = new ListDataSourceResponse.Builder().setSuccess(false).setMessage(exception.getMessage()).createListDataSourceResponse();
+                        return ok(JsonUtils.toJson(response));
                     });
         }
     }
 
-    private void generateListDataResponse(ListDataSource_Internal dataSource, String callbackURL, AuthenticationInfo authenticationInfo, Parameters parameters) {
-        dataSource.getList(authenticationInfo, parameters)
+    /**
+     * Gets the zipped list database from the list cache. The list is only fetched when the data
+     * source has no version token or the cache has nothing for it, and only turned into a
+     * database when its content has not been seen before. Concurrent requests for the same list
+     * share one fetch and build.
+     */
+    private CompletableFuture<ListArtifactCache.ListArtifact> getListArtifact(String listName, ListDataSource_Internal dataSource, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        ListArtifactCache listCache = ListArtifactCache.getInstance();
+        String authScope = getAuthScope(dataSource, authenticationInfo);
+        return getVersionKey(listName, dataSource, authScope, authenticationInfo, parameters)
+                .thenCompose(versionKey -> {
+                    Optional<ListArtifactCache.ListArtifact> cachedArtifact = listCache.getByVersion(versionKey);
+                    if (cachedArtifact.isPresent()) {
+                        return CompletableFuture.completedFuture(cachedArtifact.get());
+                    }
+                    String buildKey = ListBuildCoalescer.getKey(listName, authScope, parameters);
+                    return ListBuildCoalescer.getInstance().getArtifact(listName, buildKey,
+                                                                        () -> buildListArtifact(listName, dataSource, authScope, versionKey, authenticationInfo, parameters));
+                });
+    }
+
+    /**
+     * Asks the data source for the version of the list on its pool, since it may have to call
+     * the backing system to find it.
+     */
+    private static CompletableFuture<String> getVersionKey(String listName, ListDataSource_Internal dataSource, String authScope, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        return ExecutorPools.supplyAsync(() -> ListArtifactCache.getInstance().getVersionKey(listName, authScope, dataSource.getListVersion(authenticationInfo, parameters), parameters),
+                                         dataSource.getExecutor());
+    }
+
+    /**
+     * Fetches the list and builds its database. Lists fetched whole are also indexed for
+     * searching if their data source allows it, streamed lists are not held in memory so they
+     * are not.
+     */
+    private CompletableFuture<ListArtifactCache.ListArtifact> buildListArtifact(String listName, ListDataSource_Internal dataSource, String authScope, String versionKey, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        ListArtifactCache listCache = ListArtifactCache.getInstance();
+        if (dataSource.isStreamingSupported()) {
+            ListDatabaseWriter writer;
+            try {
+                writer = new ListDatabaseWriter(listName, authScope, dataSource.getListDatabaseSchema());
+            } catch (RuntimeException e) {
+                return failedFuture(e);
+            }
+            // the writer is closed if either the stream or finishing the database fails
+            return dataSource.streamList(authenticationInfo, parameters, writer)
+                    .thenApply(done -> listCache.getArtifact(writer, versionKey))
+                    .whenComplete((artifact, throwable) -> {
+                        if (throwable != null) writer.close();
+                    });
+        }
+        return dataSource.getList(authenticationInfo, parameters)
                 .thenApply(list -> {
-                    File sqlFile = CacheListSQLGenerator.generateDatabaseForList(list);
-                    WSRequest request = wsClient.url(callbackURL);
+                    ListDatabaseSchema schema = dataSource.getListDatabaseSchema();
+                    if (dataSource.isSearchIndexSupported()) {
+                        ListSearchIndexCache.getInstance().put(dataSource.getSearchIndexKey(listName, authScope, parameters), list, schema);
+                    }
+                    return listCache.getArtifact(listName, authScope, schema, list, versionKey);
+                });
+    }
+
+    /**
+     * Sends a list database. Cached databases are sent as they are, the rest are streamed and
+     * compressed on the way if they are not compressed yet. Either way the artifact is released
+     * once the response is done.
+     */
+    private static Result listDatabaseResult(ListArtifactCache.ListArtifact artifact) {
+        ListCompression compression = getDeliveryCompression(artifact);
+        Result result;
+        if (artifact.getContentKey() != null) {
+            result = new Result(OK, new HttpEntity.Streamed(ListDelivery.toFileSource(artifact), Optional.of(artifact.getFile().length()), Optional.empty()));
+        } else {
+            result = ok().chunked(toDeliverySource(artifact));
+        }
+        result = result.as(ListDelivery.getContentType(compression));
+        if (compression.getContentEncoding() != null) {
+            result = result.withHeader(Http.HeaderNames.CONTENT_ENCODING, compression.getContentEncoding());
+        }
+        return result;
+    }
+
+    /**
+     * Queues a list database for a callback, compressed like {@link #listDatabaseResult} sends
+     * it. The artifact is released once the database is spooled.
+     */
+    private CompletableFuture<Void> sendListDatabase(CallbackRequest request, ListArtifactCache.ListArtifact artifact) {
+        ListArtifactCache listCache = ListArtifactCache.getInstance();
+        ListCompression compression = getDeliveryCompression(artifact);
+        ListCompression spoolCompression = artifact.getCompression() == ListCompression.NONE ? listCache.getCompression() : ListCompression.NONE;
+        request.setContentType(ListDelivery.getContentType(compression));
+        if (compression.getContentEncoding() != null) {
+            request.setHeader(Http.HeaderNames.CONTENT_ENCODING, compression.getContentEncoding());
+        }
+        request.setBody(outputStream -> spoolCompression.compress(artifact.getFile(), outputStream, listCache.getCompressionLevel()));
+        try {
+            return callbackQueue.send(request);
+        } finally {
+            artifact.release();
+        }
+    }
+
+    /**
+     * @return How the list database is compressed once it is sent
+     */
+    private static ListCompression getDeliveryCompression(ListArtifactCache.ListArtifact artifact) {
+        if (artifact.getCompression() == ListCompression.NONE) {
+            return ListArtifactCache.getInstance().getCompression();
+        }
+        return artifact.getCompression();
+    }
+
+    private static Source<ByteString, ?> toDeliverySource(ListArtifactCache.ListArtifact artifact) {
+        ListArtifactCache listCache = ListArtifactCache.getInstance();
+        ListCompression compression = artifact.getCompression() == ListCompression.NONE ? listCache.getCompression() : ListCompression.NONE;
+        return ListDelivery.toSource(artifact, compression, listCache.getCompressionLevel());
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    private static String getAuthScope(ListDataSource_Internal dataSource, AuthenticationInfo authenticationInfo) {
+        return dataSource.isListContentGlobal() ? null : ListArtifactCache.getAuthScope(authenticationInfo);
+    }
+
+    private void generateListDataResponse(String listName, ListDataSource_Internal dataSource, String callbackURL, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        long fetchTime = System.currentTimeMillis();
+        getListArtifact(listName, dataSource, authenticationInfo, parameters)
+                .thenApply(artifact -> {
+                    CallbackRequest request = new CallbackRequest(callbackURL);
                     request.setHeader(Constants.CORE_CALLBACK_TYPE, Constants.CORE_CALLBACK_TYPE_SUCCESS);
-                    request.setHeader(Constants.CORE_ITEM_COUNT_HEADER, list.listItems.size()+"");
-                    return request
-                            .post(sqlFile)
-                            .whenComplete((wsResponse, throwable) -> {
-                                logCallbackInfo(wsResponse, throwable, callbackURL);
+                    request.setHeader(Constants.CORE_ITEM_COUNT_HEADER, artifact.getItemCount()+"");
+                    request.setHeader(Constants.CORE_LIST_VERSION_HEADER, new ListSyncToken(fetchTime, artifact.getContentKey()).toString());
+                    return sendListDatabase(request, artifact)
+                            .whenComplete((done, throwable) -> {
+                                logCallbackDelivery(throwable, callbackURL);
                             });
                 })
                 .exceptionally(throwable -> {
-                    WSRequest request = wsClient.url(callbackURL);
+                    CallbackRequest request = new CallbackRequest(callbackURL);
                     Logger.debug("Sending error back to " + callbackURL);
                     ResponseExceptionHandler.updateCallbackWithException(request, throwable);
-                    return request
-                            .execute("POST")
-                            .whenComplete((wsResponse, callbackThrowable) -> {
-                                logExceptionCallback(wsResponse, throwable, callbackThrowable, callbackURL);
+                    return callbackQueue.send(request)
+                            .whenComplete((done, callbackThrowable) -> {
+                                logExceptionCallbackDelivery(throwable, callbackThrowable, callbackURL);
                             });
         });
     }
 
+    /**
+     * Gets the list items that were inserted, updated or deleted since the version in the
+     * {@value Constants#LIST_VERSION_PARAM} parameter, the value of the
+     * {@value Constants#CORE_LIST_VERSION_HEADER} header of the last list response.
+     */
+    public CompletionStage<Result> getListChanges(String listName) {
+        Http.Request request = request();
+        ListDataSource_Internal dataSource = AppTree.lookupListHandler(listName).orElseThrow(() -> new RuntimeException("Invalid List Data Source " + listName));
+        AuthenticationInfo authenticationInfo = new AuthenticationInfo(request.headers());
+        Parameters parameters = new Parameters(request.queryString());
+        String version = parameters.toMap().remove(Constants.LIST_VERSION_PARAM);
+        if (version == null) return CompletableFuture.completedFuture(badRequest("No list version was provided"));
+        Optional<ListSyncToken> since = ListSyncToken.parse(version);
+        if (!since.isPresent()) return CompletableFuture.completedFuture(ok(JsonUtils.toJson(fullSyncRequired())));
+
+        long fetchTime = System.currentTimeMillis();
+        return dataSource.getListChanges(new DateTime(since.get().getTimestamp()), authenticationInfo, parameters)
+                .thenCompose(changes -> {
+                    if (changes != null) {
+                        return CompletableFuture.completedFuture(changesResponse(changes, new ListSyncToken(fetchTime, null)));
+                    }
+                    return diffListChanges(listName, dataSource, since.get(), fetchTime, authenticationInfo, parameters);
+                })
+                .thenApply(response -> ok(JsonUtils.toJson(response)).withHeader(Constants.CORE_ITEM_COUNT_HEADER, response.getChanges().size()+""))
+                .exceptionally(exception -> {
+                    exception = ResponseExceptionHandler.findRootCause(exception);
+                    ListChangesResponse response = new ListChangesResponse.Builder().setSuccess(false).setMessage(exception.getMessage()).createListChangesResponse();
+                    return ok(JsonUtils.toJson(response));
+                });
+    }
+
+    /**
+     * Works out the changes by comparing the current list with the cached list database the
+     * client was sent. If that is no longer cached the client has to sync the whole list.
+     */
+    private CompletableFuture<ListChangesResponse> diffListChanges(String listName, ListDataSource_Internal dataSource, ListSyncToken since, long fetchTime, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        // tokens from incremental lists and uncached lists do not name a list database to compare with
+        if (since.getContentKey() == null) {
+            return CompletableFuture.completedFuture(fullSyncRequired());
+        }
+        ListArtifactCache listCache = ListArtifactCache.getInstance();
+        String authScope = getAuthScope(dataSource, authenticationInfo);
+        return getVersionKey(listName, dataSource, authScope, authenticationInfo, parameters)
+                .thenCompose(versionKey -> {
+                    Optional<ListArtifactCache.ListArtifact> cachedArtifact = listCache.getByVersion(versionKey);
+                    cachedArtifact.ifPresent(ListArtifactCache.ListArtifact::release);
+                    if (cachedArtifact.isPresent() && Objects.equals(since.getContentKey(), cachedArtifact.get().getContentKey())) {
+                        return CompletableFuture.completedFuture(changesResponse(new ListChanges(), new ListSyncToken(fetchTime, since.getContentKey())));
+                    }
+                    // the snapshot is held until it has been compared, so it is not removed if it is evicted meanwhile
+                    Optional<ListArtifactCache.ListArtifact> snapshot = listCache.getSnapshot(listName, authScope, since.getContentKey());
+                    if (!snapshot.isPresent()) {
+                        return CompletableFuture.completedFuture(fullSyncRequired());
+                    }
+                    CompletableFuture<List> listFuture;
+                    try {
+                        listFuture = dataSource.getList(authenticationInfo, parameters);
+                    } catch (RuntimeException e) {
+                        snapshot.get().release();
+                        throw e;
+                    }
+                    return listFuture
+                            .thenApply(list -> {
+                                ListDatabaseSchema schema = dataSource.getListDatabaseSchema();
+                                ListChanges changes;
+                                try {
+                                    changes = ListDiff.diff(snapshot.get().getFile(), snapshot.get().getCompression(), list, schema);
+                                } catch (RuntimeException e) {
+                                    Logger.warn("Could not compare " + listName + " with the cached list: " + e.getMessage());
+                                    return fullSyncRequired();
+                                }
+                                ListArtifactCache.ListArtifact artifact = listCache.getArtifact(listName, authScope, schema, list, versionKey);
+                                artifact.release();
+                                return changesResponse(changes, new ListSyncToken(fetchTime, artifact.getContentKey()));
+                            })
+                            .whenComplete((response, throwable) -> snapshot.get().release());
+                });
+    }
+
+    private static ListChangesResponse changesResponse(ListChanges changes, ListSyncToken version) {
+        return new ListChangesResponse.Builder().setSuccess(true).setChanges(changes).setVersion(version.toString()).createListChangesResponse();
+    }
+
+    private static ListChangesResponse fullSyncRequired() {
+        return new ListChangesResponse.Builder().setSuccess(true).setChanges(new ListChanges()).setFullSyncRequired(true).createListChangesResponse();
+    }
+
+    /**
+     * @return The index of the list last fetched with the same filter parameters, if the data
+     * source allows searching it
+     */
+    private static Optional<ListSearchIndex> getSearchIndex(String listName, ListDataSource_Internal dataSource, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        if (!dataSource.isSearchIndexSupported()) return Optional.empty();
+        String searchKey = dataSource.getSearchIndexKey(listName, getAuthScope(dataSource, authenticationInfo), parameters);
+        return ListSearchIndexCache.getInstance().get(searchKey);
+    }
+
+    /**
+     * Searches the index of the list last fetched with the same filter parameters. Searches with
+     * a context can filter on things the index does not know about so they are left to the data
+     * source, as are searches the index has nothing for.
+     *
+     * @return The matching items or empty if the data source has to be searched
+     */
+    private static Optional<List> searchIndex(String listName, ListDataSource_Internal dataSource, AuthenticationInfo authenticationInfo, Parameters parameters,
+                                              String searchTerm, boolean barcodeSearch, Map<String, Object> searchContext) {
+        if (searchContext != null && !searchContext.isEmpty()) return Optional.empty();
+        return getSearchIndex(listName, dataSource, authenticationInfo, parameters)
+                .map(index -> barcodeSearch ? index.findBarcode(searchTerm) : index.search(searchTerm))
+                .filter(list -> !list.listItems.isEmpty());
+    }
+
     public CompletionStage<Result> searchListData(String listName) {
         Http.Request request = request();
         JsonNode json = request.body().asJson();
@@ -122,7 +378,9 @@ public class ListController extends Controller {
         AuthenticationInfo info = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
 
-        return dataSource.queryList(searchTerm, barcodeSearch, searchContext, info, parameters)
+        return searchIndex(listName, dataSource, info, parameters, searchTerm, barcodeSearch, searchContext)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> dataSource.queryList(searchTerm, barcodeSearch, searchContext, info, parameters))
                 .thenApply(list -> {
                     ListDataSourceResponse response = new ListDataSourceResponse.Builder().setSuccess(true).setRecords(list).createListDataSourceResponse();
                     return ok(JsonUtils.toJson(response)).withHeader(Constants.CORE_ITEM_COUNT_HEADER, response.getRecords().size()+"");
@@ -140,7 +398,10 @@ public class ListController extends Controller {
         AuthenticationInfo info = new AuthenticationInfo(request.headers());
         Parameters parameters = new Parameters(request.queryString());
 
-        return dataSource.getListItem(listItemID, info, parameters)
+        return getSearchIndex(listName, dataSource, info, parameters)
+            .map(index -> index.getItem(listItemID))
+            .map(CompletableFuture::completedFuture)
+            .orElseGet(() -> dataSource.getListItem(listItemID, info, parameters))
             .thenApply(listItem -> {
                 List list = new List();
                 list.addListItem(listItem);
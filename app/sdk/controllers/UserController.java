@@ -1,6 +1,6 @@
 package sdk.controllers;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonParser;
 import play.mvc.Http;
 import play.mvc.Result;
 import play.mvc.Results;
@@ -11,10 +11,12 @@ import sdk.data.*;
 import sdk.data.deprecated.UserInfoResponse;
 import sdk.datasources.UserDataSource_Internal;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.JsonUtils;
 import sdk.utils.Parameters;
 import sdk.utils.ResponseExceptionHandler;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -59,8 +61,8 @@ public class UserController extends DataController {
         if (dataSource == null) {
             return CompletableFuture.completedFuture(notFound("No user data source has been provided"));
         }
-        return CompletableFuture
-                .supplyAsync(dataSource::getConfiguration)
+        return ExecutorPools
+                .supplyAsync(dataSource::getConfiguration, dataSource.getExecutor())
                 .thenApply(response -> ok(JsonUtils.toJson(response)))
                 .exceptionally(ResponseExceptionHandler::handleException);
     }
@@ -70,8 +72,8 @@ public class UserController extends DataController {
         if (dataSource == null) {
             return CompletableFuture.completedFuture(notFound("No user data source has been provided"));
         }
-        return CompletableFuture
-                .supplyAsync(dataSource::getConfiguration)
+        return ExecutorPools
+                .supplyAsync(dataSource::getConfiguration, dataSource.getExecutor())
                 .thenApply(serviceConfiguration -> {
                     ArrayList<String> keys = new ArrayList<String>();
                     for (ServiceConfigurationAttribute attribute : serviceConfiguration.getAttributes() ) {
@@ -86,9 +88,10 @@ public class UserController extends DataController {
     }
 
     @Override
-    DataSetItem dataSetItemForJSON(ObjectNode json, DataSet dataSet, boolean search, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap) {
+    DataSetItem dataSetItemForJSON(JsonParser parser, DataSet dataSet, boolean search, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap) throws IOException {
         User user = new User(dataSet.getConfigurationAttributes());
-        user.updateFromJSON(json, attachmentMap, search);
+        parser.nextToken();
+        user.updateFromJSON(parser, attachmentMap, search);
         dataSet.add(user);
         return user;
     }
@@ -0,0 +1,298 @@
+package sdk.converter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reads and writes a single annotated field or getter/setter method.
+ * <p>
+ * Accessors are compiled to {@link MethodHandle}s once, when the class metadata is built, so
+ * the per object cost is a handle invocation instead of a reflective call with an accessibility
+ * check. int, double and boolean fields get their own handles so they can be read without boxing.
+ * If a handle can't be created the accessor falls back to plain reflection.
+ */
+abstract class AttributeAccessor {
+
+    abstract Object get(Object target) throws IllegalAccessException, InvocationTargetException;
+
+    abstract void set(Object target, Object value) throws IllegalAccessException,
+                                                          InvocationTargetException;
+
+    int getInt(Object target) throws IllegalAccessException, InvocationTargetException {
+        return (Integer) get(target);
+    }
+
+    double getDouble(Object target) throws IllegalAccessException, InvocationTargetException {
+        return (Double) get(target);
+    }
+
+    boolean getBoolean(Object target) throws IllegalAccessException, InvocationTargetException {
+        return (Boolean) get(target);
+    }
+
+    /**
+     * @param field
+     * @return An accessor reading and writing the field directly
+     */
+    static AttributeAccessor forField(Field field) {
+        ReflectionAccessor fallback = new ReflectionAccessor(field, null);
+        try {
+            field.setAccessible(true);
+            return new FieldHandleAccessor(field, fallback);
+        } catch (SecurityException | IllegalAccessException | WrongMethodTypeException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * @param method A getter (no parameters) or setter (one parameter)
+     * @return An accessor invoking the method
+     */
+    static AttributeAccessor forMethod(Method method) {
+        ReflectionAccessor fallback = new ReflectionAccessor(null, method);
+        try {
+            method.setAccessible(true);
+            return new MethodHandleAccessor(method, fallback);
+        } catch (SecurityException | IllegalAccessException | WrongMethodTypeException e) {
+            return fallback;
+        }
+    }
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE =
+        MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Field access through getter/setter handles. A field that can't be written through a handle
+     * is written through reflection
+     */
+    private static class FieldHandleAccessor extends AttributeAccessor {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final MethodHandle intGetter;
+        private final MethodHandle doubleGetter;
+        private final MethodHandle booleanGetter;
+        private final ReflectionAccessor fallback;
+
+        FieldHandleAccessor(Field field, ReflectionAccessor fallback) throws IllegalAccessException {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle rawGetter = lookup.unreflectGetter(field);
+            MethodHandle rawSetter = null;
+            try {
+                rawSetter = lookup.unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                // written through the reflection fallback
+            }
+            Class<?> type = field.getType();
+            this.getter = rawGetter.asType(GETTER_TYPE);
+            this.setter = rawSetter != null ? rawSetter.asType(SETTER_TYPE) : null;
+            this.intGetter = type == int.class ?
+                rawGetter.asType(MethodType.methodType(int.class, Object.class)) : null;
+            this.doubleGetter = type == double.class ?
+                rawGetter.asType(MethodType.methodType(double.class, Object.class)) : null;
+            this.booleanGetter = type == boolean.class ?
+                rawGetter.asType(MethodType.methodType(boolean.class, Object.class)) : null;
+            this.fallback = fallback;
+        }
+
+        @Override
+        Object get(Object target) {
+            try {
+                return getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+
+        @Override
+        void set(Object target, Object value) throws IllegalAccessException,
+                                                     InvocationTargetException {
+            if (setter == null) {
+                fallback.set(target, value);
+                return;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (ClassCastException | NullPointerException e) {
+                // keep reflection's behaviour for values that don't fit the field
+                throw new IllegalArgumentException(e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+
+        @Override
+        int getInt(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (intGetter == null) return super.getInt(target);
+            try {
+                return (int) intGetter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+
+        @Override
+        double getDouble(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (doubleGetter == null) return super.getDouble(target);
+            try {
+                return (double) doubleGetter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+
+        @Override
+        boolean getBoolean(Object target) throws IllegalAccessException,
+                                                 InvocationTargetException {
+            if (booleanGetter == null) return super.getBoolean(target);
+            try {
+                return (boolean) booleanGetter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+    }
+
+    /**
+     * Getter or setter method access through a single handle. Exceptions thrown by the method are
+     * wrapped in an InvocationTargetException, the same as {@link Method#invoke}
+     */
+    private static class MethodHandleAccessor extends AttributeAccessor {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final MethodHandle intGetter;
+        private final MethodHandle doubleGetter;
+        private final MethodHandle booleanGetter;
+        private final ReflectionAccessor fallback;
+
+        MethodHandleAccessor(Method method, ReflectionAccessor fallback) throws
+                                                                       IllegalAccessException {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            int parameterCount = method.getParameterTypes().length;
+            Class<?> returnType = method.getReturnType();
+            boolean isGetter = parameterCount == 0 && returnType != void.class;
+            this.getter = isGetter ? handle.asType(GETTER_TYPE) : null;
+            this.setter = parameterCount == 1 ? handle.asType(SETTER_TYPE) : null;
+            this.intGetter = isGetter && returnType == int.class ?
+                handle.asType(MethodType.methodType(int.class, Object.class)) : null;
+            this.doubleGetter = isGetter && returnType == double.class ?
+                handle.asType(MethodType.methodType(double.class, Object.class)) : null;
+            this.booleanGetter = isGetter && returnType == boolean.class ?
+                handle.asType(MethodType.methodType(boolean.class, Object.class)) : null;
+            this.fallback = fallback;
+        }
+
+        @Override
+        Object get(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (getter == null) return fallback.get(target);
+            try {
+                return getter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw new InvocationTargetException(throwable);
+            }
+        }
+
+        @Override
+        void set(Object target, Object value) throws IllegalAccessException,
+                                                     InvocationTargetException {
+            if (setter == null) {
+                fallback.set(target, value);
+                return;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable throwable) {
+                throw new InvocationTargetException(throwable);
+            }
+        }
+
+        @Override
+        int getInt(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (intGetter == null) return super.getInt(target);
+            try {
+                return (int) intGetter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw new InvocationTargetException(throwable);
+            }
+        }
+
+        @Override
+        double getDouble(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (doubleGetter == null) return super.getDouble(target);
+            try {
+                return (double) doubleGetter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw new InvocationTargetException(throwable);
+            }
+        }
+
+        @Override
+        boolean getBoolean(Object target) throws IllegalAccessException,
+                                                 InvocationTargetException {
+            if (booleanGetter == null) return super.getBoolean(target);
+            try {
+                return (boolean) booleanGetter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw new InvocationTargetException(throwable);
+            }
+        }
+    }
+
+    /**
+     * Plain reflection, used when a handle can't be created
+     */
+    private static class ReflectionAccessor extends AttributeAccessor {
+        private final Field field;
+        private final Method method;
+
+        ReflectionAccessor(Field field, Method method) {
+            this.field = field;
+            this.method = method;
+        }
+
+        @Override
+        Object get(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (field != null) {
+                if (!field.isAccessible()) {
+                    field.setAccessible(true);
+                }
+                return field.get(target);
+            }
+            if (!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+            return method.invoke(target);
+        }
+
+        @Override
+        void set(Object target, Object value) throws IllegalAccessException,
+                                                     InvocationTargetException {
+            if (field != null) {
+                if (!field.isAccessible()) {
+                    field.setAccessible(true);
+                }
+                field.set(target, value);
+                return;
+            }
+            if (!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+            method.invoke(target, value);
+        }
+    }
+}
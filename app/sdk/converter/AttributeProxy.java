@@ -17,6 +17,7 @@ public class AttributeProxy {
     public boolean isField;
     private boolean isWrappedClass;
     private boolean loadRelationshipData;
+    private AttributeAccessor accessor;
     PrimaryValue primaryValue;
     PrimaryKey primaryKey;
     Attribute attribute;
@@ -107,29 +108,33 @@ public class AttributeProxy {
     }
 
     public <T> Object getValue(T sourceObject) throws IllegalAccessException, InvocationTargetException {
-        if (isField) {
-            if (!currentField.isAccessible()) {
-                currentField.setAccessible(true);
-            }
-            return currentField.get(sourceObject);
-        } else {
-            if (!currentMethod.isAccessible()) {
-                currentMethod.setAccessible(true);
-            }
-            return currentMethod.invoke(sourceObject);
-        }
+        return getAccessor().get(sourceObject);
+    }
+
+    /**
+     * Reads an int attribute without boxing when it is declared as a primitive
+     */
+    public <T> int getIntValue(T sourceObject) throws IllegalAccessException, InvocationTargetException {
+        return getAccessor().getInt(sourceObject);
+    }
+
+    /**
+     * Reads a double attribute without boxing when it is declared as a primitive
+     */
+    public <T> double getDoubleValue(T sourceObject) throws IllegalAccessException, InvocationTargetException {
+        return getAccessor().getDouble(sourceObject);
+    }
+
+    /**
+     * Reads a boolean attribute without boxing when it is declared as a primitive
+     */
+    public <T> boolean getBooleanValue(T sourceObject) throws IllegalAccessException, InvocationTargetException {
+        return getAccessor().getBoolean(sourceObject);
     }
 
 
     public <T> void setValue(T destination, Object value) throws InvocationTargetException, IllegalAccessException {
-        if (isField) {
-            if (!currentField.isAccessible()) {
-                currentField.setAccessible(true);
-            }
-            currentField.set(destination, value);
-        } else {
-            currentMethod.invoke(destination, value);
-        }
+        getAccessor().set(destination, value);
     }
 
 
@@ -140,59 +145,42 @@ public class AttributeProxy {
         if (isField) {
             Class clazz = currentField.getType();
             if (String.class == clazz) {
-                if (!currentField.isAccessible()) {
-                    currentField.setAccessible(true);
-                }
-                currentField.set(destination, value);
+                setValue(destination, value);
             } else if (clazz == Integer.class || clazz == int.class) {
-                if (!currentField.isAccessible()) {
-                    currentField.setAccessible(true);
-                }
                 int intValue = 0;
                 try {
                     intValue = Integer.parseInt(value);
                 } catch (Exception e) {
                     intValue = 0;
                 }
-                currentField.set(destination, intValue);
+                setValue(destination, intValue);
             } else if (clazz == Long.class || clazz == long.class) {
-                if (!currentField.isAccessible()) {
-                    currentField.setAccessible(true);
-                }
                 long longValue = 0;
                 try {
                     longValue = Long.parseLong(value);
                 } catch (Exception e) {
                     longValue = 0;
                 }
-                currentField.set(destination, longValue);
+                setValue(destination, longValue);
             }
             else {
                 throw new RuntimeException("Primary Key Must be an Integer, Long or String data type");
             }
         } else {
-            Method method = TypeManager.getSetterForAttributeProxy(this, destination);
-            if (method == null) return;
-            currentMethod = method;
-            Class clazz = currentMethod.getParameters()[0].getType();
+            ClassMetadata metadata = TypeManager.getClassMetadata(destination.getClass());
+            Method setterMethod = metadata.getSetter(this);
+            if (setterMethod == null) return;
+            AttributeAccessor setter = metadata.getSetterAccessor(this);
+            Class clazz = setterMethod.getParameters()[0].getType();
 
             if (String.class == clazz) {
-                if (!currentMethod.isAccessible()) {
-                    currentMethod.setAccessible(true);
-                }
-                currentMethod.invoke(destination, value);
+                setter.set(destination, value);
             } else if (clazz == Integer.class || clazz == int.class) {
-                if (!currentMethod.isAccessible()) {
-                    currentMethod.setAccessible(true);
-                }
                 Integer intValue = Integer.parseInt(value);
-                currentMethod.invoke(destination, intValue);
+                setter.set(destination, intValue);
             } else if (clazz == Long.class || clazz == long.class) {
-                if (!currentMethod.isAccessible()) {
-                    currentMethod.setAccessible(true);
-                }
                 Long longValue = Long.parseLong(value);
-                currentMethod.invoke(destination, longValue);
+                setter.set(destination, longValue);
             } else {
                 throw new RuntimeException("Primary Key Must be an Integer, Long or String data type");
             }
@@ -241,6 +229,15 @@ public class AttributeProxy {
         this.loadRelationshipData = load;
     }
 
+    private AttributeAccessor getAccessor() {
+        if (accessor == null) {
+            accessor = isField ?
+                    AttributeAccessor.forField(currentField) :
+                    AttributeAccessor.forMethod(currentMethod);
+        }
+        return accessor;
+    }
+
     private boolean checkIfIsWrappedType(Class clazz) {
         return ClassUtils.isParameterizedType(clazz);
     }
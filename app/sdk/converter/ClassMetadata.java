@@ -0,0 +1,172 @@
+package sdk.converter;
+
+import sdk.data.AttributeMeta;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reflection metadata for a single model class. Built once per class by {@link TypeManager}
+ * and shared between threads, so everything here is read only after construction.
+ */
+class ClassMetadata {
+    private final Class<?> type;
+    private final List<AttributeProxy> attributeProxies;
+    private final Map<String, Method> methods;
+    private final Map<AttributeProxy, Method> getters = new IdentityHashMap<>();
+    private final Map<AttributeProxy, Method> setters = new IdentityHashMap<>();
+    private final Map<Method, AttributeAccessor> methodAccessors = new ConcurrentHashMap<>();
+    private final Map<AttributeProxy, AttributeMeta> inferredMeta = new ConcurrentHashMap<>();
+    private final Map<AttributeProxy, AttributeMeta> inferredSimpleNameMeta = new ConcurrentHashMap<>();
+    private volatile ConversionPlan conversionPlan;
+    private volatile List<ServiceConfigurationAttribute> configurationAttributes;
+    private volatile List<ServiceConfigurationAttribute> sharedConfigurationAttributes;
+    private volatile List<ServiceConfigurationAttribute> listConfigurationAttributes;
+
+    ClassMetadata(Class<?> type) {
+        this.type = type;
+        this.attributeProxies =
+            Collections.unmodifiableList(TypeManager.getMethodAndFieldAnnotationsForClass(type));
+        Map<String, Method> methodsByName = new HashMap<>();
+        for (Method method : type.getDeclaredMethods()) {
+            methodsByName.putIfAbsent(method.getName().toLowerCase(), method);
+        }
+        this.methods = Collections.unmodifiableMap(methodsByName);
+        for (AttributeProxy proxy : attributeProxies) {
+            Method getter = methods.get(TypeManager.getterMethodName(proxy.getName()));
+            getters.put(proxy, getter);
+            if (getter != null) methodAccessors.put(getter, AttributeAccessor.forMethod(getter));
+            String setterName = TypeManager.setterMethodName(proxy);
+            Method setter = setterName != null ? methods.get(setterName) : null;
+            setters.put(proxy, setter);
+            if (setter != null) methodAccessors.put(setter, AttributeAccessor.forMethod(setter));
+        }
+    }
+
+    /**
+     * @return The compiled conversion plan, or null if the class hasn't been converted yet
+     */
+    ConversionPlan getConversionPlan() {
+        return conversionPlan;
+    }
+
+    void setConversionPlan(ConversionPlan conversionPlan) {
+        this.conversionPlan = conversionPlan;
+    }
+
+    /**
+     * @return The generated service configuration attributes, or null if not generated yet
+     */
+    List<ServiceConfigurationAttribute> getConfigurationAttributes() {
+        return configurationAttributes;
+    }
+
+    void setConfigurationAttributes(List<ServiceConfigurationAttribute> configurationAttributes) {
+        this.configurationAttributes = configurationAttributes;
+    }
+
+    /**
+     * @return The generated service configuration attributes if they don't depend on where the
+     * class is referenced from, i.e. no circular references, or null
+     */
+    List<ServiceConfigurationAttribute> getSharedConfigurationAttributes() {
+        return sharedConfigurationAttributes;
+    }
+
+    void setSharedConfigurationAttributes(List<ServiceConfigurationAttribute> sharedConfigurationAttributes) {
+        this.sharedConfigurationAttributes = sharedConfigurationAttributes;
+    }
+
+    /**
+     * @return The generated list configuration attributes, or null if not generated yet
+     */
+    List<ServiceConfigurationAttribute> getListConfigurationAttributes() {
+        return listConfigurationAttributes;
+    }
+
+    void setListConfigurationAttributes(List<ServiceConfigurationAttribute> listConfigurationAttributes) {
+        this.listConfigurationAttributes = listConfigurationAttributes;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    List<AttributeProxy> getAttributeProxies() {
+        return attributeProxies;
+    }
+
+    /**
+     * @return declared methods keyed by their lower cased name
+     */
+    Map<String, Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Proxies that weren't built by this metadata are resolved by name
+     *
+     * @param proxy
+     * @return
+     */
+    Method getGetter(AttributeProxy proxy) {
+        Method getter = getters.get(proxy);
+        if (getter == null && !getters.containsKey(proxy)) {
+            getter = methods.get(TypeManager.getterMethodName(proxy.getName()));
+        }
+        return getter;
+    }
+
+    /**
+     * Proxies that weren't built by this metadata are resolved by name
+     *
+     * @param proxy
+     * @return
+     */
+    Method getSetter(AttributeProxy proxy) {
+        Method setter = setters.get(proxy);
+        if (setter == null && !setters.containsKey(proxy)) {
+            String setterName = TypeManager.setterMethodName(proxy);
+            setter = setterName != null ? methods.get(setterName) : null;
+        }
+        return setter;
+    }
+
+    AttributeAccessor getGetterAccessor(AttributeProxy proxy) {
+        return getAccessor(getGetter(proxy));
+    }
+
+    AttributeAccessor getSetterAccessor(AttributeProxy proxy) {
+        return getAccessor(getSetter(proxy));
+    }
+
+    private AttributeAccessor getAccessor(Method method) {
+        if (method == null) return null;
+        return methodAccessors.computeIfAbsent(method, AttributeAccessor::forMethod);
+    }
+
+    /**
+     * Meta data inferred from the attribute's class, used when copying from a record
+     *
+     * @param proxy
+     * @return
+     */
+    AttributeMeta getInferredMeta(AttributeProxy proxy) {
+        return inferredMeta.computeIfAbsent(proxy, p -> new AttributeMeta(
+            TypeManager.inferDataType(p.getType()).getAttributeType(), p.getIndex()));
+    }
+
+    /**
+     * Meta data inferred from the attribute's simple class name, used when copying to a record
+     *
+     * @param proxy
+     * @return
+     */
+    AttributeMeta getInferredSimpleNameMeta(AttributeProxy proxy) {
+        return inferredSimpleNameMeta.computeIfAbsent(proxy, p -> new AttributeMeta(
+            TypeManager.inferDataType(p.getType().getSimpleName()).getAttributeType(),
+            p.getIndex()));
+    }
+}
@@ -18,10 +18,12 @@ import java.util.*;
  */
 public class ConfigurationManager extends TypeManager {
 
-    static ConfigurationParserContext configurationParserContext;
-
-
     /**
+     * Configurations are generated once per class and cached with the class metadata. Related
+     * configurations without circular references are shared between the classes using them.
+     * The returned configuration is new on every call but the attributes in it are shared, treat
+     * them as read only.
+     *
      * @param someClass
      * @param <T>
      * @return
@@ -30,20 +32,46 @@ public class ConfigurationManager extends TypeManager {
         return new ServiceConfiguration.Builder(someClass.getName()).withAttributes(generateConfigurationAttributes(someClass)).build();
     }
 
+    /**
+     * The returned configuration is new on every call but the attributes in it are shared, treat
+     * them as read only.
+     *
+     * @param someClass
+     * @param configName
+     * @param <T>
+     * @return
+     */
     public static <T> ListServiceConfiguration generateListConfiguration(Class<T> someClass, String configName) {
         ListServiceConfiguration listServiceConfiguration = new ListServiceConfiguration(configName);
-        listServiceConfiguration.getAttributes().addAll(generateListConfigurationAttributes(someClass));
+        listServiceConfiguration.getAttributes().addAll(getCachedListConfigurationAttributes(someClass));
         return listServiceConfiguration;
     }
 
     /**
+     * The returned collection is new on every call but the attributes in it are shared, treat
+     * them as read only.
+     *
      * @param someClass
      * @param <T>
      * @return
      */
     public static <T> Collection<ServiceConfigurationAttribute> generateListConfigurationAttributes(Class<T> someClass) {
+        return new HashSet<>(getCachedListConfigurationAttributes(someClass));
+    }
+
+    private static List<ServiceConfigurationAttribute> getCachedListConfigurationAttributes(Class<?> someClass) {
+        ClassMetadata metadata = getClassMetadata(someClass);
+        List<ServiceConfigurationAttribute> attributes = metadata.getListConfigurationAttributes();
+        if (attributes == null) {
+            attributes = Collections.unmodifiableList(new ArrayList<>(buildListConfigurationAttributes(someClass)));
+            metadata.setListConfigurationAttributes(attributes);
+        }
+        return attributes;
+    }
+
+    private static Collection<ServiceConfigurationAttribute> buildListConfigurationAttributes(Class<?> someClass) {
         Set<ServiceConfigurationAttribute> attributes = new HashSet<>();
-        for (AttributeProxy attributeProxy : getMethodAndFieldAnnotationsForClass(someClass)) {
+        for (AttributeProxy attributeProxy : getAttributeProxiesForClass(someClass)) {
             Attribute attribute = attributeProxy.getAttributeAnnotation();
             if (attribute != null && !attribute.excludeFromList()) {
                 attributes.add(getListServiceConfigurationAttributeFromField(attributeProxy, attribute));
@@ -77,36 +105,74 @@ public class ConfigurationManager extends TypeManager {
     }
 
     /**
+     * The returned collection is new on every call but the attributes in it are shared, treat
+     * them as read only.
+     *
      * @param someClass
      * @param <T>
      * @return
      */
     public static <T> Collection<ServiceConfigurationAttribute> generateConfigurationAttributes(Class<T> someClass) {
-        ConfigurationParserContext configurationParserContext = getConfigurationParserContext();
-        configurationParserContext.setParentClass(someClass); // setting parent class to combat against circular reference
-        Collection<ServiceConfigurationAttribute> attributes = new ArrayList<>();
-        for (AttributeProxy proxy : getMethodAndFieldAnnotationsForClass(someClass)) {
+        return new ArrayList<>(getCachedConfigurationAttributes(someClass));
+    }
+
+    private static List<ServiceConfigurationAttribute> getCachedConfigurationAttributes(Class<?> someClass) {
+        ClassMetadata metadata = getClassMetadata(someClass);
+        List<ServiceConfigurationAttribute> attributes = metadata.getConfigurationAttributes();
+        if (attributes == null) {
+            attributes = buildConfigurationAttributes(someClass, new ConfigurationParserContext());
+            metadata.setConfigurationAttributes(attributes);
+        }
+        return attributes;
+    }
+
+    /**
+     * @param someClass
+     * @param context
+     * @return The attributes of a related class, shared with other classes if they don't depend
+     * on the path the class was reached through
+     */
+    private static List<ServiceConfigurationAttribute> getRelatedConfigurationAttributes(Class<?> someClass, ConfigurationParserContext context) {
+        List<ServiceConfigurationAttribute> attributes = getClassMetadata(someClass).getSharedConfigurationAttributes();
+        if (attributes == null) {
+            attributes = buildConfigurationAttributes(someClass, context);
+        }
+        return attributes;
+    }
+
+    private static List<ServiceConfigurationAttribute> buildConfigurationAttributes(Class<?> someClass, ConfigurationParserContext context) {
+        int token = context.enterClass(someClass);
+        List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        for (AttributeProxy proxy : getAttributeProxiesForClass(someClass)) {
             Attribute attribute = proxy.getAttributeAnnotation();
             Relationship relationship = proxy.getRelationshipAnnotation();
             if (attribute != null) {
-                attributes.add(getServiceConfigurationAttributeFromMember(new ConfigurationWrapper(proxy), attribute));
+                attributes.add(getServiceConfigurationAttributeFromMember(new ConfigurationWrapper(proxy), attribute, context));
             }
             if (relationship != null) {
-                if (configurationParserContext.addClass(proxy.getType())) { //if clazz is referenced more than twice stop the circular reference.
-                    attributes.add(getServiceConfigurationAttributeFromMember(new ConfigurationWrapper(proxy), relationship));
+                if (context.addClass(proxy.getType())) { //if clazz is referenced more than twice stop the circular reference.
+                    attributes.add(getServiceConfigurationAttributeFromMember(new ConfigurationWrapper(proxy), relationship, context));
                 }
             }
         }
-        configurationParserContext = null;
+        attributes = Collections.unmodifiableList(attributes);
+        if (context.exitClass(someClass, token)) {
+            ClassMetadata metadata = getClassMetadata(someClass);
+            metadata.setSharedConfigurationAttributes(attributes);
+            if (metadata.getConfigurationAttributes() == null) {
+                metadata.setConfigurationAttributes(attributes);
+            }
+        }
         return attributes;
     }
 
     /**
      * @param configurationWrapper
      * @param attribute
+     * @param context
      * @return
      */
-    protected static ServiceConfigurationAttribute getServiceConfigurationAttributeFromMember(ConfigurationWrapper configurationWrapper, Attribute attribute) {
+    protected static ServiceConfigurationAttribute getServiceConfigurationAttributeFromMember(ConfigurationWrapper configurationWrapper, Attribute attribute, ConfigurationParserContext context) {
         int index = attribute.index();
         String name = attribute.name();
         if (StringUtils.isEmpty(name)) {
@@ -149,12 +215,12 @@ public class ConfigurationManager extends TypeManager {
         serviceConfigurationAttribute.search = canSearch;
         serviceConfigurationAttribute.searchRequired = canSearchAndRequired;
         if (requiresRelatedServiceConfiguration(attributeType)) {
-            setRelatedServiceConfiguration(attributeType, serviceConfigurationAttribute, name, configurationWrapper.clazz);
+            setRelatedServiceConfiguration(attributeType, serviceConfigurationAttribute, name, configurationWrapper.clazz, context);
         }
         return serviceConfigurationAttribute;
     }
 
-    protected static ServiceConfigurationAttribute getServiceConfigurationAttributeFromMember(ConfigurationWrapper configurationWrapper, Relationship relationship) {
+    protected static ServiceConfigurationAttribute getServiceConfigurationAttributeFromMember(ConfigurationWrapper configurationWrapper, Relationship relationship, ConfigurationParserContext context) {
         int index = relationship.index();
         String name = relationship.name();
         if (StringUtils.isEmpty(name)) {
@@ -185,7 +251,7 @@ public class ConfigurationManager extends TypeManager {
         serviceConfigurationAttribute.updateRequired = canUpdateAndRequired;
         serviceConfigurationAttribute.search = canSearch;
         serviceConfigurationAttribute.searchRequired = canSearchAndRequired;
-        setRelatedServiceConfiguration(attributeType, serviceConfigurationAttribute, name, configurationWrapper.clazz);
+        setRelatedServiceConfiguration(attributeType, serviceConfigurationAttribute, name, configurationWrapper.clazz, context);
         return serviceConfigurationAttribute;
     }
 
@@ -203,14 +269,13 @@ public class ConfigurationManager extends TypeManager {
      * @param serviceConfigurationAttribute
      * @param configName
      * @param clazz
+     * @param context
      */
-    protected static void setRelatedServiceConfiguration(AttributeType attributeType, ServiceConfigurationAttribute serviceConfigurationAttribute, String configName, Class<?> clazz) {
+    protected static void setRelatedServiceConfiguration(AttributeType attributeType, ServiceConfigurationAttribute serviceConfigurationAttribute, String configName, Class<?> clazz, ConfigurationParserContext context) {
         if (attributeType.equals(AttributeType.ListItem)) {
             serviceConfigurationAttribute.setRelatedListServiceConfiguration(generateListConfiguration(clazz, configName));
-        } else if (attributeType.equals(AttributeType.Relation)) {
-            serviceConfigurationAttribute.setRelatedService(new RelatedServiceConfiguration(configName, generateConfiguration(clazz).getAttributes()));
         } else {
-            serviceConfigurationAttribute.setRelatedService(new RelatedServiceConfiguration(configName, generateConfiguration(clazz).getAttributes()));
+            serviceConfigurationAttribute.setRelatedService(new RelatedServiceConfiguration(configName, getRelatedConfigurationAttributes(clazz, context)));
         }
     }
 
@@ -246,15 +311,4 @@ public class ConfigurationManager extends TypeManager {
     protected static AttributeMeta inferMetaData(int index, Class clazz) {
         return new AttributeMeta(inferDataType(clazz).getAttributeType(), index);
     }
-
-
-    /**
-     * @return
-     */
-    private static ConfigurationParserContext getConfigurationParserContext() {
-        if (configurationParserContext == null) {
-            configurationParserContext = new ConfigurationParserContext();
-        }
-        return configurationParserContext;
-    }
 }
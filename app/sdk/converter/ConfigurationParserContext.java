@@ -3,24 +3,67 @@ package sdk.converter;
 import java.util.*;
 
 /**
+ * Tracks the classes on the current path while one configuration is generated.
+ * A new context is created for every top level call so concurrent generations don't share
+ * any state.
+ * <p>
  * Created by Orozco on 8/28/17.
  */
 class ConfigurationParserContext {
-    private Class classParent;
-    private int occurence;
-    void setParentClass(Class clazz) {
-        if(classParent == null){
-            classParent = clazz;
+    // a class may appear this many times on a path, i.e. a self reference is followed twice
+    private static final int MAX_OCCURRENCES = 3;
+
+    private final Map<Class<?>, Integer> occurrences = new HashMap<>();
+    private int backReferences;
+
+    /**
+     * Starts generating the configuration for a class
+     *
+     * @param clazz
+     * @return A token to pass to {@link #exitClass(Class, int)}
+     */
+    int enterClass(Class<?> clazz) {
+        int count = getOccurrences(clazz);
+        if (count > 0) {
+            backReferences++;
         }
+        occurrences.put(clazz, count + 1);
+        return backReferences;
     }
 
-    boolean addClass(Class clazz) {
-        if(clazz == classParent) {
-            return occurence++ < 2;
+    /**
+     * Finishes generating the configuration for a class
+     *
+     * @param clazz
+     * @param token The value returned by the matching {@link #enterClass(Class)}
+     * @return true if nothing generated since entering the class referred back to a class on
+     * the path, so the result is the same wherever the class is used and can be shared
+     */
+    boolean exitClass(Class<?> clazz, int token) {
+        int count = getOccurrences(clazz) - 1;
+        if (count > 0) {
+            occurrences.put(clazz, count);
+        } else {
+            occurrences.remove(clazz);
         }
-        return true;
+        return backReferences == token;
     }
 
-}
-
+    /**
+     * @param clazz The class of a relationship
+     * @return false if the class is already on the path too often and the relationship should
+     * be left out to stop a circular reference
+     */
+    boolean addClass(Class<?> clazz) {
+        int count = getOccurrences(clazz);
+        if (count > 0) {
+            backReferences++;
+        }
+        return count < MAX_OCCURRENCES;
+    }
 
+    private int getOccurrences(Class<?> clazz) {
+        Integer count = occurrences.get(clazz);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,139 @@
+package sdk.converter;
+
+import sdk.data.AttributeMeta;
+import sdk.data.Record;
+import sdk.exceptions.UnableToWriteException;
+import sdk.exceptions.UnsupportedAttributeException;
+import sdk.models.AttributeType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pre-bound copy steps for every annotated member of a model class, in both directions.
+ * <p>
+ * A step is compiled the first time a member is copied as a given {@link AttributeType} and
+ * holds everything that used to be worked out per object: the supported type check, the
+ * optional/float checks and which read or write routine to call. Copying an object is then a
+ * loop over {@link #getFields()} with an array lookup per member.
+ */
+class ConversionPlan {
+    private static final int TYPE_COUNT = AttributeType.values().length;
+
+    /**
+     * Copies one member from a record into an object
+     */
+    interface ObjectStep {
+        void copy(Object destination, Record record, Integer index,
+                  ParserContext parserContext) throws UnsupportedAttributeException,
+                                                      UnableToWriteException,
+                                                      IllegalAccessException,
+                                                      InvocationTargetException;
+    }
+
+    /**
+     * Copies one member from an object into a record
+     */
+    interface RecordStep {
+        void copy(Object source, Record record, int index,
+                  boolean loadRelationshipData) throws UnsupportedAttributeException,
+                                                       IllegalAccessException,
+                                                       InvocationTargetException;
+    }
+
+    interface StepCompiler<S> {
+        S compile(FieldPlan field, AttributeType type);
+    }
+
+    private final FieldPlan[] fields;
+
+    ConversionPlan(ClassMetadata metadata, StepCompiler<ObjectStep> objectStepCompiler,
+                   StepCompiler<RecordStep> recordStepCompiler) {
+        List<AttributeProxy> proxies = metadata.getAttributeProxies();
+        fields = new FieldPlan[proxies.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] =
+                new FieldPlan(metadata, proxies.get(i), objectStepCompiler, recordStepCompiler);
+        }
+    }
+
+    FieldPlan[] getFields() {
+        return fields;
+    }
+
+    static final class FieldPlan {
+        final AttributeProxy proxy;
+        final int index;
+        final boolean isAttribute;
+        final boolean isRelationship;
+        final boolean isPrimaryKey;
+        final boolean isPrimaryValue;
+        final boolean isParentValue;
+        final boolean excludeFromList;
+        final boolean useSetterAndGetter;
+        private final ClassMetadata metadata;
+        private final StepCompiler<ObjectStep> objectStepCompiler;
+        private final StepCompiler<RecordStep> recordStepCompiler;
+        private final AtomicReferenceArray<ObjectStep> objectSteps =
+            new AtomicReferenceArray<>(TYPE_COUNT);
+        private final AtomicReferenceArray<RecordStep> recordSteps =
+            new AtomicReferenceArray<>(TYPE_COUNT);
+
+        private FieldPlan(ClassMetadata metadata, AttributeProxy proxy,
+                          StepCompiler<ObjectStep> objectStepCompiler,
+                          StepCompiler<RecordStep> recordStepCompiler) {
+            this.metadata = metadata;
+            this.proxy = proxy;
+            this.index = proxy.getIndex();
+            this.isAttribute = proxy.isAttribute();
+            this.isRelationship = proxy.isRelationship();
+            this.isPrimaryKey = proxy.isPrimaryKey();
+            this.isPrimaryValue = proxy.isPrimaryValue();
+            this.isParentValue = proxy.isParentValue();
+            this.excludeFromList = proxy.excludeFromList();
+            this.useSetterAndGetter = proxy.useSetterAndGetter();
+            this.objectStepCompiler = objectStepCompiler;
+            this.recordStepCompiler = recordStepCompiler;
+        }
+
+        /**
+         * @return The meta data to use when copying from a record that has none for this index
+         */
+        AttributeMeta getInferredMeta() {
+            return metadata.getInferredMeta(proxy);
+        }
+
+        /**
+         * @return The meta data to use when copying to a record that has none for this index
+         */
+        AttributeMeta getInferredSimpleNameMeta() {
+            return metadata.getInferredSimpleNameMeta(proxy);
+        }
+
+        /**
+         * @return true if the member can hold null, i.e. it isn't a primitive
+         */
+        boolean isOptional() {
+            return TypeManager.inferDataType(proxy.getType().getSimpleName()).isOptional();
+        }
+
+        ObjectStep getObjectStep(AttributeType type) {
+            ObjectStep step = objectSteps.get(type.ordinal());
+            if (step == null) {
+                step = objectStepCompiler.compile(this, type);
+                objectSteps.set(type.ordinal(), step);
+            }
+            return step;
+        }
+
+        RecordStep getRecordStep(AttributeType type) {
+            RecordStep step = recordSteps.get(type.ordinal());
+            if (step == null) {
+                step = recordStepCompiler.compile(this, type);
+                recordSteps.set(type.ordinal(), step);
+            }
+            return step;
+        }
+    }
+}
@@ -3,6 +3,9 @@ package sdk.converter;
 import org.joda.time.DateTime;
 import play.Logger;
 import sdk.annotations.*;
+import sdk.converter.ConversionPlan.FieldPlan;
+import sdk.converter.ConversionPlan.ObjectStep;
+import sdk.converter.ConversionPlan.RecordStep;
 import sdk.converter.attachment.ApptreeAttachment;
 import sdk.data.*;
 import sdk.exceptions.DestinationInvalidException;
@@ -25,7 +28,6 @@ import static sdk.utils.ClassUtils.Null;
  * Created by Orozco on 7/19/17.
  */
 public class ObjectConverter extends ConfigurationManager {
-    private static ParserContext parserContext;
 
 
     public ObjectConverter() {
@@ -41,6 +43,9 @@ public class ObjectConverter extends ConfigurationManager {
 
 
     /**
+     * Collections at or above the configured threshold are converted in parallel, see
+     * {@link #setParallelConversionThreshold(int)}. Items keep the collection's order either way.
+     *
      * @param objects
      * @param attributes
      * @param <T>
@@ -48,19 +53,7 @@ public class ObjectConverter extends ConfigurationManager {
      */
     public static <T> DataSet getDataSetFromCollection(Collection<T> objects,
                                                        Collection<ServiceConfigurationAttribute> attributes) {
-        DataSet dataSet = new DataSet(attributes);
-        for (T object : objects) {
-            DataSetItem dataSetItem = dataSet.addNewDataSetItem();
-            copyToRecord(dataSetItem, object);
-        }
-
-        if (objects instanceof PagedCollection) {
-            int totalRecords = ((PagedCollection) objects).getTotalAvailableRecords();
-            int pageSize = ((PagedCollection) objects).getPageSize();
-            dataSet.setTotalRecords(totalRecords);
-            dataSet.setMoreRecordsAvailable(totalRecords > pageSize);
-        }
-        return dataSet;
+        return getDataSetFromCollection(objects, attributes, null);
     }
 
     /**
@@ -74,9 +67,13 @@ public class ObjectConverter extends ConfigurationManager {
                                                        Collection<ServiceConfigurationAttribute> attributes,
                                                        List<Integer> relationshipsToLoad) {
         DataSet dataSet = new DataSet(attributes);
-        for (T object : objects) {
-            DataSetItem dataSetItem = dataSet.addNewDataSetItem();
-            copyToRecord(dataSetItem, object, relationshipsToLoad);
+        if (ParallelConversion.shouldRunInParallel(objects.size())) {
+            copyCollectionInParallel(dataSet, objects, relationshipsToLoad);
+        } else {
+            for (T object : objects) {
+                DataSetItem dataSetItem = dataSet.addNewDataSetItem();
+                copyToRecord(dataSetItem, object, relationshipsToLoad);
+            }
         }
 
         if (objects instanceof PagedCollection) {
@@ -88,6 +85,49 @@ public class ObjectConverter extends ConfigurationManager {
         return dataSet;
     }
 
+    /**
+     * The data set items are added up front in collection order, then filled in chunks on the
+     * converter pool. Each item is only ever touched by the chunk that owns its index.
+     *
+     * @param dataSet
+     * @param objects
+     * @param relationshipsToLoad
+     * @param <T>
+     */
+    private static <T> void copyCollectionInParallel(DataSet dataSet, Collection<T> objects,
+                                                     List<Integer> relationshipsToLoad) {
+        List<T> sources = new ArrayList<>(objects);
+        List<DataSetItem> items = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            items.add(dataSet.addNewDataSetItem());
+        }
+        ParallelConversion.forEachChunk(sources.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                copyToRecord(items.get(i), sources.get(i), relationshipsToLoad);
+            }
+        });
+    }
+
+    /**
+     * Sets the collection size at which getDataSetFromCollection converts in parallel.
+     * Overrides apptree.converter.parallelThreshold, 0 or less turns parallel conversion off
+     *
+     * @param threshold
+     */
+    public static void setParallelConversionThreshold(int threshold) {
+        ParallelConversion.setThreshold(threshold);
+    }
+
+    /**
+     * Sets the number of threads used for parallel conversion.
+     * Overrides apptree.converter.parallelism, 0 or less goes back to the configured value
+     *
+     * @param parallelism
+     */
+    public static void setParallelConversionParallelism(int parallelism) {
+        ParallelConversion.setParallelism(parallelism);
+    }
+
 
     public static <T> ParserContext copyFromRecord(Record record, T destination, boolean isSearchForm){
         return copyFromRecord(record, destination, isSearchForm, null);
@@ -110,26 +150,25 @@ public class ObjectConverter extends ConfigurationManager {
             parserContext = getParserContext();
         }
         parserContext.setSearchForm(isSearchForm);
-        mapMethodsFromSource(destination);
         if (destination == null) {
             throw new DestinationInvalidException();
         }
         if (record.supportsCRUDStatus()) {
             parserContext.setItemStatus(destination, record.getCRUDStatus());
         }
-        for (AttributeProxy proxy : getMethodAndFieldAnnotationsForClass(destination.getClass())) {
+        for (FieldPlan field : getConversionPlan(destination.getClass()).getFields()) {
             try {
 
-                copyToField(proxy, record, destination, parserContext);
+                copyToField(field, record, destination, parserContext);
                 //if the dataSetItem is coming from a search form the values in the primary key/value
                 // will always be null.
                 //If NOT coming from a search form we want the given primary key/value values to
                 //always over write what was copied in the object copy because primary key/value shoudl not be editable
                 if (!isSearchForm) {
-                    if (proxy.isPrimaryKey())
-                        proxy.setPrimaryKeyOrValue(destination, record.getPrimaryKey());
-                    if (proxy.isPrimaryValue())
-                        proxy.setPrimaryKeyOrValue(destination, record.getValue());
+                    if (field.isPrimaryKey)
+                        field.proxy.setPrimaryKeyOrValue(destination, record.getPrimaryKey());
+                    if (field.isPrimaryValue)
+                        field.proxy.setPrimaryKeyOrValue(destination, record.getValue());
                 }
             } catch (UnsupportedAttributeException | IllegalAccessException | UnableToWriteException | InvocationTargetException e) {
                 e.printStackTrace();
@@ -151,11 +190,9 @@ public class ObjectConverter extends ConfigurationManager {
      */
     public static <T> void copyToRecord(Record record, T source) {
         if (source == null) return;
-        mapMethodsFromSource(source);
-        for (AttributeProxy attributeProxy : getMethodAndFieldAnnotationsForClass(
-            source.getClass())) {
+        for (FieldPlan field : getConversionPlan(source.getClass()).getFields()) {
             try {
-                copyFromField(attributeProxy, record, source);
+                copyFromField(field, record, source, false);
             } catch (UnsupportedAttributeException | IllegalAccessException | InvocationTargetException e) {
                 e.printStackTrace();
             }
@@ -171,14 +208,14 @@ public class ObjectConverter extends ConfigurationManager {
     public static <T> void copyToRecord(Record record, T source,
                                         List<Integer> loadRelationshipIndexes) {
         if (source == null) return;
+        if (loadRelationshipIndexes == null || loadRelationshipIndexes.isEmpty()) {
+            copyToRecord(record, source);
+            return;
+        }
         Set<Integer> relationshipsToLoad = new HashSet<>(loadRelationshipIndexes);
-        mapMethodsFromSource(source);
-        for (AttributeProxy attributeProxy : getMethodAndFieldAnnotationsForClass(
-            source.getClass())) {
+        for (FieldPlan field : getConversionPlan(source.getClass()).getFields()) {
             try {
-                attributeProxy.setLoadRelationshipData(
-                    relationshipsToLoad.contains(attributeProxy.getIndex()));
-                copyFromField(attributeProxy, record, source);
+                copyFromField(field, record, source, relationshipsToLoad.contains(field.index));
             } catch (UnsupportedAttributeException | IllegalAccessException | InvocationTargetException e) {
                 e.printStackTrace();
             }
@@ -186,7 +223,22 @@ public class ObjectConverter extends ConfigurationManager {
     }
 
     /**
-     * @param proxy
+     * @param clazz
+     * @return The conversion plan for a class, compiling it on first use
+     */
+    private static ConversionPlan getConversionPlan(Class<?> clazz) {
+        ClassMetadata metadata = getClassMetadata(clazz);
+        ConversionPlan plan = metadata.getConversionPlan();
+        if (plan == null) {
+            plan = new ConversionPlan(metadata, ObjectConverter::compileObjectStep,
+                                      ObjectConverter::compileRecordStep);
+            metadata.setConversionPlan(plan);
+        }
+        return plan;
+    }
+
+    /**
+     * @param field
      * @param record
      * @param destination
      * @param <T>
@@ -195,234 +247,209 @@ public class ObjectConverter extends ConfigurationManager {
      * @throws UnableToWriteException
      * @throws InvocationTargetException
      */
-    private static <T> void copyToField(AttributeProxy proxy, Record record, T destination,
+    private static <T> void copyToField(FieldPlan field, Record record, T destination,
                                         ParserContext parserContext) throws
                                                                      UnsupportedAttributeException,
                                                                      IllegalAccessException,
                                                                      UnableToWriteException,
                                                                      InvocationTargetException {
-        if (!proxy.isAttribute() && !proxy.isRelationship()) {
+        if (!field.isAttribute && !field.isRelationship) {
             return;
         }
-        if (record.isListItem() && proxy.excludeFromList()) return;
+        if (record.isListItem() && field.excludeFromList) return;
 
-        int index = proxy.getIndex();
-        Class fieldClass = proxy.getType();
-        AttributeMeta attributeMeta = record.getAttributeMeta(index);
-        boolean userSetterAndGetter = proxy.useSetterAndGetter();
+        AttributeMeta attributeMeta = record.getAttributeMeta(field.index);
         if (attributeMeta == null) {
-            attributeMeta = inferMetaData(index, fieldClass);
+            attributeMeta = field.getInferredMeta();
         }
-        if (!isFieldClassSupportedForType(fieldClass, attributeMeta.getAttributeType())) {
-            throw new UnsupportedAttributeException(fieldClass, attributeMeta.getAttributeType());
-        }
-        readDataSetItemData(proxy, attributeMeta, destination, record, userSetterAndGetter,
-                            parserContext);
+        field.getObjectStep(attributeMeta.getAttributeType())
+             .copy(destination, record, attributeMeta.getAttributeIndex(), parserContext);
     }
 
     /**
-     * @param attributeProxy
+     * @param field
      * @param record
      * @param source
+     * @param loadRelationshipData
      * @param <T>
      * @throws UnsupportedAttributeException
      * @throws IllegalAccessException
      * @throws InvocationTargetException
      */
-    private static <T> void copyFromField(AttributeProxy attributeProxy, Record record,
-                                          T source) throws UnsupportedAttributeException,
-                                                           IllegalAccessException,
-                                                           InvocationTargetException {
-
-        if (record.isListItem() && attributeProxy.excludeFromList()) return;
+    private static <T> void copyFromField(FieldPlan field, Record record, T source,
+                                          boolean loadRelationshipData) throws
+                                                                        UnsupportedAttributeException,
+                                                                        IllegalAccessException,
+                                                                        InvocationTargetException {
 
-        boolean primaryKey = attributeProxy.isPrimaryKey();
-        boolean value = attributeProxy.isPrimaryValue();
-        boolean parentValue = attributeProxy.isParentValue();
+        if (record.isListItem() && field.excludeFromList) return;
 
-        if (primaryKey) {
-            Object val = useGetterIfExists(attributeProxy, source);
+        if (field.isPrimaryKey) {
+            Object val = useGetterIfExists(field.proxy, source);
             if (val == null) throw new RuntimeException(
                 "Primary key is null on " + source.getClass().getSimpleName());
             record.setPrimaryKey(val.toString());
             if (record.getValue() == null) record.setValue(val.toString());
-            if (!attributeProxy.isAttribute()) return;
+            if (!field.isAttribute) return;
         }
 
-        int index = attributeProxy.getIndex();
-        Class fieldClass = attributeProxy.getType();
-        boolean useGetterAndSetter = attributeProxy.useSetterAndGetter();
-        AttributeMeta attributeMeta = record.getAttributeMeta(index);
+        AttributeMeta attributeMeta = record.getAttributeMeta(field.index);
         if (attributeMeta == null) {
-            attributeMeta = new AttributeMeta(
-                inferDataType(attributeProxy.getType().getSimpleName()).getAttributeType(), index);
+            attributeMeta = field.getInferredSimpleNameMeta();
         }
-        if (!isFieldClassSupportedForType(fieldClass, attributeMeta.getAttributeType())) {
-            throw new UnsupportedAttributeException(fieldClass, attributeMeta.getAttributeType());
-        }
-        readObjectData(attributeProxy, attributeMeta, source, record, primaryKey,
-                       useGetterAndSetter, value, parentValue);
+        field.getRecordStep(attributeMeta.getAttributeType())
+             .copy(source, record, attributeMeta.getAttributeIndex(), loadRelationshipData);
     }
 
     /**
-     * @param proxy
-     * @param attributeMeta
-     * @param destination
-     * @param dataSetItem
-     * @param useSetterAndGetter
-     * @param <T>
-     * @throws UnableToWriteException
-     * @throws InvocationTargetException
+     * Binds the routine that copies a record value of the given type into the field
+     *
+     * @param field
+     * @param type
+     * @return
      */
-    private static <T> void readDataSetItemData(AttributeProxy proxy, AttributeMeta attributeMeta,
-                                                T destination, Record dataSetItem,
-                                                boolean useSetterAndGetter,
-                                                ParserContext parserContext) throws
-                                                                             UnableToWriteException,
-                                                                             InvocationTargetException {
-        switch (attributeMeta.getAttributeType()) {
-            case String:
-                writeStringData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex(),
-                                useSetterAndGetter);
-                break;
-            case Int:
-                writeIntegerData(proxy, destination, dataSetItem,
-                                 attributeMeta.getAttributeIndex());
-                break;
-            case Double:
-                writeDoubleData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex());
-                break;
-            case Boolean:
-                writeBoolData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex());
-                break;
+    private static ObjectStep compileObjectStep(FieldPlan field, AttributeType type) {
+        AttributeProxy proxy = field.proxy;
+        Class fieldClass = proxy.getType();
+        if (!isFieldClassSupportedForType(fieldClass, type)) {
+            return (destination, record, index, parserContext) -> {
+                throw new UnsupportedAttributeException(fieldClass, type);
+            };
+        }
+        boolean useSetterAndGetter = field.useSetterAndGetter;
+        switch (type) {
+            case Int: {
+                boolean optional = field.isOptional();
+                return (destination, record, index, parserContext) ->
+                    writeIntegerData(proxy, destination, record, index, optional);
+            }
+            case Double: {
+                boolean optional = field.isOptional();
+                boolean isFloatValue = fieldIsFloat(fieldClass);
+                return (destination, record, index, parserContext) ->
+                    writeDoubleData(proxy, destination, record, index, optional, isFloatValue);
+            }
+            case Boolean: {
+                boolean optional = field.isOptional();
+                return (destination, record, index, parserContext) ->
+                    writeBoolData(proxy, destination, record, index, optional);
+            }
             case Date:
-                writeDateData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex(),
-                              parserContext);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeDateData(proxy, destination, record, index, parserContext);
             case DateTime:
-                writeDateTimeData(proxy, destination, dataSetItem,
-                                  attributeMeta.getAttributeIndex(), parserContext);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeDateTimeData(proxy, destination, record, index, parserContext);
             case ListItem:
-                writeListItemData(proxy, destination, dataSetItem,
-                                  attributeMeta.getAttributeIndex(), parserContext);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeListItemData(proxy, destination, record, index, parserContext);
             case SingleRelationship:
-                writeSingleRelationshipData(proxy, destination, dataSetItem,
-                                            attributeMeta.getAttributeIndex(), parserContext);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeSingleRelationshipData(proxy, destination, record, index, parserContext);
             case Relation:
-                writeRelationshipData(proxy, destination, dataSetItem,
-                                      attributeMeta.getAttributeIndex(), parserContext);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeRelationshipData(proxy, destination, record, index, parserContext);
             case Attachments:
-                writeAttachmentData(proxy, destination, dataSetItem,
-                                    attributeMeta.getAttributeIndex(), parserContext);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeAttachmentData(proxy, destination, record, index, parserContext);
             case Location:
-                routeWriteLocationData(proxy, destination, dataSetItem,
-                                       attributeMeta.getAttributeIndex());
-                break;
+                return (destination, record, index, parserContext) ->
+                    routeWriteLocationData(proxy, destination, record, index);
             case Color:
-                writeColorData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex());
-                break;
-            case TimeInterval:
-                writeTimeIntervalData(proxy, destination, dataSetItem,
-                                      attributeMeta.getAttributeIndex());
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeColorData(proxy, destination, record, index);
+            case TimeInterval: {
+                boolean optional = field.isOptional();
+                return (destination, record, index, parserContext) ->
+                    writeTimeIntervalData(proxy, destination, record, index, optional);
+            }
             case Image:
-                writeImageData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex());
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeImageData(proxy, destination, record, index);
+            case String:
             default:
-                writeStringData(proxy, destination, dataSetItem, attributeMeta.getAttributeIndex(),
-                                useSetterAndGetter);
-                break;
+                return (destination, record, index, parserContext) ->
+                    writeStringData(proxy, destination, record, index, useSetterAndGetter);
         }
     }
 
     /**
-     * @param attributeProxy
-     * @param attributeMeta
-     * @param object
-     * @param dataSetItem
-     * @param primaryKey
-     * @param useGetterAndSetter
-     * @param value
-     * @param <T>
-     * @throws IllegalAccessException
-     * @throws InvocationTargetException
+     * Binds the routine that copies the field into a record value of the given type
+     *
+     * @param field
+     * @param type
+     * @return
      */
-    private static <T> void readObjectData(AttributeProxy attributeProxy,
-                                           AttributeMeta attributeMeta, T object,
-                                           Record dataSetItem, boolean primaryKey,
-                                           boolean useGetterAndSetter, boolean value,
-                                           boolean parentValue) throws IllegalAccessException,
-                                                                       InvocationTargetException {
-        switch (attributeMeta.getAttributeType()) {
+    private static RecordStep compileRecordStep(FieldPlan field, AttributeType type) {
+        AttributeProxy proxy = field.proxy;
+        Class fieldClass = proxy.getType();
+        if (!isFieldClassSupportedForType(fieldClass, type)) {
+            return (source, record, index, loadRelationshipData) -> {
+                throw new UnsupportedAttributeException(fieldClass, type);
+            };
+        }
+        boolean primaryKey = field.isPrimaryKey;
+        boolean value = field.isPrimaryValue;
+        boolean parentValue = field.isParentValue;
+        boolean useGetterAndSetter = field.useSetterAndGetter;
+        switch (type) {
             case String:
-                readStringData(attributeProxy, object, dataSetItem,
-                               attributeMeta.getAttributeIndex(), primaryKey, useGetterAndSetter,
-                               value, parentValue);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readStringData(proxy, source, record, index, primaryKey, useGetterAndSetter,
+                                   value, parentValue);
             case Int:
-                readIntegerData(attributeProxy, object, dataSetItem,
-                                attributeMeta.getAttributeIndex(), primaryKey, useGetterAndSetter,
-                                value, parentValue);
-                break;
-            case Double:
-                readDoubleData(attributeProxy, object, dataSetItem,
-                               attributeMeta.getAttributeIndex(), primaryKey, useGetterAndSetter,
-                               value);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readIntegerData(proxy, source, record, index, primaryKey, useGetterAndSetter,
+                                    value, parentValue);
+            case Double: {
+                String fieldName = proxy.getDataTypeName();
+                boolean isFloatValue = fieldName.contains("Float") || fieldName.contains("float");
+                return (source, record, index, loadRelationshipData) ->
+                    readDoubleData(proxy, source, record, index, primaryKey, useGetterAndSetter,
+                                   value, isFloatValue);
+            }
             case Boolean:
-                readBoolData(attributeProxy, object, dataSetItem, attributeMeta.getAttributeIndex(),
-                             primaryKey, useGetterAndSetter, value);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readBoolData(proxy, source, record, index, primaryKey, useGetterAndSetter,
+                                 value);
             case Date:
-                readDateData(attributeProxy, object, dataSetItem, attributeMeta.getAttributeIndex(),
-                             primaryKey, useGetterAndSetter, value);
-                break;
-            case DateTime:
-                readDateTimeData(attributeProxy, object, dataSetItem,
-                                 attributeMeta.getAttributeIndex(), primaryKey, useGetterAndSetter,
+                return (source, record, index, loadRelationshipData) ->
+                    readDateData(proxy, source, record, index, primaryKey, useGetterAndSetter,
                                  value);
-                break;
+            case DateTime:
+                return (source, record, index, loadRelationshipData) ->
+                    readDateTimeData(proxy, source, record, index, primaryKey,
+                                     useGetterAndSetter, value);
             case ListItem:
-                readListItemData(attributeProxy, object, dataSetItem,
-                                 attributeMeta.getAttributeIndex(), useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readListItemData(proxy, source, record, index, useGetterAndSetter);
             case Relation:
-                readRelationshipData(attributeProxy, object, dataSetItem,
-                                     attributeMeta.getAttributeIndex(), useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readRelationshipData(proxy, source, record, index, useGetterAndSetter,
+                                         loadRelationshipData);
             case SingleRelationship:
-                readSingleRelationshipData(attributeProxy, object, dataSetItem,
-                                           attributeMeta.getAttributeIndex(), useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readSingleRelationshipData(proxy, source, record, index, useGetterAndSetter);
             case Attachments:
-                readAttachmentData(attributeProxy, object, dataSetItem,
-                                   attributeMeta.getAttributeIndex(), useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readAttachmentData(proxy, source, record, index, useGetterAndSetter);
             case Location:
-                readLocationData(attributeProxy, object, dataSetItem,
-                                 attributeMeta.getAttributeIndex(), primaryKey, useGetterAndSetter,
-                                 value);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readLocationData(proxy, source, record, index, primaryKey, useGetterAndSetter,
+                                     value);
             case TimeInterval:
-                readTimeIntervalData(attributeProxy, object, dataSetItem,
-                                     attributeMeta.getAttributeIndex(), primaryKey,
-                                     useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readTimeIntervalData(proxy, source, record, index, primaryKey,
+                                         useGetterAndSetter);
             case Color:
-                readColorData(attributeProxy, object, dataSetItem,
-                              attributeMeta.getAttributeIndex(), useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readColorData(proxy, source, record, index, useGetterAndSetter);
             case Image:
-                readImageData(attributeProxy, object, dataSetItem,
-                              attributeMeta.getAttributeIndex(), primaryKey, useGetterAndSetter);
-                break;
+                return (source, record, index, loadRelationshipData) ->
+                    readImageData(proxy, source, record, index, primaryKey, useGetterAndSetter);
             default:
-                break;
+                return (source, record, index, loadRelationshipData) -> {
+                };
         }
     }
 
@@ -450,17 +477,15 @@ public class ObjectConverter extends ConfigurationManager {
     }
 
     private static <T> void writeIntegerData(AttributeProxy proxy, T destination,
-                                             Record dataSetItem, Integer index) throws
-                                                                                UnableToWriteException {
+                                             Record dataSetItem, Integer index,
+                                             boolean optional) throws UnableToWriteException {
         Optional<Integer> value = dataSetItem.getOptionalInt(index);
         Integer intValue = 0;
         try {
             if (value.isPresent()) {
                 intValue = value.get();
             } else {
-                ConverterAttributeType converterAttributeType =
-                    inferDataType(proxy.getType().getSimpleName());
-                intValue = (converterAttributeType.isOptional()) ? null : 0;
+                intValue = optional ? null : 0;
             }
             useSetterIfExists(proxy, destination, intValue);
         } catch (IllegalAccessException e) {
@@ -473,17 +498,15 @@ public class ObjectConverter extends ConfigurationManager {
 
 
     private static <T> void writeTimeIntervalData(AttributeProxy proxy, T destination,
-                                                  Record record, Integer index) throws
-                                                                                UnableToWriteException {
+                                                  Record record, Integer index,
+                                                  boolean optional) throws UnableToWriteException {
         Optional<Long> value = record.getOptionalTimeInterval(index);
         Long longValue = 0L;
         try {
             if (value.isPresent()) {
                 longValue = value.get();
             } else {
-                ConverterAttributeType converterAttributeType =
-                    inferDataType(proxy.getType().getSimpleName());
-                longValue = (converterAttributeType.isOptional()) ? null : 0L;
+                longValue = optional ? null : 0L;
             }
             useSetterIfExists(proxy, destination, longValue);
         } catch (IllegalAccessException | InvocationTargetException e) {
@@ -498,15 +521,17 @@ public class ObjectConverter extends ConfigurationManager {
      * @param destination
      * @param dataSetItem
      * @param index
+     * @param optional
+     * @param isFloatValue
      * @param <T>
      * @throws UnableToWriteException
      * @throws InvocationTargetException
      */
     private static <T> void writeDoubleData(AttributeProxy proxy, T destination, Record dataSetItem,
-                                            Integer index) throws UnableToWriteException,
-                                                                  InvocationTargetException {
+                                            Integer index, boolean optional,
+                                            boolean isFloatValue) throws UnableToWriteException,
+                                                                         InvocationTargetException {
         Optional<Double> value = dataSetItem.getOptionalDouble(index);
-        boolean isFloatValue = fieldIsFloat(proxy.getType());
         try {
             if (value.isPresent()) {
                 if (isFloatValue) {
@@ -516,9 +541,7 @@ public class ObjectConverter extends ConfigurationManager {
                 }
 
             } else {
-                ConverterAttributeType converterAttributeType =
-                    inferDataType(proxy.getType().getSimpleName());
-                if (converterAttributeType.isOptional()) {
+                if (optional) {
                     useSetterIfExists(proxy, destination, null);
                 } else {
                     if (isFloatValue)
@@ -537,22 +560,21 @@ public class ObjectConverter extends ConfigurationManager {
      * @param destination
      * @param dataSetItem
      * @param index
+     * @param optional
      * @param <T>
      * @throws UnableToWriteException
      * @throws InvocationTargetException
      */
     private static <T> void writeBoolData(AttributeProxy proxy, T destination, Record dataSetItem,
-                                          Integer index) throws UnableToWriteException,
-                                                                InvocationTargetException {
+                                          Integer index, boolean optional) throws
+                                                                           UnableToWriteException,
+                                                                           InvocationTargetException {
         Optional<Boolean> value = dataSetItem.getOptionalBoolean(index);
         try {
             if (value.isPresent()) {
                 useSetterIfExists(proxy, destination, value.get());
             } else {
-                ConverterAttributeType converterAttributeType =
-                    inferDataType(proxy.getType().getSimpleName());
-                useSetterIfExists(proxy, destination,
-                                  (converterAttributeType.isOptional()) ? null : false);
+                useSetterIfExists(proxy, destination, optional ? null : false);
             }
         } catch (IllegalAccessException e) {
             throw new UnableToWriteException(proxy.getType().getName(), index,
@@ -945,6 +967,14 @@ public class ObjectConverter extends ConfigurationManager {
                                             boolean useGetterAndSetter, boolean value,
                                             boolean parent) throws IllegalAccessException,
                                                                    InvocationTargetException {
+        if (!useGetterAndSetter && attributeProxy.getType() == int.class) {
+            int intValue = attributeProxy.getIntValue(object);
+            record.setInt(intValue, index);
+            if (parent || value || primaryKey) {
+                setKeyValues(record, Integer.toString(intValue), parent, value, primaryKey);
+            }
+            return;
+        }
         Integer fieldData;
         if (useGetterAndSetter) {
             fieldData = (Integer) useGetterIfExists(attributeProxy, object);
@@ -966,6 +996,31 @@ public class ObjectConverter extends ConfigurationManager {
         }
     }
 
+    /**
+     * Sets the parent value, value and primary key of a record from an attribute's string form
+     *
+     * @param record
+     * @param fieldData
+     * @param parent
+     * @param value
+     * @param primaryKey
+     */
+    private static void setKeyValues(Record record, String fieldData, boolean parent,
+                                     boolean value, boolean primaryKey) {
+        if (parent) {
+            record.setParentValue(fieldData);
+        }
+        if (value) {
+            record.setValue(fieldData);
+        }
+        if (primaryKey) {
+            record.setPrimaryKey(fieldData);
+            if (!record.isValueSet()) {
+                record.setValue(fieldData);
+            }
+        }
+    }
+
     /**
      * @param attributeProxy
      * @param object
@@ -974,18 +1029,26 @@ public class ObjectConverter extends ConfigurationManager {
      * @param primaryKey
      * @param useGetterAndSetter
      * @param value
+     * @param isFloatValue
      * @param <T>
      * @throws IllegalAccessException
      * @throws InvocationTargetException
      */
     private static <T> void readDoubleData(AttributeProxy attributeProxy, T object, Record record,
                                            int index, boolean primaryKey,
-                                           boolean useGetterAndSetter, boolean value) throws
-                                                                                      IllegalAccessException,
-                                                                                      InvocationTargetException {
-        String fieldName = attributeProxy.getDataTypeName();
+                                           boolean useGetterAndSetter, boolean value,
+                                           boolean isFloatValue) throws IllegalAccessException,
+                                                                        InvocationTargetException {
+        if (!useGetterAndSetter && attributeProxy.getType() == double.class) {
+            double doubleValue = attributeProxy.getDoubleValue(object);
+            record.setDouble(doubleValue, index);
+            if (value || primaryKey) {
+                setKeyValues(record, Double.toString(doubleValue), false, value, primaryKey);
+            }
+            return;
+        }
         Double fieldData;
-        if (fieldName.contains("Float") || fieldName.contains("float")) {
+        if (isFloatValue) {
             Float floatValue;
             if (useGetterAndSetter) {
                 floatValue = (Float) useGetterIfExists(attributeProxy, object);
@@ -1030,6 +1093,14 @@ public class ObjectConverter extends ConfigurationManager {
                                          int index, boolean primaryKey, boolean useGetterAndSetter,
                                          boolean value) throws IllegalAccessException,
                                                                InvocationTargetException {
+        if (!useGetterAndSetter && attributeProxy.getType() == boolean.class) {
+            boolean boolValue = attributeProxy.getBooleanValue(object);
+            record.setBool(boolValue, index);
+            if (value || primaryKey) {
+                setKeyValues(record, Boolean.toString(boolValue), false, value, primaryKey);
+            }
+            return;
+        }
         Boolean fieldData;
         if (useGetterAndSetter) {
             fieldData = (Boolean) useGetterIfExists(attributeProxy, object);
@@ -1306,19 +1377,20 @@ public class ObjectConverter extends ConfigurationManager {
      * @param dataSetItem
      * @param index
      * @param useGetterAndSetter
+     * @param loadRelationshipData
      * @param <T>
      * @throws IllegalAccessException
      * @throws InvocationTargetException
      */
     private static <T> void readRelationshipData(AttributeProxy attributeProxy, T object,
                                                  Record dataSetItem, int index,
-                                                 boolean useGetterAndSetter) throws
+                                                 boolean useGetterAndSetter,
+                                                 boolean loadRelationshipData) throws
                                                                              IllegalAccessException,
                                                                              InvocationTargetException {
         List<Object> relationship;
         if (attributeProxy.useLazyLoad()) dataSetItem.useLazyLoad(index);
-        if (attributeProxy.loadRelationshipData() ||
-            attributeProxy.getRelationshipAnnotation().eager()) {
+        if (loadRelationshipData || attributeProxy.getRelationshipAnnotation().eager()) {
             if (useGetterAndSetter) {
                 relationship = (List<Object>) useGetterIfExists(attributeProxy, object);
             } else relationship = (List<Object>) attributeProxy.getValue(object);
@@ -0,0 +1,131 @@
+package sdk.converter;
+
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits large conversions into chunks run on a dedicated, bounded ForkJoinPool.
+ * <p>
+ * The threshold and pool size are read from application.conf
+ * ({@value Constants#ParallelConversionThresholdKey} and
+ * {@value Constants#ParallelConversionParallelismKey}) the first time they are needed.
+ * A threshold of 0 or less turns parallel conversion off.
+ */
+class ParallelConversion {
+    private static final int DEFAULT_THRESHOLD = 2000;
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private static volatile Integer threshold;
+    private static volatile int parallelism;
+    private static volatile ForkJoinPool pool;
+
+    interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * @param size
+     * @return true if a collection of this size should be converted in parallel
+     */
+    static boolean shouldRunInParallel(int size) {
+        int currentThreshold = getThreshold();
+        return currentThreshold > 0 && size >= currentThreshold && getParallelism() > 1;
+    }
+
+    /**
+     * Runs the task over [0, size) in chunks and waits for all of them to finish.
+     * Each index is handed to exactly one chunk.
+     *
+     * @param size
+     * @param task
+     */
+    static void forEachChunk(int size, RangeTask task) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (getParallelism() * 4));
+        getPool().invoke(new ChunkAction(0, size, chunkSize, task));
+    }
+
+    static void setThreshold(int newThreshold) {
+        threshold = newThreshold;
+    }
+
+    /**
+     * The next conversion starts a pool of the new size. The old pool is not shut down, since
+     * conversions may still be running on it. Its idle threads stop on their own.
+     *
+     * @param newParallelism 0 or less to read the configured value again
+     */
+    static synchronized void setParallelism(int newParallelism) {
+        parallelism = Math.max(0, newParallelism);
+        pool = null;
+    }
+
+    private static int getThreshold() {
+        Integer currentThreshold = threshold;
+        if (currentThreshold == null) {
+            currentThreshold = ConfigUtils.getInt(Constants.ParallelConversionThresholdKey,
+                                             DEFAULT_THRESHOLD);
+            threshold = currentThreshold;
+        }
+        return currentThreshold;
+    }
+
+    private static int getParallelism() {
+        if (parallelism <= 0) {
+            parallelism = Math.max(1, ConfigUtils.getInt(Constants.ParallelConversionParallelismKey,
+                                                    Runtime.getRuntime().availableProcessors()));
+        }
+        return parallelism;
+    }
+
+    private static ForkJoinPool getPool() {
+        ForkJoinPool currentPool = pool;
+        if (currentPool == null) {
+            synchronized (ParallelConversion.class) {
+                currentPool = pool;
+                if (currentPool == null) {
+                    currentPool = new ForkJoinPool(getParallelism(), ParallelConversion::newThread,
+                                                   null, false);
+                    pool = currentPool;
+                }
+            }
+        }
+        return currentPool;
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool forkJoinPool) {
+        ForkJoinWorkerThread thread =
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+        thread.setName("apptree-converter-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class ChunkAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final RangeTask task;
+
+        ChunkAction(int from, int to, int chunkSize, RangeTask task) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                task.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, middle, chunkSize, task),
+                      new ChunkAction(middle, to, chunkSize, task));
+        }
+    }
+}
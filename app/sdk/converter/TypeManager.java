@@ -13,6 +13,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -21,7 +22,8 @@ import java.util.stream.Collectors;
  */
 public class TypeManager {
     private final static Map<AttributeType, List<Class>> supportedTypeMap;
-    private static Map<String, Map<String, Method>> methodMap;
+    private static volatile Map<String, Map<String, Method>> methodMap;
+    private static volatile ClassValue<ClassMetadata> classMetadata = newClassMetadataRegistry();
 
     /**
      *  Static map containing AttributeType -> Class supported types
@@ -165,25 +167,85 @@ public class TypeManager {
     /**
      * @param sourceObject
      * @param <T>
+     * @deprecated methods are resolved through the class metadata, see {@link #getClassMetadata(Class)}
      */
+    @Deprecated
     protected static <T> void mapMethodsFromSource(T sourceObject) {
         if (sourceObject == null) return;
-        String className = sourceObject.getClass().getName();
-        Map<String, Method> methodMap =
-            Arrays.stream(sourceObject.getClass().getDeclaredMethods()).distinct().collect(
-                Collectors.toMap(method -> method.getName().toLowerCase(), method -> method,
-                                 ((method, method2) -> method)));
-        getMethodMap().put(className, methodMap);
+        Class<?> clazz = sourceObject.getClass();
+        getMethodMap().computeIfAbsent(clazz.getName(), name -> getClassMetadata(clazz).getMethods());
     }
 
     /**
+     * The metadata lives in a ClassValue so it is built once per class, read without locking,
+     * and goes away with the class when its class loader is unloaded (e.g. a dev mode reload)
+     *
      * @return
      */
+    private static ClassValue<ClassMetadata> newClassMetadataRegistry() {
+        return new ClassValue<ClassMetadata>() {
+            @Override
+            protected ClassMetadata computeValue(Class<?> type) {
+                return new ClassMetadata(type);
+            }
+        };
+    }
+
+    /**
+     * Returns the cached reflection metadata for a class, building it on first use
+     *
+     * @param clazz
+     * @return
+     */
+    protected static ClassMetadata getClassMetadata(Class<?> clazz) {
+        return classMetadata.get(clazz);
+    }
+
+    /**
+     * @param clazz
+     * @return The cached attribute proxies for a class
+     */
+    protected static List<AttributeProxy> getAttributeProxiesForClass(Class<?> clazz) {
+        return getClassMetadata(clazz).getAttributeProxies();
+    }
+
+    /**
+     * Drops the cached metadata for a class so it is rebuilt on next use
+     *
+     * @param clazz
+     */
+    public static void invalidateClassMetadata(Class<?> clazz) {
+        classMetadata.remove(clazz);
+        Map<String, Map<String, Method>> methods = methodMap;
+        if (methods != null) methods.remove(clazz.getName());
+    }
+
+    /**
+     * Drops all cached class metadata. Called when the application is reloaded in dev mode
+     */
+    public static void clearClassMetadata() {
+        classMetadata = newClassMetadataRegistry();
+        Map<String, Map<String, Method>> methods = methodMap;
+        if (methods != null) methods.clear();
+    }
+
+    /**
+     * @return declared methods keyed by class name and then lower cased method name
+     * @deprecated methods are resolved through the class metadata, see {@link #getClassMetadata(Class)}
+     */
+    @Deprecated
     public static Map<String, Map<String, Method>> getMethodMap() {
-        if (methodMap == null) {
-            methodMap = new HashMap<>();
+        Map<String, Map<String, Method>> methods = methodMap;
+        if (methods == null) {
+            synchronized (TypeManager.class) {
+                methods = methodMap;
+                if (methods == null) {
+                    methods = new ConcurrentHashMap<>();
+                    methodMap = methods;
+                }
+            }
         }
-        return methodMap;
+        return methods;
     }
 
     /**
@@ -195,9 +257,11 @@ public class TypeManager {
 
     /**
      * @param tempMethodMap
+     * @deprecated methods are resolved through the class metadata, see {@link #getClassMetadata(Class)}
      */
+    @Deprecated
     public static void setMethodMap(Map<String, Map<String, Method>> tempMethodMap) {
-        methodMap = tempMethodMap;
+        methodMap = tempMethodMap != null ? new ConcurrentHashMap<>(tempMethodMap) : null;
     }
 
     /**
@@ -319,9 +383,7 @@ public class TypeManager {
      */
     protected static <T> boolean fieldHasGetter(AttributeProxy attributeProxy, T object) {
         if (!attributeProxy.isField) return false;
-        Map<String, Method> tempMap = getMethodMap().get(object.getClass().getName());
-        if (tempMap == null) return false;
-        return (tempMap.containsKey(getterMethodName(attributeProxy.getName())));
+        return getClassMetadata(object.getClass()).getGetter(attributeProxy) != null;
     }
 
     /**
@@ -331,9 +393,7 @@ public class TypeManager {
      * @return
      */
     protected static <T> boolean fieldHasSetter(AttributeProxy proxy, T object) {
-        Map<String, Method> tempMap = getMethodMap().get(object.getClass().getName());
-        if (tempMap == null) return false;
-        return (tempMap.containsKey(setterMethodName(proxy)));
+        return getClassMetadata(object.getClass()).getSetter(proxy) != null;
     }
 
     /**
@@ -343,14 +403,10 @@ public class TypeManager {
      * @param <T>
      */
     protected static <T> void useSetter(T destination, AttributeProxy proxy, Object value) {
-        Map<String, Method> tempMethodMap = getMethodMap().get(destination.getClass().getName());
-        if (tempMethodMap == null) return;
-        Method setterMethod = tempMethodMap.get(setterMethodName(proxy));
-        if (!setterMethod.isAccessible()) {
-            setterMethod.setAccessible(true);
-        }
+        AttributeAccessor setter = getClassMetadata(destination.getClass()).getSetterAccessor(proxy);
+        if (setter == null) return;
         try {
-            setterMethod.invoke(destination, value);
+            setter.set(destination, value);
         } catch (IllegalAccessException | InvocationTargetException e) {
             e.printStackTrace();
         }
@@ -363,15 +419,11 @@ public class TypeManager {
      * @return
      */
     protected static <T> Object useGetterIfExists(AttributeProxy attributeProxy, T object) {
-        Map<String, Method> tempMethodMap = getMethodMap().get(object.getClass().getName());
-        if (tempMethodMap == null) return null;
-        Method getterMethod = tempMethodMap.get(getterMethodName(attributeProxy.getName()));
+        AttributeAccessor getter =
+            getClassMetadata(object.getClass()).getGetterAccessor(attributeProxy);
         try {
-            if (getterMethod == null) return attributeProxy.getValue(object);
-            if (!getterMethod.isAccessible()) {
-                getterMethod.setAccessible(true);
-            }
-            return getterMethod.invoke(object);
+            if (getter == null) return attributeProxy.getValue(object);
+            return getter.get(object);
         } catch (IllegalAccessException | InvocationTargetException e) {
             e.printStackTrace();
         }
@@ -430,10 +482,7 @@ public class TypeManager {
     }
 
     protected static <T> Method getSetterForAttributeProxy(AttributeProxy proxy, T destination) {
-        Map<String, Method> tempMethodMap = getMethodMap().get(destination.getClass().getName());
-        if (tempMethodMap == null) return null;
-        Method setterMethod = tempMethodMap.get(setterMethodName(proxy).toLowerCase());
-        return setterMethod;
+        return getClassMetadata(destination.getClass()).getSetter(proxy);
     }
 
 }
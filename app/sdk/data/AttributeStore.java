@@ -0,0 +1,235 @@
+package sdk.data;
+
+import sdk.models.AttributeType;
+
+import java.util.Arrays;
+
+/**
+ * Dense storage for the attributes of a {@link DataSetItem}, indexed by attribute index.
+ * <p>
+ * Int, Double, Boolean and TimeInterval values are kept in a primitive slot and only turned into
+ * strings when they are serialized, everything else is kept as a {@link DataSetItemAttribute}.
+ */
+class AttributeStore {
+    // largest capacity allocated up front, higher indexes grow the arrays when they are set
+    private static final int MAX_INITIAL_CAPACITY = 128;
+
+    private static final byte NONE = 0;
+    private static final byte INT = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte TIME_INTERVAL = 4;
+
+    private DataSetItemAttribute[] attributes;
+    private long[] primitives;
+    private byte[] primitiveTypes;
+    private int size;
+
+    /**
+     * @param capacity The number of attribute indexes expected, usually the highest configured
+     *                 index + 1
+     */
+    AttributeStore(int capacity) {
+        attributes = new DataSetItemAttribute[Math.max(0, Math.min(capacity, MAX_INITIAL_CAPACITY))];
+    }
+
+    /**
+     * @return The number of indexes with a value
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return One more than the highest index that can hold a value without growing
+     */
+    int capacity() {
+        return attributes.length;
+    }
+
+    boolean contains(int index) {
+        return index >= 0 && index < attributes.length &&
+               (attributes[index] != null || getPrimitiveType(index) != NONE);
+    }
+
+    /**
+     * Gets the attribute at an index. Primitive values are wrapped in a new attribute, use the
+     * typed getters where possible.
+     *
+     * @param index
+     * @return The attribute or null if none is set
+     */
+    DataSetItemAttribute get(int index) {
+        if (index < 0 || index >= attributes.length) return null;
+        DataSetItemAttribute attribute = attributes[index];
+        if (attribute != null) return attribute;
+        switch (getPrimitiveType(index)) {
+            case INT:
+                return new DataSetItemAttribute((int) primitives[index]);
+            case DOUBLE:
+                return new DataSetItemAttribute(Double.longBitsToDouble(primitives[index]));
+            case BOOLEAN:
+                return new DataSetItemAttribute(primitives[index] != 0);
+            case TIME_INTERVAL:
+                return new DataSetItemAttribute(primitives[index]);
+        }
+        return null;
+    }
+
+    /**
+     * @param index
+     * @return The attribute type of the value at an index or null if none is set
+     */
+    AttributeType getAttributeType(int index) {
+        if (index < 0 || index >= attributes.length) return null;
+        DataSetItemAttribute attribute = attributes[index];
+        if (attribute != null) return attribute.getAttributeType();
+        switch (getPrimitiveType(index)) {
+            case INT:
+                return AttributeType.Int;
+            case DOUBLE:
+                return AttributeType.Double;
+            case BOOLEAN:
+                return AttributeType.Boolean;
+            case TIME_INTERVAL:
+                return AttributeType.TimeInterval;
+        }
+        return null;
+    }
+
+    int getInt(int index) {
+        if (getPrimitiveType(index) == INT) return (int) primitives[index];
+        return get(index).getIntValue();
+    }
+
+    double getDouble(int index) {
+        if (getPrimitiveType(index) == DOUBLE) return Double.longBitsToDouble(primitives[index]);
+        return get(index).getDoubleValue();
+    }
+
+    boolean getBoolean(int index) {
+        if (getPrimitiveType(index) == BOOLEAN) return primitives[index] != 0;
+        return get(index).getBooleanValue();
+    }
+
+    long getLong(int index) {
+        if (getPrimitiveType(index) == TIME_INTERVAL) return primitives[index];
+        return get(index).getLongValue();
+    }
+
+    /**
+     * @param index
+     * @param primaryKeyRequired
+     * @return The value at an index as it is written to json, null if none is set
+     * @throws InvalidPrimaryKeyException
+     */
+    Object getJSONValue(int index, boolean primaryKeyRequired) throws InvalidPrimaryKeyException {
+        if (index < 0 || index >= attributes.length) return null;
+        DataSetItemAttribute attribute = attributes[index];
+        if (attribute != null) return attribute.getJSONValue(primaryKeyRequired);
+        switch (getPrimitiveType(index)) {
+            case INT:
+                return Integer.toString((int) primitives[index]);
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(primitives[index]));
+            case BOOLEAN:
+                return primitives[index] != 0 ? "Y" : "N";
+            case TIME_INTERVAL:
+                return Long.toString(primitives[index]);
+        }
+        return null;
+    }
+
+    void put(int index, DataSetItemAttribute attribute) {
+        ensureCapacity(index);
+        if (!contains(index)) size++;
+        attributes[index] = attribute;
+        if (primitiveTypes != null) primitiveTypes[index] = NONE;
+    }
+
+    void putInt(int index, int value) {
+        putPrimitive(index, INT, value);
+    }
+
+    void putDouble(int index, double value) {
+        putPrimitive(index, DOUBLE, Double.doubleToLongBits(value));
+    }
+
+    void putBoolean(int index, boolean value) {
+        putPrimitive(index, BOOLEAN, value ? 1 : 0);
+    }
+
+    void putLong(int index, long value) {
+        putPrimitive(index, TIME_INTERVAL, value);
+    }
+
+    private void putPrimitive(int index, byte type, long value) {
+        ensureCapacity(index);
+        if (primitiveTypes == null) {
+            primitives = new long[attributes.length];
+            primitiveTypes = new byte[attributes.length];
+        }
+        if (!contains(index)) size++;
+        attributes[index] = null;
+        primitives[index] = value;
+        primitiveTypes[index] = type;
+    }
+
+    private byte getPrimitiveType(int index) {
+        if (primitiveTypes == null || index < 0 || index >= primitiveTypes.length) return NONE;
+        return primitiveTypes[index];
+    }
+
+    private void ensureCapacity(int index) {
+        if (index < 0) {
+            throw new InvalidAttributeValueException("Attribute index can not be negative: " + index);
+        }
+        if (index < attributes.length) return;
+        int capacity = Math.max(index + 1, attributes.length * 2);
+        attributes = Arrays.copyOf(attributes, capacity);
+        if (primitiveTypes != null) {
+            primitives = Arrays.copyOf(primitives, capacity);
+            primitiveTypes = Arrays.copyOf(primitiveTypes, capacity);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AttributeStore that = (AttributeStore) o;
+
+        if (size != that.size) return false;
+        int capacity = Math.max(attributes.length, that.attributes.length);
+        for (int i = 0; i < capacity; i++) {
+            byte thisType = getPrimitiveType(i);
+            byte thatType = that.getPrimitiveType(i);
+            if (thisType != NONE && thisType == thatType) {
+                if (primitives[i] != that.primitives[i]) return false;
+                continue;
+            }
+            DataSetItemAttribute thisAttribute = get(i);
+            DataSetItemAttribute thatAttribute = that.get(i);
+            if (thisAttribute == null || thatAttribute == null) {
+                if (thisAttribute != thatAttribute) return false;
+            } else if (!thisAttribute.equals(thatAttribute)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < attributes.length; i++) {
+            // primitives are hashed as attributes so that both forms of a value hash the same
+            DataSetItemAttribute attribute = get(i);
+            if (attribute != null) {
+                result = 31 * result + attribute.hashCode();
+            }
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package sdk.data;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import play.libs.Json;
@@ -9,6 +10,8 @@ import sdk.datasources.RecordActionResponse;
 import sdk.utils.Response;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -119,6 +122,73 @@ public class DataSet extends Response {
         return json;
     }
 
+    /**
+     * Writes the data set as json to a generator one record at a time. The json is the same as
+     * {@link #toJSON()} but the records are never held in memory as a json tree.
+     *
+     * @param generator The generator to write to
+     * @throws IOException
+     * @throws InvalidPrimaryKeyException
+     */
+    public void writeJSON(JsonGenerator generator) throws IOException, InvalidPrimaryKeyException {
+        totalRecords = this.totalRecords > 0 ? this.totalRecords : dataSetItems.size();
+        generator.writeStartObject();
+        generator.writeBooleanField("success", success);
+        if (message != null) {
+            generator.writeStringField("message", message);
+        } else {
+            generator.writeNullField("message");
+        }
+        generator.writeBooleanField("showMessageAsAlert", showMessageAsAlert);
+        generator.writeNumberField("totalRecords", totalRecords);
+        generator.writeNumberField("numberOfRecords", dataSetItems.size());
+        generator.writeBooleanField("moreRecordsAvailable", moreRecordsAvailable);
+        generator.writeArrayFieldStart("records");
+        for (DataSetItem dataSetItem : dataSetItems) {
+            dataSetItem.writeJSON(generator, true);
+        }
+        generator.writeEndArray();
+        writeAdditionalJSONFields(generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the data set as json to an output stream, see {@link #writeJSON(JsonGenerator)}.
+     * The stream is flushed but not closed.
+     *
+     * @param outputStream The stream to write to
+     * @throws IOException
+     * @throws InvalidPrimaryKeyException
+     */
+    public void writeJSON(OutputStream outputStream) throws IOException, InvalidPrimaryKeyException {
+        try (JsonGenerator generator = Json.mapper().getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writeJSON(generator);
+        }
+    }
+
+    /**
+     * Checks that every record, including related records, has a primary key so a response can
+     * be rejected before any of it is written
+     *
+     * @throws InvalidPrimaryKeyException
+     */
+    public void validatePrimaryKeys() throws InvalidPrimaryKeyException {
+        for (DataSetItem dataSetItem : dataSetItems) {
+            dataSetItem.validatePrimaryKeys();
+        }
+    }
+
+    /**
+     * Called by {@link #writeJSON(JsonGenerator)} after the records, subclasses that add fields
+     * to {@link #toJSON()} write them here
+     *
+     * @param generator
+     * @throws IOException
+     */
+    protected void writeAdditionalJSONFields(JsonGenerator generator) throws IOException {
+    }
+
     /**
      * Gets a boolean indicating whether there are more data set items that were not returned in this call
      *
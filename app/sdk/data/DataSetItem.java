@@ -1,9 +1,13 @@
 package sdk.data;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.joda.time.DateTime;
 import play.libs.Json;
 import play.mvc.Http;
@@ -13,16 +17,14 @@ import sdk.utils.DateUtil;
 import sdk.utils.JsonUtils;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.IntStream;
-
-import static sdk.utils.ClassUtils.Null;
 
 /**
  * Created by alexis on 5/3/16.
  */
 public class DataSetItem implements Record {
-    private HashMap<Integer, DataSetItemAttribute> attributeMap = new HashMap<Integer, DataSetItemAttribute>();
+    private AttributeStore attributeStore;
     String primaryKey;
     private String clientKey;
     private int maxAttributeIndex = -1;
@@ -95,9 +97,8 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<Long> getOptionalTimeInterval(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return Optional.of(attribute.getLongValue());
+        if (attributeStore.contains(index)) {
+            return Optional.of(attributeStore.getLong(index));
         }
         return Optional.empty();
     }
@@ -109,7 +110,7 @@ public class DataSetItem implements Record {
 
     @Override
     public DateTime getDate(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getDateValue();
         }
@@ -118,7 +119,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<DateTime> getOptionalDate(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getDateValue());
         }
@@ -132,7 +133,7 @@ public class DataSetItem implements Record {
 
     @Override
     public String getString(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getStringValue();
         }
@@ -141,7 +142,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<String> getOptionalString(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getStringValue());
         }
@@ -155,18 +156,16 @@ public class DataSetItem implements Record {
 
     @Override
     public int getInt(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return attribute.getIntValue();
+        if (attributeStore.contains(index)) {
+            return attributeStore.getInt(index);
         }
         return 0;
     }
 
     @Override
     public Optional<Integer> getOptionalInt(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return Optional.of(attribute.getIntValue());
+        if (attributeStore.contains(index)) {
+            return Optional.of(attributeStore.getInt(index));
         }
         return Optional.empty();
     }
@@ -178,18 +177,16 @@ public class DataSetItem implements Record {
 
     @Override
     public boolean getBool(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return attribute.getBooleanValue();
+        if (attributeStore.contains(index)) {
+            return attributeStore.getBoolean(index);
         }
         return false;
     }
 
     @Override
     public Optional<Boolean> getOptionalBoolean(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return Optional.of(attribute.getBooleanValue());
+        if (attributeStore.contains(index)) {
+            return Optional.of(attributeStore.getBoolean(index));
         }
         return Optional.empty();
     }
@@ -201,7 +198,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Color getColor(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getColorValue();
         }
@@ -210,7 +207,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<Color> getOptionalColor(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getColorValue());
         }
@@ -224,18 +221,16 @@ public class DataSetItem implements Record {
 
     @Override
     public double getDouble(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return attribute.getDoubleValue();
+        if (attributeStore.contains(index)) {
+            return attributeStore.getDouble(index);
         }
         return 0.0;
     }
 
     @Override
     public Optional<Double> getOptionalDouble(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
-        if (attribute != null) {
-            return Optional.of(attribute.getDoubleValue());
+        if (attributeStore.contains(index)) {
+            return Optional.of(attributeStore.getDouble(index));
         }
         return Optional.empty();
     }
@@ -247,7 +242,7 @@ public class DataSetItem implements Record {
 
     @Override
     public DateTime getDateTime(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getDateValue();
         }
@@ -256,7 +251,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<DateTime> getOptionalDateTime(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getDateValue());
         }
@@ -270,7 +265,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Location getLocation(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getLocationValue();
         }
@@ -279,7 +274,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<Location> getOptionalLocation(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getLocationValue());
         }
@@ -293,7 +288,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Image getImage(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getImageValue();
         }
@@ -302,7 +297,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<Image> getOptionalImage(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getImageValue());
         }
@@ -316,7 +311,7 @@ public class DataSetItem implements Record {
 
     @Override
     public ListItem getListItem(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return attribute.getListItem();
         }
@@ -325,7 +320,7 @@ public class DataSetItem implements Record {
 
     @Override
     public Optional<ListItem> getOptionalListItem(int index) {
-        DataSetItemAttribute attribute = attributeMap.get(index);
+        DataSetItemAttribute attribute = attributeStore.get(index);
         if (attribute != null) {
             return Optional.of(attribute.getListItem());
         }
@@ -377,8 +372,8 @@ public class DataSetItem implements Record {
     }
 
     public Map<Integer, AttributeMeta> getAttributeMetaMap() {
-        if (attributeMap == null) {
-            attributeMap = new HashMap<>();
+        if (attributeMetaMap == null) {
+            attributeMetaMap = new HashMap<>();
         }
         return attributeMetaMap;
     }
@@ -515,6 +510,7 @@ public class DataSetItem implements Record {
     DataSetItem(HashMap<Integer, ServiceConfigurationAttribute> attributeConfigurationMap) {
         this.configurationAttributes = attributeConfigurationMap.values();
         this.configurationMap = attributeConfigurationMap;
+        this.attributeStore = new AttributeStore(getAttributeCapacity(attributeConfigurationMap));
     }
 
     public DataSetItem(Collection<ServiceConfigurationAttribute> attributes) {
@@ -525,11 +521,23 @@ public class DataSetItem implements Record {
                 configurationMap.put(attribute.getAttributeIndex(), attribute);
             }
         }
+        this.attributeStore = new AttributeStore(getAttributeCapacity(configurationMap));
+    }
+
+    private static int getAttributeCapacity(Map<Integer, ServiceConfigurationAttribute> configurationMap) {
+        int maxIndex = -1;
+        for (Integer index : configurationMap.keySet()) {
+            maxIndex = index > maxIndex ? index : maxIndex;
+        }
+        return maxIndex + 1;
     }
 
     void validateAttributes() {
-        for (Map.Entry<Integer, DataSetItemAttribute> attribute : attributeMap.entrySet()) {
-            validateGetterAttributeTypeForIndex(attribute.getValue().getAttributeType(), attribute.getKey());
+        for (int i = 0; i < attributeStore.capacity(); i++) {
+            AttributeType attributeType = attributeStore.getAttributeType(i);
+            if (attributeType != null) {
+                validateGetterAttributeTypeForIndex(attributeType, i);
+            }
         }
     }
 
@@ -651,7 +659,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public Color getColorAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getColorValue();
         }
@@ -666,11 +674,9 @@ public class DataSetItem implements Record {
      */
     @Deprecated
     public int getIntAttributeAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
-        if (attribute != null) {
+        if (attributeStore.contains(attributeIndex)) {
             try {
-                return attribute.getIntValue();
+                return attributeStore.getInt(attributeIndex);
             } catch (NumberFormatException e) {
                 return -1;
             }
@@ -682,7 +688,7 @@ public class DataSetItem implements Record {
     public Optional<Integer> getOptionalIntAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
 
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             try {
                 return Optional.ofNullable(attribute.getIntValue());
@@ -701,12 +707,9 @@ public class DataSetItem implements Record {
      */
     @Deprecated
     public double getDoubleAttributeAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute;
-
-        attribute = attributeMap.get(attributeIndex);
-        if (attribute != null) {
+        if (attributeStore.contains(attributeIndex)) {
             try {
-                return attribute.getDoubleValue();
+                return attributeStore.getDouble(attributeIndex);
             } catch (NumberFormatException e) {
                 return 0;
             }
@@ -718,7 +721,7 @@ public class DataSetItem implements Record {
     public Optional<Double> getOptionalDoubleAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
 
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             try {
                 return Optional.ofNullable(attribute.getDoubleValue());
@@ -731,10 +734,8 @@ public class DataSetItem implements Record {
 
     @Deprecated
     public long getTimeIntervalAttributeAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
-        if (attribute != null) {
-            return attribute.getLongValue();
+        if (attributeStore.contains(attributeIndex)) {
+            return attributeStore.getLong(attributeIndex);
         }
         return 0;
     }
@@ -749,7 +750,7 @@ public class DataSetItem implements Record {
     public ListItem getListItemAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
 
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getListItem();
         }
@@ -759,7 +760,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public Optional<ListItem> getOptionalListItemAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null && attribute.getListItem() != null) {
             return java.util.Optional.of(attribute.getListItem());
         }
@@ -775,7 +776,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public String getStringAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getStringValue();
         }
@@ -796,7 +797,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public DateTime getDateAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getDateValue();
         }
@@ -806,7 +807,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public Optional<DateTime> getOptionalDateAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return Optional.of(attribute.getDateValue());
         }
@@ -822,7 +823,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public DateTime getDateTimeAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getDateValue();
         }
@@ -832,7 +833,7 @@ public class DataSetItem implements Record {
     @Deprecated
     public Optional<DateTime> getOptionalDateTimeAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return Optional.of(attribute.getDateValue());
         }
@@ -849,7 +850,7 @@ public class DataSetItem implements Record {
     @Nullable
     public DateRange getDateRangeAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getDateRange();
         }
@@ -869,7 +870,7 @@ public class DataSetItem implements Record {
     @Nullable
     public DateTimeRange getDateTimeRangeAttributeAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getDateTimeRange();
         }
@@ -888,10 +889,8 @@ public class DataSetItem implements Record {
      */
     @Deprecated
     public boolean getBoolValueAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
-        if (attribute != null) {
-            return attribute.getBooleanValue();
+        if (attributeStore.contains(attributeIndex)) {
+            return attributeStore.getBoolean(attributeIndex);
         } else {
             return false;
         }
@@ -905,10 +904,8 @@ public class DataSetItem implements Record {
 
     public @Nullable
     Boolean getBooleanValueAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute;
-        attribute = attributeMap.get(attributeIndex);
-        if (attribute != null) {
-            return attribute.getBooleanValue();
+        if (attributeStore.contains(attributeIndex)) {
+            return attributeStore.getBoolean(attributeIndex);
         } else {
             return null;
         }
@@ -924,7 +921,7 @@ public class DataSetItem implements Record {
     public List<DataSetItem> getDataSetItemsAtIndex(int attributeIndex) {
         DataSetItemAttribute attribute;
 
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getDataSetItems();
         }
@@ -942,7 +939,7 @@ public class DataSetItem implements Record {
         DataSetItemAttribute attribute;
         List<DataSetItem> dataSetItems;
 
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             dataSetItems = attribute.getDataSetItems();
             if (dataSetItems != null && dataSetItems.size() == 1) {
@@ -954,7 +951,7 @@ public class DataSetItem implements Record {
 
     @Deprecated
     public Location getLocationAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute = attributeMap.get(attributeIndex);
+        DataSetItemAttribute attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getLocationValue();
         }
@@ -968,7 +965,7 @@ public class DataSetItem implements Record {
 
     @Deprecated
     public Image getImageAtIndex(int attributeIndex) {
-        DataSetItemAttribute attribute = attributeMap.get(attributeIndex);
+        DataSetItemAttribute attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             return attribute.getImageValue();
         }
@@ -984,7 +981,7 @@ public class DataSetItem implements Record {
         DataSetItemAttribute attribute;
         ArrayList<DataSetItemAttachment> attachmentItems = new ArrayList<DataSetItemAttachment>();
 
-        attribute = attributeMap.get(attributeIndex);
+        attribute = attributeStore.get(attributeIndex);
         if (attribute != null) {
             List<DataSetItem> items = attribute.getDataSetItems();
             if (items != null) {
@@ -1092,7 +1089,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.Color, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(value));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(value));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1111,7 +1108,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.Int, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(value));
+        attributeStore.putInt(attributeIndex, value);
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1130,7 +1127,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.ListItem, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(listItem));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(listItem));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1149,7 +1146,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.Location, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(location));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(location));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1162,7 +1159,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.Image, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(image));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(image));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1181,7 +1178,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.String, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(value));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(value));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1200,7 +1197,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.Boolean, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(value));
+        attributeStore.putBoolean(attributeIndex, value);
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1217,7 +1214,7 @@ public class DataSetItem implements Record {
     }
 
     private void _setDateRangeForAttributeIndex(DateRange dateRange, int attributeIndex) throws InvalidAttributeValueException {
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(dateRange));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(dateRange));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1234,7 +1231,7 @@ public class DataSetItem implements Record {
     }
 
     private void _setDateTimeRangeForAttributeIndex(DateTimeRange dateTimeRange, int attributeIndex) throws InvalidAttributeValueException {
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(dateTimeRange));
+        attributeStore.put(attributeIndex, new DataSetItemAttribute(dateTimeRange));
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1253,7 +1250,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.Double, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(value));
+        attributeStore.putDouble(attributeIndex, value);
         updateMaxAttribute(attributeIndex);
     }
 
@@ -1265,7 +1262,7 @@ public class DataSetItem implements Record {
         if (!validateGetterAttributeTypeForIndex(AttributeType.TimeInterval, attributeIndex)) {
             return;
         }
-        attributeMap.put(attributeIndex, new DataSetItemAttribute(timeInterval));
+        attributeStore.putLong(attributeIndex, timeInterval);
     }
 
     /**
@@ -1284,7 +1281,7 @@ public class DataSetItem implements Record {
             return;
         }
         if (date != null) {
-            attributeMap.put(attributeIndex, new DataSetItemAttribute(date, false));
+            attributeStore.put(attributeIndex, new DataSetItemAttribute(date, false));
         }
     }
 
@@ -1304,7 +1301,7 @@ public class DataSetItem implements Record {
             return;
         }
         if (date != null) {
-            attributeMap.put(attributeIndex, new DataSetItemAttribute(date, true));
+            attributeStore.put(attributeIndex, new DataSetItemAttribute(date, true));
         }
     }
 
@@ -1353,16 +1350,9 @@ public class DataSetItem implements Record {
 
         ArrayNode attributes = json.putArray("attributes");
         int firstNullIndex = -1;
-        for (int i = 0; i <= 80; i++) {
-            DataSetItemAttribute attribute = attributeMap.get(i);
-            if (attribute == null) {
-                attributes.addNull();
-                if (firstNullIndex == -1) {
-                    firstNullIndex = i;
-                }
-                continue;
-            }
-            Object value = attribute.getJSONValue(primaryKeyRequired);
+        int lastIndex = Math.min(80, attributeStore.capacity() - 1);
+        for (int i = 0; i <= lastIndex; i++) {
+            Object value = attributeStore.getJSONValue(i, primaryKeyRequired);
             if (value == null) {
                 attributes.addNull();
                 if (firstNullIndex == -1) {
@@ -1377,202 +1367,449 @@ public class DataSetItem implements Record {
                 firstNullIndex = -1;
             }
         }
-        for (int i = 80; i >= firstNullIndex; i--) {
-            attributes.remove(i);
+        if (firstNullIndex != -1) {
+            for (int i = lastIndex; i >= firstNullIndex; i--) {
+                attributes.remove(i);
+            }
         }
         return json;
     }
 
+    /**
+     * Writes the data set item to a json generator, producing the same json as {@link #toJSON()}
+     * without building it in memory first
+     *
+     * @param generator          The generator to write to
+     * @param primaryKeyRequired A boolean indicating whether or not the primary key of the data set item must be set
+     * @throws IOException
+     * @throws InvalidPrimaryKeyException
+     */
+    public void writeJSON(JsonGenerator generator, boolean primaryKeyRequired) throws IOException, InvalidPrimaryKeyException {
+        if (primaryKeyRequired && primaryKey == null) {
+            throw new InvalidPrimaryKeyException("Primary key can not be null for record: " + toJSON());
+        }
+        generator.writeStartObject();
+        writeStringField(generator, "primaryKey", primaryKey);
+        writeStringField(generator, "CRUDStatus", crudStatus.stringValue);
+        writeStringField(generator, "clientKey", clientKey);
+        writeStringField(generator, "recordType", getItemType().stringValue);
+        writeStringField(generator, "status", status.stringValue);
+        generator.writeFieldName("lazyLoadedRelationships");
+        if (lazyLoadedRelationships != null) {
+            generator.writeStartArray();
+            for (Integer index : lazyLoadedRelationships) {
+                generator.writeNumber(index);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeNull();
+        }
+
+        // work out the values first so trailing nulls can be left out like in _toJSON
+        int lastIndex = Math.min(80, attributeStore.capacity() - 1);
+        Object[] values = new Object[lastIndex + 1];
+        int lastValueIndex = -1;
+        for (int i = 0; i <= lastIndex; i++) {
+            AttributeType attributeType = attributeStore.getAttributeType(i);
+            if (attributeType == AttributeType.Relation || attributeType == AttributeType.Attachments) {
+                values[i] = attributeStore.get(i).getDataSetItems();
+            } else {
+                values[i] = attributeStore.getJSONValue(i, primaryKeyRequired);
+            }
+            if (values[i] != null) {
+                lastValueIndex = i;
+            }
+        }
+        generator.writeArrayFieldStart("attributes");
+        for (int i = 0; i <= lastValueIndex; i++) {
+            Object value = values[i];
+            if (value instanceof List) {
+                generator.writeStartArray();
+                for (Object item : (List<?>) value) {
+                    ((DataSetItem) item).writeJSON(generator, primaryKeyRequired);
+                }
+                generator.writeEndArray();
+            } else if (value instanceof String) {
+                generator.writeString((String) value);
+            } else {
+                generator.writeNull();
+            }
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * @throws InvalidPrimaryKeyException if this record or a related record has no primary key
+     */
+    void validatePrimaryKeys() throws InvalidPrimaryKeyException {
+        if (primaryKey == null) {
+            throw new InvalidPrimaryKeyException("Primary key can not be null for record: " + toJSON());
+        }
+        for (int i = 0; i < attributeStore.capacity(); i++) {
+            AttributeType attributeType = attributeStore.getAttributeType(i);
+            if (attributeType == AttributeType.Relation || attributeType == AttributeType.Attachments) {
+                List<DataSetItem> items = attributeStore.get(i).getDataSetItems();
+                if (items != null) {
+                    for (DataSetItem item : items) {
+                        item.validatePrimaryKeys();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        } else {
+            generator.writeNullField(name);
+        }
+    }
+
     public void updateFromJSON(ObjectNode json, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap, boolean search) {
-        primaryKey = json.path("primaryKey").textValue();
-        crudStatus = json.has("CRUDStatus") ? CRUDStatus.fromString(json.path("CRUDStatus").textValue()) : CRUDStatus.Read;
-        status = Status.fromString(json.path("status").textValue());
-        clientKey = json.path("clientKey").textValue();
-        ArrayNode attributes = (ArrayNode) json.path("attributes");
-        IntStream.range(0, attributes.size())
-                .filter(i -> !attributes.get(i).isNull() && configurationMap.get(i) != null)
-                .forEach(i -> {
-                    ServiceConfigurationAttribute attribute = configurationMap.get(i);
-                    JsonNode node = attributes.get(i);
-                    switch (attribute.attributeType) {
-                        case String:
-                            _setStringForAttributeIndex(node.textValue(), i);
-                            break;
-                        case Double:
-                            if (node.isTextual()) {
-                                try {
-                                    double doubleValue = Double.parseDouble(node.asText());
-                                    _setDoubleForAttributeIndex(doubleValue, i);
-                                } catch (Exception ignored) {
-                                }
-                            } else if (node.isDouble()) {
-                                _setDoubleForAttributeIndex(node.doubleValue(), i);
-                            }
-                            break;
-                        case Int:
-                            if (node.isTextual()) {
-                                try {
-                                    int intValue = Integer.parseInt(node.asText());
-                                    _setIntForAttributeIndex(intValue, i);
-                                } catch (Exception ignored) {
-                                }
-                            } else if (node.isInt()) {
-                                _setIntForAttributeIndex(node.intValue(), i);
-                            }
-                            break;
-                        case Boolean:
-                            _setBooleanForAttributeIndex(node.asText().equalsIgnoreCase("Y"), i);
-                            break;
-                        case Date:
-                            if (search) {
-                                JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                    DateRange dateRange = JsonUtils.fromJson(jsonNode, DateRange.class);
-                                    if (dateRange != null) {
-                                        _setDateRangeForAttributeIndex(dateRange, i);
-                                    }
+        try (JsonParser parser = json.traverse()) {
+            parser.nextToken();
+            updateFromJSON(parser, attachmentMap, search);
+        } catch (IOException e) {
+            throw new InvalidAttributeValueException("Unable to read data set item json", e);
+        }
+    }
+
+    /**
+     * Reads the data set item from a json token stream without building a tree first. Related
+     * items are read from the same stream as they are reached.
+     *
+     * @param parser        A parser positioned on the START_OBJECT of the item, it is left on the matching END_OBJECT
+     * @param attachmentMap The uploaded files by upload key, may be null
+     * @param search        true if the item is a search request, dates are then read as ranges
+     * @throws IOException
+     */
+    public void updateFromJSON(JsonParser parser, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap, boolean search) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw new InvalidAttributeValueException("Expected a data set item object but found " + parser.getCurrentToken());
+        }
+        ItemHeader header = new ItemHeader();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (fieldName.equals("attributes")) {
+                readAttributes(parser, attachmentMap, search);
+            } else if (!header.read(fieldName, parser)) {
+                parser.skipChildren();
+            }
+        }
+        header.applyTo(this);
+    }
+
+    private void readAttributes(JsonParser parser, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap, boolean search) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        JsonToken token;
+        for (int i = 0; (token = parser.nextToken()) != JsonToken.END_ARRAY && token != null; i++) {
+            ServiceConfigurationAttribute attribute = configurationMap.get(i);
+            if (token == JsonToken.VALUE_NULL || attribute == null) {
+                parser.skipChildren();
+            } else {
+                readAttribute(parser, attribute, i, attachmentMap, search);
+            }
+        }
+    }
+
+    /**
+     * Reads the value the parser is on for an attribute. Values whose token does not fit the
+     * configured type are skipped.
+     */
+    private void readAttribute(JsonParser parser, ServiceConfigurationAttribute attribute, int i, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap, boolean search) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        switch (attribute.attributeType) {
+            case String:
+                _setStringForAttributeIndex(textValue(parser), i);
+                break;
+            case Double:
+                if (token == JsonToken.VALUE_STRING) {
+                    try {
+                        double doubleValue = Double.parseDouble(parser.getText());
+                        _setDoubleForAttributeIndex(doubleValue, i);
+                    } catch (Exception ignored) {
+                    }
+                } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    _setDoubleForAttributeIndex(parser.getDoubleValue(), i);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            case Int:
+                if (token == JsonToken.VALUE_STRING) {
+                    try {
+                        int intValue = Integer.parseInt(parser.getText());
+                        _setIntForAttributeIndex(intValue, i);
+                    } catch (Exception ignored) {
+                    }
+                } else if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+                    _setIntForAttributeIndex(parser.getIntValue(), i);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            case Boolean:
+                _setBooleanForAttributeIndex(asText(parser).equalsIgnoreCase("Y"), i);
+                break;
+            case Date:
+                if (search) {
+                    JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                        DateRange dateRange = JsonUtils.fromJson(jsonNode, DateRange.class);
+                        if (dateRange != null) {
+                            _setDateRangeForAttributeIndex(dateRange, i);
+                        }
+                    });
+                } else {
+                    _setDateForAttributeIndex(DateUtil.dateFromString(asText(parser)), i);
+                }
+                break;
+            case DateTime:
+                if (search) {
+                    JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                        DateTimeRange dateRange = JsonUtils.fromJson(jsonNode, DateTimeRange.class);
+                        if (dateRange != null) {
+                            _setDateTimeRangeForAttributeIndex(dateRange, i);
+                        }
+                    });
+                } else {
+                    _setDateTimeForAttributeIndex(DateUtil.dateTimeFromString(asText(parser)), i);
+                }
+                break;
+            case TimeInterval:
+                _setTimeIntervalForAttributeIndex(parser.getValueAsLong(), i);
+                parser.skipChildren();
+                break;
+            case DateRange:
+                JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                    DateRange dateRange = JsonUtils.fromJson(jsonNode, DateRange.class);
+                    if (dateRange != null) {
+                        _setDateRangeForAttributeIndex(dateRange, i);
+                    }
+                });
+                break;
+            case DateTimeRange:
+                JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                    DateTimeRange dateRange = JsonUtils.fromJson(jsonNode, DateTimeRange.class);
+                    if (dateRange != null) {
+                        _setDateTimeRangeForAttributeIndex(dateRange, i);
+                    }
+                });
+                break;
+            case Image:
+                JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                    Image image = JsonUtils.fromJson(jsonNode, Image.class);
+                    _setImageForAttributeIndex(image, i);
+                    if (attachmentMap != null && image.uploadKey != null) {
+                        Http.MultipartFormData.FilePart filePart = attachmentMap.get(image.uploadKey);
+                        if (filePart != null) {
+                            image.filePart = filePart;
+                        }
+                    }
+                });
+                break;
+            case Location:
+                JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                    Location location = JsonUtils.fromJson(jsonNode, Location.class);
+                    _setLocationForAttributeIndex(location, i);
+                });
+                break;
+            case Attachments:
+            case Relation:
+            case SingleRelationship:
+                if (token != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    break;
+                }
+                JsonToken childToken;
+                while ((childToken = parser.nextToken()) != JsonToken.END_ARRAY && childToken != null) {
+                    if (childToken == JsonToken.START_OBJECT) {
+                        readRelatedItem(parser, i, attachmentMap, search);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                break;
+            case ListItem:
+                JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                    ListItem listItem = JsonUtils.fromJson(jsonNode, ListItem.class);
+                    List<ServiceConfigurationAttribute> listAttrs = attribute.getRelatedListServiceConfiguration().getAttributes();
+                    for (ServiceConfigurationAttribute attr : listAttrs) {
+                        JsonNode node1 = jsonNode.get(String.format("attribute%02d", attr.getAttributeIndex() + 1));
+                        String textValue = node1 != null ? node1.asText() : null;
+                        switch (attr.attributeType) {
+                            case Location:
+                                JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
+                                    Location location = JsonUtils.fromJson(listItemNode, Location.class);
+                                    listItem.setAttributeForIndex(location, attr.getAttributeIndex());
+                                });
+                            case String:
+                                listItem.setAttributeForIndex(textValue, attr.getAttributeIndex());
+                                break;
+                            case Double:
+                                JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
+                                    Double aDouble = JsonUtils.fromJson(listItemNode, Double.class);
+                                    listItem.setAttributeForIndex(aDouble, attr.getAttributeIndex());
                                 });
-                            } else {
-                                _setDateForAttributeIndex(DateUtil.dateFromString(node.asText()), i);
-                            }
-                            break;
-                        case DateTime:
-                            if (search) {
-                                JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                    DateTimeRange dateRange = JsonUtils.fromJson(jsonNode, DateTimeRange.class);
-                                    if (dateRange != null) {
-                                        _setDateTimeRangeForAttributeIndex(dateRange, i);
-                                    }
+                                break;
+                            case Date:
+                                JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
+                                    DateTime dateTime = JsonUtils.fromJson(listItemNode, DateTime.class);
+                                    listItem.setAttributeForIndex(dateTime, attr.getAttributeIndex());
                                 });
-                            } else {
-                                _setDateTimeForAttributeIndex(DateUtil.dateTimeFromString(node.asText()), i);
-                            }
-                            break;
-                        case TimeInterval:
-                            _setTimeIntervalForAttributeIndex(node.asLong(), i);
-                            break;
-                        case DateRange:
-                            JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                DateRange dateRange = JsonUtils.fromJson(jsonNode, DateRange.class);
-                                if (dateRange != null) {
-                                    _setDateRangeForAttributeIndex(dateRange, i);
-                                }
-                            });
-                            break;
-                        case DateTimeRange:
-                            JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                DateTimeRange dateRange = JsonUtils.fromJson(jsonNode, DateTimeRange.class);
-                                if (dateRange != null) {
-                                    _setDateTimeRangeForAttributeIndex(dateRange, i);
-                                }
-                            });
-                            break;
-                        case Image:
-                            JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                Image image = JsonUtils.fromJson(jsonNode, Image.class);
-                                _setImageForAttributeIndex(image, i);
-                                if (attachmentMap != null && image.uploadKey != null) {
-                                    Http.MultipartFormData.FilePart filePart = attachmentMap.get(image.uploadKey);
-                                    if (filePart != null) {
-                                        image.filePart = filePart;
-                                    }
-                                }
-                            });
-                            break;
-                        case Location:
-                            JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                Location location = JsonUtils.fromJson(jsonNode, Location.class);
-                                _setLocationForAttributeIndex(location, i);
-                            });
-                            break;
-                        case Attachments:
-                        case Relation:
-                        case SingleRelationship:
-                            ArrayNode childArray = (ArrayNode) node;
-                            RelatedServiceConfiguration childService = attribute.relatedService;
-                            if (childArray != null) {
-                                IntStream.range(0, childArray.size())
-                                        .forEach(childIndex -> {
-                                            ObjectNode childJsonNode = (ObjectNode) childArray.get(childIndex);
-                                            String recordType = childJsonNode.path("recordType").asText();
-                                            String subClientKey = childJsonNode.path("clientKey").asText();
-                                            Http.MultipartFormData.FilePart filePart = null;
-                                            if (Type.fromString(recordType) == Type.Attachment) {
-                                                if (subClientKey != null && attachmentMap != null) {
-                                                    filePart = attachmentMap.get(subClientKey);
-                                                }
-                                                DataSetItem subDataSetItem = _addNewAttachmentForAttributeIndex(i);
-                                                subDataSetItem.updateFromJSON(childJsonNode, null, search);
-                                                if (filePart != null) {
-                                                    ((DataSetItemAttachment) subDataSetItem).attachmentFileItem = filePart;
-                                                    ((DataSetItemAttachment) subDataSetItem).setMimeType(filePart.getContentType());
-                                                }
-                                            } else {
-                                                DataSetItem subDataSetItem = _addNewDataSetItemForAttributeIndex(i);
-                                                subDataSetItem.updateFromJSON(childJsonNode, attachmentMap, search);
-                                            }
-                                        });
-                            }
-                            break;
-                        case ListItem:
-                            JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                ListItem listItem = JsonUtils.fromJson(jsonNode, ListItem.class);
-                                List<ServiceConfigurationAttribute> listAttrs = attribute.getRelatedListServiceConfiguration().getAttributes();
-                                for (ServiceConfigurationAttribute attr : listAttrs) {
-                                    JsonNode node1 = jsonNode.get(String.format("attribute%02d", attr.getAttributeIndex() + 1));
-                                    String textValue = node1 != null ? node1.asText() : null;
-                                    switch (attr.attributeType) {
-                                        case Location:
-                                            JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
-                                                Location location = JsonUtils.fromJson(listItemNode, Location.class);
-                                                listItem.setAttributeForIndex(location, attr.getAttributeIndex());
-                                            });
-                                        case String:
-                                            listItem.setAttributeForIndex(textValue, attr.getAttributeIndex());
-                                            break;
-                                        case Double:
-                                            JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
-                                                Double aDouble = JsonUtils.fromJson(listItemNode, Double.class);
-                                                listItem.setAttributeForIndex(aDouble, attr.getAttributeIndex());
-                                            });
-                                            break;
-                                        case Date:
-                                            JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
-                                                DateTime dateTime = JsonUtils.fromJson(listItemNode, DateTime.class);
-                                                listItem.setAttributeForIndex(dateTime, attr.getAttributeIndex());
-                                            });
-                                            break;
-                                        case Boolean:
-                                            JsonUtils.parseOptionalBoolean(textValue).ifPresent(listItemNode -> {
-                                                Boolean aBoolean = JsonUtils.fromJson(listItemNode, Boolean.class);
-                                                listItem.setAttributeForIndex(aBoolean, attr.getAttributeIndex());
-                                            });
-                                            break;
-                                        case DateTime:
-                                            JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
-                                                DateTime dateTime = JsonUtils.fromJson(listItemNode, DateTime.class);
-                                                listItem.setAttributeForIndex(dateTime, attr.getAttributeIndex());
-                                            });
-                                            break;
-                                        case Int:
-                                            JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
-                                                Integer aInteger = JsonUtils.fromJson(listItemNode, Integer.class);
-                                                listItem.setAttributeForIndex(aInteger, attr.getAttributeIndex());
-                                            });
-                                    }
-                                }
-                                _setListItemForAttributeIndex(listItem, i);
-                            });
-
-                            break;
-                        case Color:
-                            JsonUtils.parseOptional(node.textValue()).ifPresent(jsonNode -> {
-                                Color color = JsonUtils.fromJson(jsonNode, Color.class);
-                                _setColorForAttributeIndex(color, i);
-                            });
-                            break;
+                                break;
+                            case Boolean:
+                                JsonUtils.parseOptionalBoolean(textValue).ifPresent(listItemNode -> {
+                                    Boolean aBoolean = JsonUtils.fromJson(listItemNode, Boolean.class);
+                                    listItem.setAttributeForIndex(aBoolean, attr.getAttributeIndex());
+                                });
+                                break;
+                            case DateTime:
+                                JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
+                                    DateTime dateTime = JsonUtils.fromJson(listItemNode, DateTime.class);
+                                    listItem.setAttributeForIndex(dateTime, attr.getAttributeIndex());
+                                });
+                                break;
+                            case Int:
+                                JsonUtils.parseOptional(textValue).ifPresent(listItemNode -> {
+                                    Integer aInteger = JsonUtils.fromJson(listItemNode, Integer.class);
+                                    listItem.setAttributeForIndex(aInteger, attr.getAttributeIndex());
+                                });
+                        }
                     }
+                    _setListItemForAttributeIndex(listItem, i);
                 });
 
+                break;
+            case Color:
+                JsonUtils.parseOptional(textValue(parser)).ifPresent(jsonNode -> {
+                    Color color = JsonUtils.fromJson(jsonNode, Color.class);
+                    _setColorForAttributeIndex(color, i);
+                });
+                break;
+            default:
+                parser.skipChildren();
+        }
+    }
+
+    /**
+     * Reads a related item into the attribute at an index. The record type decides whether an
+     * attachment or a record is added, if the attributes come before the record type they are
+     * buffered until the item can be created.
+     */
+    private void readRelatedItem(JsonParser parser, int attributeIndex, HashMap<String, Http.MultipartFormData.FilePart> attachmentMap, boolean search) throws IOException {
+        ItemHeader header = new ItemHeader();
+        DataSetItem item = null;
+        TokenBuffer bufferedAttributes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (fieldName.equals("attributes")) {
+                if (header.recordType == null) {
+                    bufferedAttributes = new TokenBuffer(parser);
+                    bufferedAttributes.copyCurrentStructure(parser);
+                } else {
+                    item = _addNewRelatedItemForAttributeIndex(attributeIndex, header.recordType);
+                    item.readAttributes(parser, item instanceof DataSetItemAttachment ? null : attachmentMap, search);
+                }
+            } else if (!header.read(fieldName, parser)) {
+                parser.skipChildren();
+            }
+        }
+        if (item == null) {
+            item = _addNewRelatedItemForAttributeIndex(attributeIndex, header.recordType);
+            if (bufferedAttributes != null) {
+                JsonParser attributesParser = bufferedAttributes.asParser();
+                attributesParser.nextToken();
+                item.readAttributes(attributesParser, item instanceof DataSetItemAttachment ? null : attachmentMap, search);
+            }
+        }
+        header.applyTo(item);
+        if (item instanceof DataSetItemAttachment && item.clientKey != null && attachmentMap != null) {
+            Http.MultipartFormData.FilePart filePart = attachmentMap.get(item.clientKey);
+            if (filePart != null) {
+                ((DataSetItemAttachment) item).attachmentFileItem = filePart;
+                ((DataSetItemAttachment) item).setMimeType(filePart.getContentType());
+            }
+        }
+    }
+
+    private DataSetItem _addNewRelatedItemForAttributeIndex(int attributeIndex, String recordType) {
+        if (Type.fromString(recordType != null ? recordType : "") == Type.Attachment) {
+            return _addNewAttachmentForAttributeIndex(attributeIndex);
+        }
+        return _addNewDataSetItemForAttributeIndex(attributeIndex);
+    }
+
+    /**
+     * @return The text of a string token or null for any other token, structures are skipped
+     */
+    private static String textValue(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * @return The text of a scalar token or an empty string for a structure, which is skipped
+     */
+    private static String asText(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken().isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return "";
+    }
+
+    /**
+     * The fields of an item json other than its attributes, kept until the whole object is read
+     */
+    private static class ItemHeader {
+        private String primaryKey;
+        private boolean hasCRUDStatus;
+        private String crudStatus;
+        private String status;
+        private String clientKey;
+        private String recordType;
+
+        /**
+         * @return false if the field is not part of the header
+         */
+        boolean read(String fieldName, JsonParser parser) throws IOException {
+            switch (fieldName) {
+                case "primaryKey":
+                    primaryKey = textValue(parser);
+                    return true;
+                case "CRUDStatus":
+                    hasCRUDStatus = true;
+                    crudStatus = textValue(parser);
+                    return true;
+                case "status":
+                    status = textValue(parser);
+                    return true;
+                case "clientKey":
+                    clientKey = textValue(parser);
+                    return true;
+                case "recordType":
+                    recordType = asText(parser);
+                    return true;
+            }
+            return false;
+        }
+
+        void applyTo(DataSetItem item) {
+            item.primaryKey = primaryKey;
+            item.crudStatus = hasCRUDStatus && crudStatus != null ? CRUDStatus.fromString(crudStatus) : CRUDStatus.Read;
+            item.status = Status.fromString(status);
+            item.clientKey = clientKey;
+        }
     }
 
     public DataSetItem addNewDataSetItemForAttributeIndex(int attributeIndex) {
@@ -1580,7 +1817,7 @@ public class DataSetItem implements Record {
     }
 
     private DataSetItem _addNewDataSetItemForAttributeIndex(int attributeIndex) {
-        DataSetItemAttribute attribute = attributeMap.get(attributeIndex);
+        DataSetItemAttribute attribute = attributeStore.get(attributeIndex);
         ServiceConfigurationAttribute configurationAttribute = configurationMap.get(attributeIndex);
         if (configurationAttribute == null || configurationAttribute.relatedService == null) {
             throw new InvalidAttributeValueException("You have configured attribute " + attributeIndex + " as a relationship but you have not defined a related service. Please update your configuration to include a related service for this attribute.");
@@ -1589,7 +1826,7 @@ public class DataSetItem implements Record {
         DataSetItem dataSetItem = new DataSetItem(configurationAttribute.relatedService.getAttributeConfigurationForIndexMap());
         if (attribute == null || configurationAttribute.attributeType == AttributeType.SingleRelationship) {
             attribute = new DataSetItemAttribute(dataSetItem);
-            attributeMap.put(attributeIndex, attribute);
+            attributeStore.put(attributeIndex, attribute);
         } else {
             attribute.addDataSetItem(dataSetItem);
         }
@@ -1603,11 +1840,11 @@ public class DataSetItem implements Record {
     private DataSetItemAttachment _addNewAttachmentForAttributeIndex(int attributeIndex) throws InvalidAttributeValueException {
         validateGetterAttributeTypeForIndex(AttributeType.Attachments, attributeIndex);
         DataSetItemAttachment attachmentItem = new DataSetItemAttachment();
-        DataSetItemAttribute attribute = attributeMap.get(attributeIndex);
+        DataSetItemAttribute attribute = attributeStore.get(attributeIndex);
 
         if (attribute == null) {
             attribute = new DataSetItemAttribute(attachmentItem);
-            attributeMap.put(attributeIndex, attribute);
+            attributeStore.put(attributeIndex, attribute);
         } else {
             attribute.addDataSetItem(attachmentItem);
         }
@@ -1628,32 +1865,19 @@ public class DataSetItem implements Record {
         if (crudStatus != that.crudStatus) return false;
         if (status != that.status) return false;
         if (configurationMap.size() != that.configurationMap.size()) return false;
-        if (attributeMap.size() != that.attributeMap.size()) return false;
         if (!configurationMap.keySet().equals(that.configurationMap.keySet())) return false;
-        if (!attributeMap.keySet().equals(that.attributeMap.keySet())) return false;
-        for (int i = 0; i < attributeMap.size(); i++) {
-            DataSetItemAttribute thisAttribute = this.attributeMap.get(i);
-            DataSetItemAttribute thatAttribute = that.attributeMap.get(i);
-            if (Null(thisAttribute) && Null(thatAttribute)) return true;
-            if (!thisAttribute.equals(thatAttribute)) {
-                return false;
-            }
-        }
-        return true;
+        return attributeStore.equals(that.attributeStore);
     }
 
     @Override
     public int hashCode() {
-        int result = attributeMap != null ? attributeMap.hashCode() : 0;
+        int result = attributeStore.hashCode();
         result = 31 * result + (primaryKey != null ? primaryKey.hashCode() : 0);
         result = 31 * result + (clientKey != null ? clientKey.hashCode() : 0);
         result = 31 * result + maxAttributeIndex;
         result = 31 * result + (crudStatus != null ? crudStatus.hashCode() : 0);
         result = 31 * result + (status != null ? status.hashCode() : 0);
-        result = 31 * result + (configurationAttributes != null ? configurationAttributes.hashCode() : 0);
-        result = 31 * result + (lazyLoadedRelationships != null ? lazyLoadedRelationships.hashCode() : 0);
-        result = 31 * result + (attributeMetaMap != null ? attributeMetaMap.hashCode() : 0);
-        result = 31 * result + (configurationMap != null ? configurationMap.hashCode() : 0);
+        result = 31 * result + (configurationMap != null ? configurationMap.keySet().hashCode() : 0);
         return result;
     }
 }
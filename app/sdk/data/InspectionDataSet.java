@@ -1,5 +1,6 @@
 package sdk.data;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.joda.time.DateTime;
@@ -7,6 +8,7 @@ import sdk.utils.JsonUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -81,4 +83,14 @@ public class InspectionDataSet extends DataSet {
         node.set("context", contextNode);
         return node;
     }
+
+    @Override
+    protected void writeAdditionalJSONFields(JsonGenerator generator) throws IOException {
+        Map<String,String> context = this.context != null ? this.context : new HashMap<>();
+        generator.writeObjectFieldStart("context");
+        for (Map.Entry<String, String> entry : context.entrySet()) {
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        generator.writeEndObject();
+    }
 }
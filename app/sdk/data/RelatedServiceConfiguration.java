@@ -18,17 +18,20 @@ public class RelatedServiceConfiguration extends ServiceConfiguration {
         super(name,attributes,null,null);
     }
 
-    private HashMap<Integer, ServiceConfigurationAttribute> attributeConfigurationForIndexMap;
+    private volatile HashMap<Integer, ServiceConfigurationAttribute> attributeConfigurationForIndexMap;
 
     @JsonIgnore
     public HashMap<Integer, ServiceConfigurationAttribute> getAttributeConfigurationForIndexMap() {
-        if ( attributeConfigurationForIndexMap == null ) {
-            attributeConfigurationForIndexMap = new HashMap<Integer, ServiceConfigurationAttribute>();
+        HashMap<Integer, ServiceConfigurationAttribute> map = attributeConfigurationForIndexMap;
+        if ( map == null ) {
+            // fill before publishing, the configuration may be shared between threads
+            map = new HashMap<Integer, ServiceConfigurationAttribute>();
             for ( ServiceConfigurationAttribute attribute : getAttributes() ) {
-                attributeConfigurationForIndexMap.put(attribute.getAttributeIndex(), attribute);
+                map.put(attribute.getAttributeIndex(), attribute);
             }
+            attributeConfigurationForIndexMap = map;
         }
-        return attributeConfigurationForIndexMap;
+        return map;
     }
 
     public static class Builder {
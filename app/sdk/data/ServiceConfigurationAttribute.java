@@ -37,6 +37,28 @@ public class ServiceConfigurationAttribute {
     public ServiceConfigurationAttribute() {
     }
 
+    /**
+     * Creates a copy of a service configuration attribute. The related services are shared
+     * with the original
+     *
+     * @param other The attribute to copy
+     */
+    public ServiceConfigurationAttribute(ServiceConfigurationAttribute other) {
+        this.name = other.name;
+        this.relatedService = other.relatedService;
+        this.relatedListService = other.relatedListService;
+        this.attributeType = other.attributeType;
+        this.userInfo = other.userInfo != null ? new HashMap<String, Object>(other.userInfo) : null;
+        this.create = other.create;
+        this.createRequired = other.createRequired;
+        this.update = other.update;
+        this.updateRequired = other.updateRequired;
+        this.search = other.search;
+        this.searchRequired = other.searchRequired;
+        this.listItemConfiguration = other.listItemConfiguration;
+        this.mAttributeIndex = other.mAttributeIndex;
+    }
+
     /**
      * @return
      */
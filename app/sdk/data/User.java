@@ -322,8 +322,10 @@ public class User extends DataSetItem {
         attributes.add(new ServiceConfigurationAttribute.Builder(PHONE_INDEX).name("Phone").canCreate().canUpdate().build());
         if ( customAttributes != null ) {
             for (ServiceConfigurationAttribute attribute : customAttributes) {
-                attribute.setAttributeIndex(attribute.getAttributeIndex() + CUSTOM_ATTRIBUTE_START_INDEX);
-                attributes.add(attribute);
+                // copy so that shared (e.g. generated) attributes keep their original index
+                ServiceConfigurationAttribute customAttribute = new ServiceConfigurationAttribute(attribute);
+                customAttribute.setAttributeIndex(attribute.getAttributeIndex() + CUSTOM_ATTRIBUTE_START_INDEX);
+                attributes.add(customAttribute);
             }
         }
         return attributes;
@@ -3,6 +3,7 @@ package sdk.datasources;
 import sdk.data.AttachmentResponse;
 import sdk.datasources.base.AttachmentDataSource;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.Parameters;
 
 import java.util.concurrent.CompletableFuture;
@@ -31,7 +32,7 @@ public class AttachmentDataSource_Internal extends BaseSource_Internal {
         if ( rxDataSource != null ) {
             attachmentFuture = observableToFuture(rxDataSource.getAttachment(attachmentID, authenticationInfo, parameters));
         } else if ( baseDataSource != null ) {
-            attachmentFuture = CompletableFuture.supplyAsync(() -> baseDataSource.getAttachment(attachmentID, authenticationInfo, parameters));
+            attachmentFuture = ExecutorPools.supplyAsync(() -> baseDataSource.getAttachment(attachmentID, authenticationInfo, parameters), getExecutor());
         } else if ( futureDataSource != null ) {
             attachmentFuture = futureDataSource.getAttachment(attachmentID, authenticationInfo, parameters);
         } else {
@@ -2,14 +2,58 @@ package sdk.datasources;
 
 import rx.Observable;
 import rx.schedulers.Schedulers;
+import sdk.utils.ExecutorPools;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Created by Matthew Smith on 9/2/16.
  * Copyright AppTree Software, Inc.
  */
 class BaseSource_Internal {
+    // the name of the pool the blocking calls run on, null for the shared pool
+    private final String poolName;
+    // resolved on the first call, see getExecutor
+    private volatile Executor executor;
+
+    BaseSource_Internal() {
+        this(null, null);
+    }
+
+    /**
+     * @param poolName The name of the pool the blocking calls of the source run on, null for the
+     *                 shared pool
+     * @param executor Runs the blocking calls of the source instead of the pool, null to use it
+     */
+    BaseSource_Internal(String poolName, Executor executor) {
+        this.poolName = poolName;
+        this.executor = executor;
+    }
+
+    /**
+     * The pool is picked on the first call rather than when the source is registered, since
+     * sources are registered while the modules are configured and the configuration of the
+     * pool is not read until the application is running.
+     *
+     * @return The pool the blocking calls of the source run on
+     */
+    public Executor getExecutor() {
+        Executor resolved = executor;
+        if (resolved == null) {
+            resolved = ExecutorPools.getDataSourceExecutor(poolName);
+            executor = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * @return The source as the type, null if it does not implement it
+     */
+    static <T> T as(Object source, Class<T> type) {
+        return type.isInstance(source) ? type.cast(source) : null;
+    }
+
     <T> CompletableFuture<T> observableToFuture(Observable<T> observable) {
         CompletableFuture<T> future = new CompletableFuture<T>();
         observable
@@ -15,8 +15,9 @@ import java.util.List;
  */
 public class ConversionDataSource_Internal<S, D> extends BaseSource_Internal {
     ConversionDataSource<S, D> conversionDataSource;
-    Collection<ServiceConfigurationAttribute> destinationAttributes;
-    Collection<ServiceConfigurationAttribute> sourceAttributes;
+    // the adapter is shared between requests, so these are built once
+    volatile Collection<ServiceConfigurationAttribute> destinationAttributes;
+    volatile Collection<ServiceConfigurationAttribute> sourceAttributes;
 
     public ConversionDataSource_Internal(ConversionDataSourceBase conversionDataSourceBase) {
         conversionDataSource = (ConversionDataSource<S, D>) conversionDataSourceBase;
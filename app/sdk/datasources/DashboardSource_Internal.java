@@ -3,9 +3,11 @@ package sdk.datasources;
 import sdk.dashboard.Dashboard;
 import sdk.datasources.base.DashboardSource;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.Parameters;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class DashboardSource_Internal extends BaseSource_Internal {
     DashboardSource baseDataSource;
@@ -13,6 +15,26 @@ public class DashboardSource_Internal extends BaseSource_Internal {
     sdk.datasources.rx.DashboardSource rxSource;
 
     public DashboardSource_Internal(DashboardSourceBase base) {
+        this(base, null, null);
+    }
+
+    /**
+     * @param name The name the source is registered with, its blocking calls run on the pool
+     *             for the name
+     */
+    public DashboardSource_Internal(String name, DashboardSourceBase base) {
+        this(base, name, null);
+    }
+
+    /**
+     * @param executor Runs the blocking calls of the source instead of the pool for its name
+     */
+    public DashboardSource_Internal(DashboardSourceBase base, Executor executor) {
+        this(base, null, executor);
+    }
+
+    private DashboardSource_Internal(DashboardSourceBase base, String name, Executor executor) {
+        super(name, executor);
         if (base instanceof DashboardSource) {
             baseDataSource = (DashboardSource) base;
         } else if (base instanceof sdk.datasources.future.DashboardSource) {
@@ -22,10 +44,9 @@ public class DashboardSource_Internal extends BaseSource_Internal {
         }
     }
 
-
     public CompletableFuture<Dashboard> getItems(AuthenticationInfo authenticationInfo, Parameters parameters) {
         if(baseDataSource != null) {
-            return CompletableFuture.supplyAsync(() -> baseDataSource.getItems(authenticationInfo, parameters));
+            return ExecutorPools.supplyAsync(() -> baseDataSource.getItems(authenticationInfo, parameters), getExecutor());
         } else if (futureSource != null) {
             return futureSource.getItems(authenticationInfo, parameters);
         } else if (rxSource != null) {
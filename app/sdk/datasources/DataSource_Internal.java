@@ -1,5 +1,6 @@
 package sdk.datasources;
 
+import play.Logger;
 import sdk.converter.ObjectConverter;
 import sdk.converter.ParserContext;
 import sdk.data.DataSet;
@@ -11,6 +12,7 @@ import sdk.utils.*;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Created by matthew on 9/6/16.
@@ -21,6 +23,26 @@ public class DataSource_Internal extends BaseSource_Internal {
     sdk.datasources.future.DataSource futureDataSource;
 
     public DataSource_Internal(DataSourceBase dataSourceBase) {
+        this(dataSourceBase, null, null);
+    }
+
+    /**
+     * @param name The name the source is registered with, its blocking calls run on the pool
+     *             for the name
+     */
+    public DataSource_Internal(String name, DataSourceBase dataSourceBase) {
+        this(dataSourceBase, name, null);
+    }
+
+    /**
+     * @param executor Runs the blocking calls of the source instead of the pool for its name
+     */
+    public DataSource_Internal(DataSourceBase dataSourceBase, Executor executor) {
+        this(dataSourceBase, null, executor);
+    }
+
+    private DataSource_Internal(DataSourceBase dataSourceBase, String name, Executor executor) {
+        super(name, executor);
         if (dataSourceBase instanceof DataSource) {
             dataSource = (DataSource) dataSourceBase;
         } else if (dataSourceBase instanceof sdk.datasources.future.DataSource) {
@@ -43,7 +65,7 @@ public class DataSource_Internal extends BaseSource_Internal {
 
     public CompletableFuture<DataSet> getDataSet(AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.getDataSet(authenticationInfo, params));
+            return ExecutorPools.supplyAsync(() -> dataSource.getDataSet(authenticationInfo, params), getExecutor());
         } else if (futureDataSource != null) {
             return futureDataSource.getDataSet(authenticationInfo, params);
         } else if (rxDataSource != null) {
@@ -54,7 +76,7 @@ public class DataSource_Internal extends BaseSource_Internal {
 
     public CompletableFuture<DataSet> getDataSetItem(AuthenticationInfo authenticationInfo, String id, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> new DataSet(dataSource.getRecord(id, authenticationInfo, params)));
+            return ExecutorPools.supplyAsync(() -> new DataSet(dataSource.getRecord(id, authenticationInfo, params)), getExecutor());
         } else if (futureDataSource != null) {
             return futureDataSource
                     .getRecord(id, authenticationInfo, params)
@@ -78,7 +100,14 @@ public class DataSource_Internal extends BaseSource_Internal {
             return Response.fromException(new RuntimeException("No data source available"), true);
         }
 
-        CompletableFuture.runAsync(() -> base.getBatchedDataSet(authenticationInfo, parameters, batchManager));
+        ExecutorPools.runAsync(() -> base.getBatchedDataSet(authenticationInfo, parameters, batchManager), getExecutor())
+                .whenComplete((done, throwable) -> {
+                    if (throwable != null && batchManager.isCancelled()) {
+                        Logger.warn("Stopped the paged data set after " + batchManager.getBatchesSent() + " batches, the core did not accept a batch");
+                    } else if (throwable != null) {
+                        Logger.error("Unable to send the paged data set", throwable);
+                    }
+                });
         return Response.asyncSuccess();
     }
 
@@ -91,7 +120,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<DataSet> queryDataSet(DataSetItem queryDataItem, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.queryDataSet(queryDataItem, authenticationInfo, params));
+            return ExecutorPools.supplyAsync(() -> dataSource.queryDataSet(queryDataItem, authenticationInfo, params), getExecutor());
         } else if (futureDataSource != null) {
             return futureDataSource.queryDataSet(queryDataItem, authenticationInfo, params);
         } else if (rxDataSource != null) {
@@ -108,7 +137,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<DataSet> createDataSetItem(DataSetItem dataSetItem, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.createRecord(dataSetItem, authenticationInfo, params)).thenApply(DataSet::new);
+            return ExecutorPools.supplyAsync(() -> dataSource.createRecord(dataSetItem, authenticationInfo, params), getExecutor()).thenApply(DataSet::new);
         } else if (futureDataSource != null) {
             return futureDataSource.createRecord(dataSetItem, authenticationInfo, params).thenApply(DataSet::new);
         } else if (rxDataSource != null) {
@@ -125,7 +154,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<DataSet> updateDataSetItem(DataSetItem dataSetItem, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.updateRecord(dataSetItem, authenticationInfo, params)).thenApply(DataSet::new);
+            return ExecutorPools.supplyAsync(() -> dataSource.updateRecord(dataSetItem, authenticationInfo, params), getExecutor()).thenApply(DataSet::new);
         } else if (futureDataSource != null) {
             return futureDataSource.updateRecord(dataSetItem, authenticationInfo, params).thenApply(DataSet::new);
         } else if (rxDataSource != null) {
@@ -144,7 +173,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<DataSet> validateDataSetItem(DataSetItem dataSetItem, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.validateRecord(dataSetItem, authenticationInfo, params)).thenApply(DataSet::new);
+            return ExecutorPools.supplyAsync(() -> dataSource.validateRecord(dataSetItem, authenticationInfo, params), getExecutor()).thenApply(DataSet::new);
         } else if (futureDataSource != null) {
             return futureDataSource.validateRecord(dataSetItem, authenticationInfo, params).thenApply(DataSet::new);
         } else if (rxDataSource != null) {
@@ -161,7 +190,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<Response> updateEventForDataSetItem(String dataSetItemID, Event event, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.updateEventForDataSetItem(dataSetItemID, event, authenticationInfo, params));
+            return ExecutorPools.supplyAsync(() -> dataSource.updateEventForDataSetItem(dataSetItemID, event, authenticationInfo, params), getExecutor());
         } else if (futureDataSource != null) {
             return futureDataSource.updateEventForDataSetItem(dataSetItemID, event, authenticationInfo, params);
         } else if (rxDataSource != null) {
@@ -181,7 +210,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<DataSet> bulkUpdateDataSetItems(List<String> primaryKeys, DataSetItem dataSetItem, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.bulkUpdateDataSetItems(primaryKeys, dataSetItem, authenticationInfo, params));
+            return ExecutorPools.supplyAsync(() -> dataSource.bulkUpdateDataSetItems(primaryKeys, dataSetItem, authenticationInfo, params), getExecutor());
         } else if (futureDataSource != null) {
             return futureDataSource.bulkUpdateDataSetItems(primaryKeys, dataSetItem, authenticationInfo, params);
         } else if (rxDataSource != null) {
@@ -200,7 +229,7 @@ public class DataSource_Internal extends BaseSource_Internal {
      */
     public CompletableFuture<DataSet> deleteDataSetItem(String dataSetItemID, AuthenticationInfo authenticationInfo, Parameters params) {
         if (dataSource != null) {
-            return CompletableFuture.supplyAsync(() -> dataSource.deleteRecord(dataSetItemID, authenticationInfo, params)).thenApply(DataSet::new);
+            return ExecutorPools.supplyAsync(() -> dataSource.deleteRecord(dataSetItemID, authenticationInfo, params), getExecutor()).thenApply(DataSet::new);
         } else if (futureDataSource != null) {
             return futureDataSource.deleteRecord(dataSetItemID, authenticationInfo, params).thenApply(DataSet::new);
         } else if (rxDataSource != null) {
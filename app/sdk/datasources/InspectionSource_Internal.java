@@ -3,68 +3,93 @@ package sdk.datasources;
 import sdk.data.*;
 import sdk.datasources.base.InspectionSource;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.Parameters;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Created by matthew on 9/6/16.
  */
 public class InspectionSource_Internal extends BaseSource_Internal {
 
-    InspectionSourceBase dataSource;
+    final InspectionSourceBase dataSource;
+    final InspectionSource baseSource;
+    final sdk.datasources.future.InspectionSource futureSource;
+    final sdk.datasources.rx.InspectionSource rxSource;
 
     public InspectionSource_Internal(InspectionSourceBase dataSource) {
+        this(dataSource, null, null);
+    }
+
+    /**
+     * @param name The name the source is registered with, its blocking calls run on the pool
+     *             for the name
+     */
+    public InspectionSource_Internal(String name, InspectionSourceBase dataSource) {
+        this(dataSource, name, null);
+    }
+
+    /**
+     * @param executor Runs the blocking calls of the source instead of the pool for its name
+     */
+    public InspectionSource_Internal(InspectionSourceBase dataSource, Executor executor) {
+        this(dataSource, null, executor);
+    }
+
+    private InspectionSource_Internal(InspectionSourceBase dataSource, String name, Executor executor) {
+        super(name, executor);
         this.dataSource = dataSource;
+        baseSource = as(dataSource, InspectionSource.class);
+        futureSource = as(dataSource, sdk.datasources.future.InspectionSource.class);
+        rxSource = as(dataSource, sdk.datasources.rx.InspectionSource.class);
     }
 
     public CompletableFuture<InspectionDataSet> startInspection(DataSetItem inspectionSearchDataSetItem, AuthenticationInfo authenticationInfo, Parameters parameters) {
-        if ( dataSource instanceof InspectionSource ) {
-            return CompletableFuture.supplyAsync(() -> ((InspectionSource)dataSource).startInspection(inspectionSearchDataSetItem, authenticationInfo, parameters));
-        } else if ( dataSource instanceof sdk.datasources.future.InspectionSource ) {
-            return ((sdk.datasources.future.InspectionSource)dataSource).startInspection(inspectionSearchDataSetItem, authenticationInfo, parameters);
-        } else if (dataSource instanceof sdk.datasources.rx.InspectionSource) {
-            sdk.datasources.rx.InspectionSource source = (sdk.datasources.rx.InspectionSource) dataSource;
-            return observableToFuture(source.startInspection(inspectionSearchDataSetItem, authenticationInfo, parameters));
+        if (baseSource != null) {
+            return ExecutorPools.supplyAsync(() -> baseSource.startInspection(inspectionSearchDataSetItem, authenticationInfo, parameters), getExecutor());
+        } else if (futureSource != null) {
+            return futureSource.startInspection(inspectionSearchDataSetItem, authenticationInfo, parameters);
+        } else if (rxSource != null) {
+            return observableToFuture(rxSource.startInspection(inspectionSearchDataSetItem, authenticationInfo, parameters));
         }
         throw new RuntimeException("No data source defined");
     }
 
     public CompletableFuture<DataSet> completeInspection(InspectionDataSet completedDataSet, AuthenticationInfo authenticationInfo, Parameters parameters) {
-        if ( dataSource instanceof InspectionSource ) {
-            return CompletableFuture.supplyAsync(() -> ((InspectionSource)dataSource).completeInspection(completedDataSet, authenticationInfo, parameters));
-        } else if ( dataSource instanceof sdk.datasources.future.InspectionSource ) {
-            return ((sdk.datasources.future.InspectionSource)dataSource).completeInspection(completedDataSet, authenticationInfo, parameters);
-        } else if (dataSource instanceof sdk.datasources.rx.InspectionSource) {
-            sdk.datasources.rx.InspectionSource source = (sdk.datasources.rx.InspectionSource) dataSource;
-            return observableToFuture(source.completeInspection(completedDataSet, authenticationInfo, parameters));
+        if (baseSource != null) {
+            return ExecutorPools.supplyAsync(() -> baseSource.completeInspection(completedDataSet, authenticationInfo, parameters), getExecutor());
+        } else if (futureSource != null) {
+            return futureSource.completeInspection(completedDataSet, authenticationInfo, parameters);
+        } else if (rxSource != null) {
+            return observableToFuture(rxSource.completeInspection(completedDataSet, authenticationInfo, parameters));
         }
         throw new RuntimeException("No data source defined");
     }
 
     public CompletableFuture<DataSet> searchInspectionItem(String primaryKey, Map<String,String> inspectionContext, AuthenticationInfo authenticationInfo, Parameters parameters) {
-        if ( dataSource instanceof InspectionSource ) {
-            return CompletableFuture.supplyAsync(() -> ((InspectionSource) dataSource)
-                    .searchForInspectionItem(primaryKey,inspectionContext, authenticationInfo, parameters))
+        if (baseSource != null) {
+            return ExecutorPools.supplyAsync(() -> baseSource
+                    .searchForInspectionItem(primaryKey,inspectionContext, authenticationInfo, parameters), getExecutor())
                     .thenApply(DataSet::new);
-        } else if ( dataSource instanceof sdk.datasources.future.InspectionSource ) {
-            return ((sdk.datasources.future.InspectionSource) dataSource).searchForInspectionItem(primaryKey,inspectionContext, authenticationInfo, parameters).thenApply(DataSet::new);
-        } else if ( dataSource instanceof sdk.datasources.rx.InspectionSource ) {
-            return observableToFuture(((sdk.datasources.rx.InspectionSource) dataSource).searchForInspectionItem(primaryKey,inspectionContext, authenticationInfo, parameters).map(DataSet::new));
+        } else if (futureSource != null) {
+            return futureSource.searchForInspectionItem(primaryKey,inspectionContext, authenticationInfo, parameters).thenApply(DataSet::new);
+        } else if (rxSource != null) {
+            return observableToFuture(rxSource.searchForInspectionItem(primaryKey,inspectionContext, authenticationInfo, parameters).map(DataSet::new));
         }
         throw new RuntimeException("No data source defined");
     }
 
     public CompletableFuture<DataSet> updateInspectionItem(DataSetItem dataSetItem,Map<String,String> inspectionContext, AuthenticationInfo authenticationInfo, Parameters parameters) {
-        if ( dataSource instanceof InspectionSource ) {
-            return CompletableFuture.supplyAsync(() -> ((InspectionSource)dataSource).updateInspectionItem(dataSetItem,inspectionContext,authenticationInfo, parameters)).thenApply(DataSet::new);
-        } else if ( dataSource instanceof sdk.datasources.future.InspectionSource ) {
-            return ((sdk.datasources.future.InspectionSource)dataSource).updateInspectionItem(dataSetItem,inspectionContext, authenticationInfo, parameters).thenApply(DataSet::new);
-        } else if (dataSource instanceof sdk.datasources.rx.InspectionSource) {
-            sdk.datasources.rx.InspectionSource source = (sdk.datasources.rx.InspectionSource) dataSource;
-            return observableToFuture(source.updateInspectionItem(dataSetItem,inspectionContext, authenticationInfo, parameters).map(DataSet::new));
+        if (baseSource != null) {
+            return ExecutorPools.supplyAsync(() -> baseSource.updateInspectionItem(dataSetItem,inspectionContext,authenticationInfo, parameters), getExecutor()).thenApply(DataSet::new);
+        } else if (futureSource != null) {
+            return futureSource.updateInspectionItem(dataSetItem,inspectionContext, authenticationInfo, parameters).thenApply(DataSet::new);
+        } else if (rxSource != null) {
+            return observableToFuture(rxSource.updateInspectionItem(dataSetItem,inspectionContext, authenticationInfo, parameters).map(DataSet::new));
         }
         throw new RuntimeException("No data source defined");
     }
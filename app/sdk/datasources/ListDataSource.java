@@ -3,6 +3,8 @@ package sdk.datasources;
 import sdk.AppTreeSource;
 import sdk.data.ServiceConfigurationAttribute;
 import sdk.list.ListServiceConfigurationAttribute;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.Parameters;
 import sdk.utils.ServiceParameter;
 
 import java.util.Collection;
@@ -29,4 +31,35 @@ public interface ListDataSource extends AppTreeSource {
      * @return A list service configuration containing the possible server filter parameters of a list
      */
     default Set<ServiceParameter> getListFilterParameters() { return null; }
+
+    /**
+     * The attributes that clients search the cached list on, only these get an index in the
+     * list database. By default the attributes marked with canSearch are indexed, or the first
+     * ten attributes if none are.
+     *
+     * @return The indexes of the searchable attributes or null to use the default
+     */
+    default Set<Integer> getSearchableAttributeIndexes() { return null; }
+
+    /**
+     * Lets the list be answered from the list cache without fetching it. Return a token that
+     * changes whenever the content of the list changes, e.g. a last modified date or a row version.
+     *
+     * @param authenticationInfo
+     * @param params
+     * @return The current version of the list or null to fetch the list on every request
+     */
+    default String getListVersion(AuthenticationInfo authenticationInfo, Parameters params) { return null; }
+
+    /**
+     * Lets searches be answered from an in memory index of the list last fetched, when
+     * apptree.listSearch.maxAgeSeconds is set, instead of calling queryList or getListItem. The
+     * index matches the search term anywhere in the value, ID or searchable attributes of an
+     * item, case insensitive, and a barcode search on the whole of one of them. Only allow it if
+     * that is what the data source would answer, and if only the filter parameters of the list
+     * change its content, as indexes are kept per list filter.
+     *
+     * @return true to search the index of the last fetched list
+     */
+    default boolean isSearchIndexSupported() { return false; }
 }
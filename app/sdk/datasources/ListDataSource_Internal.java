@@ -1,26 +1,86 @@
 package sdk.datasources;
 
+import org.joda.time.DateTime;
 import rx.Observable;
+import rx.schedulers.Schedulers;
 import sdk.datasources.base.CacheableList;
 import sdk.list.List;
+import sdk.list.ListChanges;
+import sdk.list.ListDatabaseSchema;
 import sdk.list.ListItem;
+import sdk.list.ListSearchIndexCache;
 import sdk.list.ListServiceConfiguration;
 import sdk.datasources.base.SearchableList;
 import sdk.list.UserList;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.Parameters;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * Created by matthew on 9/5/16.
  */
 public class ListDataSource_Internal extends BaseSource_Internal {
-    ListDataSource dataSource;
+    final ListDataSource dataSource;
+    // the interfaces the source implements, resolved once so calls do not check them again
+    final CacheableList cacheableList;
+    final sdk.datasources.future.CacheableList futureCacheableList;
+    final sdk.datasources.rx.CacheableList rxCacheableList;
+    final SearchableList searchableList;
+    final sdk.datasources.future.SearchableList futureSearchableList;
+    final sdk.datasources.rx.SearchableList rxSearchableList;
+    final sdk.datasources.base.StreamingList streamingList;
+    final sdk.datasources.future.StreamingList futureStreamingList;
+    final sdk.datasources.rx.StreamingList rxStreamingList;
+    final sdk.datasources.base.IncrementalList incrementalList;
+    final sdk.datasources.future.IncrementalList futureIncrementalList;
+    final sdk.datasources.rx.IncrementalList rxIncrementalList;
+    private final boolean cacheSupported;
+    private final boolean searchSupported;
+    private final boolean streamingSupported;
+    private volatile ListDatabaseSchema listDatabaseSchema;
 
     public ListDataSource_Internal(ListDataSource dataSource) {
+        this(dataSource, null, null);
+    }
+
+    /**
+     * @param name The name the source is registered with, its blocking calls run on the pool
+     *             for the name
+     */
+    public ListDataSource_Internal(String name, ListDataSource dataSource) {
+        this(dataSource, name, null);
+    }
+
+    /**
+     * @param executor Runs the blocking calls of the source instead of the pool for its name
+     */
+    public ListDataSource_Internal(ListDataSource dataSource, Executor executor) {
+        this(dataSource, null, executor);
+    }
+
+    private ListDataSource_Internal(ListDataSource dataSource, String name, Executor executor) {
+        super(name, executor);
         this.dataSource = dataSource;
+        cacheableList = as(dataSource, CacheableList.class);
+        futureCacheableList = as(dataSource, sdk.datasources.future.CacheableList.class);
+        rxCacheableList = as(dataSource, sdk.datasources.rx.CacheableList.class);
+        searchableList = as(dataSource, SearchableList.class);
+        futureSearchableList = as(dataSource, sdk.datasources.future.SearchableList.class);
+        rxSearchableList = as(dataSource, sdk.datasources.rx.SearchableList.class);
+        streamingList = as(dataSource, sdk.datasources.base.StreamingList.class);
+        futureStreamingList = as(dataSource, sdk.datasources.future.StreamingList.class);
+        rxStreamingList = as(dataSource, sdk.datasources.rx.StreamingList.class);
+        incrementalList = as(dataSource, sdk.datasources.base.IncrementalList.class);
+        futureIncrementalList = as(dataSource, sdk.datasources.future.IncrementalList.class);
+        rxIncrementalList = as(dataSource, sdk.datasources.rx.IncrementalList.class);
+        cacheSupported = cacheableList != null || futureCacheableList != null || rxCacheableList != null;
+        searchSupported = searchableList != null || futureSearchableList != null || rxSearchableList != null;
+        streamingSupported = streamingList != null || futureStreamingList != null || rxStreamingList != null;
     }
 
     public ListServiceConfiguration getListServiceConfiguration() {
@@ -43,24 +103,63 @@ public class ListDataSource_Internal extends BaseSource_Internal {
     }
 
     public CompletableFuture<List> getList(AuthenticationInfo authenticationInfo, Parameters parameters) {
-        if (dataSource instanceof CacheableList) {
-            return CompletableFuture.supplyAsync(() -> ((CacheableList) dataSource).getList(authenticationInfo, parameters));
-        } else if (dataSource instanceof sdk.datasources.future.CacheableList) {
-            return ((sdk.datasources.future.CacheableList) dataSource).getList(authenticationInfo, parameters);
-        } else if (dataSource instanceof sdk.datasources.rx.CacheableList) {
-            return observableToFuture(((sdk.datasources.rx.CacheableList) dataSource).getList(authenticationInfo, parameters));
+        if (cacheableList != null) {
+            return ExecutorPools.supplyAsync(() -> cacheableList.getList(authenticationInfo, parameters), getExecutor());
+        } else if (futureCacheableList != null) {
+            return futureCacheableList.getList(authenticationInfo, parameters);
+        } else if (rxCacheableList != null) {
+            return observableToFuture(rxCacheableList.getList(authenticationInfo, parameters));
         }
         throw new RuntimeException("Data source does not support cached lists");
     }
 
+    /**
+     * Passes every list item to the sink. Data sources that can not stream their list get the
+     * whole list first.
+     *
+     * @return A future that completes once every item has been passed to the sink
+     */
+    public CompletableFuture<Void> streamList(AuthenticationInfo authenticationInfo, Parameters parameters, Consumer<ListItem> sink) {
+        if (streamingList != null) {
+            return ExecutorPools.runAsync(() -> streamingList.streamList(authenticationInfo, parameters, sink), getExecutor());
+        } else if (futureStreamingList != null) {
+            return futureStreamingList.streamList(authenticationInfo, parameters, sink);
+        } else if (rxStreamingList != null) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            rxStreamingList.streamList(authenticationInfo, parameters)
+                    .subscribeOn(Schedulers.io())
+                    .subscribe(sink::accept, future::completeExceptionally, () -> future.complete(null));
+            return future;
+        }
+        return getList(authenticationInfo, parameters).thenAccept(list -> list.listItems.forEach(sink));
+    }
+
+    public boolean isStreamingSupported() {
+        return streamingSupported;
+    }
+
+    /**
+     * @return The changes since a time or null if the data source can not tell them
+     */
+    public CompletableFuture<ListChanges> getListChanges(DateTime since, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        if (incrementalList != null) {
+            return ExecutorPools.supplyAsync(() -> incrementalList.getListChanges(since, authenticationInfo, parameters), getExecutor());
+        } else if (futureIncrementalList != null) {
+            return futureIncrementalList.getListChanges(since, authenticationInfo, parameters);
+        } else if (rxIncrementalList != null) {
+            return observableToFuture(rxIncrementalList.getListChanges(since, authenticationInfo, parameters));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
     public CompletableFuture<List> queryList(String queryText, boolean barcodeSearch, Map<String, Object> searchParameters, AuthenticationInfo authenticationInfo, Parameters params) {
-        if (dataSource instanceof SearchableList) {
-            return CompletableFuture.supplyAsync(() -> ((SearchableList) dataSource).queryList(queryText, barcodeSearch, searchParameters, authenticationInfo, params));
-        } else if (dataSource instanceof sdk.datasources.future.SearchableList) {
-            return ((sdk.datasources.future.SearchableList) dataSource).queryList(queryText, barcodeSearch, searchParameters, authenticationInfo, params);
-        } else if (dataSource instanceof sdk.datasources.rx.SearchableList) {
+        if (searchableList != null) {
+            return ExecutorPools.supplyAsync(() -> searchableList.queryList(queryText, barcodeSearch, searchParameters, authenticationInfo, params), getExecutor());
+        } else if (futureSearchableList != null) {
+            return futureSearchableList.queryList(queryText, barcodeSearch, searchParameters, authenticationInfo, params);
+        } else if (rxSearchableList != null) {
             try {
-                Observable<List> observable = ((sdk.datasources.rx.SearchableList) dataSource).queryList(queryText, barcodeSearch, searchParameters, authenticationInfo, params);
+                Observable<List> observable = rxSearchableList.queryList(queryText, barcodeSearch, searchParameters, authenticationInfo, params);
                 return observableToFuture(observable);
             } catch (Exception e) {
                 CompletableFuture<List> future = new CompletableFuture<>();
@@ -72,13 +171,13 @@ public class ListDataSource_Internal extends BaseSource_Internal {
     }
 
     public CompletableFuture<ListItem> getListItem(String id, AuthenticationInfo authenticationInfo, Parameters params) {
-        if (dataSource instanceof SearchableList) {
-            return CompletableFuture.supplyAsync(() -> ((SearchableList)dataSource).fetchItem(id, authenticationInfo, params));
-        } else if ( dataSource instanceof sdk.datasources.future.SearchableList ) {
-            return ((sdk.datasources.future.SearchableList) dataSource).fetchItem(id, authenticationInfo, params);
-        } else if (dataSource instanceof sdk.datasources.rx.SearchableList) {
+        if (searchableList != null) {
+            return ExecutorPools.supplyAsync(() -> searchableList.fetchItem(id, authenticationInfo, params), getExecutor());
+        } else if (futureSearchableList != null) {
+            return futureSearchableList.fetchItem(id, authenticationInfo, params);
+        } else if (rxSearchableList != null) {
             try {
-                Observable<ListItem> observable = ((sdk.datasources.rx.SearchableList) dataSource).fetchItem(id, authenticationInfo, params);
+                Observable<ListItem> observable = rxSearchableList.fetchItem(id, authenticationInfo, params);
                 return observableToFuture(observable);
             } catch (Exception e) {
                 CompletableFuture<ListItem> future = new CompletableFuture<>();
@@ -90,20 +189,48 @@ public class ListDataSource_Internal extends BaseSource_Internal {
     }
 
     private boolean isSearchSupported() {
-        return dataSource instanceof sdk.datasources.rx.SearchableList || dataSource instanceof sdk.datasources.base.SearchableList || dataSource instanceof sdk.datasources.future.SearchableList;
+        return searchSupported;
     }
 
     private boolean isCacheSupported() {
-        return dataSource instanceof sdk.datasources.rx.CacheableList || dataSource instanceof sdk.datasources.base.CacheableList || dataSource instanceof sdk.datasources.future.CacheableList;
+        return cacheSupported;
+    }
+
+    /**
+     * @return The columns and indexes of the list database, worked out from the list attributes
+     * the first time they are needed
+     */
+    public ListDatabaseSchema getListDatabaseSchema() {
+        ListDatabaseSchema schema = listDatabaseSchema;
+        if (schema == null) {
+            schema = ListDatabaseSchema.forAttributes(dataSource.getServiceName(), dataSource.getListServiceAttributes(), dataSource.getSearchableAttributeIndexes());
+            listDatabaseSchema = schema;
+        }
+        return schema;
+    }
+
+    public boolean isSearchIndexSupported() {
+        return dataSource.isSearchIndexSupported();
+    }
+
+    /**
+     * @return The key of the search index of the list fetched with the parameters
+     */
+    public String getSearchIndexKey(String listName, String authScope, Parameters parameters) {
+        return ListSearchIndexCache.getKey(listName, authScope, parameters, dataSource.getListFilterParameters());
+    }
+
+    public String getListVersion(AuthenticationInfo authenticationInfo, Parameters parameters) {
+        return dataSource.getListVersion(authenticationInfo, parameters);
     }
 
-    private boolean isListContentGlobal() {
-        if (dataSource instanceof CacheableList) {
-            return ((CacheableList) dataSource).isListContentGlobal();
-        } else if (dataSource instanceof sdk.datasources.future.CacheableList) {
-            return ((sdk.datasources.future.CacheableList) dataSource).isListContentGlobal();
-        } else if (dataSource instanceof sdk.datasources.rx.CacheableList) {
-            return ((sdk.datasources.rx.CacheableList) dataSource).isListContentGlobal();
+    public boolean isListContentGlobal() {
+        if (cacheableList != null) {
+            return cacheableList.isListContentGlobal();
+        } else if (futureCacheableList != null) {
+            return futureCacheableList.isListContentGlobal();
+        } else if (rxCacheableList != null) {
+            return rxCacheableList.isListContentGlobal();
         }
         return false;
     }
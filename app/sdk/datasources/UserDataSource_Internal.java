@@ -5,6 +5,7 @@ import sdk.data.ServiceConfiguration;
 import sdk.data.User;
 import sdk.datasources.rx.UserDataSource;
 import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
 import sdk.utils.Parameters;
 
 import java.util.concurrent.CompletableFuture;
@@ -53,7 +54,7 @@ public class UserDataSource_Internal extends BaseSource_Internal {
         if ( rxDataSource != null ) {
             userFuture = observableToFuture(rxDataSource.getUser(userID, authenticationInfo, parameters));
         } else if ( dataSource != null ) {
-            userFuture = CompletableFuture.supplyAsync(() -> dataSource.getUser(userID, authenticationInfo, parameters));
+            userFuture = ExecutorPools.supplyAsync(() -> dataSource.getUser(userID, authenticationInfo, parameters), getExecutor());
         } else if ( futureDataSource != null ) {
             userFuture = futureDataSource.getUser(userID, authenticationInfo, parameters);
         } else {
@@ -71,7 +72,7 @@ public class UserDataSource_Internal extends BaseSource_Internal {
         if ( rxDataSource != null ) {
             userFuture = observableToFuture(rxDataSource.createUser(user));
         } else if ( dataSource != null ) {
-            userFuture = CompletableFuture.supplyAsync(() -> dataSource.createUser(user));
+            userFuture = ExecutorPools.supplyAsync(() -> dataSource.createUser(user), getExecutor());
         } else if ( futureDataSource != null ) {
             userFuture = futureDataSource.createUser(user);
         } else {
@@ -89,7 +90,7 @@ public class UserDataSource_Internal extends BaseSource_Internal {
         if ( rxDataSource != null ) {
             userFuture = observableToFuture(rxDataSource.updateUser(user));
         } else if ( dataSource != null ) {
-            userFuture = CompletableFuture.supplyAsync(() -> dataSource.updateUser(user));
+            userFuture = ExecutorPools.supplyAsync(() -> dataSource.updateUser(user), getExecutor());
         } else if ( futureDataSource != null ) {
             userFuture = futureDataSource.updateUser(user);
         } else {
@@ -107,7 +108,7 @@ public class UserDataSource_Internal extends BaseSource_Internal {
         if ( rxDataSource != null ) {
             userFuture = observableToFuture(rxDataSource.deleteUser(user));
         } else if ( dataSource != null ) {
-            userFuture = CompletableFuture.supplyAsync(() -> dataSource.deleteUser(user));
+            userFuture = ExecutorPools.supplyAsync(() -> dataSource.deleteUser(user), getExecutor());
         } else if ( futureDataSource != null ) {
             userFuture = futureDataSource.deleteUser(user);
         } else {
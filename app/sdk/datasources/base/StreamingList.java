@@ -0,0 +1,31 @@
+package sdk.datasources.base;
+
+import sdk.list.List;
+import sdk.list.ListItem;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.Parameters;
+
+import java.util.function.Consumer;
+
+/**
+ * A cacheable list that hands its items over one at a time instead of returning them all in a
+ * {@link List}. The items are written into the list database or the list response as they
+ * arrive, so a large list never has to be held in memory.
+ */
+public interface StreamingList extends CacheableList {
+    /**
+     * Passes every list item to the sink, one at a time and from one thread at a time.
+     *
+     * @param authenticationInfo
+     * @param params
+     * @param sink Receives the list items
+     */
+    void streamList(AuthenticationInfo authenticationInfo, Parameters params, Consumer<ListItem> sink);
+
+    @Override
+    default List getList(AuthenticationInfo authenticationInfo, Parameters params) {
+        List list = new List();
+        streamList(authenticationInfo, params, list::addListItem);
+        return list;
+    }
+}
@@ -0,0 +1,32 @@
+package sdk.datasources.future;
+
+import sdk.list.List;
+import sdk.list.ListItem;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.Parameters;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A cacheable list that hands its items over one at a time instead of returning them all in a
+ * {@link List}. The items are written into the list database or the list response as they
+ * arrive, so a large list never has to be held in memory.
+ */
+public interface StreamingList extends CacheableList {
+    /**
+     * Passes every list item to the sink, one at a time and from one thread at a time.
+     *
+     * @param authenticationInfo
+     * @param params
+     * @param sink Receives the list items
+     * @return A future that completes once every item has been passed to the sink
+     */
+    CompletableFuture<Void> streamList(AuthenticationInfo authenticationInfo, Parameters params, Consumer<ListItem> sink);
+
+    @Override
+    default CompletableFuture<List> getList(AuthenticationInfo authenticationInfo, Parameters params) {
+        List list = new List();
+        return streamList(authenticationInfo, params, list::addListItem).thenApply(done -> list);
+    }
+}
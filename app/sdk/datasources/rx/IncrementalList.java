@@ -0,0 +1,22 @@
+package sdk.datasources.rx;
+
+import org.joda.time.DateTime;
+import rx.Observable;
+import sdk.list.ListChanges;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.Parameters;
+
+/**
+ * A cacheable list that can tell which of its items changed since a client last synced, so
+ * clients only have to fetch the changes instead of the whole list.
+ */
+public interface IncrementalList extends CacheableList {
+    /**
+     *
+     * @param since When the client last fetched the list
+     * @param authenticationInfo
+     * @param params
+     * @return Emits the items inserted, updated and deleted since then or null if the changes are not known, e.g. because deletions that long ago are not kept. The changes are then worked out from the cached list instead.
+     */
+    Observable<ListChanges> getListChanges(DateTime since, AuthenticationInfo authenticationInfo, Parameters params);
+}
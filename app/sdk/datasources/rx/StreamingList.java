@@ -0,0 +1,27 @@
+package sdk.datasources.rx;
+
+import rx.Observable;
+import sdk.list.List;
+import sdk.list.ListItem;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.Parameters;
+
+/**
+ * A cacheable list that emits its items one at a time instead of returning them all in a
+ * {@link List}. The items are written into the list database or the list response as they
+ * arrive, so a large list never has to be held in memory.
+ */
+public interface StreamingList extends CacheableList {
+    /**
+     *
+     * @param authenticationInfo
+     * @param params
+     * @return An observable that emits every list item and then completes
+     */
+    Observable<ListItem> streamList(AuthenticationInfo authenticationInfo, Parameters params);
+
+    @Override
+    default Observable<List> getList(AuthenticationInfo authenticationInfo, Parameters params) {
+        return streamList(authenticationInfo, params).toList().map(List::new);
+    }
+}
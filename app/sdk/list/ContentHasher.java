@@ -0,0 +1,111 @@
+package sdk.list;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Feeds values into an MD5 digest through a buffer. Strings are length prefixed so that
+ * different values can not run together into the same bytes. The digest only addresses content,
+ * it is not used for anything that needs to be secure.
+ */
+class ContentHasher {
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    ContentHasher() {
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 is not available", e);
+        }
+    }
+
+    /**
+     * @return A hasher for the content of a list database, add every item with
+     * {@link #updateItem} and then the number of items
+     */
+    static ContentHasher forList(String listName, String authScope, ListDatabaseSchema schema) {
+        ContentHasher hasher = new ContentHasher();
+        hasher.update(ListDatabaseBuilder.FORMAT_VERSION);
+        hasher.update(listName);
+        hasher.update(authScope);
+        schema.updateHash(hasher);
+        return hasher;
+    }
+
+    void update(String value) {
+        if (value == null) {
+            update(-1);
+            return;
+        }
+        int length = value.length();
+        update(length);
+        for (int i = 0; i < length; i++) {
+            if (position + 2 > buffer.length) flush();
+            char c = value.charAt(i);
+            buffer[position++] = (byte) (c >>> 8);
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    void update(int value) {
+        if (position + 4 > buffer.length) flush();
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    void update(long value) {
+        update((int) (value >>> 32));
+        update((int) value);
+    }
+
+    /**
+     * Adds everything written to a row of the list database
+     *
+     * @param attributeValues The attribute values by attribute index, only the ones with a column are added
+     */
+    void updateRow(String id, String parentID, String value, double latitude, double longitude, String[] attributeValues, ListDatabaseSchema schema) {
+        update(id);
+        update(parentID);
+        update(value);
+        update(Double.doubleToLongBits(latitude));
+        update(Double.doubleToLongBits(longitude));
+        for (int column = 0; column < schema.getColumnCount(); column++) {
+            update(attributeValues[schema.getAttributeIndex(column)]);
+        }
+    }
+
+    /**
+     * Adds the row written for a list item
+     *
+     * @param attributeValues Scratch space for the attribute values
+     */
+    void updateItem(ListItem listItem, String[] attributeValues, ListDatabaseSchema schema) {
+        listItem.getAttributeStrings(attributeValues);
+        updateRow(listItem.id, listItem.parentID, listItem.value, listItem.latitude, listItem.longitude, attributeValues, schema);
+    }
+
+    /**
+     * @return The digest of everything added, the hasher can then be used again
+     */
+    byte[] toBytes() {
+        flush();
+        return digest.digest();
+    }
+
+    String toHex() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : toBytes()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private void flush() {
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,448 @@
+package sdk.list;
+
+import org.apache.commons.io.FileUtils;
+import play.Logger;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+import sdk.utils.Parameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Keeps the zipped list databases sent for list requests on disk, keyed by a hash of the list
+ * content, so a list that has not changed is not turned into a database again.
+ * <p>
+ * A list data source can also supply a version token through
+ * {@link sdk.datasources.ListDataSource#getListVersion}, requests with a known token are then
+ * answered from the cache without fetching the list at all. Artifacts are evicted least recently
+ * used first once there are more than {@value Constants#ListCacheMaxEntriesKey} of them or they
+ * take more than {@value Constants#ListCacheMaxBytesKey} bytes. A max size of 0 turns the cache
+ * off.
+ * <p>
+ * Cached artifacts are compressed once, with the {@link ListCompression} set in application.conf,
+ * and sent as they are. With the cache off the artifact is the plain database, compressed as it
+ * is sent.
+ * <p>
+ * Every artifact the cache hands out has to be released once it has been sent. An artifact that
+ * is evicted while it is still being sent keeps its file until the last request releases it.
+ */
+public class ListArtifactCache {
+    private static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ENTRIES = 200;
+    private static final int MAX_VERSIONS = 1000;
+
+    private static volatile ListArtifactCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final ListCompression compression;
+    private final int compressionLevel;
+    private final LinkedHashMap<String, ListArtifact> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, String> versions = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_VERSIONS;
+        }
+    };
+    private long totalBytes;
+
+    /**
+     * A compressed list database and the number of items in it. Each request an artifact is
+     * handed to holds a reference, and so does the cache while the artifact is cached. The file
+     * is removed once every reference has been released.
+     */
+    public static class ListArtifact {
+        private final File file;
+        private final ListCompression compression;
+        private final int itemCount;
+        private final long size;
+        private final String listName;
+        private final String authScope;
+        private final String contentKey;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        ListArtifact(File file, ListCompression compression, int itemCount, String listName, String authScope, String contentKey) {
+            this.file = file;
+            this.compression = compression;
+            this.itemCount = itemCount;
+            this.size = file.length();
+            this.listName = listName;
+            this.authScope = authScope;
+            this.contentKey = contentKey;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return How the file is compressed, none if it still has to be compressed to be sent
+         */
+        public ListCompression getCompression() {
+            return compression;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        /**
+         * @return The key the artifact is cached under or null if it is not cached
+         */
+        public String getContentKey() {
+            return contentKey;
+        }
+
+        /**
+         * Adds references for more requests that send the artifact, each has to release it
+         */
+        void retain(int count) {
+            references.addAndGet(count);
+        }
+
+        /**
+         * Releases the artifact once it is no longer needed, e.g. after it has been sent. The
+         * file is removed when nothing else holds the artifact, cached artifacts are held by the
+         * cache until they are evicted.
+         */
+        public void release() {
+            if (references.decrementAndGet() > 0) return;
+            if (!file.delete() && file.exists()) {
+                Logger.debug("Could not delete list file " + file.getPath());
+            }
+            ListFileJanitor.getInstance().release(file);
+        }
+    }
+
+    /**
+     * Creates a cache of zipped artifacts in a directory. Files already in the directory are
+     * removed since their item counts are unknown.
+     *
+     * @param directory
+     * @param maxBytes   The most bytes to keep on disk, 0 or less turns the cache off
+     * @param maxEntries The most artifacts to keep
+     */
+    public ListArtifactCache(File directory, long maxBytes, int maxEntries) {
+        this(directory, maxBytes, maxEntries, ListCompression.ZIP, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a cache in a directory. Files already in the directory are removed since their
+     * item counts are unknown.
+     *
+     * @param directory
+     * @param maxBytes         The most bytes to keep on disk, 0 or less turns the cache off
+     * @param maxEntries       The most artifacts to keep
+     * @param compression      How list databases are sent
+     * @param compressionLevel The deflate level
+     */
+    public ListArtifactCache(File directory, long maxBytes, int maxEntries, ListCompression compression, int compressionLevel) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.compression = compression;
+        this.compressionLevel = compressionLevel;
+        if (isEnabled()) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                Logger.warn("Could not create list cache directory " + directory.getPath());
+            }
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    if (!file.delete()) {
+                        Logger.debug("Could not delete list cache file " + file.getPath());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The shared cache, configured from application.conf
+     */
+    public static ListArtifactCache getInstance() {
+        ListArtifactCache cache = instance;
+        if (cache == null) {
+            synchronized (ListArtifactCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new ListArtifactCache(getDefaultDirectory(),
+                                                  ConfigUtils.getLong(Constants.ListCacheMaxBytesKey, DEFAULT_MAX_BYTES),
+                                                  ConfigUtils.getInt(Constants.ListCacheMaxEntriesKey, DEFAULT_MAX_ENTRIES),
+                                                  ListCompression.getConfigured(),
+                                                  ListCompression.getConfiguredLevel());
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0 && maxEntries > 0;
+    }
+
+    /**
+     * @return How list databases are sent
+     */
+    public ListCompression getCompression() {
+        return compression;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * @param authenticationInfo
+     * @return What separates the lists of one user from another, the user ID or the token if there is no user ID
+     */
+    public static String getAuthScope(AuthenticationInfo authenticationInfo) {
+        if (authenticationInfo.getUserID() != null) {
+            return "user:" + authenticationInfo.getUserID();
+        }
+        return "token:" + authenticationInfo.getToken();
+    }
+
+    /**
+     * @param listName
+     * @param authScope    null for lists whose content is global
+     * @param versionToken The token from the data source, may be null
+     * @param parameters   The request parameters, included since they can change the list
+     * @return The key to look up the list by version or null if there is no version token
+     */
+    public String getVersionKey(String listName, String authScope, String versionToken, Parameters parameters) {
+        if (versionToken == null || !isEnabled()) return null;
+        ContentHasher hasher = new ContentHasher();
+        hasher.update(listName);
+        hasher.update(authScope);
+        hasher.update(versionToken);
+        for (Map.Entry<String, String> entry : new TreeMap<>(parameters.toMap()).entrySet()) {
+            hasher.update(entry.getKey());
+            hasher.update(entry.getValue());
+        }
+        return hasher.toHex();
+    }
+
+    /**
+     * @param versionKey A key from {@link #getVersionKey}, may be null
+     * @return The artifact last built for the version, it has to be released
+     */
+    public synchronized Optional<ListArtifact> getByVersion(String versionKey) {
+        if (versionKey == null) return Optional.empty();
+        String contentKey = versions.get(versionKey);
+        if (contentKey == null) return Optional.empty();
+        return Optional.ofNullable(acquire(contentKey));
+    }
+
+    /**
+     * Gets the artifact for a list from the cache, building it if the content has not been seen.
+     *
+     * @param listName
+     * @param authScope  null for lists whose content is global
+     * @param list
+     * @param versionKey The version to remember the artifact for, may be null
+     * @return
+     */
+    public ListArtifact getArtifact(String listName, String authScope, List list, String versionKey) {
+        return getArtifact(listName, authScope, ListDatabaseSchema.LEGACY, list, versionKey);
+    }
+
+    /**
+     * Gets the artifact for a list from the cache, building it if the content has not been seen.
+     *
+     * @param listName
+     * @param authScope  null for lists whose content is global
+     * @param schema     The attribute columns and indexes of the list database
+     * @param list
+     * @param versionKey The version to remember the artifact for, may be null
+     * @return The artifact, it has to be released
+     */
+    public ListArtifact getArtifact(String listName, String authScope, ListDatabaseSchema schema, List list, String versionKey) {
+        if (!isEnabled()) {
+            File databaseFile = CacheListSQLGenerator.buildDatabase(list, schema, ListCompression.NONE, compressionLevel);
+            return new ListArtifact(databaseFile, ListCompression.NONE, list.listItems.size(), listName, authScope, null);
+        }
+        String contentKey = getContentKey(listName, authScope, schema, list);
+        ListArtifact artifact = acquire(contentKey);
+        if (artifact == null) {
+            File file = CacheListSQLGenerator.buildDatabase(list, schema, compression, compressionLevel);
+            artifact = put(contentKey, file, compression, list.listItems.size(), listName, authScope);
+        }
+        if (versionKey != null) {
+            synchronized (this) {
+                versions.put(versionKey, contentKey);
+            }
+        }
+        return artifact;
+    }
+
+    /**
+     * Caches the list database a streamed list was written into. If the same content is already
+     * cached the new file is removed and the cached artifact returned instead.
+     *
+     * @param writer     A writer created with the list name and auth scope, it is finished if it has not been
+     * @param versionKey The version to remember the artifact for, may be null
+     * @return The artifact, it has to be released
+     */
+    public ListArtifact getArtifact(ListDatabaseWriter writer, String versionKey) {
+        File file = writer.finish(isEnabled() ? compression : ListCompression.NONE, compressionLevel);
+        String contentKey = writer.getContentKey();
+        if (!isEnabled() || contentKey == null) {
+            return new ListArtifact(file, writer.getCompression(), writer.getCount(), writer.listName, writer.authScope, null);
+        }
+        ListArtifact artifact = put(contentKey, file, writer.getCompression(), writer.getCount(), writer.listName, writer.authScope);
+        if (versionKey != null) {
+            synchronized (this) {
+                versions.put(versionKey, contentKey);
+            }
+        }
+        return artifact;
+    }
+
+    /**
+     * Gets an artifact that was sent earlier, e.g. to work out what has changed since.
+     *
+     * @param listName
+     * @param authScope  null for lists whose content is global
+     * @param contentKey The key of the artifact
+     * @return The artifact if it is still cached and was built for the same list and scope, it
+     * has to be released
+     */
+    public synchronized Optional<ListArtifact> getSnapshot(String listName, String authScope, String contentKey) {
+        if (contentKey == null || !isEnabled()) return Optional.empty();
+        ListArtifact artifact = getCached(contentKey);
+        if (artifact == null || !artifact.listName.equals(listName) || !Objects.equals(artifact.authScope, authScope)) {
+            return Optional.empty();
+        }
+        artifact.retain(1);
+        return Optional.of(artifact);
+    }
+
+    /**
+     * Removes every artifact, the files of artifacts that are still being sent are removed once
+     * they have been released
+     */
+    public synchronized void clear() {
+        for (ListArtifact artifact : artifacts.values()) {
+            artifact.release();
+        }
+        artifacts.clear();
+        versions.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * @return The bytes taken by the cached artifacts
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return artifacts.size();
+    }
+
+    /**
+     * @return The cached artifact or null if there is none or its file has gone
+     */
+    private synchronized ListArtifact getCached(String contentKey) {
+        ListArtifact artifact = artifacts.get(contentKey);
+        if (artifact != null && !artifact.file.exists()) {
+            artifacts.remove(contentKey);
+            totalBytes -= artifact.size;
+            artifact.release();
+            return null;
+        }
+        return artifact;
+    }
+
+    /**
+     * @return The cached artifact with a reference for the caller, or null if there is none
+     */
+    private synchronized ListArtifact acquire(String contentKey) {
+        ListArtifact artifact = getCached(contentKey);
+        if (artifact != null) {
+            artifact.retain(1);
+        }
+        return artifact;
+    }
+
+    private synchronized ListArtifact put(String contentKey, File file, ListCompression compression, int itemCount, String listName, String authScope) {
+        ListArtifact existing = acquire(contentKey);
+        if (existing != null) {
+            deleteFile(file);
+            ListFileJanitor.getInstance().release(file);
+            return existing;
+        }
+        if (file.length() > maxBytes) {
+            return new ListArtifact(file, compression, itemCount, listName, authScope, null);
+        }
+        File cachedFile = new File(directory, contentKey + compression.getFileSuffix());
+        try {
+            Files.move(file.toPath(), cachedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.warn("Could not move " + file.getPath() + " into the list cache: " + e.getMessage());
+            return new ListArtifact(file, compression, itemCount, listName, authScope, null);
+        }
+        ListFileJanitor.getInstance().release(file);
+        ListArtifact artifact = new ListArtifact(cachedFile, compression, itemCount, listName, authScope, contentKey);
+        // one reference for the cache and one for the caller
+        artifact.retain(1);
+        artifacts.put(contentKey, artifact);
+        totalBytes += artifact.size;
+        evict(contentKey);
+        return artifact;
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, ListArtifact>> iterator = artifacts.entrySet().iterator();
+        while ((totalBytes > maxBytes || artifacts.size() > maxEntries) && iterator.hasNext()) {
+            Map.Entry<String, ListArtifact> entry = iterator.next();
+            if (entry.getKey().equals(keep)) continue;
+            totalBytes -= entry.getValue().size;
+            iterator.remove();
+            entry.getValue().release();
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (!file.delete() && file.exists()) {
+            Logger.debug("Could not delete list cache file " + file.getPath());
+        }
+    }
+
+    /**
+     * @return A hash of everything written to the list database
+     */
+    static String getContentKey(String listName, String authScope, ListDatabaseSchema schema, List list) {
+        ContentHasher hasher = ContentHasher.forList(listName, authScope, schema);
+        String[] attributeValues = new String[ListDatabaseBuilder.ATTRIBUTE_COLUMNS];
+        for (ListItem listItem : list.listItems) {
+            hasher.updateItem(listItem, attributeValues, schema);
+        }
+        hasher.update(list.listItems.size());
+        return hasher.toHex();
+    }
+
+    private static File getDefaultDirectory() {
+        String tmpDir = FileUtils.getTempDirectoryPath();
+        if (!tmpDir.endsWith(File.separator)) {
+            tmpDir += File.separator;
+        }
+        return new File(tmpDir + "com.apptreesoftware.revolution" + File.separator + "listCache");
+    }
+}
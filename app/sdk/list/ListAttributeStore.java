@@ -0,0 +1,87 @@
+package sdk.list;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage for the attributes of a {@link ListItem}, indexed by attribute index.
+ * <p>
+ * String, Int, Double, Boolean and TimeInterval values are only ever read back through their
+ * string, so they are kept as that string, shared through {@link ListStringPool}, and only
+ * wrapped in a {@link ListItemAttribute} when one is asked for. Colors, locations, images and
+ * dates keep their attribute.
+ */
+class ListAttributeStore {
+    private static final Object[] EMPTY = new Object[0];
+
+    // each slot is null, a String or a ListItemAttribute
+    private Object[] slots = EMPTY;
+
+    /**
+     * @return One more than the highest index that can hold a value without growing
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    void setString(int index, String value) {
+        set(index, value != null ? ListStringPool.intern(value) : null);
+    }
+
+    void setAttribute(int index, ListItemAttribute attribute) {
+        set(index, attribute);
+    }
+
+    /**
+     * Gets the attribute at an index. Values kept as strings are wrapped in a new attribute,
+     * use {@link #getString} where possible.
+     *
+     * @param index
+     * @return The attribute or null if none is set
+     */
+    ListItemAttribute get(int index) {
+        Object slot = getSlot(index);
+        if (slot instanceof String) {
+            return new ListItemAttribute((String) slot);
+        }
+        return (ListItemAttribute) slot;
+    }
+
+    /**
+     * @param index
+     * @return The string value of the attribute at an index or null if none is set
+     */
+    String getString(int index) {
+        Object slot = getSlot(index);
+        if (slot instanceof String) {
+            return (String) slot;
+        }
+        return slot != null ? ((ListItemAttribute) slot).getStringValue() : null;
+    }
+
+    private Object getSlot(int index) {
+        return index >= 0 && index < slots.length ? slots[index] : null;
+    }
+
+    private void set(int index, Object value) {
+        if (index < 0) return;
+        if (index >= slots.length) {
+            if (value == null) return;
+            int capacity = Math.max(index + 1, Math.min(slots.length * 2, ListDatabaseBuilder.ATTRIBUTE_COLUMNS));
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        slots[index] = value;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < slots.length; i++) {
+            String value = getString(i);
+            if (value != null) {
+                result = 31 * result + i;
+                result = 31 * result + value.hashCode();
+            }
+        }
+        return result;
+    }
+}
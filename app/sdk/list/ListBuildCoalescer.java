@@ -0,0 +1,233 @@
+package sdk.list;
+
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+import sdk.utils.ExecutorPools;
+import sdk.utils.Parameters;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Shares one list build between concurrent requests for the same list, so a list requested by
+ * many users at once is only fetched and turned into a database once. Requests share a build
+ * when they have the same list name, auth scope and parameters, which for lists with global
+ * content is every request for the list.
+ * <p>
+ * At most {@value Constants#ListBuildMaxConcurrentKey} builds of a list run at once to protect
+ * the backend system, later builds wait for one of them to finish. 0 or less removes the limit.
+ * At most {@value Constants#ListBuildMaxWaitingKey} builds of a list wait, further requests fail
+ * straight away rather than queueing up behind a backend that cannot keep up.
+ */
+public class ListBuildCoalescer {
+    private static final int DEFAULT_MAX_CONCURRENT = 4;
+    private static final int DEFAULT_MAX_WAITING = 64;
+
+    private static volatile ListBuildCoalescer instance;
+
+    private final int maxConcurrentBuilds;
+    private final int maxWaitingBuilds;
+    private final HashMap<String, Flight> flights = new HashMap<>();
+    private final HashMap<String, Limiter> limiters = new HashMap<>();
+    private long buildCount;
+    private long sharedCount;
+
+    private static class Flight {
+        final CompletableFuture<ListArtifactCache.ListArtifact> future = new CompletableFuture<>();
+        int requests;
+    }
+
+    private static class Limiter {
+        final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+        int running;
+    }
+
+    /**
+     * @param maxConcurrentBuilds The most builds of one list to run at once, 0 or less for no limit
+     */
+    public ListBuildCoalescer(int maxConcurrentBuilds) {
+        this(maxConcurrentBuilds, DEFAULT_MAX_WAITING);
+    }
+
+    /**
+     * @param maxConcurrentBuilds The most builds of one list to run at once, 0 or less for no limit
+     * @param maxWaitingBuilds    The most builds of one list to wait for a running one to finish
+     */
+    public ListBuildCoalescer(int maxConcurrentBuilds, int maxWaitingBuilds) {
+        this.maxConcurrentBuilds = maxConcurrentBuilds;
+        this.maxWaitingBuilds = maxWaitingBuilds;
+    }
+
+    /**
+     * @return The shared coalescer, configured from application.conf
+     */
+    public static ListBuildCoalescer getInstance() {
+        ListBuildCoalescer coalescer = instance;
+        if (coalescer == null) {
+            synchronized (ListBuildCoalescer.class) {
+                coalescer = instance;
+                if (coalescer == null) {
+                    coalescer = new ListBuildCoalescer(ConfigUtils.getInt(Constants.ListBuildMaxConcurrentKey, DEFAULT_MAX_CONCURRENT),
+                                                       ConfigUtils.getInt(Constants.ListBuildMaxWaitingKey, DEFAULT_MAX_WAITING));
+                    instance = coalescer;
+                }
+            }
+        }
+        return coalescer;
+    }
+
+    /**
+     * @param listName
+     * @param authScope  null for lists whose content is global
+     * @param parameters The request parameters, included since they can change the list
+     * @return The key of requests that can share a build
+     */
+    public static String getKey(String listName, String authScope, Parameters parameters) {
+        ContentHasher hasher = new ContentHasher();
+        hasher.update(listName);
+        hasher.update(authScope);
+        for (Map.Entry<String, String> entry : new TreeMap<>(parameters.toMap()).entrySet()) {
+            hasher.update(entry.getKey());
+            hasher.update(entry.getValue());
+        }
+        return hasher.toHex();
+    }
+
+    /**
+     * Gets a list artifact, joining the build already running for the same key if there is one.
+     * Every request gets its own reference to the artifact, so each has to release it once it has
+     * been sent.
+     *
+     * @param listName The list, builds of the same list count towards its limit
+     * @param key      A key from {@link #getKey}
+     * @param build    Fetches the list and builds the artifact
+     * @return The artifact, failed with a {@link RejectedExecutionException} if too many builds of
+     * the list are waiting already
+     */
+    public CompletableFuture<ListArtifactCache.ListArtifact> getArtifact(String listName, String key, Supplier<CompletableFuture<ListArtifactCache.ListArtifact>> build) {
+        Flight flight;
+        boolean start = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight();
+                flights.put(key, flight);
+                buildCount++;
+                start = true;
+            } else {
+                sharedCount++;
+            }
+            flight.requests++;
+        }
+        if (start) {
+            Flight started = flight;
+            try {
+                runLimited(listName, () -> startBuild(build)
+                        .whenComplete((artifact, throwable) -> complete(key, started, artifact, throwable)));
+            } catch (RejectedExecutionException e) {
+                complete(key, started, null, e);
+            }
+        }
+        return flight.future;
+    }
+
+    /**
+     * @return The number of builds running or waiting to run
+     */
+    public int getInFlightCount() {
+        synchronized (flights) {
+            return flights.size();
+        }
+    }
+
+    /**
+     * @return The number of builds started
+     */
+    public long getBuildCount() {
+        synchronized (flights) {
+            return buildCount;
+        }
+    }
+
+    /**
+     * @return The number of requests that joined a build that was already running
+     */
+    public long getSharedCount() {
+        synchronized (flights) {
+            return sharedCount;
+        }
+    }
+
+    private static CompletableFuture<ListArtifactCache.ListArtifact> startBuild(Supplier<CompletableFuture<ListArtifactCache.ListArtifact>> build) {
+        try {
+            return build.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<ListArtifactCache.ListArtifact> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Stops new requests from joining the build and hands every request that did join its own
+     * reference to the artifact
+     */
+    private void complete(String key, Flight flight, ListArtifactCache.ListArtifact artifact, Throwable throwable) {
+        int requests;
+        synchronized (flights) {
+            flights.remove(key);
+            requests = flight.requests;
+        }
+        if (throwable != null) {
+            flight.future.completeExceptionally(throwable);
+            return;
+        }
+        artifact.retain(requests - 1);
+        flight.future.complete(artifact);
+    }
+
+    /**
+     * Runs a build now if the list is under its limit, otherwise once a running build of the list
+     * finishes
+     *
+     * @throws RejectedExecutionException If the list has as many builds waiting as it may
+     */
+    private void runLimited(String listName, Supplier<CompletableFuture<?>> task) throws RejectedExecutionException {
+        if (maxConcurrentBuilds <= 0) {
+            task.get();
+            return;
+        }
+        Runnable run = () -> task.get().whenComplete((result, throwable) -> finished(listName));
+        synchronized (limiters) {
+            Limiter limiter = limiters.computeIfAbsent(listName, name -> new Limiter());
+            if (limiter.running >= maxConcurrentBuilds) {
+                if (limiter.waiting.size() >= maxWaitingBuilds) {
+                    throw new RejectedExecutionException("Too many builds of " + listName + " are waiting");
+                }
+                limiter.waiting.add(run);
+                return;
+            }
+            limiter.running++;
+        }
+        run.run();
+    }
+
+    private void finished(String listName) {
+        Runnable next;
+        synchronized (limiters) {
+            Limiter limiter = limiters.get(listName);
+            next = limiter.waiting.poll();
+            if (next == null && --limiter.running == 0) {
+                limiters.remove(listName);
+            }
+        }
+        if (next != null) {
+            CompletableFuture.runAsync(next, ExecutorPools.getConversionExecutor());
+        }
+    }
+}
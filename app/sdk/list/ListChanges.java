@@ -0,0 +1,72 @@
+package sdk.list;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * The list items that were inserted, updated or deleted since a client last synced a list.
+ * Data sources that can not tell inserted items from updated ones can add them all as updated,
+ * clients replace items by ID either way.
+ */
+public class ListChanges {
+    private final ArrayList<ListItem> insertedItems = new ArrayList<>();
+    private final ArrayList<ListItem> updatedItems = new ArrayList<>();
+    private final ArrayList<String> deletedItemIDs = new ArrayList<>();
+
+    /**
+     * Adds a list item that is new since the last sync
+     * @param listItem
+     */
+    public void addInsertedItem(ListItem listItem) {
+        if ( listItem != null ) {
+            insertedItems.add(listItem);
+        }
+    }
+
+    /**
+     * Adds a list item that has changed since the last sync
+     * @param listItem
+     */
+    public void addUpdatedItem(ListItem listItem) {
+        if ( listItem != null ) {
+            updatedItems.add(listItem);
+        }
+    }
+
+    /**
+     * Adds the ID of a list item that has been removed since the last sync
+     * @param listItemID
+     */
+    public void addDeletedItemID(String listItemID) {
+        if ( listItemID != null ) {
+            deletedItemIDs.add(listItemID);
+        }
+    }
+
+    /**
+     * Adds a collection of IDs of list items that have been removed since the last sync
+     * @param listItemIDs
+     */
+    public void addDeletedItemIDs(Collection<String> listItemIDs) {
+        listItemIDs.forEach(this::addDeletedItemID);
+    }
+
+    public java.util.List<ListItem> getInsertedItems() {
+        return insertedItems;
+    }
+
+    public java.util.List<ListItem> getUpdatedItems() {
+        return updatedItems;
+    }
+
+    public java.util.List<String> getDeletedItemIDs() {
+        return deletedItemIDs;
+    }
+
+    /**
+     * @return The number of inserted, updated and deleted items
+     */
+    public int size() {
+        return insertedItems.size() + updatedItems.size() + deletedItemIDs.size();
+    }
+}
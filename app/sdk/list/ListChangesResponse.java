@@ -0,0 +1,87 @@
+package sdk.list;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import sdk.utils.Response;
+
+import java.util.Collections;
+
+/**
+ * The response to a list sync. When the changes can not be worked out, e.g. because the list
+ * the client has is no longer cached, fullSyncRequired is set and the client has to fetch the
+ * whole list again.
+ */
+public class ListChangesResponse extends Response {
+    private ListChanges changes;
+    private String version;
+    private boolean fullSyncRequired;
+
+    public ListChangesResponse(boolean success, String message, ListChanges changes, String version, boolean fullSyncRequired) {
+        super(success, message);
+        this.changes = changes;
+        this.version = version;
+        this.fullSyncRequired = fullSyncRequired;
+    }
+
+    @JsonIgnore
+    public ListChanges getChanges() { return changes; }
+
+    /**
+     * @return The token to send with the next sync
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public boolean isFullSyncRequired() {
+        return fullSyncRequired;
+    }
+
+    public java.util.List<ListItem> getInserted() {
+        return changes != null ? changes.getInsertedItems() : Collections.emptyList();
+    }
+
+    public java.util.List<ListItem> getUpdated() {
+        return changes != null ? changes.getUpdatedItems() : Collections.emptyList();
+    }
+
+    public java.util.List<String> getDeleted() {
+        return changes != null ? changes.getDeletedItemIDs() : Collections.emptyList();
+    }
+
+    public static class Builder {
+        private boolean success;
+        private String message;
+        private ListChanges changes;
+        private String version;
+        private boolean fullSyncRequired;
+
+        public Builder setSuccess(boolean success) {
+            this.success = success;
+            return this;
+        }
+
+        public Builder setMessage(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public Builder setChanges(ListChanges changes) {
+            this.changes = changes;
+            return this;
+        }
+
+        public Builder setVersion(String version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder setFullSyncRequired(boolean fullSyncRequired) {
+            this.fullSyncRequired = fullSyncRequired;
+            return this;
+        }
+
+        public ListChangesResponse createListChangesResponse() {
+            return new ListChangesResponse(success, message, changes, version, fullSyncRequired);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package sdk.list;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import play.Logger;
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * How list databases are compressed for delivery, set with {@value Constants#ListCompressionKey}
+ * to zip, gzip or none and {@value Constants#ListCompressionLevelKey} to a deflate level from 0 to 9.
+ * <p>
+ * Zip is what the core has always been sent. Gzip is sent with a gzip Content-Encoding, so only
+ * use it with a core that accepts that. None sends the database as it is.
+ */
+public enum ListCompression {
+    ZIP(".zip", null),
+    GZIP(".sqlite.gz", "gzip"),
+    NONE(".sqlite", null);
+
+    static final int BUFFER_SIZE = 256 * 1024;
+    // Magic number, deflate, no flags, no modification time, no extra flags and an unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final String fileSuffix;
+    private final String contentEncoding;
+
+    ListCompression(String fileSuffix, String contentEncoding) {
+        this.fileSuffix = fileSuffix;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * @return The compression set in application.conf, zip if there is none
+     */
+    public static ListCompression getConfigured() {
+        String value = ConfigUtils.getString(Constants.ListCompressionKey, "zip");
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            Logger.warn("Unknown list compression " + value + ", using zip");
+            return ZIP;
+        }
+    }
+
+    /**
+     * @return The deflate level set in application.conf
+     */
+    public static int getConfiguredLevel() {
+        return ConfigUtils.getInt(Constants.ListCompressionLevelKey, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    /**
+     * @return The Content-Encoding header to send the compressed database with or null
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Writes a list database to a stream. The stream is flushed but not closed.
+     *
+     * @param databaseFile The SQLite database
+     * @param outputStream
+     * @param level        The deflate level, ignored by none
+     * @throws IOException
+     */
+    public void compress(File databaseFile, OutputStream outputStream, int level) throws IOException {
+        switch (this) {
+            case ZIP: {
+                // ZipOutputStream only ends its deflater when it is closed
+                try (ZipOutputStream zipOutputStream = new ZipOutputStream(new CloseShieldOutputStream(outputStream))) {
+                    zipOutputStream.setLevel(level);
+                    zipOutputStream.putNextEntry(new ZipEntry(databaseFile.getName()));
+                    copy(databaseFile, zipOutputStream);
+                    zipOutputStream.closeEntry();
+                }
+                outputStream.flush();
+                break;
+            }
+            case GZIP: {
+                // GZIPOutputStream has no way to set the level, so the gzip header and trailer
+                // are written around a raw deflate stream
+                Deflater deflater = new Deflater(level, true);
+                try {
+                    outputStream.write(GZIP_HEADER);
+                    CRC32 crc = new CRC32();
+                    DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream, deflater, BUFFER_SIZE);
+                    copy(databaseFile, new CheckedOutputStream(deflaterOutputStream, crc));
+                    deflaterOutputStream.finish();
+                    writeGzipInt(outputStream, crc.getValue());
+                    writeGzipInt(outputStream, deflater.getBytesRead());
+                    outputStream.flush();
+                } finally {
+                    deflater.end();
+                }
+                break;
+            }
+            case NONE: {
+                // the channel is not closed, closing it would close the stream
+                WritableByteChannel channel = Channels.newChannel(outputStream);
+                try (FileChannel fileChannel = FileChannel.open(databaseFile.toPath())) {
+                    long position = 0;
+                    long size = fileChannel.size();
+                    while (position < size) {
+                        position += fileChannel.transferTo(position, size - position, channel);
+                    }
+                }
+                outputStream.flush();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Reads back a list database written by {@link #compress}
+     *
+     * @param compressedFile
+     * @param databaseFile   Where to write the SQLite database
+     * @throws IOException
+     */
+    public void decompress(File compressedFile, File databaseFile) throws IOException {
+        try (InputStream fileInputStream = new BufferedInputStream(new FileInputStream(compressedFile), BUFFER_SIZE)) {
+            InputStream inputStream = fileInputStream;
+            if (this == ZIP) {
+                ZipInputStream zipInputStream = new ZipInputStream(fileInputStream);
+                if (zipInputStream.getNextEntry() == null) {
+                    throw new IOException("The list database zip is empty");
+                }
+                inputStream = zipInputStream;
+            } else if (this == GZIP) {
+                inputStream = new GZIPInputStream(fileInputStream, BUFFER_SIZE);
+            }
+            Files.copy(inputStream, databaseFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeGzipInt(OutputStream outputStream, long value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            outputStream.write((int) (value >> (8 * i)) & 0xff);
+        }
+    }
+
+    private static void copy(File file, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            int length;
+            while ((length = inputStream.read(buffer)) > 0) {
+                outputStream.write(buffer, 0, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package sdk.list;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Writes list items into a new SQLite list database laid out by a {@link ListDatabaseSchema}.
+ * <p>
+ * The database is only read once it has been built, so the build trades durability for speed:
+ * no journal, no syncs, one transaction for every row and the indexes are created after all of
+ * the rows are in. Items can be added one at a time with {@link #add(ListItem)}, call
+ * {@link #finish()} once they are all added.
+ */
+public class ListDatabaseBuilder implements AutoCloseable {
+    // bump when the layout of the database changes so that cached list databases are rebuilt
+    public static final int FORMAT_VERSION = 2;
+    public static final int ATTRIBUTE_COLUMNS = 80;
+
+    private static final int BATCH_SIZE = 10000;
+    private static final String[] BUILD_PRAGMAS = {
+        // the page size has to be set before the table is created
+        "PRAGMA page_size = 4096",
+        "PRAGMA journal_mode = OFF",
+        "PRAGMA synchronous = OFF",
+        // negative sizes are in KiB, 64 MB
+        "PRAGMA cache_size = -65536",
+        "PRAGMA temp_store = MEMORY",
+        "PRAGMA locking_mode = EXCLUSIVE"
+    };
+
+    private final ListDatabaseSchema schema;
+    // ID, PARENT_ID, ITEM_ORDER, VALUE, the attributes, LATITUDE and LONGITUDE
+    private final int columnCount;
+    private final Connection connection;
+    private final PreparedStatement insertStatement;
+    private final String[] attributeValues = new String[ATTRIBUTE_COLUMNS];
+    private int count;
+    private int pending;
+    private boolean finished;
+
+    /**
+     * Creates the database and the LIST_ITEM table with the {@link ListDatabaseSchema#LEGACY} layout
+     *
+     * @param databaseFile The file to create, it must not exist yet
+     * @throws SQLException
+     */
+    public ListDatabaseBuilder(File databaseFile) throws SQLException {
+        this(databaseFile, ListDatabaseSchema.LEGACY);
+    }
+
+    /**
+     * Creates the database and the LIST_ITEM table
+     *
+     * @param databaseFile The file to create, it must not exist yet
+     * @param schema       The attribute columns and indexes to create
+     * @throws SQLException
+     */
+    public ListDatabaseBuilder(File databaseFile, ListDatabaseSchema schema) throws SQLException {
+        this.schema = schema;
+        this.columnCount = schema.getColumnCount() + 6;
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Unable to find jdbc");
+        }
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getPath());
+        try {
+            try (Statement statement = connection.createStatement()) {
+                for (String pragma : BUILD_PRAGMAS) {
+                    statement.execute(pragma);
+                }
+                statement.executeUpdate(getCreateTableSQL());
+            }
+            connection.setAutoCommit(false);
+            insertStatement = connection.prepareStatement(getInsertSQL());
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds a list database in one go
+     *
+     * @param list
+     * @param databaseFile The file to create, it must not exist yet
+     * @return The number of rows written
+     * @throws SQLException
+     */
+    public static int build(List list, File databaseFile) throws SQLException {
+        return build(list, databaseFile, ListDatabaseSchema.LEGACY);
+    }
+
+    /**
+     * Builds a list database in one go
+     *
+     * @param list
+     * @param databaseFile The file to create, it must not exist yet
+     * @param schema       The attribute columns and indexes to create
+     * @return The number of rows written
+     * @throws SQLException
+     */
+    public static int build(List list, File databaseFile, ListDatabaseSchema schema) throws SQLException {
+        try (ListDatabaseBuilder builder = new ListDatabaseBuilder(databaseFile, schema)) {
+            for (ListItem listItem : list.listItems) {
+                builder.add(listItem);
+            }
+            return builder.finish();
+        }
+    }
+
+    /**
+     * Adds a row for a list item
+     *
+     * @param listItem
+     * @throws SQLException
+     */
+    public void add(ListItem listItem) throws SQLException {
+        if (finished) {
+            throw new IllegalStateException("The list database has already been finished");
+        }
+        listItem.getAttributeStrings(attributeValues);
+        schema.checkDroppedValues(listItem, attributeValues);
+        insertStatement.setString(1, listItem.id);
+        insertStatement.setString(2, listItem.parentID);
+        insertStatement.setInt(3, -1);
+        insertStatement.setString(4, listItem.value);
+        for (int i = 0; i < schema.getColumnCount(); i++) {
+            insertStatement.setString(i + 5, attributeValues[schema.getAttributeIndex(i)]);
+        }
+        insertStatement.setDouble(columnCount - 1, listItem.latitude);
+        insertStatement.setDouble(columnCount, listItem.longitude);
+        insertStatement.addBatch();
+        count++;
+        if (++pending == BATCH_SIZE) {
+            insertStatement.executeBatch();
+            pending = 0;
+        }
+    }
+
+    /**
+     * Writes any remaining rows, creates the indexes and commits
+     *
+     * @return The number of rows written
+     * @throws SQLException
+     */
+    public int finish() throws SQLException {
+        if (finished) return count;
+        if (pending > 0) {
+            insertStatement.executeBatch();
+            pending = 0;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE INDEX list_item_index_id ON LIST_ITEM(ID COLLATE NOCASE)");
+            statement.executeUpdate("CREATE INDEX list_item_index_value ON LIST_ITEM(VALUE COLLATE NOCASE)");
+            for (int attributeIndex : schema.getIndexedAttributes()) {
+                statement.executeUpdate("CREATE INDEX list_item_index_" + (attributeIndex + 1) +
+                                        " ON LIST_ITEM(" + getAttributeColumnName(attributeIndex) + " COLLATE NOCASE)");
+            }
+        }
+        connection.commit();
+        finished = true;
+        return count;
+    }
+
+    /**
+     * @return The number of rows added so far
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            insertStatement.close();
+            if (!finished) {
+                connection.rollback();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private String getCreateTableSQL() {
+        StringBuilder sql = new StringBuilder("CREATE TABLE LIST_ITEM (" +
+                                              "ID VARCHAR(32) PRIMARY KEY NOT NULL," +
+                                              "PARENT_ID VARCHAR (500)," +
+                                              "ITEM_ORDER INT," +
+                                              "VALUE VARCHAR(500),");
+        for (String columnName : schema.getColumnNames()) {
+            sql.append(columnName).append(" VARCHAR(500),");
+        }
+        sql.append("LATITUDE REAL, LONGITUDE REAL);");
+        return sql.toString();
+    }
+
+    private String getInsertSQL() {
+        char[] parameters = new char[columnCount * 2 - 1];
+        Arrays.fill(parameters, ',');
+        for (int i = 0; i < parameters.length; i += 2) {
+            parameters[i] = '?';
+        }
+        return "INSERT INTO LIST_ITEM values (" + new String(parameters) + ")";
+    }
+
+    /**
+     * @param attributeIndex 0 based attribute index
+     * @return The column the attribute is stored in, ATTRIBUTE01 for index 0
+     */
+    static String getAttributeColumnName(int attributeIndex) {
+        return String.format("ATTRIBUTE%02d", attributeIndex + 1);
+    }
+}
@@ -0,0 +1,177 @@
+package sdk.list;
+
+import play.Logger;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The attribute columns and indexes of a list database. Columns keep the names the client
+ * expects, ATTRIBUTE01 for attribute index 0, but only the attributes a list defines get a
+ * column and only the ones it searches on get an index. Values items have for other attributes
+ * are left out of the database, which is logged once per schema.
+ */
+public class ListDatabaseSchema {
+    private static final int LEGACY_INDEXED_ATTRIBUTES = 10;
+
+    /**
+     * Every attribute column with ATTRIBUTE01 to ATTRIBUTE10 indexed, the layout used for lists
+     * without a configuration
+     */
+    public static final ListDatabaseSchema LEGACY = new ListDatabaseSchema(null, range(ListDatabaseBuilder.ATTRIBUTE_COLUMNS),
+                                                                           range(LEGACY_INDEXED_ATTRIBUTES));
+
+    private final String listName;
+    private final int[] attributeIndexes;
+    private final int[] indexedAttributes;
+    private final boolean[] hasColumn = new boolean[ListDatabaseBuilder.ATTRIBUTE_COLUMNS];
+    private final AtomicBoolean droppedValueLogged = new AtomicBoolean();
+
+    /**
+     * @param listName          The list the schema is for, to log dropped values with
+     * @param attributeIndexes  The attributes that get a column, in ascending order
+     * @param indexedAttributes The attributes that get an index, in ascending order
+     */
+    private ListDatabaseSchema(String listName, int[] attributeIndexes, int[] indexedAttributes) {
+        this.listName = listName;
+        this.attributeIndexes = attributeIndexes;
+        this.indexedAttributes = indexedAttributes;
+        for (int attributeIndex : attributeIndexes) {
+            hasColumn[attributeIndex] = true;
+        }
+    }
+
+    /**
+     * Works out the schema for a list configuration
+     *
+     * @param attributes           The attributes of the list, lists without any get the {@link #LEGACY} layout
+     * @param searchableAttributes The attribute indexes to create indexes for or null to index the
+     *                             attributes marked as searchable, or ATTRIBUTE01 to ATTRIBUTE10 if none are
+     * @return
+     */
+    public static ListDatabaseSchema forAttributes(Collection<? extends ServiceConfigurationAttribute> attributes, Set<Integer> searchableAttributes) {
+        return forAttributes(null, attributes, searchableAttributes);
+    }
+
+    /**
+     * Works out the schema for a list configuration
+     *
+     * @param listName             The list the schema is for, to log values that are left out with
+     * @param attributes           The attributes of the list, lists without any get the {@link #LEGACY} layout
+     * @param searchableAttributes The attribute indexes to create indexes for or null to index the
+     *                             attributes marked as searchable, or ATTRIBUTE01 to ATTRIBUTE10 if none are
+     * @return
+     */
+    public static ListDatabaseSchema forAttributes(String listName, Collection<? extends ServiceConfigurationAttribute> attributes, Set<Integer> searchableAttributes) {
+        if (attributes == null || attributes.isEmpty()) return LEGACY;
+        TreeSet<Integer> columns = new TreeSet<>();
+        TreeSet<Integer> searchable = new TreeSet<>();
+        for (ServiceConfigurationAttribute attribute : attributes) {
+            int index = attribute.getAttributeIndex();
+            if (index < 0 || index >= ListDatabaseBuilder.ATTRIBUTE_COLUMNS) continue;
+            columns.add(index);
+            if (attribute.search) searchable.add(index);
+        }
+        if (searchableAttributes != null) {
+            searchable = new TreeSet<>(searchableAttributes);
+        } else if (searchable.isEmpty()) {
+            searchable.addAll(columns.headSet(LEGACY_INDEXED_ATTRIBUTES));
+        }
+        searchable.retainAll(columns);
+        return new ListDatabaseSchema(listName, toArray(columns), toArray(searchable));
+    }
+
+    /**
+     * @return The attribute indexes that have a column, in ascending order
+     */
+    public int[] getAttributeIndexes() {
+        return attributeIndexes.clone();
+    }
+
+    /**
+     * @return The attribute indexes that have an index, in ascending order
+     */
+    public int[] getIndexedAttributes() {
+        return indexedAttributes.clone();
+    }
+
+    /**
+     * Logs a warning the first time an item has a value for an attribute without a column, as
+     * the value is left out of the list database
+     *
+     * @param listItem
+     * @param attributeValues The values of the item, by attribute index
+     */
+    void checkDroppedValues(ListItem listItem, String[] attributeValues) {
+        if (droppedValueLogged.get() || attributeIndexes.length == hasColumn.length) return;
+        for (int index = 0; index < hasColumn.length; index++) {
+            if (!hasColumn[index] && attributeValues[index] != null) {
+                if (droppedValueLogged.compareAndSet(false, true)) {
+                    Logger.warn("List item " + listItem.id + (listName != null ? " of " + listName : "") + " has a value for attribute index " + index
+                                        + ", which is not one of the list attributes, so it is left out of the list database");
+                }
+                return;
+            }
+        }
+    }
+
+    int getColumnCount() {
+        return attributeIndexes.length;
+    }
+
+    int getAttributeIndex(int column) {
+        return attributeIndexes[column];
+    }
+
+    /**
+     * @return The names of the attribute columns, in column order
+     */
+    java.util.List<String> getColumnNames() {
+        ArrayList<String> names = new ArrayList<>(attributeIndexes.length);
+        for (int attributeIndex : attributeIndexes) {
+            names.add(ListDatabaseBuilder.getAttributeColumnName(attributeIndex));
+        }
+        return names;
+    }
+
+    void updateHash(ContentHasher hasher) {
+        hasher.update(attributeIndexes.length);
+        for (int attributeIndex : attributeIndexes) {
+            hasher.update(attributeIndex);
+        }
+        hasher.update(indexedAttributes.length);
+        for (int attributeIndex : indexedAttributes) {
+            hasher.update(attributeIndex);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ListDatabaseSchema that = (ListDatabaseSchema) o;
+        return Arrays.equals(attributeIndexes, that.attributeIndexes) && Arrays.equals(indexedAttributes, that.indexedAttributes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(attributeIndexes) + Arrays.hashCode(indexedAttributes);
+    }
+
+    private static int[] range(int size) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    private static int[] toArray(Collection<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,211 @@
+package sdk.list;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+
+/**
+ * Writes list items into a compressed list database as they arrive, so a list can be streamed from
+ * a data source without holding all of its items. Pass it as the sink of a streaming list and
+ * call {@link #finish()} once every item has been added.
+ * <p>
+ * The files are kept from the {@link ListFileJanitor} while they are written, and the finished
+ * file until it is released with {@link ListFileJanitor#release}.
+ */
+public class ListDatabaseWriter implements Consumer<ListItem>, AutoCloseable {
+    private final File databaseFile;
+    private final ListDatabaseBuilder builder;
+    private final ListFileJanitor janitor;
+    private final ContentHasher hasher;
+    private final ListDatabaseSchema schema;
+    final String listName;
+    final String authScope;
+    private final String[] attributeValues;
+    private File outputFile;
+    private ListCompression compression;
+    private String contentKey;
+    private boolean closed;
+
+    /**
+     * Creates a writer for a list database that is not cached, with the
+     * {@link ListDatabaseSchema#LEGACY} layout
+     */
+    public ListDatabaseWriter() {
+        this(ListDatabaseSchema.LEGACY);
+    }
+
+    /**
+     * Creates a writer for a list database that is not cached
+     *
+     * @param schema The attribute columns and indexes to create
+     */
+    public ListDatabaseWriter(ListDatabaseSchema schema) {
+        this(null, null, schema, null);
+    }
+
+    /**
+     * Creates a writer with the {@link ListDatabaseSchema#LEGACY} layout that also works out
+     * the key the list database is cached under
+     *
+     * @param listName
+     * @param authScope null for lists whose content is global
+     */
+    public ListDatabaseWriter(String listName, String authScope) {
+        this(listName, authScope, ListDatabaseSchema.LEGACY);
+    }
+
+    /**
+     * Creates a writer that also works out the key the list database is cached under, see
+     * {@link ListArtifactCache#getArtifact(ListDatabaseWriter, String)}
+     *
+     * @param listName
+     * @param authScope null for lists whose content is global
+     * @param schema    The attribute columns and indexes to create
+     */
+    public ListDatabaseWriter(String listName, String authScope, ListDatabaseSchema schema) {
+        this(listName, authScope, schema, ContentHasher.forList(listName, authScope, schema));
+    }
+
+    private ListDatabaseWriter(String listName, String authScope, ListDatabaseSchema schema, ContentHasher hasher) {
+        this.listName = listName;
+        this.authScope = authScope;
+        this.schema = schema;
+        this.hasher = hasher;
+        this.attributeValues = hasher != null ? new String[ListDatabaseBuilder.ATTRIBUTE_COLUMNS] : null;
+        CacheListSQLGenerator.ensureTempDirectoryExists();
+        databaseFile = new File(CacheListSQLGenerator.getTemporaryDirectoryPath() + File.separator + UUID.randomUUID().toString() + ".sqlite");
+        janitor = ListFileJanitor.getInstance();
+        janitor.retain(databaseFile);
+        try {
+            builder = new ListDatabaseBuilder(databaseFile, schema);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            databaseFile.delete();
+            janitor.release(databaseFile);
+            throw new RuntimeException(ListDatabaseWriter.class.getCanonicalName() + " Error generating DB: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a row for a list item
+     *
+     * @param listItem
+     */
+    @Override
+    public void accept(ListItem listItem) {
+        if (listItem == null) return;
+        try {
+            builder.add(listItem);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException(ListDatabaseWriter.class.getCanonicalName() + " Error generating DB: " + e.getMessage());
+        }
+        if (hasher != null) {
+            hasher.updateItem(listItem, attributeValues, schema);
+        }
+    }
+
+    /**
+     * Finishes the list database and zips it
+     *
+     * @return The zip file
+     */
+    public File finish() throws RuntimeException {
+        return finish(ListCompression.ZIP, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Finishes the list database and compresses it
+     *
+     * @param compression How to compress the database, with none the database file itself is returned
+     * @param level       The deflate level
+     * @return The compressed file, retained from the {@link ListFileJanitor}
+     */
+    public File finish(ListCompression compression, int level) throws RuntimeException {
+        if (outputFile != null) return outputFile;
+        if (closed) throw new IllegalStateException("The list database writer has been closed");
+        File compressedFile = compression == ListCompression.NONE ? databaseFile :
+            new File(databaseFile.getParentFile(), databaseFile.getName().replace(".sqlite", compression.getFileSuffix()));
+        if (compressedFile != databaseFile) {
+            janitor.retain(compressedFile);
+        }
+        closed = true;
+        try {
+            try {
+                builder.finish();
+            } finally {
+                builder.close();
+            }
+            if (compression != ListCompression.NONE) {
+                try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(compressedFile), ListCompression.BUFFER_SIZE)) {
+                    compression.compress(databaseFile, outputStream, level);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            compressedFile.delete();
+            janitor.release(compressedFile);
+            throw new RuntimeException(ListDatabaseWriter.class.getCanonicalName() + " Error generating DB: " + e.getMessage());
+        } catch (IOException e) {
+            compressedFile.delete();
+            janitor.release(compressedFile);
+            throw new RuntimeException("There was an IO Exception");
+        } finally {
+            if (compressedFile != databaseFile) {
+                databaseFile.delete();
+                janitor.release(databaseFile);
+            }
+        }
+        if (hasher != null) {
+            hasher.update(builder.getCount());
+            contentKey = hasher.toHex();
+        }
+        this.compression = compression;
+        outputFile = compressedFile;
+        return outputFile;
+    }
+
+    /**
+     * @return The number of items added so far
+     */
+    public int getCount() {
+        return builder.getCount();
+    }
+
+    /**
+     * @return The key to cache the list database under, set once the writer is finished
+     */
+    String getContentKey() {
+        return contentKey;
+    }
+
+    /**
+     * @return How the finished list database was compressed
+     */
+    ListCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Removes the list database if it was not finished
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            builder.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            databaseFile.delete();
+            janitor.release(databaseFile);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package sdk.list;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Works out what has changed between a list database sent to a client and the current list by
+ * comparing a digest of every row, so only the changed items have to be sent.
+ */
+public class ListDiff {
+
+    /**
+     * @param snapshotZip A zipped list database from {@link CacheListSQLGenerator} with the
+     *                    {@link ListDatabaseSchema#LEGACY} layout
+     * @param list        The current list
+     * @return The items that were inserted, updated or deleted since the snapshot
+     */
+    public static ListChanges diff(File snapshotZip, List list) throws RuntimeException {
+        return diff(snapshotZip, list, ListDatabaseSchema.LEGACY);
+    }
+
+    /**
+     * @param snapshotZip A zipped list database from {@link CacheListSQLGenerator}
+     * @param list        The current list
+     * @param schema      The layout of the current list database, it has to match the snapshot
+     * @return The items that were inserted, updated or deleted since the snapshot
+     * @throws RuntimeException If the snapshot can not be read or has a different layout
+     */
+    public static ListChanges diff(File snapshotZip, List list, ListDatabaseSchema schema) throws RuntimeException {
+        return diff(snapshotZip, ListCompression.ZIP, list, schema);
+    }
+
+    /**
+     * @param snapshot    A list database from {@link CacheListSQLGenerator}
+     * @param compression How the snapshot was compressed
+     * @param list        The current list
+     * @param schema      The layout of the current list database, it has to match the snapshot
+     * @return The items that were inserted, updated or deleted since the snapshot
+     * @throws RuntimeException If the snapshot can not be read or has a different layout
+     */
+    public static ListChanges diff(File snapshot, ListCompression compression, List list, ListDatabaseSchema schema) throws RuntimeException {
+        HashMap<String, byte[]> snapshotRows = readSnapshotRows(snapshot, compression, schema);
+        ListChanges changes = new ListChanges();
+        ContentHasher hasher = new ContentHasher();
+        String[] attributeValues = new String[ListDatabaseBuilder.ATTRIBUTE_COLUMNS];
+        for (ListItem listItem : list.listItems) {
+            hasher.updateItem(listItem, attributeValues, schema);
+            byte[] row = hasher.toBytes();
+            byte[] snapshotRow = snapshotRows.remove(listItem.id);
+            if (snapshotRow == null) {
+                changes.addInsertedItem(listItem);
+            } else if (!Arrays.equals(snapshotRow, row)) {
+                changes.addUpdatedItem(listItem);
+            }
+        }
+        changes.addDeletedItemIDs(snapshotRows.keySet());
+        return changes;
+    }
+
+    /**
+     * @return The digest of every row in the snapshot by list item ID
+     */
+    private static HashMap<String, byte[]> readSnapshotRows(File snapshot, ListCompression compression, ListDatabaseSchema schema) {
+        File databaseFile = null;
+        try {
+            databaseFile = File.createTempFile("listSnapshot", ".sqlite");
+            compression.decompress(snapshot, databaseFile);
+            HashMap<String, byte[]> rows = new HashMap<>();
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getPath());
+                 Statement statement = connection.createStatement()) {
+                checkColumns(statement, schema);
+                try (ResultSet resultSet = statement.executeQuery(getSelectSQL(schema))) {
+                    ContentHasher hasher = new ContentHasher();
+                    String[] attributeValues = new String[ListDatabaseBuilder.ATTRIBUTE_COLUMNS];
+                    int columnCount = schema.getColumnCount();
+                    while (resultSet.next()) {
+                        for (int column = 0; column < columnCount; column++) {
+                            attributeValues[schema.getAttributeIndex(column)] = resultSet.getString(column + 4);
+                        }
+                        String id = resultSet.getString(1);
+                        hasher.updateRow(id, resultSet.getString(2), resultSet.getString(3),
+                                         resultSet.getDouble(columnCount + 4), resultSet.getDouble(columnCount + 5),
+                                         attributeValues, schema);
+                        rows.put(id, hasher.toBytes());
+                    }
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException(ListDiff.class.getCanonicalName() + " Error reading list snapshot: " + e.getMessage());
+        } catch (IOException e) {
+            throw new RuntimeException("There was an IO Exception reading the list snapshot");
+        } finally {
+            if (databaseFile != null) {
+                databaseFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Makes sure the snapshot has exactly the attribute columns of the schema, a client with a
+     * different layout has to fetch the whole list again
+     */
+    private static void checkColumns(Statement statement, ListDatabaseSchema schema) throws SQLException {
+        ArrayList<String> attributeColumns = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("PRAGMA table_info(LIST_ITEM)")) {
+            while (resultSet.next()) {
+                String name = resultSet.getString("name");
+                if (name.startsWith("ATTRIBUTE")) {
+                    attributeColumns.add(name);
+                }
+            }
+        }
+        if (!attributeColumns.equals(schema.getColumnNames())) {
+            throw new SQLException("The list snapshot has a different layout");
+        }
+    }
+
+    private static String getSelectSQL(ListDatabaseSchema schema) {
+        StringBuilder sql = new StringBuilder("SELECT ID, PARENT_ID, VALUE");
+        for (String columnName : schema.getColumnNames()) {
+            sql.append(", ").append(columnName);
+        }
+        return sql.append(", LATITUDE, LONGITUDE FROM LIST_ITEM").toString();
+    }
+}
@@ -0,0 +1,311 @@
+package sdk.list;
+
+import play.Logger;
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes list databases from the temporary list directory in the background, so requests no
+ * longer scan the directory themselves.
+ * <p>
+ * Files older than {@value Constants#ListFilesMaxAgeKey} seconds are removed, and once the
+ * directory takes more than {@value Constants#ListFilesMaxBytesKey} bytes the oldest files are
+ * removed until it fits again. A file that is being written or sent is leased with
+ * {@link #retain} and is never removed until it is released, or its lease is older than
+ * {@value Constants#ListFilesMaxLeaseKey} seconds so a file that is never released is still
+ * removed eventually.
+ */
+public class ListFileJanitor {
+    private static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+    private static final long DEFAULT_MAX_AGE_SECONDS = 10 * 60;
+    private static final long DEFAULT_MAX_LEASE_SECONDS = 60 * 60;
+    private static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+    private static volatile ListFileJanitor instance;
+
+    private final File directory;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final long maxLeaseMillis;
+    private final HashMap<File, Lease> leases = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    private long runCount;
+    private long expiredCount;
+    private long evictedCount;
+    private long deletedBytes;
+    private long directoryBytes;
+    private int fileCount;
+    private long lastRunMillis;
+
+    private static class Lease {
+        int count;
+        long expires;
+    }
+
+    /**
+     * @param directory      The directory to keep clean
+     * @param maxBytes       The most bytes the directory should take
+     * @param maxAgeMillis   How long a file is kept
+     * @param maxLeaseMillis How long a lease protects a file that was not released
+     */
+    public ListFileJanitor(File directory, long maxBytes, long maxAgeMillis, long maxLeaseMillis) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxLeaseMillis = maxLeaseMillis;
+    }
+
+    /**
+     * @return The janitor of the temporary list directory, configured from application.conf and
+     * running every {@value Constants#ListFilesCleanupIntervalKey} seconds
+     */
+    public static ListFileJanitor getInstance() {
+        ListFileJanitor janitor = instance;
+        if (janitor == null) {
+            synchronized (ListFileJanitor.class) {
+                janitor = instance;
+                if (janitor == null) {
+                    janitor = new ListFileJanitor(new File(CacheListSQLGenerator.getTemporaryDirectoryPath()),
+                                                  ConfigUtils.getLong(Constants.ListFilesMaxBytesKey, DEFAULT_MAX_BYTES),
+                                                  TimeUnit.SECONDS.toMillis(ConfigUtils.getLong(Constants.ListFilesMaxAgeKey, DEFAULT_MAX_AGE_SECONDS)),
+                                                  TimeUnit.SECONDS.toMillis(ConfigUtils.getLong(Constants.ListFilesMaxLeaseKey, DEFAULT_MAX_LEASE_SECONDS)));
+                    janitor.start(TimeUnit.SECONDS.toMillis(ConfigUtils.getLong(Constants.ListFilesCleanupIntervalKey, DEFAULT_INTERVAL_SECONDS)));
+                    instance = janitor;
+                }
+            }
+        }
+        return janitor;
+    }
+
+    /**
+     * Cleans the directory on a background thread
+     *
+     * @param intervalMillis The time between runs
+     */
+    public synchronized void start(long intervalMillis) {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "list-file-janitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                clean();
+            } catch (RuntimeException e) {
+                Logger.error("Unable to clean the list directory", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor == null) return;
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * Stops the shared janitor when the application stops, the next {@link #getInstance} starts
+     * a new one
+     */
+    public static void shutdown() {
+        synchronized (ListFileJanitor.class) {
+            if (instance != null) {
+                instance.stop();
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Runs a task on the janitor thread after a delay, e.g. to release a file that turned out
+     * not to be needed. Nothing is run once the janitor has stopped.
+     *
+     * @param task
+     * @param delay
+     * @param unit
+     */
+    public synchronized void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (executor == null) return;
+        executor.schedule(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Logger.error("Unable to run a list file task", e);
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * Keeps a file from being removed until it is released. A file can be retained more than
+     * once and is kept until every lease is released.
+     *
+     * @param file
+     */
+    public void retain(File file) {
+        synchronized (leases) {
+            Lease lease = leases.computeIfAbsent(file.getAbsoluteFile(), key -> new Lease());
+            lease.count++;
+            lease.expires = System.currentTimeMillis() + maxLeaseMillis;
+        }
+    }
+
+    /**
+     * @param file A file passed to {@link #retain}, releasing a file that was not retained does nothing
+     */
+    public void release(File file) {
+        synchronized (leases) {
+            File key = file.getAbsoluteFile();
+            Lease lease = leases.get(key);
+            if (lease != null && --lease.count <= 0) {
+                leases.remove(key);
+            }
+        }
+    }
+
+    public boolean isRetained(File file) {
+        synchronized (leases) {
+            return leases.containsKey(file.getAbsoluteFile());
+        }
+    }
+
+    /**
+     * Removes the files that have expired and then the oldest files until the directory fits
+     * its quota. Leased files are left alone but count towards the quota.
+     */
+    public synchronized void clean() {
+        long start = System.currentTimeMillis();
+        dropExpiredLeases(start);
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        long cutoff = start - maxAgeMillis;
+        long bytes = 0;
+        ArrayList<File> remaining = new ArrayList<>();
+        for (File file : files) {
+            long length = file.length();
+            if (file.lastModified() < cutoff && delete(file)) {
+                expiredCount++;
+                deletedBytes += length;
+            } else {
+                remaining.add(file);
+                bytes += length;
+            }
+        }
+        if (bytes > maxBytes) {
+            remaining.sort(Comparator.comparingLong(File::lastModified));
+            Iterator<File> iterator = remaining.iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                File file = iterator.next();
+                long length = file.length();
+                if (delete(file)) {
+                    evictedCount++;
+                    deletedBytes += length;
+                    bytes -= length;
+                    iterator.remove();
+                }
+            }
+            if (bytes > maxBytes) {
+                Logger.warn("The list directory takes " + bytes + " bytes, more than " + maxBytes + ", but the rest of its files are in use");
+            }
+        }
+        runCount++;
+        directoryBytes = bytes;
+        fileCount = remaining.size();
+        lastRunMillis = System.currentTimeMillis() - start;
+        Logger.debug("Cleaned the list directory in " + lastRunMillis + "ms, " + fileCount + " files and " + bytes + " bytes left");
+    }
+
+    /**
+     * @return The number of times the directory has been cleaned
+     */
+    public synchronized long getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * @return The number of files removed for their age
+     */
+    public synchronized long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * @return The number of files removed to keep the directory under its quota
+     */
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * @return The bytes of every file removed
+     */
+    public synchronized long getDeletedBytes() {
+        return deletedBytes;
+    }
+
+    /**
+     * @return The bytes the directory took after the last run
+     */
+    public synchronized long getDirectoryBytes() {
+        return directoryBytes;
+    }
+
+    /**
+     * @return The number of files in the directory after the last run
+     */
+    public synchronized int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return How long the last run took
+     */
+    public synchronized long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    public int getLeaseCount() {
+        synchronized (leases) {
+            return leases.size();
+        }
+    }
+
+    private void dropExpiredLeases(long now) {
+        synchronized (leases) {
+            Iterator<Map.Entry<File, Lease>> iterator = leases.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<File, Lease> entry = iterator.next();
+                if (entry.getValue().expires < now) {
+                    Logger.warn("The list file " + entry.getKey().getPath() + " was never released");
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a file unless it is leased, the lease is checked while holding the lock so a file
+     * can not be retained while it is being removed
+     */
+    private boolean delete(File file) {
+        synchronized (leases) {
+            if (leases.containsKey(file.getAbsoluteFile())) return false;
+            if (!file.delete() && file.exists()) {
+                Logger.debug("Could not delete temp file " + file.getPath());
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import sdk.models.*;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +30,7 @@ public class ListItem implements Record {
     public String id;
     public String parentID;
     public String value;
-    private HashMap<Integer, ListItemAttribute> itemAttributes = new HashMap<>();
+    private final ListAttributeStore itemAttributes = new ListAttributeStore();
     public double latitude = -1000;
     public double longitude = -1000;
     private int maxAttributeIndex = -1;
@@ -60,39 +61,34 @@ public class ListItem implements Record {
      * @param index The attribute to be set 1-10
      */
     public void setAttributeForIndex(@Nullable Object value, int index) {
-        ListItemAttribute attribute = null;
-
         if (index > 79 || index < 0)
             Logger.warn("The index you specified (" + index + ") is beyond the allowed number of attributes ( 0 - 79 )");
-        if (value != null) {
-            if (value instanceof String) {
-                attribute = new ListItemAttribute((String) value);
-            } else if (value instanceof Color) {
-                attribute = new ListItemAttribute((Color) value);
-            } else if (value instanceof Integer) {
-                attribute = new ListItemAttribute((Integer) value);
-            } else if (value instanceof Location) {
-                attribute = new ListItemAttribute((Location) value);
-            } else if (value instanceof DateTime) {
-                Logger.warn("setAttributeForIndex(Object value, int index) with a value type of DateTime assumes that the date contains a time component. Use setDateAttributeAtIndex(DateTime date, boolean time) to be more explicit.");
-                attribute = new ListItemAttribute((DateTime) value, true);
-            } else if (value instanceof DateRange) {
-                attribute = new ListItemAttribute((DateRange) value);
-            } else if (value instanceof DateTimeRange) {
-                attribute = new ListItemAttribute((DateTimeRange) value);
-            } else if (value instanceof Double) {
-                attribute = new ListItemAttribute((Double) value);
-            } else if (value instanceof Image) {
-                attribute = new ListItemAttribute((Image) value);
-            } else if (value instanceof Long) {
-                attribute = new ListItemAttribute((Long) value);
-            } else if (value instanceof Boolean) {
-                attribute = new ListItemAttribute((Boolean) value);
-            } else {
-                throw new UnsupportedOperationException("List does not support a value of type " + value.getClass().getCanonicalName());
-            }
+        if (value == null || value instanceof String) {
+            itemAttributes.setString(index, (String) value);
+        } else if (value instanceof Integer) {
+            itemAttributes.setString(index, "" + value);
+        } else if (value instanceof Double) {
+            itemAttributes.setString(index, "" + value);
+        } else if (value instanceof Long) {
+            itemAttributes.setString(index, "" + value);
+        } else if (value instanceof Boolean) {
+            itemAttributes.setString(index, (Boolean) value ? "Y" : "N");
+        } else if (value instanceof Color) {
+            itemAttributes.setAttribute(index, new ListItemAttribute((Color) value));
+        } else if (value instanceof Location) {
+            itemAttributes.setAttribute(index, new ListItemAttribute((Location) value));
+        } else if (value instanceof DateTime) {
+            Logger.warn("setAttributeForIndex(Object value, int index) with a value type of DateTime assumes that the date contains a time component. Use setDateAttributeAtIndex(DateTime date, boolean time) to be more explicit.");
+            itemAttributes.setAttribute(index, new ListItemAttribute((DateTime) value, true));
+        } else if (value instanceof DateRange) {
+            itemAttributes.setAttribute(index, new ListItemAttribute((DateRange) value));
+        } else if (value instanceof DateTimeRange) {
+            itemAttributes.setAttribute(index, new ListItemAttribute((DateTimeRange) value));
+        } else if (value instanceof Image) {
+            itemAttributes.setAttribute(index, new ListItemAttribute((Image) value));
+        } else {
+            throw new UnsupportedOperationException("List does not support a value of type " + value.getClass().getCanonicalName());
         }
-        itemAttributes.put(index, attribute);
         maxAttributeIndex = maxAttributeIndex > index ? maxAttributeIndex : index;
     }
 
@@ -110,7 +106,7 @@ public class ListItem implements Record {
         if (date != null) {
             attribute = new ListItemAttribute(date, time);
         }
-        itemAttributes.put(index, attribute);
+        itemAttributes.setAttribute(index, attribute);
         maxAttributeIndex = maxAttributeIndex > index ? maxAttributeIndex : index;
     }
 
@@ -128,11 +124,21 @@ public class ListItem implements Record {
 
     @Deprecated
     public String getStringAttributeForIndex(int index) {
-        ListItemAttribute attribute = itemAttributes.get(index);
-        if (attribute != null) {
-            return attribute.getStringValue();
+        return itemAttributes.getString(index);
+    }
+
+    /**
+     * Copies the string value of every attribute into an array indexed by attribute index.
+     * Indexes without an attribute are set to null and attributes beyond the array are skipped.
+     *
+     * @param values The array to fill
+     */
+    void getAttributeStrings(String[] values) {
+        int count = Math.min(values.length, itemAttributes.capacity());
+        for (int index = 0; index < count; index++) {
+            values[index] = itemAttributes.getString(index);
         }
-        return null;
+        Arrays.fill(values, count, values.length, null);
     }
 
     @Deprecated
@@ -243,7 +249,7 @@ public class ListItem implements Record {
         if (value != null) {
             attribute = new ListItemAttribute(value, false);
         }
-        itemAttributes.put(index, attribute);
+        itemAttributes.setAttribute(index, attribute);
         maxAttributeIndex = maxAttributeIndex > index ? maxAttributeIndex : index;
     }
 
@@ -272,20 +278,12 @@ public class ListItem implements Record {
 
     @Override
     public String getString(int index) {
-        ListItemAttribute attribute = itemAttributes.get(index);
-        if (attribute != null) {
-            return attribute.getStringValue();
-        }
-        return null;
+        return itemAttributes.getString(index);
     }
 
     @Override
     public Optional<String> getOptionalString(int index) {
-        ListItemAttribute attribute = itemAttributes.get(index);
-        if (attribute != null) {
-            return Optional.of(attribute.getStringValue());
-        }
-        return Optional.empty();
+        return Optional.ofNullable(itemAttributes.getString(index));
     }
 
     @Override
@@ -388,7 +386,7 @@ public class ListItem implements Record {
         if (value != null) {
             attribute = new ListItemAttribute(value, true);
         }
-        itemAttributes.put(index, attribute);
+        itemAttributes.setAttribute(index, attribute);
         maxAttributeIndex = maxAttributeIndex > index ? maxAttributeIndex : index;
     }
 
@@ -611,6 +609,18 @@ public class ListItem implements Record {
     }
 
 
+    private static final String[] ATTRIBUTE_FIELD_NAMES = new String[ListDatabaseBuilder.ATTRIBUTE_COLUMNS];
+
+    static {
+        for (int i = 0; i < ATTRIBUTE_FIELD_NAMES.length; i++) {
+            ATTRIBUTE_FIELD_NAMES[i] = i < 9 ? "attribute0" + (i + 1) : "attribute" + (i + 1);
+        }
+    }
+
+    private static String getAttributeFieldName(int index) {
+        return index < ATTRIBUTE_FIELD_NAMES.length ? ATTRIBUTE_FIELD_NAMES[index] : "attribute" + (index + 1);
+    }
+
     static class ListItemSerializer extends JsonSerializer<ListItem> {
 
         @Override
@@ -626,13 +636,9 @@ public class ListItem implements Record {
                 gen.writeNumberField("longitude", value.longitude);
             }
             for (int i = 0; i <= value.maxAttributeIndex; i++) {
-                ListItemAttribute attribute = value.getAttributeForIndex(i);
+                String attribute = value.itemAttributes.getString(i);
                 if (attribute != null) {
-                    if (i < 9) {
-                        gen.writeStringField("attribute0" + (i + 1), attribute.getStringValue());
-                    } else {
-                        gen.writeStringField("attribute" + (i + 1), attribute.getStringValue());
-                    }
+                    gen.writeStringField(getAttributeFieldName(i), attribute);
                 }
             }
             gen.writeEndObject();
@@ -662,7 +668,7 @@ public class ListItem implements Record {
         result = id != null ? id.hashCode() : 0;
         result = 31 * result + (parentID != null ? parentID.hashCode() : 0);
         result = 31 * result + (value != null ? value.hashCode() : 0);
-        result = 31 * result + (itemAttributes != null ? itemAttributes.hashCode() : 0);
+        result = 31 * result + itemAttributes.hashCode();
         temp = Double.doubleToLongBits(latitude);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         temp = Double.doubleToLongBits(longitude);
@@ -0,0 +1,210 @@
+package sdk.list;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * An in memory index of a list for answering searches without the data source. The value, ID
+ * and searchable attributes of every item are indexed, by trigram for searches of three or more
+ * characters, by the start of each word for shorter searches and by the whole text for barcode
+ * searches. Matches are case insensitive and come back in list order.
+ */
+public class ListSearchIndex {
+    private static final char SEPARATOR = '\u0000';
+    // rough sizes for estimating the memory of an index, an item with its strings and a map entry with its key
+    private static final int ITEM_BYTES = 200;
+    private static final int ENTRY_BYTES = 64;
+
+    private final ListItem[] items;
+    private final String[] texts;
+    private final HashMap<String, ListItem> itemsByID = new HashMap<>();
+    private final HashMap<Long, IntList> trigrams = new HashMap<>();
+    private final HashMap<String, IntList> wordPrefixes = new HashMap<>();
+    private final HashMap<String, IntList> exactTexts = new HashMap<>();
+    private final long builtAt;
+    private final long estimatedBytes;
+
+    /**
+     * A growing list of item positions, positions are added in order and only once
+     */
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Indexes a list
+     *
+     * @param list
+     * @param schema The searchable attributes are the ones the schema indexes
+     */
+    public ListSearchIndex(List list, ListDatabaseSchema schema) {
+        builtAt = System.currentTimeMillis();
+        int[] searchableAttributes = schema.getIndexedAttributes();
+        String[] attributeValues = new String[ListDatabaseBuilder.ATTRIBUTE_COLUMNS];
+        items = list.listItems.toArray(new ListItem[list.listItems.size()]);
+        texts = new String[items.length];
+        StringBuilder text = new StringBuilder();
+        for (int position = 0; position < items.length; position++) {
+            ListItem listItem = items[position];
+            if (listItem.id != null) {
+                itemsByID.putIfAbsent(listItem.id, listItem);
+            }
+            listItem.getAttributeStrings(attributeValues);
+            text.setLength(0);
+            addField(position, listItem.value, text);
+            addField(position, listItem.id, text);
+            for (int attributeIndex : searchableAttributes) {
+                addField(position, attributeValues[attributeIndex], text);
+            }
+            texts[position] = text.toString();
+            addTrigrams(position, texts[position]);
+        }
+        estimatedBytes = estimateBytes();
+    }
+
+    /**
+     * @return When the index was built
+     */
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * @return Roughly how much memory the index and the items it holds take
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * @param id
+     * @return The item with the ID or null if the list has no such item
+     */
+    public ListItem getItem(String id) {
+        return itemsByID.get(id);
+    }
+
+    /**
+     * Finds the items whose value, ID or searchable attributes contain the query. Queries
+     * shorter than three characters match the start of a word instead.
+     *
+     * @param query
+     * @return The matching items, every item for an empty query
+     */
+    public List search(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return toList(null);
+        }
+        if (normalized.length() < 3) {
+            IntList matches = wordPrefixes.get(normalized);
+            return matches != null ? toList(matches) : new List();
+        }
+        IntList candidates = null;
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            IntList postings = trigrams.get(trigram(normalized, i));
+            if (postings == null) return new List();
+            if (candidates == null || postings.size < candidates.size) {
+                candidates = postings;
+            }
+        }
+        IntList matches = new IntList();
+        for (int i = 0; i < candidates.size; i++) {
+            int position = candidates.values[i];
+            if (texts[position].contains(normalized)) {
+                matches.add(position);
+            }
+        }
+        return toList(matches);
+    }
+
+    /**
+     * Finds the items whose value, ID or a searchable attribute is exactly the barcode
+     *
+     * @param barcode
+     * @return The matching items
+     */
+    public List findBarcode(String barcode) {
+        IntList matches = exactTexts.get(normalize(barcode));
+        return matches != null ? toList(matches) : new List();
+    }
+
+    private void addField(int position, String value, StringBuilder text) {
+        if (value == null) return;
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) return;
+        if (text.length() > 0) {
+            text.append(SEPARATOR);
+        }
+        text.append(normalized);
+        exactTexts.computeIfAbsent(normalized, key -> new IntList()).add(position);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                wordPrefixes.computeIfAbsent(normalized.substring(i, i + 1), key -> new IntList()).add(position);
+                if (i + 1 < normalized.length()) {
+                    wordPrefixes.computeIfAbsent(normalized.substring(i, i + 2), key -> new IntList()).add(position);
+                }
+            }
+        }
+    }
+
+    private void addTrigrams(int position, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (text.charAt(i) == SEPARATOR || text.charAt(i + 1) == SEPARATOR || text.charAt(i + 2) == SEPARATOR) continue;
+            trigrams.computeIfAbsent(trigram(text, i), key -> new IntList()).add(position);
+        }
+    }
+
+    private long estimateBytes() {
+        long bytes = (long) items.length * ITEM_BYTES + (long) itemsByID.size() * ENTRY_BYTES;
+        for (String text : texts) {
+            // the indexed text and the item strings it was made from
+            bytes += 4L * text.length();
+        }
+        return bytes + getPostingBytes(trigrams) + getPostingBytes(wordPrefixes) + getPostingBytes(exactTexts);
+    }
+
+    private static long getPostingBytes(HashMap<?, IntList> postings) {
+        long bytes = 0;
+        for (IntList positions : postings.values()) {
+            bytes += ENTRY_BYTES + 4L * positions.values.length;
+        }
+        return bytes;
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param positions The item positions or null for every item
+     */
+    private List toList(IntList positions) {
+        if (positions == null) {
+            return new List(Arrays.asList(items));
+        }
+        List list = new List();
+        for (int i = 0; i < positions.size; i++) {
+            list.addListItem(items[positions.values[i]]);
+        }
+        return list;
+    }
+}
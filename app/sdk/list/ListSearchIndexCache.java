@@ -0,0 +1,167 @@
+package sdk.list;
+
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+import sdk.utils.ExecutorPools;
+import sdk.utils.Parameters;
+import sdk.utils.ServiceParameter;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link ListSearchIndex} of the lists last fetched for list requests, so searches can
+ * be answered without the data source. Only lists whose data source allows it with
+ * {@link sdk.datasources.ListDataSource#isSearchIndexSupported()} are indexed. An index is used
+ * for {@value Constants#ListSearchMaxAgeKey} seconds after its list was fetched, the default of 0
+ * turns searching in memory off. The indexes are kept to {@value Constants#ListSearchMaxBytesKey}
+ * estimated bytes and {@value Constants#ListSearchMaxEntriesKey} lists, least recently used first
+ * out.
+ */
+public class ListSearchIndexCache {
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ENTRIES = 50;
+
+    private static volatile ListSearchIndexCache instance;
+
+    private final long maxAgeMillis;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final LinkedHashMap<String, ListSearchIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * @param maxAgeMillis How long an index is used, 0 or less turns the cache off
+     * @param maxBytes     The most estimated bytes of indexes to keep
+     * @param maxEntries   The most indexes to keep
+     */
+    public ListSearchIndexCache(long maxAgeMillis, long maxBytes, int maxEntries) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return The shared cache, configured from application.conf
+     */
+    public static ListSearchIndexCache getInstance() {
+        ListSearchIndexCache cache = instance;
+        if (cache == null) {
+            synchronized (ListSearchIndexCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new ListSearchIndexCache(TimeUnit.SECONDS.toMillis(ConfigUtils.getLong(Constants.ListSearchMaxAgeKey, 0)),
+                                                     ConfigUtils.getLong(Constants.ListSearchMaxBytesKey, DEFAULT_MAX_BYTES),
+                                                     ConfigUtils.getInt(Constants.ListSearchMaxEntriesKey, DEFAULT_MAX_ENTRIES));
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Lists fetched with different values for their filter parameters have different content, so
+     * they get separate indexes. Any other request parameters are left out, so searches find the
+     * index whatever else they send.
+     *
+     * @param listName
+     * @param authScope        null for lists whose content is global
+     * @param parameters       The request parameters
+     * @param filterParameters The filter parameters of the list, may be null
+     * @return The key of the index for a list
+     */
+    public static String getKey(String listName, String authScope, Parameters parameters, Collection<ServiceParameter> filterParameters) {
+        ContentHasher hasher = new ContentHasher();
+        hasher.update(listName);
+        hasher.update(authScope);
+        if (filterParameters != null) {
+            Map<String, String> values = parameters.toMap();
+            TreeMap<String, String> filterValues = new TreeMap<>();
+            for (ServiceParameter filterParameter : filterParameters) {
+                filterValues.put(filterParameter.getKey(), values.get(filterParameter.getKey()));
+            }
+            for (Map.Entry<String, String> entry : filterValues.entrySet()) {
+                hasher.update(entry.getKey());
+                hasher.update(entry.getValue());
+            }
+        }
+        return hasher.toHex();
+    }
+
+    public boolean isEnabled() {
+        return maxAgeMillis > 0;
+    }
+
+    /**
+     * Indexes a list in the background
+     *
+     * @param key    A key from {@link #getKey}
+     * @param list
+     * @param schema The searchable attributes are the ones the schema indexes
+     * @return A future that completes once the index is ready
+     */
+    public CompletableFuture<Void> put(String key, List list, ListDatabaseSchema schema) {
+        if (!isEnabled()) return CompletableFuture.completedFuture(null);
+        return ExecutorPools.runAsync(() -> {
+            ListSearchIndex index = new ListSearchIndex(list, schema);
+            if (index.getEstimatedBytes() > maxBytes) return;
+            synchronized (this) {
+                ListSearchIndex existing = indexes.get(key);
+                if (existing == null || existing.getBuiltAt() <= index.getBuiltAt()) {
+                    remove(key);
+                    indexes.put(key, index);
+                    totalBytes += index.getEstimatedBytes();
+                    evict();
+                }
+            }
+        }, ExecutorPools.getConversionExecutor());
+    }
+
+    /**
+     * @param key A key from {@link #getKey}
+     * @return The index of the list if it is not older than the max age
+     */
+    public synchronized Optional<ListSearchIndex> get(String key) {
+        if (!isEnabled()) return Optional.empty();
+        ListSearchIndex index = indexes.get(key);
+        if (index == null) return Optional.empty();
+        if (System.currentTimeMillis() - index.getBuiltAt() > maxAgeMillis) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(index);
+    }
+
+    public synchronized int size() {
+        return indexes.size();
+    }
+
+    /**
+     * @return The estimated bytes of the indexes kept
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        ListSearchIndex index = indexes.remove(key);
+        if (index != null) {
+            totalBytes -= index.getEstimatedBytes();
+        }
+    }
+
+    private void evict() {
+        Iterator<ListSearchIndex> iterator = indexes.values().iterator();
+        while ((totalBytes > maxBytes || indexes.size() > maxEntries) && iterator.hasNext()) {
+            totalBytes -= iterator.next().getEstimatedBytes();
+            iterator.remove();
+        }
+    }
+}
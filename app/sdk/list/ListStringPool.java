@@ -0,0 +1,35 @@
+package sdk.list;
+
+import sdk.utils.ConfigUtils;
+import sdk.utils.Constants;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares one instance of the short attribute strings that repeat across list items, such as
+ * statuses and categories, so a large list holds each of them once. Strings longer than
+ * apptree.list.internMaxLength characters (32 by default) are not pooled, 0 turns pooling off.
+ * The pool starts over once it holds apptree.list.internPoolSize strings (64K by default), so
+ * values that never repeat do not keep it full.
+ */
+class ListStringPool {
+    private static final int MAX_LENGTH = ConfigUtils.getInt(Constants.ListInternMaxLengthKey, 32);
+    private static final int MAX_SIZE = ConfigUtils.getInt(Constants.ListInternPoolSizeKey, 64 * 1024);
+
+    private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+    /**
+     * @param value
+     * @return The pooled instance of the value
+     */
+    static String intern(String value) {
+        if (value.length() > MAX_LENGTH) return value;
+        String pooled = pool.get(value);
+        if (pooled != null) return pooled;
+        if (pool.size() >= MAX_SIZE) {
+            pool.clear();
+        }
+        pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
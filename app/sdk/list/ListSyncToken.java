@@ -0,0 +1,51 @@
+package sdk.list;
+
+import java.util.Optional;
+
+/**
+ * Tells a list sync where the client left off: when the list it has was fetched and, if it was
+ * cached, the key of the list database it was sent. Sent to clients in the
+ * {@value sdk.utils.Constants#CORE_LIST_VERSION_HEADER} header as {@code <millis>.<content key>}.
+ */
+public class ListSyncToken {
+    private final long timestamp;
+    private final String contentKey;
+
+    /**
+     * @param timestamp  When the list was fetched, in milliseconds since the epoch
+     * @param contentKey The key of the cached list database or null
+     */
+    public ListSyncToken(long timestamp, String contentKey) {
+        this.timestamp = timestamp;
+        this.contentKey = contentKey;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    /**
+     * @param token A token from {@link #toString()}, may be null
+     * @return The token or empty if it is missing or can not be read
+     */
+    public static Optional<ListSyncToken> parse(String token) {
+        if (token == null || token.isEmpty()) return Optional.empty();
+        int separator = token.indexOf('.');
+        String timestamp = separator < 0 ? token : token.substring(0, separator);
+        String contentKey = separator < 0 || separator == token.length() - 1 ? null : token.substring(separator + 1);
+        try {
+            return Optional.of(new ListSyncToken(Long.parseLong(timestamp), contentKey));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return contentKey == null ? Long.toString(timestamp) : timestamp + "." + contentKey;
+    }
+}
@@ -177,4 +177,32 @@ public class Location {
         return String.format("%f,%f", latitude, longitude);
     }
 
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Location location = (Location) o;
+
+        if (Double.compare(location.latitude, latitude) != 0) return false;
+        if (Double.compare(location.longitude, longitude) != 0) return false;
+        if (Double.compare(location.bearing, bearing) != 0) return false;
+        if (Double.compare(location.speed, speed) != 0) return false;
+        if (Double.compare(location.accuracy, accuracy) != 0) return false;
+        if (Double.compare(location.elevation, elevation) != 0) return false;
+        return timestamp != null ? timestamp.equals(location.timestamp) : location.timestamp == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(latitude);
+        result = 31 * result + Double.hashCode(longitude);
+        result = 31 * result + Double.hashCode(bearing);
+        result = 31 * result + Double.hashCode(speed);
+        result = 31 * result + Double.hashCode(accuracy);
+        result = 31 * result + Double.hashCode(elevation);
+        result = 31 * result + (timestamp != null ? timestamp.hashCode() : 0);
+        return result;
+    }
 }
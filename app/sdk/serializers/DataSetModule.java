@@ -17,7 +17,7 @@ public class DataSetModule extends SimpleModule {
 
         @Override
         public void serialize(DataSet value, JsonGenerator gen, SerializerProvider serializers) throws IOException, JsonProcessingException {
-            gen.writeRawValue(value.toJSON().toString());
+            value.writeJSON(gen);
         }
 
         @Override
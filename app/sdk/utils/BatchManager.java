@@ -1,42 +1,211 @@
 package sdk.utils;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.io.output.CountingOutputStream;
 import play.Logger;
 import play.libs.Json;
 import play.libs.ws.WSClient;
-import play.libs.ws.WSRequest;
 import sdk.data.DataSet;
 
-import static sdk.utils.CallbackLogger.logCallbackInfo;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static sdk.utils.CallbackLogger.logCallbackDelivery;
 
 /**
+ * Sends the batches of a paged data set to the core. At most
+ * {@value Constants#BatchMaxInFlightKey} batches are waiting for the core at once,
+ * {@link #sendBatch} blocks the data source until an earlier batch is accepted. Batches are
+ * delivered in the order they were sent. Once the core rejects a batch the rest are cancelled.
+ *
  * Created by alexisandreason on 5/26/17.
  */
 public class BatchManager {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 2;
+
     private String callbackURL;
-    private WSClient client;
+    private CallbackQueue queue;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private volatile Throwable rejection;
 
+    private int batchesInFlight;
+    private int batchesSent;
+    private long bytesSent;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    /**
+     * @param callbackURL
+     * @param client
+     * @deprecated Pass the {@link CallbackQueue} injected into the controller, this sends the
+     * batches through the queue of the application and only uses the client if there is none
+     */
+    @Deprecated
     public BatchManager(String callbackURL, WSClient client) {
+        this(callbackURL, CallbackQueue.getApplicationQueue(client));
+    }
+
+    /**
+     * @param callbackURL
+     * @param queue       The queue the batches are sent through
+     */
+    public BatchManager(String callbackURL, CallbackQueue queue) {
+        this(callbackURL, queue, ConfigUtils.getInt(Constants.BatchMaxInFlightKey, DEFAULT_MAX_IN_FLIGHT));
+    }
+
+    /**
+     * @param callbackURL
+     * @param queue       The queue the batches are sent through
+     * @param maxInFlight The most batches waiting for the core at once
+     */
+    public BatchManager(String callbackURL, CallbackQueue queue, int maxInFlight) {
         this.callbackURL = callbackURL;
-        this.client = client;
+        this.queue = queue;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
     }
 
-    public void sendBatch(DataSet dataSet, boolean moreRecordsAvailable) {
+    /**
+     * Queues the next batch, waiting first if too many batches are already waiting for the core
+     *
+     * @param dataSet
+     * @param moreRecordsAvailable false for the last batch
+     * @return A stage that completes once the core accepts the batch
+     * @throws CancellationException if the core rejected an earlier batch, data sources should stop
+     *                               fetching batches
+     */
+    public CompletionStage<Void> sendBatch(DataSet dataSet, boolean moreRecordsAvailable) {
+        acquire();
         dataSet.setMoreRecordsAvailable(moreRecordsAvailable);
-        WSRequest request = client.url(callbackURL);
-        ObjectNode json;
+        CallbackRequest request = new CallbackRequest(callbackURL);
         if (dataSet.isSuccess()) {
             request.setHeader(Constants.CORE_CALLBACK_TYPE, Constants.CORE_CALLBACK_TYPE_SUCCESS);
         } else {
             request.setHeader(Constants.CORE_CALLBACK_TYPE, Constants.CORE_CALLBACK_TYPE_ERROR);
-            json = Json.newObject();
+            ObjectNode json = Json.newObject();
             json.put(Constants.CORE_CALLBACK_MESSAGE, dataSet.getMessage() != null ? dataSet.getMessage() : "");
             request.setBody(json);
         }
-        json = dataSet.toJSON();
-        request.post(json)
-                .whenComplete((wsResponse, throwable) -> {
-                    logCallbackInfo(wsResponse, throwable, callbackURL);
-                });
+        CompletableFuture<Void> sent;
+        long queuedAt = System.nanoTime();
+        long[] bytes = new long[1];
+        try {
+            dataSet.validatePrimaryKeys();
+            request.setContentType(DataSetStreamer.JSON_CONTENT_TYPE);
+            request.setBody(outputStream -> {
+                CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+                dataSet.writeJSON(countingStream);
+                bytes[0] = countingStream.getByteCount();
+            });
+            synchronized (this) {
+                batchesInFlight++;
+            }
+            sent = queue.send(request);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        return sent.whenComplete((done, throwable) -> {
+            synchronized (this) {
+                batchesInFlight--;
+            }
+            logCallbackDelivery(throwable, callbackURL);
+            if (throwable != null) {
+                // cancels before the permit is released, so a waiting source can not send another batch
+                reject(throwable);
+                inFlight.release();
+                return;
+            }
+            inFlight.release();
+            long latency = System.nanoTime() - queuedAt;
+            synchronized (this) {
+                batchesSent++;
+                bytesSent += bytes[0];
+                totalLatencyNanos += latency;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+            }
+            if (!moreRecordsAvailable) {
+                Logger.info(String.format("Sent %d batches (%d bytes) to %s, %d ms average latency",
+                                          getBatchesSent(), getBytesSent(), callbackURL, getAverageLatencyMillis()));
+            }
+        });
+    }
+
+    private void acquire() {
+        checkCancelled();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting to send a batch to " + callbackURL);
+        }
+        if (rejection != null) {
+            inFlight.release();
+            checkCancelled();
+        }
+    }
+
+    private void checkCancelled() {
+        if (rejection != null) {
+            CancellationException exception = new CancellationException("The core did not accept a batch sent to " + callbackURL);
+            exception.initCause(rejection);
+            throw exception;
+        }
+    }
+
+    private void reject(Throwable throwable) {
+        if (rejection == null) {
+            rejection = throwable;
+            Logger.error("Cancelling the batches for " + callbackURL + ", a batch was not accepted", throwable);
+            // wakes the data source if it is waiting to send
+            inFlight.release(maxInFlight);
+        }
+    }
+
+    /**
+     * @return true once the core rejected a batch, data sources should stop fetching batches
+     */
+    public boolean isCancelled() {
+        return rejection != null;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return The batches queued that the core has not accepted or rejected yet
+     */
+    public synchronized int getBatchesInFlight() {
+        return batchesInFlight;
+    }
+
+    /**
+     * @return The batches the core accepted
+     */
+    public synchronized int getBatchesSent() {
+        return batchesSent;
+    }
+
+    /**
+     * @return The bytes of the batches the core accepted
+     */
+    public synchronized long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return The average time from queueing a batch until the core accepted it
+     */
+    public synchronized long getAverageLatencyMillis() {
+        return batchesSent > 0 ? TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos / batchesSent) : 0;
+    }
+
+    public synchronized long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos);
     }
 }
@@ -8,27 +8,44 @@ import play.libs.ws.WSResponse;
  * Copyright AppTree Software, Inc.
  */
 public class CallbackLogger {
-    public static void logExceptionCallback(WSResponse response, Throwable dataSetThrowable, Throwable callbackThrowable, String callbackURL) {
+    public static void logExceptionCallbackDelivery(Throwable dataSetThrowable, Throwable callbackThrowable, String callbackURL) {
         if (callbackThrowable != null) {
-            Logger.error(String.format("FAILURE CALLBACK COULD NOT BE SENT to %s. Network Exception Occurred - %s", callbackURL, callbackThrowable.toString()), dataSetThrowable);
+            Logger.error(String.format("FAILURE CALLBACK COULD NOT BE SENT to %s - %s", callbackURL, callbackThrowable.toString()), dataSetThrowable);
         } else {
-            if (response.getStatus() == 200) {
-                Logger.error(String.format("FAILURE CALLBACK SENT to %s successfully", callbackURL), dataSetThrowable);
-            } else {
-                Logger.error(String.format("FAILURE CALLBACK COULD NOT BE SENT to %s. Reason: %s : %s\n%s", callbackURL, response.getStatus(), response.getStatusText(), response.getBody()), dataSetThrowable);
-            }
+            Logger.error(String.format("FAILURE CALLBACK SENT to %s successfully", callbackURL), dataSetThrowable);
         }
     }
 
-    public static void logCallbackInfo(WSResponse response, Throwable callbackThrowable, String callbackURL) {
+    public static void logCallbackDelivery(Throwable callbackThrowable, String callbackURL) {
         if (callbackThrowable != null) {
-            Logger.error(String.format("CALLBACK COULD NOT BE SENT to %s. Network Exception Occurred - %s", callbackURL, callbackThrowable.toString()), callbackThrowable);
+            Logger.error(String.format("CALLBACK COULD NOT BE SENT to %s - %s", callbackURL, callbackThrowable.toString()), callbackThrowable);
         } else {
-            if (response.getStatus() == 200) {
-                Logger.debug(String.format("CALLBACK SENT to %s successfully", callbackURL));
-            } else {
-                Logger.error(String.format("CALLBACK COULD NOT BE SENT to %s. Reason: %s : %s\n%s", callbackURL, response.getStatus(), response.getStatusText(), response.getBody()));
-            }
+            Logger.debug(String.format("CALLBACK SENT to %s successfully", callbackURL));
         }
     }
+
+    /**
+     * @deprecated Callbacks are sent through {@link CallbackQueue}, use
+     * {@link #logExceptionCallbackDelivery}
+     */
+    @Deprecated
+    public static void logExceptionCallback(WSResponse response, Throwable dataSetThrowable, Throwable callbackThrowable, String callbackURL) {
+        logExceptionCallbackDelivery(dataSetThrowable, callbackThrowable != null ? callbackThrowable : getRefusal(response, callbackURL), callbackURL);
+    }
+
+    /**
+     * @deprecated Callbacks are sent through {@link CallbackQueue}, use {@link #logCallbackDelivery}
+     */
+    @Deprecated
+    public static void logCallbackInfo(WSResponse response, Throwable callbackThrowable, String callbackURL) {
+        logCallbackDelivery(callbackThrowable != null ? callbackThrowable : getRefusal(response, callbackURL), callbackURL);
+    }
+
+    /**
+     * @return The reason the core did not accept the callback, null if it did
+     */
+    private static Throwable getRefusal(WSResponse response, String callbackURL) {
+        if (response == null || response.getStatus() == 200) return null;
+        return new RuntimeException(String.format("%s refused the callback. Reason: %s : %s\n%s", callbackURL, response.getStatus(), response.getStatusText(), response.getBody()));
+    }
 }
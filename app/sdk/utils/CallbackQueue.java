@@ -0,0 +1,485 @@
+package sdk.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+import play.libs.Json;
+import play.libs.ws.WSClient;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers callbacks to the core, retrying the ones that fail instead of losing the response.
+ * <p>
+ * A callback is spooled to {@value Constants#CallbackDirectoryKey} before it is sent, so it
+ * survives a restart, and it stays there until the core accepts it or it fails for good.
+ * Network errors and 408, 429 and 5xx responses are retried up to
+ * {@value Constants#CallbackMaxAttemptsKey} times, waiting twice as long after each failure,
+ * starting at {@value Constants#CallbackRetryDelayKey} milliseconds and never longer than
+ * {@value Constants#CallbackMaxRetryDelayKey} seconds. Other responses are not retried.
+ * <p>
+ * At most {@value Constants#CallbackMaxQueuedKey} callbacks wait at once and at most
+ * {@value Constants#CallbackMaxConcurrentPerHostKey} are sent to a host at a time. Callbacks
+ * to the same URL, such as the batches of one request, are delivered in the order they were
+ * queued.
+ * <p>
+ * The queue of the application is an eager singleton bound by {@link sdk.SDKModule}, so the
+ * callbacks spooled before a restart are resent as soon as the application starts.
+ */
+@Singleton
+public class CallbackQueue {
+    private static final String BODY_SUFFIX = ".body";
+    private static final String METADATA_SUFFIX = ".json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    // the queue of the running application, for the deprecated callers that are not injected
+    private static CallbackQueue applicationQueue;
+
+    private final File directory;
+    private final CallbackSender sender;
+    private final int maxQueued;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final long maxRetryDelayMillis;
+    private final int maxConcurrentPerHost;
+
+    // spooled callbacks by ID, IDs sort in the order the callbacks were queued
+    private final TreeMap<String, Callback> callbacks = new TreeMap<>();
+    private final HashMap<String, Integer> inFlightByHost = new HashMap<>();
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> wakeup;
+    private long wakeupAt;
+    private long lastCreated;
+    private int sequence;
+    private int spooling;
+    private boolean stopped;
+
+    private long deliveredCount;
+    private long retryCount;
+    private long failedCount;
+
+    private static class Callback {
+        final String id;
+        final String url;
+        final String host;
+        final String contentType;
+        final Map<String, String> headers;
+        final File body;
+        final File metadata;
+        final CompletableFuture<Void> delivered = new CompletableFuture<>();
+        int attempts;
+        long nextAttemptAt;
+        boolean inFlight;
+
+        Callback(String id, String url, Map<String, String> headers, String contentType, File directory) {
+            this.id = id;
+            this.url = url;
+            this.host = getHost(url);
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = new File(directory, id + BODY_SUFFIX);
+            this.metadata = new File(directory, id + METADATA_SUFFIX);
+        }
+    }
+
+    public static class Builder {
+        private final File directory;
+        private final CallbackSender sender;
+        private int maxQueued = 1000;
+        private int maxAttempts = 10;
+        private long retryDelayMillis = 1000;
+        private long maxRetryDelayMillis = TimeUnit.MINUTES.toMillis(5);
+        private int maxConcurrentPerHost = 4;
+
+        /**
+         * @param directory The directory callbacks are spooled to
+         * @param sender
+         */
+        public Builder(File directory, CallbackSender sender) {
+            this.directory = directory;
+            this.sender = sender;
+        }
+
+        public Builder setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+            return this;
+        }
+
+        public Builder setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder setRetryDelayMillis(long retryDelayMillis) {
+            this.retryDelayMillis = retryDelayMillis;
+            return this;
+        }
+
+        public Builder setMaxRetryDelayMillis(long maxRetryDelayMillis) {
+            this.maxRetryDelayMillis = maxRetryDelayMillis;
+            return this;
+        }
+
+        public Builder setMaxConcurrentPerHost(int maxConcurrentPerHost) {
+            this.maxConcurrentPerHost = maxConcurrentPerHost;
+            return this;
+        }
+
+        /**
+         * @return A queue that starts by sending the callbacks already spooled to the directory
+         */
+        public CallbackQueue build() {
+            CallbackQueue queue = new CallbackQueue(this);
+            queue.load();
+            queue.dispatch();
+            return queue;
+        }
+    }
+
+    private CallbackQueue(Builder builder) {
+        directory = builder.directory;
+        sender = builder.sender;
+        maxQueued = builder.maxQueued;
+        maxAttempts = Math.max(1, builder.maxAttempts);
+        retryDelayMillis = builder.retryDelayMillis;
+        maxRetryDelayMillis = builder.maxRetryDelayMillis;
+        maxConcurrentPerHost = Math.max(1, builder.maxConcurrentPerHost);
+        directory.mkdirs();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "callback-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the queue of the application, configured from application.conf. It starts by
+     * sending the callbacks already spooled and stops when the application stops.
+     *
+     * @param client    The client callbacks are posted with
+     * @param lifecycle
+     */
+    @Inject
+    public CallbackQueue(WSClient client, ApplicationLifecycle lifecycle) {
+        this(getConfiguredBuilder(CallbackSender.forClient(client)));
+        load();
+        dispatch();
+        synchronized (CallbackQueue.class) {
+            applicationQueue = this;
+        }
+        lifecycle.addStopHook(() -> {
+            stop();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * For callers that are not injected with the queue. If the application has not created its
+     * queue, one configured from application.conf is created with the client.
+     *
+     * @param client The client callbacks are posted with if a queue is created
+     * @return The queue of the application
+     */
+    static synchronized CallbackQueue getApplicationQueue(WSClient client) {
+        if (applicationQueue == null) {
+            applicationQueue = getConfiguredBuilder(CallbackSender.forClient(client)).build();
+        }
+        return applicationQueue;
+    }
+
+    private static Builder getConfiguredBuilder(CallbackSender sender) {
+        String defaultDirectory = new File(System.getProperty("java.io.tmpdir"), "apptree-callbacks").getPath();
+        return new Builder(new File(ConfigUtils.getString(Constants.CallbackDirectoryKey, defaultDirectory)), sender)
+                .setMaxQueued(ConfigUtils.getInt(Constants.CallbackMaxQueuedKey, 1000))
+                .setMaxAttempts(ConfigUtils.getInt(Constants.CallbackMaxAttemptsKey, 10))
+                .setRetryDelayMillis(ConfigUtils.getLong(Constants.CallbackRetryDelayKey, 1000))
+                .setMaxRetryDelayMillis(TimeUnit.SECONDS.toMillis(ConfigUtils.getLong(Constants.CallbackMaxRetryDelayKey, 5 * 60)))
+                .setMaxConcurrentPerHost(ConfigUtils.getInt(Constants.CallbackMaxConcurrentPerHostKey, 4));
+    }
+
+    /**
+     * Spools a callback and sends it in the background. The body is written before this returns.
+     *
+     * @param request
+     * @return A future that completes once the core accepts the callback, or fails if the queue
+     * is full, the callback could not be spooled or it failed for good
+     */
+    public CompletableFuture<Void> send(CallbackRequest request) {
+        String id;
+        synchronized (this) {
+            if (callbacks.size() + spooling >= maxQueued) {
+                return failedFuture(new IllegalStateException("The callback queue is full, " + maxQueued + " callbacks are waiting"));
+            }
+            id = nextID();
+            spooling++;
+        }
+        Callback callback = new Callback(id, request.getURL(), new LinkedHashMap<>(request.getHeaders()), request.getContentType(), directory);
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(callback.body))) {
+                request.writeBody(outputStream);
+            }
+            writeMetadata(callback);
+        } catch (IOException | RuntimeException e) {
+            callback.body.delete();
+            callback.metadata.delete();
+            synchronized (this) {
+                spooling--;
+            }
+            return failedFuture(new RuntimeException("Unable to spool the callback to " + request.getURL(), e));
+        }
+        synchronized (this) {
+            spooling--;
+            callbacks.put(id, callback);
+        }
+        dispatch();
+        return callback.delivered;
+    }
+
+    /**
+     * Stops sending. Callbacks that were not delivered stay spooled for the next queue on the
+     * same directory.
+     */
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+        }
+        synchronized (CallbackQueue.class) {
+            if (applicationQueue == this) {
+                applicationQueue = null;
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    public synchronized int getQueuedCount() {
+        return callbacks.size();
+    }
+
+    public synchronized int getInFlightCount() {
+        int count = 0;
+        for (int hostCount : inFlightByHost.values()) {
+            count += hostCount;
+        }
+        return count;
+    }
+
+    public synchronized long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    private String nextID() {
+        long now = System.currentTimeMillis();
+        if (now > lastCreated) {
+            lastCreated = now;
+            sequence = 0;
+        }
+        return String.format("%013d-%06d", lastCreated, sequence++);
+    }
+
+    /**
+     * Picks up the callbacks spooled by an earlier queue. Bodies without metadata were never
+     * queued and are removed.
+     */
+    private void load() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files);
+        HashSet<String> ids = new HashSet<>();
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.endsWith(METADATA_SUFFIX)) continue;
+            String id = name.substring(0, name.length() - METADATA_SUFFIX.length());
+            try {
+                JsonNode json = Json.mapper().readTree(file);
+                LinkedHashMap<String, String> headers = new LinkedHashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = json.get("headers").fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    headers.put(field.getKey(), field.getValue().asText());
+                }
+                JsonNode contentType = json.get("contentType");
+                Callback callback = new Callback(id, json.get("url").asText(), headers,
+                                                 contentType != null && !contentType.isNull() ? contentType.asText() : null, directory);
+                callback.attempts = json.path("attempts").asInt();
+                if (!callback.body.exists()) {
+                    file.delete();
+                    continue;
+                }
+                synchronized (this) {
+                    callbacks.put(id, callback);
+                }
+                ids.add(id);
+            } catch (IOException | RuntimeException e) {
+                Logger.error("Unable to read the spooled callback " + file, e);
+                file.delete();
+            }
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMPORARY_SUFFIX) || (name.endsWith(BODY_SUFFIX) && !ids.contains(name.substring(0, name.length() - BODY_SUFFIX.length())))) {
+                file.delete();
+            }
+        }
+        if (!ids.isEmpty()) {
+            Logger.info(String.format("Resending %d spooled callbacks", ids.size()));
+        }
+    }
+
+    private void writeMetadata(Callback callback) throws IOException {
+        ObjectNode json = Json.newObject();
+        json.put("url", callback.url);
+        json.put("contentType", callback.contentType);
+        ObjectNode headers = json.putObject("headers");
+        callback.headers.forEach(headers::put);
+        json.put("attempts", callback.attempts);
+        File temporary = new File(directory, callback.id + METADATA_SUFFIX + TEMPORARY_SUFFIX);
+        Json.mapper().writeValue(temporary, json);
+        Files.move(temporary.toPath(), callback.metadata.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sends every callback that is due, unless an earlier callback to its URL is still waiting
+     * or its host is at the limit, and wakes up again when the next retry is due
+     */
+    private void dispatch() {
+        ArrayList<Callback> due = new ArrayList<>();
+        synchronized (this) {
+            if (stopped) return;
+            long now = System.currentTimeMillis();
+            long nextAttemptAt = Long.MAX_VALUE;
+            HashSet<String> waitingURLs = new HashSet<>();
+            for (Callback callback : callbacks.values()) {
+                if (!waitingURLs.add(callback.url) || callback.inFlight) continue;
+                if (callback.nextAttemptAt > now) {
+                    nextAttemptAt = Math.min(nextAttemptAt, callback.nextAttemptAt);
+                    continue;
+                }
+                int hostCount = inFlightByHost.getOrDefault(callback.host, 0);
+                if (hostCount >= maxConcurrentPerHost) continue;
+                inFlightByHost.put(callback.host, hostCount + 1);
+                callback.inFlight = true;
+                callback.attempts++;
+                due.add(callback);
+            }
+            scheduleWakeup(nextAttemptAt, now);
+        }
+        for (Callback callback : due) {
+            CompletionStage<Integer> attempt;
+            try {
+                attempt = sender.post(callback.url, callback.headers, callback.contentType, callback.body);
+            } catch (RuntimeException e) {
+                attempt = failedFuture(e);
+            }
+            attempt.whenComplete((status, throwable) -> completeAttempt(callback, status, throwable));
+        }
+    }
+
+    private void scheduleWakeup(long at, long now) {
+        if (at == Long.MAX_VALUE) return;
+        if (wakeup != null && !wakeup.isDone()) {
+            if (wakeupAt <= at) return;
+            wakeup.cancel(false);
+        }
+        wakeupAt = at;
+        wakeup = executor.schedule(this::dispatch, at - now, TimeUnit.MILLISECONDS);
+    }
+
+    private void completeAttempt(Callback callback, Integer status, Throwable throwable) {
+        boolean delivered = throwable == null && status != null && status >= 200 && status < 300;
+        boolean retry = !delivered && (throwable != null || isRetryable(status)) && callback.attempts < maxAttempts;
+        synchronized (this) {
+            callback.inFlight = false;
+            inFlightByHost.merge(callback.host, -1, (count, change) -> count + change > 0 ? count + change : null);
+            if (retry) {
+                callback.nextAttemptAt = System.currentTimeMillis() + getRetryDelay(callback.attempts);
+                retryCount++;
+            } else {
+                callbacks.remove(callback.id);
+                if (delivered) {
+                    deliveredCount++;
+                } else {
+                    failedCount++;
+                }
+            }
+        }
+        String reason = throwable != null ? throwable.toString() : "status " + status;
+        if (retry) {
+            Logger.warn(String.format("CALLBACK to %s failed (%s), attempt %d of %d", callback.url, reason, callback.attempts, maxAttempts));
+            try {
+                writeMetadata(callback);
+            } catch (IOException e) {
+                Logger.error("Unable to update the spooled callback " + callback.id, e);
+            }
+        } else {
+            callback.body.delete();
+            callback.metadata.delete();
+            if (delivered) {
+                callback.delivered.complete(null);
+            } else {
+                callback.delivered.completeExceptionally(new RuntimeException(String.format("Gave up on the callback to %s after %d attempts (%s)", callback.url, callback.attempts, reason), throwable));
+            }
+        }
+        dispatch();
+    }
+
+    private static boolean isRetryable(Integer status) {
+        return status == null || status >= 500 || status == 408 || status == 429;
+    }
+
+    /**
+     * @return The doubled delay for the attempt, with half of it random so callbacks that failed
+     * together are not all retried together
+     */
+    private long getRetryDelay(int attempts) {
+        long delay = Math.min(maxRetryDelayMillis, retryDelayMillis << Math.min(attempts - 1, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private static String getHost(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getHost() + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+}
@@ -0,0 +1,84 @@
+package sdk.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A POST to a core callback URL, set up like a WSRequest and handed to {@link CallbackQueue}.
+ * The body is only written once the queue spools it to disk.
+ */
+public class CallbackRequest {
+    private final String url;
+    private final LinkedHashMap<String, String> headers = new LinkedHashMap<>();
+    private String contentType;
+    private BodyWriter body;
+
+    /**
+     * Writes the body of a callback
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    public CallbackRequest(String url) {
+        this.url = url;
+    }
+
+    public String getURL() {
+        return url;
+    }
+
+    public CallbackRequest setHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public CallbackRequest setContentType(String contentType) {
+        this.contentType = contentType;
+        return this;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public CallbackRequest setBody(JsonNode json) {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        if (contentType == null) {
+            contentType = DataSetStreamer.JSON_CONTENT_TYPE;
+        }
+        body = outputStream -> outputStream.write(bytes);
+        return this;
+    }
+
+    /**
+     * @param file A file that is copied when the request is queued
+     */
+    public CallbackRequest setBody(File file) {
+        body = outputStream -> Files.copy(file.toPath(), outputStream);
+        return this;
+    }
+
+    public CallbackRequest setBody(BodyWriter body) {
+        this.body = body;
+        return this;
+    }
+
+    void writeBody(OutputStream outputStream) throws IOException {
+        if (body != null) {
+            body.write(outputStream);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package sdk.utils;
+
+import play.Logger;
+import play.libs.ws.WSClient;
+import play.libs.ws.WSRequest;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Makes one delivery attempt of a queued callback
+ */
+@FunctionalInterface
+public interface CallbackSender {
+
+    /**
+     * Posts a callback
+     *
+     * @param url
+     * @param headers
+     * @param contentType The content type of the body, null to leave it unset
+     * @param body        The spooled body
+     * @return The HTTP status of the response, or a failed stage if no response came back
+     */
+    CompletionStage<Integer> post(String url, Map<String, String> headers, String contentType, File body);
+
+    /**
+     * @param client
+     * @return A sender that posts callbacks with a WS client
+     */
+    static CallbackSender forClient(WSClient client) {
+        return (url, headers, contentType, body) -> {
+            WSRequest request = client.url(url);
+            headers.forEach(request::setHeader);
+            if (contentType != null) {
+                request.setContentType(contentType);
+            }
+            request.setBody(body);
+            return request.execute("POST")
+                    .thenApply(response -> {
+                        if (response.getStatus() < 200 || response.getStatus() >= 300) {
+                            Logger.warn(String.format("CALLBACK to %s was refused. Reason: %s : %s\n%s", url, response.getStatus(), response.getStatusText(), response.getBody()));
+                        }
+                        return response.getStatus();
+                    });
+        };
+    }
+}
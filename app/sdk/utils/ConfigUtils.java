@@ -0,0 +1,45 @@
+package sdk.utils;
+
+import play.Configuration;
+import play.Logger;
+import play.Play;
+
+/**
+ * Reads optional settings from application.conf, falling back to a default when the setting is
+ * missing or there is no running application, e.g. in unit tests.
+ */
+public class ConfigUtils {
+
+    public static int getInt(String key, int defaultValue) {
+        Configuration configuration = getConfiguration(key);
+        Integer value = configuration != null ? configuration.getInt(key) : null;
+        return value != null ? value : defaultValue;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        Configuration configuration = getConfiguration(key);
+        Long value = configuration != null ? configuration.getLong(key) : null;
+        return value != null ? value : defaultValue;
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        Configuration configuration = getConfiguration(key);
+        Boolean value = configuration != null ? configuration.getBoolean(key) : null;
+        return value != null ? value : defaultValue;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        Configuration configuration = getConfiguration(key);
+        String value = configuration != null ? configuration.getString(key) : null;
+        return value != null ? value : defaultValue;
+    }
+
+    private static Configuration getConfiguration(String key) {
+        try {
+            return Play.application().configuration();
+        } catch (RuntimeException e) {
+            Logger.debug("No application configuration, using the default for " + key);
+            return null;
+        }
+    }
+}
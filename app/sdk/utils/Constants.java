@@ -24,6 +24,7 @@ public class Constants {
     public static final String CORE_CALLBACK_TYPE_AUTH_FAILURE = "AUTHORIZATION_FAILURE";
 
     public static final String CORE_ITEM_COUNT_HEADER = "X-ITEM-COUNT";
+    public static final String CORE_LIST_VERSION_HEADER = "X-LIST-VERSION";
 
     public static final String defaultCoreURL = "https://services1.apptreesoftware.com";
 
@@ -32,6 +33,35 @@ public class Constants {
     public static final int SDK_ERROR_STATUS_CODE = 540;
 
     public static final String UPDATED_DATE_PARAM = "updatedate";
+    public static final String LIST_VERSION_PARAM = "since";
 
     public static final String AllowedOffsetKey = "apptree.allowedServerOffset";
+
+    public static final String ParallelConversionThresholdKey = "apptree.converter.parallelThreshold";
+    public static final String ParallelConversionParallelismKey = "apptree.converter.parallelism";
+
+    public static final String ListCacheMaxBytesKey = "apptree.listCache.maxBytes";
+    public static final String ListCacheMaxEntriesKey = "apptree.listCache.maxEntries";
+    public static final String ListCompressionKey = "apptree.listDelivery.compression";
+    public static final String ListCompressionLevelKey = "apptree.listDelivery.compressionLevel";
+    public static final String ListFilesMaxBytesKey = "apptree.listFiles.maxBytes";
+    public static final String ListFilesMaxAgeKey = "apptree.listFiles.maxAgeSeconds";
+    public static final String ListFilesMaxLeaseKey = "apptree.listFiles.maxLeaseSeconds";
+    public static final String ListFilesCleanupIntervalKey = "apptree.listFiles.cleanupIntervalSeconds";
+    public static final String ListBuildMaxConcurrentKey = "apptree.listBuild.maxConcurrentPerList";
+    public static final String ListBuildMaxWaitingKey = "apptree.listBuild.maxWaitingPerList";
+    public static final String ListSearchMaxAgeKey = "apptree.listSearch.maxAgeSeconds";
+    public static final String ListSearchMaxBytesKey = "apptree.listSearch.maxBytes";
+    public static final String ListSearchMaxEntriesKey = "apptree.listSearch.maxEntries";
+    public static final String ListInternMaxLengthKey = "apptree.list.internMaxLength";
+    public static final String ListInternPoolSizeKey = "apptree.list.internPoolSize";
+
+    public static final String CallbackDirectoryKey = "apptree.callbacks.directory";
+    public static final String CallbackMaxQueuedKey = "apptree.callbacks.maxQueued";
+    public static final String CallbackMaxAttemptsKey = "apptree.callbacks.maxAttempts";
+    public static final String CallbackRetryDelayKey = "apptree.callbacks.retryDelayMillis";
+    public static final String CallbackMaxRetryDelayKey = "apptree.callbacks.maxRetryDelaySeconds";
+    public static final String CallbackMaxConcurrentPerHostKey = "apptree.callbacks.maxConcurrentPerHost";
+    public static final String BatchMaxInFlightKey = "apptree.batches.maxInFlight";
+    public static final String ExecutorsKey = "apptree.executors";
 }
@@ -0,0 +1,28 @@
+package sdk.utils;
+
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import sdk.data.DataSet;
+import sdk.data.InvalidPrimaryKeyException;
+
+/**
+ * Streams data sets as json so large responses and callbacks don't need the whole json tree
+ * in memory.
+ */
+public class DataSetStreamer {
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    /**
+     * Creates a source of the json for a data set. The records are checked for primary keys
+     * up front so a bad data set fails before anything is sent, the json itself is written
+     * in the background as the source is consumed and a failure part way through fails it.
+     *
+     * @param dataSet The data set to stream
+     * @return A source of the data set json
+     * @throws InvalidPrimaryKeyException
+     */
+    public static Source<ByteString, ?> toSource(DataSet dataSet) throws InvalidPrimaryKeyException {
+        dataSet.validatePrimaryKeys();
+        return OutputStreamSource.create("data set", dataSet::writeJSON, ExecutorPools.getStreamExecutor());
+    }
+}
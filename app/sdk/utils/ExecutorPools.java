@@ -0,0 +1,287 @@
+package sdk.utils;
+
+import play.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Named, bounded thread pools for SDK work, so blocking backend calls never run on the common
+ * ForkJoinPool that everything else shares.
+ * <ul>
+ * <li>Every data source gets its own pool for its blocking calls, so a slow backend only holds
+ * up its own requests. Its size is read from {@code apptree.executors.dataSources.<name>},
+ * falling back to {@code apptree.executors.dataSources}.</li>
+ * <li>{@value #CONVERSION} runs CPU bound work, like building data sets and list databases.</li>
+ * <li>{@value #STREAMS} writes streamed responses. Its threads block until the client has read
+ * what they wrote, so they are kept apart from the CPU bound work and a full pool rejects new
+ * responses rather than running them on the caller.</li>
+ * <li>{@value #CALLBACKS} prepares callbacks to the core.</li>
+ * </ul>
+ * Each pool reads {@code threads}, {@code queueSize} and {@code rejection} under its key. Once
+ * every thread is busy and the queue is full, {@code abort} fails the new task with a
+ * RejectedExecutionException and {@code callerRuns} runs it on the thread that submitted it.
+ * Idle threads stop after a minute. {@link #supplyAsync} and {@link #runAsync} turn a rejection
+ * into a failed future, so it is handled like any other failed call.
+ * <p>
+ * Setting {@code virtualThreads} to true for a data source pool, or calling
+ * {@link #setVirtualThreads}, runs each blocking call on its own virtual thread instead, so slow backends do not hold platform threads. This needs a JDK
+ * with virtual threads, on older JDKs the bounded pool is used. {@code threads},
+ * {@code queueSize} and {@code rejection} do not apply to virtual threads.
+ */
+public class ExecutorPools {
+    public static final String DATA_SOURCES = "dataSources";
+    public static final String CONVERSION = "conversion";
+    public static final String STREAMS = "streams";
+    public static final String CALLBACKS = "callbacks";
+
+    public static final String ABORT = "abort";
+    public static final String CALLER_RUNS = "callerRuns";
+    public static final String VIRTUAL_THREADS = "virtualThreads";
+
+    private static final int DEFAULT_DATA_SOURCE_THREADS = 32;
+    private static final int DEFAULT_STREAM_THREADS = 64;
+    private static final int DEFAULT_CALLBACK_THREADS = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final ConcurrentHashMap<String, ThreadPoolExecutor> pools = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Boolean> virtualThreadPools = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Boolean> virtualThreadSettings = new ConcurrentHashMap<>();
+    private static volatile Executor virtualThreadExecutor;
+
+    /**
+     * @param name The name the data source is registered with, null for the pool shared by
+     *             data sources without a name
+     * @return The pool for blocking calls to the data source, or the virtual thread executor if
+     * it is enabled for the data source
+     */
+    public static Executor getDataSourceExecutor(String name) {
+        String poolName = getDataSourcePoolName(name);
+        if (virtualThreadPools.computeIfAbsent(poolName, ExecutorPools::useVirtualThreads)) {
+            return virtualThreadExecutor;
+        }
+        return pools.computeIfAbsent(poolName, key -> newConfiguredExecutor(key, DATA_SOURCES, DEFAULT_DATA_SOURCE_THREADS, DEFAULT_QUEUE_SIZE, ABORT));
+    }
+
+    /**
+     * Sets whether a data source runs its blocking calls on virtual threads, instead of reading
+     * {@value #VIRTUAL_THREADS} from application.conf. It applies to data sources registered
+     * after it is set. On a JDK without virtual threads the bounded pool is still used.
+     *
+     * @param name    The name the data source is registered with, null to set it for every data
+     *                source without a setting of its own
+     * @param enabled
+     */
+    public static void setVirtualThreads(String name, boolean enabled) {
+        virtualThreadSettings.put(getDataSourcePoolName(name), enabled);
+        virtualThreadPools.clear();
+    }
+
+    /**
+     * @return The pool for CPU bound work
+     */
+    public static Executor getConversionExecutor() {
+        return pools.computeIfAbsent(CONVERSION, key -> newConfiguredExecutor(key, null, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_SIZE, CALLER_RUNS));
+    }
+
+    /**
+     * @return The pool for writing streamed responses, it hands each response straight to a
+     * thread unless a queue is configured
+     */
+    public static Executor getStreamExecutor() {
+        return pools.computeIfAbsent(STREAMS, key -> newConfiguredExecutor(key, null, DEFAULT_STREAM_THREADS, 0, ABORT));
+    }
+
+    /**
+     * @return The pool for preparing callbacks
+     */
+    public static Executor getCallbackExecutor() {
+        return pools.computeIfAbsent(CALLBACKS, key -> newConfiguredExecutor(key, null, DEFAULT_CALLBACK_THREADS, DEFAULT_QUEUE_SIZE, CALLER_RUNS));
+    }
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but a rejected task fails
+     * the future instead of throwing
+     *
+     * @param supplier
+     * @param executor
+     * @return A future of the result of the supplier
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Like {@link CompletableFuture#runAsync(Runnable, Executor)}, but a rejected task fails the
+     * future instead of throwing
+     *
+     * @param runnable
+     * @param executor
+     * @return A future that completes once the runnable has run
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        try {
+            return CompletableFuture.runAsync(runnable, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * @param name A pool name, like {@value #CONVERSION} or {@code dataSources.<name>}
+     * @return The pool if it was created, for monitoring
+     */
+    public static ThreadPoolExecutor getPool(String name) {
+        return pools.get(name);
+    }
+
+    /**
+     * @return true if the JDK can run tasks on virtual threads
+     */
+    public static boolean isVirtualThreadSupported() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread for each task
+     *
+     * @return The executor, null if the JDK has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        Method factory = getVirtualThreadFactory();
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            Logger.warn("Unable to start virtual threads", e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a pool that keeps up to a number of threads and queues up to a number of tasks
+     *
+     * @param name      Used to name the threads
+     * @param threads   The most threads
+     * @param queueSize The most tasks waiting for a thread, 0 to hand tasks straight to a thread
+     * @param rejection {@value #ABORT} or {@value #CALLER_RUNS}
+     * @return The pool
+     */
+    public static ThreadPoolExecutor newBoundedExecutor(String name, int threads, int queueSize, String rejection) {
+        BlockingQueue<Runnable> queue = queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "apptree-" + name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, getRejectionHandler(name, rejection));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadPoolExecutor newConfiguredExecutor(String name, String fallbackName, int defaultThreads, int defaultQueueSize, String defaultRejection) {
+        int threads = getInt(name, fallbackName, "threads", defaultThreads);
+        int queueSize = getInt(name, fallbackName, "queueSize", defaultQueueSize);
+        String rejection = getString(name, fallbackName, "rejection", defaultRejection);
+        Logger.debug(String.format("Starting the %s pool with %d threads and a queue of %d (%s)", name, threads, queueSize, rejection));
+        return newBoundedExecutor(name, threads, queueSize, rejection);
+    }
+
+    private static String getDataSourcePoolName(String name) {
+        return name != null ? DATA_SOURCES + "." + name : DATA_SOURCES;
+    }
+
+    private static boolean useVirtualThreads(String name) {
+        Boolean enabled = virtualThreadSettings.get(name);
+        if (enabled == null) {
+            Boolean shared = virtualThreadSettings.get(DATA_SOURCES);
+            boolean sharedEnabled = shared != null ? shared : ConfigUtils.getBoolean(getKey(DATA_SOURCES, VIRTUAL_THREADS), false);
+            enabled = ConfigUtils.getBoolean(getKey(name, VIRTUAL_THREADS), sharedEnabled);
+        }
+        if (!enabled) {
+            return false;
+        }
+        synchronized (ExecutorPools.class) {
+            if (virtualThreadExecutor == null) {
+                virtualThreadExecutor = newVirtualThreadExecutor();
+            }
+        }
+        if (virtualThreadExecutor == null) {
+            Logger.warn("Virtual threads are not supported by this JDK, the " + name + " pool is used instead");
+            return false;
+        }
+        Logger.debug("Running the calls of " + name + " on virtual threads");
+        return true;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up so the SDK still builds for Java 8
+    private static Method getVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static RejectedExecutionHandler getRejectionHandler(String name, String rejection) {
+        if (CALLER_RUNS.equalsIgnoreCase(rejection)) {
+            return new ThreadPoolExecutor.CallerRunsPolicy();
+        }
+        if (!ABORT.equalsIgnoreCase(rejection)) {
+            Logger.warn("Unknown rejection policy " + rejection + " for the " + name + " pool, using " + ABORT);
+        }
+        return (runnable, executor) -> {
+            throw new RejectedExecutionException(String.format("The %s pool is full, %d tasks are running and %d are waiting",
+                                                               name, executor.getActiveCount(), executor.getQueue().size()));
+        };
+    }
+
+    private static int getInt(String name, String fallbackName, String setting, int defaultValue) {
+        if (fallbackName != null) {
+            defaultValue = ConfigUtils.getInt(getKey(fallbackName, setting), defaultValue);
+        }
+        return ConfigUtils.getInt(getKey(name, setting), defaultValue);
+    }
+
+    private static String getString(String name, String fallbackName, String setting, String defaultValue) {
+        if (fallbackName != null) {
+            defaultValue = ConfigUtils.getString(getKey(fallbackName, setting), defaultValue);
+        }
+        return ConfigUtils.getString(getKey(name, setting), defaultValue);
+    }
+
+    private static String getKey(String name, String setting) {
+        return Constants.ExecutorsKey + "." + name + "." + setting;
+    }
+}
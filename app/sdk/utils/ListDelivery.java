@@ -0,0 +1,87 @@
+package sdk.utils;
+
+import akka.stream.javadsl.FileIO;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import sdk.list.ListArtifactCache;
+import sdk.list.ListCompression;
+import sdk.list.ListFileJanitor;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams list databases into responses and callbacks, compressing them on the way so the
+ * compressed database never has to be written to disk.
+ */
+public class ListDelivery {
+    public static final String ZIP_CONTENT_TYPE = "application/zip";
+    public static final String SQLITE_CONTENT_TYPE = "application/x-sqlite3";
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long UNSENT_RELEASE_SECONDS = 60;
+
+    /**
+     * Creates a source of a list database. The database is compressed in the background as the
+     * source is consumed, a failure part way through fails the source, and the artifact is
+     * released like {@link #releaseAfter} releases it.
+     *
+     * @param artifact
+     * @param compression How to compress the file of the artifact, none to send it as it is
+     * @param level       The deflate level
+     * @return A source of the compressed database
+     */
+    public static Source<ByteString, ?> toSource(ListArtifactCache.ListArtifact artifact, ListCompression compression, int level) {
+        return releaseAfter(OutputStreamSource.create("list database", outputStream -> write(artifact, compression, level, outputStream),
+                                                      ExecutorPools.getStreamExecutor()),
+                            artifact);
+    }
+
+    /**
+     * Creates a source of a list database file that is already compressed for delivery. The
+     * artifact is released like {@link #releaseAfter} releases it.
+     *
+     * @param artifact
+     * @return A source of the file
+     */
+    public static Source<ByteString, ?> toFileSource(ListArtifactCache.ListArtifact artifact) {
+        return releaseAfter(FileIO.fromFile(artifact.getFile(), BUFFER_SIZE), artifact);
+    }
+
+    /**
+     * Releases the artifact once the source has been sent, or the response has failed or been
+     * cancelled. A response that is never sent never runs its source, so the artifact is also
+     * released if the source has not started {@value #UNSENT_RELEASE_SECONDS} seconds after it
+     * was created.
+     */
+    private static <M> Source<ByteString, M> releaseAfter(Source<ByteString, M> source, ListArtifactCache.ListArtifact artifact) {
+        AtomicBoolean started = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) artifact.release();
+        };
+        ListFileJanitor.getInstance().schedule(() -> {
+            if (started.compareAndSet(false, true)) release.run();
+        }, UNSENT_RELEASE_SECONDS, TimeUnit.SECONDS);
+        return source.watchTermination((materialized, done) -> {
+            started.set(true);
+            done.whenComplete((finished, throwable) -> release.run());
+            return materialized;
+        });
+    }
+
+    /**
+     * @return The content type to send a list database with
+     */
+    public static String getContentType(ListCompression compression) {
+        return compression == ListCompression.ZIP ? ZIP_CONTENT_TYPE : SQLITE_CONTENT_TYPE;
+    }
+
+    private static void write(ListArtifactCache.ListArtifact artifact, ListCompression compression, int level, OutputStream outputStream) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(outputStream, BUFFER_SIZE)) {
+            compression.compress(artifact.getFile(), stream, level);
+        }
+    }
+}
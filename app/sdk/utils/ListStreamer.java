@@ -0,0 +1,94 @@
+package sdk.utils;
+
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonGenerator;
+import play.Logger;
+import play.libs.Json;
+import sdk.datasources.ListDataSource_Internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Streams list responses as json, writing each list item as the data source hands it over
+ */
+public class ListStreamer {
+
+    /**
+     * Creates a source of the json for a list. The records are written first and the success
+     * and message fields after them, so a data source that fails part way through still ends
+     * the response with its error.
+     *
+     * @param dataSource
+     * @param authenticationInfo
+     * @param parameters
+     * @return A source of the list json
+     */
+    public static Source<ByteString, ?> toSource(ListDataSource_Internal dataSource, AuthenticationInfo authenticationInfo, Parameters parameters) {
+        return OutputStreamSource.createAsync("list", outputStream -> write(dataSource, authenticationInfo, parameters, outputStream),
+                                              ExecutorPools.getStreamExecutor());
+    }
+
+    /**
+     * Writes a list response as json to an output stream and closes it once the list is done
+     *
+     * @return A future that completes once the response has been written, it only fails if the
+     * response could not be written
+     */
+    public static CompletableFuture<Void> write(ListDataSource_Internal dataSource, AuthenticationInfo authenticationInfo, Parameters parameters, OutputStream outputStream) {
+        JsonGenerator generator;
+        try {
+            generator = Json.mapper().getFactory().createGenerator(outputStream);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("records");
+        } catch (IOException e) {
+            close(outputStream);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        CompletableFuture<Void> listFuture;
+        try {
+            listFuture = dataSource.streamList(authenticationInfo, parameters, listItem -> {
+                try {
+                    generator.writeObject(listItem);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            listFuture = new CompletableFuture<>();
+            listFuture.completeExceptionally(e);
+        }
+        return listFuture.handle((done, throwable) -> {
+            try (JsonGenerator json = generator) {
+                json.writeEndArray();
+                json.writeBooleanField("success", throwable == null);
+                if (throwable != null) {
+                    json.writeStringField("message", ResponseExceptionHandler.findRootCause(throwable).getMessage());
+                } else {
+                    json.writeNullField("message");
+                }
+                json.writeBooleanField("showMessageAsAlert", false);
+                json.writeBooleanField("async", false);
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                close(outputStream);
+            }
+            return null;
+        });
+    }
+
+    private static void close(OutputStream outputStream) {
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            Logger.debug("Unable to close list stream: " + e.getMessage());
+        }
+    }
+}
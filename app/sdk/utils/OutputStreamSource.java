@@ -0,0 +1,113 @@
+package sdk.utils;
+
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.stream.javadsl.StreamConverters;
+import akka.util.ByteString;
+import play.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Creates sources whose bytes are written to an output stream in the background. A writer that
+ * fails part way through, or that the executor rejects, fails the source instead of just closing
+ * it, so the response is aborted rather than ending as a truncated body that looks complete.
+ */
+public class OutputStreamSource {
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream outputStream) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface AsyncWriter {
+        /**
+         * @return A stage that completes once everything has been written
+         */
+        CompletionStage<?> write(OutputStream outputStream) throws Exception;
+    }
+
+    /**
+     * @param description What is being written, for the log
+     * @param writer      Writes the bytes of the source, the stream is closed after it returns
+     * @param executor    The executor to write on
+     * @return A source of the bytes the writer writes
+     */
+    public static Source<ByteString, NotUsed> create(String description, Writer writer, Executor executor) {
+        return createAsync(description, outputStream -> {
+            writer.write(outputStream);
+            return CompletableFuture.completedFuture(null);
+        }, executor);
+    }
+
+    /**
+     * @param description What is being written, for the log
+     * @param writer      Starts writing the bytes of the source, the stream is closed once the
+     *                    stage it returns completes
+     * @param executor    The executor to start the writer on
+     * @return A source of the bytes the writer writes
+     */
+    public static Source<ByteString, NotUsed> createAsync(String description, AsyncWriter writer, Executor executor) {
+        return Source.single(writer)
+                .flatMapConcat(sourceWriter -> {
+                    CompletableFuture<NotUsed> written = new CompletableFuture<>();
+                    Source<ByteString, OutputStream> body = StreamConverters.asOutputStream()
+                            .mapMaterializedValue(outputStream -> {
+                                try {
+                                    CompletableFuture.runAsync(() -> write(description, sourceWriter, outputStream, written), executor);
+                                } catch (RejectedExecutionException e) {
+                                    Logger.warn("Unable to stream " + description + ": " + e.getMessage());
+                                    close(outputStream);
+                                    written.completeExceptionally(e);
+                                }
+                                return outputStream;
+                            });
+                    // Only completes once the writer has finished, failing the source if it failed
+                    Source<ByteString, NotUsed> result = Source.fromCompletionStage(written)
+                            .flatMapConcat(done -> Source.<ByteString>empty());
+                    return body.concat(result);
+                });
+    }
+
+    private static void write(String description, AsyncWriter writer, OutputStream outputStream, CompletableFuture<NotUsed> written) {
+        CompletionStage<?> stage;
+        try {
+            stage = writer.write(outputStream);
+        } catch (Exception e) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            stage = failed;
+        }
+        stage.whenComplete((done, throwable) -> {
+            if (throwable == null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    throwable = e;
+                }
+            } else {
+                close(outputStream);
+            }
+            if (throwable != null) {
+                Logger.error("Unable to stream " + description, throwable);
+                written.completeExceptionally(throwable);
+            } else {
+                written.complete(NotUsed.getInstance());
+            }
+        });
+    }
+
+    private static void close(OutputStream outputStream) {
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            Logger.debug("Unable to close stream: " + e.getMessage());
+        }
+    }
+}
@@ -41,6 +41,18 @@ public class ResponseExceptionHandler {
     }
 
     public static void updateCallbackWithException(WSRequest request, Throwable throwable) {
+        ObjectNode json = Json.newObject();
+        request.setHeader(Constants.CORE_CALLBACK_TYPE, getExceptionCallbackType(throwable, json));
+        request.setBody(json);
+    }
+
+    public static void updateCallbackWithException(CallbackRequest request, Throwable throwable) {
+        ObjectNode json = Json.newObject();
+        request.setHeader(Constants.CORE_CALLBACK_TYPE, getExceptionCallbackType(throwable, json));
+        request.setBody(json);
+    }
+
+    private static String getExceptionCallbackType(Throwable throwable, ObjectNode json) {
         String message = "";
         String coreCallbackType = CORE_CALLBACK_TYPE_ERROR;
         Throwable rootCause = findRootCause(throwable);
@@ -61,10 +73,8 @@ public class ResponseExceptionHandler {
         } else {
             message = Response.fromException(throwable, true).getMessage();
         }
-        request.setHeader(Constants.CORE_CALLBACK_TYPE, coreCallbackType);
-        ObjectNode json = Json.newObject();
         json.put(Constants.CORE_CALLBACK_MESSAGE, message);
-        request.setBody(json);
+        return coreCallbackType;
     }
 
     public static Throwable findRootCause(Throwable throwable) {
@@ -0,0 +1,80 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sdk.annotations.Attribute;
+import sdk.converter.AttributeProxy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a field and a getter through AttributeProxy and through plain reflection, the way the
+ * converter did before the accessors were compiled into method handles.
+ * <p>
+ * sbt "test:runMain org.openjdk.jmh.Main AttributeAccessorBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeAccessorBenchmark {
+
+    public static class Model {
+        @Attribute(index = 0)
+        private double aDouble = 2.5;
+
+        private String name = "method";
+
+        @Attribute(index = 1)
+        public String getName() {
+            return name;
+        }
+    }
+
+    private Model model;
+    private Field field;
+    private Method getter;
+    private AttributeProxy fieldProxy;
+    private AttributeProxy getterProxy;
+
+    @Setup
+    public void setUp() throws Exception {
+        model = new Model();
+        field = Model.class.getDeclaredField("aDouble");
+        getter = Model.class.getMethod("getName");
+        fieldProxy = new AttributeProxy(field);
+        getterProxy = new AttributeProxy(getter);
+    }
+
+    @Benchmark
+    public double reflectionField() throws Exception {
+        if (!field.isAccessible()) field.setAccessible(true);
+        return (Double) field.get(model);
+    }
+
+    @Benchmark
+    public double accessorField() throws Exception {
+        return fieldProxy.getDoubleValue(model);
+    }
+
+    @Benchmark
+    public Object reflectionGetter() throws Exception {
+        if (!getter.isAccessible()) getter.setAccessible(true);
+        return getter.invoke(model);
+    }
+
+    @Benchmark
+    public Object accessorGetter() throws Exception {
+        return getterProxy.getValue(model);
+    }
+}
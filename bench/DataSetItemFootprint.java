@@ -0,0 +1,42 @@
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the heap retained by a data set of records with seven attributes. It only uses API
+ * that DataSetItem has always had, so running it on an older commit gives the numbers for the
+ * old map storage.
+ * <p>
+ * sbt "test:runMain DataSetItemFootprint [records]", 100k records by default
+ */
+public class DataSetItemFootprint {
+
+    public static void main(String[] args) {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        attributes.add(new ServiceConfigurationAttribute.Builder(0).build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(1).asInt().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(2).asInt().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(3).asDouble().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(4).asDouble().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(5).asBool().build());
+
+        long start = Footprint.usedHeap();
+        DataSet dataSet = new DataSet(attributes);
+        for (int i = 0; i < records; i++) {
+            DataSetItem item = dataSet.addNewDataSetItem();
+            item.setPrimaryKey(String.valueOf(i));
+            item.setString("name" + i, 0);
+            item.setInt(i, 1);
+            item.setInt(-i, 2);
+            item.setDouble(i / 4.0, 3);
+            item.setDouble(0.1 * i, 4);
+            item.setBool(i % 2 == 0, 5);
+        }
+        long bytes = Footprint.usedHeap() - start;
+        Footprint.print("data set items", dataSet.getDataSetItems().size(), bytes);
+    }
+}
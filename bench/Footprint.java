@@ -0,0 +1,20 @@
+/**
+ * Heap measurements for the footprint programs in bench/
+ */
+class Footprint {
+
+    /**
+     * @return The heap in use after a few collections
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static void print(String what, int count, long bytes) {
+        System.out.println(String.format("%d %s: %.1f MB, %d bytes each", count, what, bytes / 1048576.0, bytes / Math.max(1, count)));
+    }
+}
@@ -0,0 +1,126 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sdk.list.List;
+import sdk.list.ListDatabaseBuilder;
+import sdk.list.ListItem;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds synthetic list databases with ListDatabaseBuilder and the way it was done before:
+ * indexes created up front, default pragmas and every attribute looked up twice.
+ * <p>
+ * sbt "test:runMain org.openjdk.jmh.Main ListDatabaseBuildBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ListDatabaseBuildBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private List list;
+    private File file;
+
+    @Setup
+    public void setUp() {
+        list = new List();
+        for (int i = 0; i < size; i++) {
+            ListItem listItem = new ListItem("value" + i);
+            listItem.id = "id" + i;
+            listItem.parentID = i % 10 == 0 ? null : "id" + (i - i % 10);
+            listItem.latitude = i / 1000.0;
+            listItem.longitude = -i / 1000.0;
+            for (int attribute = 0; attribute < 12; attribute++) {
+                listItem.setAttributeForIndex("attribute " + attribute + " of " + i, attribute);
+            }
+            listItem.setAttributeForIndex(i, 40);
+            list.addListItem(listItem);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createFile() throws Exception {
+        file = File.createTempFile("list", ".sqlite");
+        file.delete();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int builder() throws SQLException {
+        return ListDatabaseBuilder.build(list, file);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void legacy() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath())) {
+            try (Statement statement = connection.createStatement()) {
+                StringBuilder sql = new StringBuilder("CREATE TABLE LIST_ITEM (ID VARCHAR(32) PRIMARY KEY NOT NULL," +
+                                                      "PARENT_ID VARCHAR (500),ITEM_ORDER INT,VALUE VARCHAR(500),");
+                for (int i = 1; i < 81; i++) {
+                    sql.append(String.format("ATTRIBUTE%02d VARCHAR(500),", i));
+                }
+                sql.append("LATITUDE REAL, LONGITUDE REAL);");
+                statement.executeUpdate(sql.toString());
+                statement.executeUpdate("CREATE INDEX list_item_index_id ON LIST_ITEM(ID COLLATE NOCASE)");
+                statement.executeUpdate("CREATE INDEX list_item_index_value ON LIST_ITEM(VALUE COLLATE NOCASE)");
+                for (int i = 1; i <= 10; i++) {
+                    statement.executeUpdate(String.format("CREATE INDEX list_item_index_%d ON LIST_ITEM(ATTRIBUTE%02d COLLATE NOCASE)", i, i));
+                }
+            }
+            StringBuilder parameters = new StringBuilder("?");
+            for (int i = 1; i < 86; i++) {
+                parameters.append(",?");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO LIST_ITEM values (" + parameters + ")")) {
+                connection.setAutoCommit(false);
+                int count = 0;
+                for (ListItem listItem : list.listItems) {
+                    statement.setString(1, listItem.id);
+                    statement.setString(2, listItem.parentID);
+                    statement.setInt(3, -1);
+                    statement.setString(4, listItem.value);
+                    for (int counter = 5; counter < 85; counter++) {
+                        statement.setString(counter, listItem.getAttributeForIndex(counter - 5) != null ? listItem.getAttributeForIndex(counter - 5).getStringValue() : null);
+                    }
+                    statement.setDouble(85, listItem.latitude);
+                    statement.setDouble(86, listItem.longitude);
+                    statement.addBatch();
+                    if (++count % 5000 == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                        System.gc();
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import sdk.list.List;
+import sdk.list.ListItem;
+
+/**
+ * Prints the heap retained by a list of items with six attributes. It only uses API that
+ * ListItem has always had, so running it on an older commit gives the numbers for the old map
+ * of attributes.
+ * <p>
+ * sbt "test:runMain ListItemFootprint [items]", 1M items by default
+ */
+public class ListItemFootprint {
+    private static final String[] STATUSES = {"Open", "Closed", "On Hold"};
+
+    public static void main(String[] args) {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long start = Footprint.usedHeap();
+        List list = new List();
+        for (int i = 0; i < items; i++) {
+            ListItem item = new ListItem();
+            item.id = String.valueOf(i);
+            item.value = "Item " + i;
+            item.setAttributeForIndex(new String(STATUSES[i % STATUSES.length]), 0);
+            item.setAttributeForIndex(i, 1);
+            item.setAttributeForIndex(i / 4.0, 2);
+            item.setAttributeForIndex(i % 2 == 0, 3);
+            item.setAttributeForIndex(i * 1000L, 4);
+            item.setAttributeForIndex("Building " + i, 5);
+            list.addListItem(item);
+        }
+        long bytes = Footprint.usedHeap() - start;
+        Footprint.print("list items", list.listItems.size(), bytes);
+    }
+}
@@ -0,0 +1,87 @@
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.datasources.DataSource_Internal;
+import sdk.datasources.base.DataSource;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
+import sdk.utils.Parameters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints how many calls a second a blocking data source with a slow backend gets through on a
+ * bounded pool and on virtual threads. Virtual threads are skipped on JDKs without them.
+ * <p>
+ * sbt "test:runMain VirtualThreadThroughput [calls] [latency millis]", 160 calls of 500 ms by
+ * default
+ */
+public class VirtualThreadThroughput {
+    private static final int POOL_THREADS = 32;
+
+    private static class SlowDataSource implements DataSource {
+        private final long latencyMillis;
+
+        SlowDataSource(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public DataSet getDataSet(AuthenticationInfo authenticationInfo, Parameters params) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DataSet(getAttributes());
+        }
+
+        @Override
+        public DataSetItem getRecord(String id, AuthenticationInfo authenticationInfo, Parameters parameters) {
+            return null;
+        }
+
+        @Override
+        public String getServiceDescription() {
+            return "Slow";
+        }
+
+        @Override
+        public Collection<ServiceConfigurationAttribute> getAttributes() {
+            return Collections.emptyList();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 160;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        double pooled = getThroughput(ExecutorPools.newBoundedExecutor("throughput-pool", POOL_THREADS, calls, ExecutorPools.ABORT), calls, latencyMillis);
+        System.out.println(String.format("%d calls of %d ms: bounded pool of %d threads %.0f calls/s", calls, latencyMillis, POOL_THREADS, pooled));
+        if (ExecutorPools.isVirtualThreadSupported()) {
+            double virtual = getThroughput(ExecutorPools.newVirtualThreadExecutor(), calls, latencyMillis);
+            System.out.println(String.format("%d calls of %d ms: virtual threads %.0f calls/s", calls, latencyMillis, virtual));
+        }
+    }
+
+    private static double getThroughput(ExecutorService executor, int calls, long latencyMillis) throws Exception {
+        DataSource_Internal dataSource = new DataSource_Internal(new SlowDataSource(latencyMillis), executor);
+        long start = System.nanoTime();
+        List<CompletableFuture<DataSet>> responses = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            responses.add(dataSource.getDataSet(null, null));
+        }
+        for (CompletableFuture<DataSet> response : responses) {
+            response.get(5, TimeUnit.MINUTES);
+        }
+        long nanos = System.nanoTime() - start;
+        executor.shutdown();
+        return calls * 1e9 / nanos;
+    }
+}
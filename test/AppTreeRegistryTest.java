@@ -0,0 +1,135 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.AppTree;
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.datasources.DataSource_Internal;
+import sdk.datasources.ListDataSource_Internal;
+import sdk.datasources.base.DataSource;
+import sdk.datasources.base.StreamingList;
+import sdk.list.ListItem;
+import sdk.list.ListServiceConfiguration;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
+import sdk.utils.Parameters;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+/**
+ * Checks that registered sources are wrapped once and shared between lookups, and that
+ * changes to the source maps are picked up
+ */
+public class AppTreeRegistryTest {
+
+    private static class EmptyDataSource implements DataSource {
+        @Override
+        public DataSet getDataSet(AuthenticationInfo authenticationInfo, Parameters params) {
+            return new DataSet(getAttributes());
+        }
+
+        @Override
+        public DataSetItem getRecord(String id, AuthenticationInfo authenticationInfo, Parameters parameters) {
+            return null;
+        }
+
+        @Override
+        public String getServiceDescription() {
+            return "Empty";
+        }
+
+        @Override
+        public Collection<ServiceConfigurationAttribute> getAttributes() {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class EmptyList implements StreamingList {
+        @Override
+        public void streamList(AuthenticationInfo authenticationInfo, Parameters params, Consumer<ListItem> sink) {
+        }
+
+        @Override
+        public boolean isListContentGlobal() {
+            return true;
+        }
+
+        @Override
+        public <T extends ServiceConfigurationAttribute> Collection<T> getListServiceAttributes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getServiceName() {
+            return "Empty";
+        }
+    }
+
+    @Test
+    public void testLookupsShareOneAdapter() {
+        AppTree.registerDataSourceWithName("registryDataSet", new EmptyDataSource());
+        DataSource_Internal dataSource = AppTree.lookupDataSetHandler("registryDataSet");
+        Assert.assertNotNull(dataSource);
+        Assert.assertSame(dataSource, AppTree.lookupDataSetHandler("registryDataSet"));
+
+        AppTree.registerDataSourceWithName("registryDataSet", new EmptyDataSource());
+        Assert.assertSame(dataSource, AppTree.lookupDataSetHandler("registryDataSet"));
+    }
+
+    @Test
+    public void testUnknownSourcesAreNotFound() {
+        Assert.assertNull(AppTree.lookupDataSetHandler("registryMissing"));
+        Assert.assertNull(AppTree.lookupDataSetHandler(null));
+        Assert.assertFalse(AppTree.lookupListHandler("registryMissing").isPresent());
+        Assert.assertFalse(AppTree.lookupDataCollectionHandler(null).isPresent());
+    }
+
+    @Test
+    public void testSourcesAddedToTheMapAreWrapped() {
+        AppTree.dataSources.put("registryDirect", new EmptyDataSource());
+        DataSource_Internal dataSource = AppTree.lookupDataSetHandler("registryDirect");
+        Assert.assertNotNull(dataSource);
+        Assert.assertSame(dataSource, AppTree.lookupDataSetHandler("registryDirect"));
+    }
+
+    @Test
+    public void testChangedSourcesAreNotServedStale() {
+        AppTree.registerDataSourceWithName("registryChanged", new EmptyDataSource());
+        DataSource_Internal dataSource = AppTree.lookupDataSetHandler("registryChanged");
+
+        AppTree.dataSources.put("registryChanged", new EmptyDataSource());
+        DataSource_Internal replaced = AppTree.lookupDataSetHandler("registryChanged");
+        Assert.assertNotNull(replaced);
+        Assert.assertNotSame(dataSource, replaced);
+        Assert.assertSame(replaced, AppTree.lookupDataSetHandler("registryChanged"));
+
+        AppTree.dataSources.remove("registryChanged");
+        Assert.assertNull(AppTree.lookupDataSetHandler("registryChanged"));
+    }
+
+    @Test
+    public void testListKindIsResolvedOnRegistration() {
+        AppTree.registerListDataSourceWithName("registryList", new EmptyList());
+        ListDataSource_Internal list = AppTree.lookupListHandler("registryList").get();
+        Assert.assertSame(list, AppTree.lookupListHandler("registryList").get());
+        Assert.assertTrue(list.isStreamingSupported());
+        Assert.assertTrue(list.isListContentGlobal());
+
+        ListServiceConfiguration configuration = list.getListServiceConfiguration();
+        Assert.assertTrue(configuration.canCache);
+        Assert.assertTrue(configuration.canSearch);
+        Assert.assertFalse(configuration.authenticationRequired);
+    }
+
+    @Test
+    public void testPoolIsPickedOnFirstUse() {
+        AppTree.registerDataSourceWithName("registryPool", new EmptyDataSource());
+        DataSource_Internal dataSource = AppTree.lookupDataSetHandler("registryPool");
+        Assert.assertNull(ExecutorPools.getPool(ExecutorPools.DATA_SOURCES + ".registryPool"));
+
+        Assert.assertSame(ExecutorPools.getDataSourceExecutor("registryPool"), dataSource.getExecutor());
+        Assert.assertSame(dataSource.getExecutor(), dataSource.getExecutor());
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.annotations.Attribute;
+import sdk.annotations.PrimaryKey;
+import sdk.converter.AttributeProxy;
+import sdk.converter.ObjectConverter;
+import sdk.data.DataSetItem;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Compares the compiled attribute accessors with plain reflection
+ */
+public class AttributeAccessorTest {
+    public static class AccessorObject {
+        @PrimaryKey
+        @Attribute(index = 0)
+        public int anInt = 5;
+
+        @Attribute(index = 1)
+        private double aDouble = 2.5;
+
+        @Attribute(index = 2)
+        private boolean aBoolean = true;
+
+        @Attribute(index = 3)
+        public Integer anInteger = 7;
+
+        @Attribute(index = 4)
+        public final String finalString = "final";
+
+        private String name = "method";
+
+        @Attribute(index = 5)
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void testFieldAccessMatchesReflection() throws Exception {
+        AccessorObject obj = new AccessorObject();
+        for (String name : new String[]{"anInt", "aDouble", "aBoolean", "anInteger", "finalString"}) {
+            Field field = AccessorObject.class.getDeclaredField(name);
+            field.setAccessible(true);
+            AttributeProxy proxy = new AttributeProxy(field);
+            Assert.assertEquals(field.get(obj), proxy.getValue(obj));
+        }
+    }
+
+    @Test
+    public void testPrimitiveAccess() throws Exception {
+        AccessorObject obj = new AccessorObject();
+        AttributeProxy intProxy =
+            new AttributeProxy(AccessorObject.class.getDeclaredField("anInt"));
+        AttributeProxy doubleProxy =
+            new AttributeProxy(AccessorObject.class.getDeclaredField("aDouble"));
+        AttributeProxy boolProxy =
+            new AttributeProxy(AccessorObject.class.getDeclaredField("aBoolean"));
+        Assert.assertEquals(5, intProxy.getIntValue(obj));
+        Assert.assertEquals(2.5, doubleProxy.getDoubleValue(obj), 0.0);
+        Assert.assertTrue(boolProxy.getBooleanValue(obj));
+
+        intProxy.setValue(obj, 9);
+        doubleProxy.setValue(obj, 1.5);
+        boolProxy.setValue(obj, false);
+        Assert.assertEquals(9, intProxy.getIntValue(obj));
+        Assert.assertEquals(1.5, doubleProxy.getDoubleValue(obj), 0.0);
+        Assert.assertFalse(boolProxy.getBooleanValue(obj));
+    }
+
+    @Test
+    public void testFinalFieldFallsBackToReflection() throws Exception {
+        AccessorObject obj = new AccessorObject();
+        AttributeProxy proxy =
+            new AttributeProxy(AccessorObject.class.getDeclaredField("finalString"));
+        proxy.setValue(obj, "changed");
+        Field field = AccessorObject.class.getDeclaredField("finalString");
+        field.setAccessible(true);
+        Assert.assertEquals("changed", field.get(obj));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullIntoPrimitiveIsRejected() throws Exception {
+        AttributeProxy proxy = new AttributeProxy(AccessorObject.class.getDeclaredField("anInt"));
+        proxy.setValue(new AccessorObject(), null);
+    }
+
+    @Test
+    public void testMethodAccess() throws Exception {
+        AccessorObject obj = new AccessorObject();
+        AttributeProxy proxy = new AttributeProxy(AccessorObject.class.getMethod("getName"));
+        Assert.assertEquals("method", proxy.getValue(obj));
+    }
+
+    @Test
+    public void testConversionRoundTrip() {
+        AccessorObject obj = new AccessorObject();
+        DataSetItem item = new DataSetItem(
+            ObjectConverter.generateConfigurationAttributes(AccessorObject.class));
+        ObjectConverter.copyToRecord(item, obj);
+        Assert.assertEquals(5, item.getInt(0));
+        Assert.assertEquals(2.5, item.getDouble(1), 0.0);
+        Assert.assertTrue(item.getBool(2));
+        Assert.assertEquals("5", item.getPrimaryKey());
+
+        AccessorObject copy = new AccessorObject();
+        copy.anInt = 0;
+        copy.setName(null);
+        ObjectConverter.copyFromRecord(item, copy, false);
+        Assert.assertEquals(5, copy.anInt);
+        Assert.assertEquals("method", copy.getName());
+    }
+}
@@ -0,0 +1,155 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sdk.converter.ObjectConverter;
+import sdk.data.DataSet;
+import sdk.utils.BatchManager;
+import sdk.utils.CallbackQueue;
+import sdk.utils.CallbackSender;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that paged data sets wait for the core and stop once it rejects a batch
+ */
+public class BatchManagerTest {
+    private static final String URL = "http://core.example.com/sync/1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private CallbackQueue queue;
+    // responses the core has not given yet, in the order the batches were posted
+    private final List<CompletableFuture<Integer>> responses = new CopyOnWriteArrayList<>();
+    private final List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+
+    private final CallbackSender sender = (url, headers, contentType, body) -> {
+        try {
+            bodies.add(new String(Files.readAllBytes(body.toPath()), StandardCharsets.UTF_8));
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+        CompletableFuture<Integer> response = new CompletableFuture<>();
+        responses.add(response);
+        return response;
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new CallbackQueue.Builder(folder.getRoot(), sender).setMaxAttempts(1).build();
+    }
+
+    @After
+    public void tearDown() {
+        queue.stop();
+    }
+
+    private DataSet getBatch(int first) {
+        List<SamplePrimitivesObject> objects = new ArrayList<>();
+        for (int i = first; i < first + 3; i++) {
+            SamplePrimitivesObject obj = new SamplePrimitivesObject();
+            obj.pk = i;
+            objects.add(obj);
+        }
+        return ObjectConverter.getDataSetFromCollection(objects,
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class));
+    }
+
+    private void waitFor(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (responses.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testSourceWaitsForTheCore() throws Exception {
+        BatchManager batchManager = new BatchManager(URL, queue, 2);
+        AtomicInteger queued = new AtomicInteger();
+        Thread source = new Thread(() -> {
+            for (int i = 0; i < 4; i++) {
+                batchManager.sendBatch(getBatch(i * 3), i < 3);
+                queued.incrementAndGet();
+            }
+        });
+        source.start();
+        waitFor(1);
+        Thread.sleep(100);
+        Assert.assertEquals(2, queued.get());
+        Assert.assertEquals(2, batchManager.getBatchesInFlight());
+
+        for (int i = 0; i < 4; i++) {
+            waitFor(i + 1);
+            responses.get(i).complete(200);
+        }
+        source.join(5000);
+        Assert.assertEquals(4, queued.get());
+        Assert.assertEquals(4, batchManager.getBatchesSent());
+        Assert.assertEquals(0, batchManager.getBatchesInFlight());
+        Assert.assertTrue(batchManager.getBytesSent() > 0);
+        Assert.assertFalse(batchManager.isCancelled());
+    }
+
+    @Test
+    public void testBatchesKeepTheirOrder() throws Exception {
+        BatchManager batchManager = new BatchManager(URL, queue, 3);
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sent.add(batchManager.sendBatch(getBatch(i * 3), i < 2).toCompletableFuture());
+        }
+        for (int i = 0; i < 3; i++) {
+            waitFor(i + 1);
+            Assert.assertEquals(i + 1, responses.size());
+            responses.get(i).complete(200);
+        }
+        for (CompletableFuture<Void> future : sent) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(bodies.get(i).contains("\"" + (i * 3) + "\""));
+        }
+    }
+
+    @Test
+    public void testRejectedBatchCancelsTheSource() throws Exception {
+        BatchManager batchManager = new BatchManager(URL, queue, 1);
+        CompletableFuture<Void> first = batchManager.sendBatch(getBatch(0), true).toCompletableFuture();
+        CompletableFuture<Throwable> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                batchManager.sendBatch(getBatch(3), false);
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+        waitFor(1);
+        responses.get(0).complete(400);
+
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            Assert.fail("The batch should have been rejected");
+        } catch (ExecutionException expected) {
+        }
+        Assert.assertTrue(blocked.get(5, TimeUnit.SECONDS) instanceof CancellationException);
+        Assert.assertTrue(batchManager.isCancelled());
+        Assert.assertEquals(0, batchManager.getBatchesSent());
+        Assert.assertEquals(1, responses.size());
+        try {
+            batchManager.sendBatch(getBatch(6), false);
+            Assert.fail("The batch should have been cancelled");
+        } catch (CancellationException expected) {
+        }
+    }
+}
@@ -0,0 +1,232 @@
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sdk.utils.CallbackQueue;
+import sdk.utils.CallbackRequest;
+import sdk.utils.CallbackSender;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks callback delivery against a stub callback server
+ */
+public class CallbackQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private HttpServer server;
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> statuses = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile CountDownLatch gate;
+
+    /**
+     * Posts with HttpURLConnection, the WS client needs a running application
+     */
+    private static final CallbackSender SENDER = (url, headers, contentType, body) -> CompletableFuture.supplyAsync(() -> {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            headers.forEach(connection::setRequestProperty);
+            if (contentType != null) {
+                connection.setRequestProperty("Content-Type", contentType);
+            }
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                Files.copy(body.toPath(), outputStream);
+            }
+            int status = connection.getResponseCode();
+            connection.disconnect();
+            return status;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    });
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            int current = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            int status = 500;
+            try {
+                if (gate != null) {
+                    gate.await(5, TimeUnit.SECONDS);
+                }
+                String body = read(exchange.getRequestBody());
+                status = statuses.isEmpty() ? 200 : statuses.remove(0);
+                if (status == 200) {
+                    received.add(exchange.getRequestURI().getPath() + " " + exchange.getRequestHeaders().getFirst("X-CALLBACK-TYPE") + " " + body);
+                }
+            } catch (InterruptedException e) {
+                status = 500;
+            } finally {
+                // counted down before responding, the queue may send the next callback as soon as it has the response
+                concurrent.decrementAndGet();
+            }
+            try {
+                exchange.sendResponseHeaders(status, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private String getURL(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private CallbackQueue.Builder getBuilder() {
+        return new CallbackQueue.Builder(folder.getRoot(), SENDER).setRetryDelayMillis(10).setMaxRetryDelayMillis(50);
+    }
+
+    private CallbackRequest getRequest(String path, String body) {
+        return new CallbackRequest(getURL(path)).setHeader("X-CALLBACK-TYPE", "SUCCESS")
+                .setBody(outputStream -> outputStream.write(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String read(InputStream inputStream) throws java.io.IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCallbackIsDelivered() throws Exception {
+        CallbackQueue queue = getBuilder().build();
+        queue.send(getRequest("/sync/1", "{\"records\":[]}")).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Collections.singletonList("/sync/1 SUCCESS {\"records\":[]}"), received);
+        Assert.assertEquals(1, queue.getDeliveredCount());
+        Assert.assertEquals(0, queue.getQueuedCount());
+        Assert.assertEquals(0, folder.getRoot().list().length);
+        queue.stop();
+    }
+
+    @Test
+    public void testServerErrorsAreRetried() throws Exception {
+        statuses.add(503);
+        statuses.add(500);
+        CallbackQueue queue = getBuilder().build();
+        queue.send(getRequest("/sync/1", "body")).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals(2, queue.getRetryCount());
+        queue.stop();
+    }
+
+    @Test
+    public void testRejectedCallbackIsNotRetried() throws Exception {
+        statuses.add(400);
+        CallbackQueue queue = getBuilder().build();
+        try {
+            queue.send(getRequest("/sync/1", "body")).get(5, TimeUnit.SECONDS);
+            Assert.fail("The callback should have failed");
+        } catch (ExecutionException e) {
+            Assert.assertEquals(0, queue.getRetryCount());
+            Assert.assertEquals(1, queue.getFailedCount());
+        }
+        Assert.assertEquals(0, folder.getRoot().list().length);
+        queue.stop();
+    }
+
+    @Test
+    public void testSpooledCallbacksSurviveRestart() throws Exception {
+        statuses.add(503);
+        CallbackQueue queue = getBuilder().setRetryDelayMillis(60_000).setMaxRetryDelayMillis(60_000).build();
+        queue.send(getRequest("/sync/1", "first"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.getRetryCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        queue.stop();
+        Assert.assertTrue(received.isEmpty());
+        Assert.assertEquals(2, folder.getRoot().list().length);
+
+        CallbackQueue restarted = getBuilder().build();
+        deadline = System.currentTimeMillis() + 5000;
+        while (restarted.getDeliveredCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Collections.singletonList("/sync/1 SUCCESS first"), received);
+        Assert.assertEquals(0, folder.getRoot().list().length);
+        restarted.stop();
+    }
+
+    @Test
+    public void testConcurrencyPerHostIsLimited() throws Exception {
+        gate = new CountDownLatch(1);
+        CallbackQueue queue = getBuilder().setMaxConcurrentPerHost(2).build();
+        ArrayList<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            sent.add(queue.send(getRequest("/sync/" + i, "body" + i)));
+        }
+        Thread.sleep(200);
+        Assert.assertEquals(2, queue.getInFlightCount());
+        gate.countDown();
+        for (CompletableFuture<Void> future : sent) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(6, received.size());
+        Assert.assertEquals(2, maxConcurrent.get());
+        queue.stop();
+    }
+
+    @Test
+    public void testCallbacksToOneURLKeepTheirOrder() throws Exception {
+        statuses.add(503);
+        CallbackQueue queue = getBuilder().build();
+        CompletableFuture<Void> first = queue.send(getRequest("/sync/1", "batch1"));
+        CompletableFuture<Void> second = queue.send(getRequest("/sync/1", "batch2"));
+        second.get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(first.isDone());
+        Assert.assertEquals("/sync/1 SUCCESS batch1", received.get(0));
+        Assert.assertEquals("/sync/1 SUCCESS batch2", received.get(1));
+        queue.stop();
+    }
+
+    @Test
+    public void testQueueIsBounded() throws Exception {
+        gate = new CountDownLatch(1);
+        CallbackQueue queue = getBuilder().setMaxQueued(1).build();
+        CompletableFuture<Void> first = queue.send(getRequest("/sync/1", "first"));
+        CompletableFuture<Void> second = queue.send(getRequest("/sync/2", "second"));
+
+        Assert.assertTrue(second.isCompletedExceptionally());
+        gate.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        queue.stop();
+    }
+}
@@ -0,0 +1,114 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.annotations.Attribute;
+import sdk.annotations.PrimaryKey;
+import sdk.annotations.Relationship;
+import sdk.converter.ObjectConverter;
+import sdk.converter.TypeManager;
+import sdk.data.ServiceConfiguration;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Generates configurations for several models, some with circular references, from many threads
+ */
+public class ConfigurationConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 200;
+
+    public static class Node {
+        @PrimaryKey
+        @Attribute(index = 0)
+        public String id;
+
+        @Relationship(index = 1)
+        public Node parent;
+    }
+
+    public static class Owner {
+        @PrimaryKey
+        @Attribute(index = 0)
+        public String id;
+
+        @Relationship(index = 1)
+        public List<Pet> pets;
+    }
+
+    public static class Pet {
+        @PrimaryKey
+        @Attribute(index = 0)
+        public String id;
+
+        @Relationship(index = 1)
+        public Owner owner;
+    }
+
+    private static int getDepth(List<ServiceConfigurationAttribute> attributes) {
+        for (ServiceConfigurationAttribute attribute : attributes) {
+            if (attribute.getRelatedService() != null) {
+                return 1 + getDepth(attribute.getRelatedService().getAttributes());
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void testSelfReferenceIsFollowedTwice() {
+        ServiceConfiguration configuration = ObjectConverter.generateConfiguration(Node.class);
+        Assert.assertEquals(2, getDepth(configuration.getAttributes()));
+        Assert.assertEquals(2, getDepth(ObjectConverter.generateConfiguration(Node.class).getAttributes()));
+    }
+
+    @Test
+    public void testCircularReferenceDependsOnRoot() {
+        Assert.assertEquals(5, getDepth(ObjectConverter.generateConfiguration(Owner.class).getAttributes()));
+        Assert.assertEquals(5, getDepth(ObjectConverter.generateConfiguration(Pet.class).getAttributes()));
+    }
+
+    @Test
+    public void testConcurrentGeneration() throws Exception {
+        Class<?>[] classes = {Node.class, Owner.class, Pet.class, SampleObject.class};
+        List<ServiceConfiguration> expected = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            expected.add(ObjectConverter.generateConfiguration(clazz));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        int classIndex = (i + offset) % classes.length;
+                        try {
+                            if (i % 50 == 0) TypeManager.invalidateClassMetadata(classes[classIndex]);
+                            ServiceConfiguration configuration =
+                                ObjectConverter.generateConfiguration(classes[classIndex]);
+                            if (!expected.get(classIndex).equals(configuration) ||
+                                getDepth(expected.get(classIndex).getAttributes()) !=
+                                getDepth(configuration.getAttributes()))
+                                throw new AssertionError("configuration differs for " + classes[classIndex]);
+                        } catch (Throwable throwable) {
+                            errors.add(throwable);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!errors.isEmpty()) {
+            throw new AssertionError(errors.size() + " concurrent configuration calls failed", errors.peek());
+        }
+    }
+}
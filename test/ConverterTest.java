@@ -10,6 +10,8 @@ import sdk.converter.TypeManager;
 import sdk.data.DataSetItem;
 import sdk.data.Record;
 import sdk.data.ServiceConfiguration;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.data.User;
 import sdk.exceptions.UnableToWriteException;
 import sdk.exceptions.UnsupportedAttributeException;
 import sdk.list.ListItem;
@@ -237,6 +239,33 @@ public class ConverterTest {
         assert (finalObj.objList != null);
     }
 
+    @Test
+    public void testLoadRelationshipsDoesNotCarryOver() {
+        SampleLazyLoadObj obj = getNewLazyObj();
+        DataSetItem loadedItem = new DataSetItem(
+            ObjectConverter.generateConfigurationAttributes(SampleLazyLoadObj.class));
+        ObjectConverter.copyToRecord(loadedItem, obj, Arrays.asList(0));
+        Assert.assertNotNull(loadedItem.getDataSetItems(0));
+
+        DataSetItem item = new DataSetItem(
+            ObjectConverter.generateConfigurationAttributes(SampleLazyLoadObj.class));
+        ObjectConverter.copyToRecord(item, obj);
+        Assert.assertNull(item.getDataSetItems(0));
+    }
+
+    @Test
+    public void testClassMetadataInvalidation() {
+        SamplePrimitivesObject obj = new SamplePrimitivesObject();
+        DataSetItem item = new DataSetItem(
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class));
+        ObjectConverter.copyToRecord(item, obj);
+        TypeManager.invalidateClassMetadata(SamplePrimitivesObject.class);
+        DataSetItem newItem = new DataSetItem(
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class));
+        ObjectConverter.copyToRecord(newItem, obj);
+        Assert.assertEquals(item, newItem);
+    }
+
     @Test
     public void testObjectWithPrimitiveTypes() {
         SamplePrimitivesObject obj = new SamplePrimitivesObject();
@@ -290,6 +319,10 @@ public class ConverterTest {
         item.setPrimaryKey("different key");
         ObjectConverter.copyFromRecord(item, obj, false);
         assert (obj.getPk().equals("different key"));
+        DataSetItem newItem = new DataSetItem(
+            ObjectConverter.generateConfigurationAttributes(ObjectWithMethodPk.class));
+        ObjectConverter.copyToRecord(newItem, obj);
+        assert (newItem.getPrimaryKey().equals("different key"));
     }
 
 
@@ -384,6 +417,37 @@ public class ConverterTest {
     }
 
 
+    @Test
+    public void testConfigGenerationIsCached() {
+        Collection<ServiceConfigurationAttribute> first =
+            ObjectConverter.generateConfigurationAttributes(SampleObject.class);
+        first.clear();
+        Collection<ServiceConfigurationAttribute> second =
+            ObjectConverter.generateConfigurationAttributes(SampleObject.class);
+        Assert.assertFalse(second.isEmpty());
+        Assert.assertSame(second.iterator().next(),
+                          ObjectConverter.generateConfigurationAttributes(SampleObject.class)
+                              .iterator().next());
+        Assert.assertEquals(SampleObject.getServiceConfiguration(),
+                            ObjectConverter.generateConfiguration(SampleObject.class));
+    }
+
+    @Test
+    public void testCustomUserAttributesDoNotChangeGeneratedConfig() {
+        Collection<ServiceConfigurationAttribute> attributes =
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class);
+        Set<Integer> indexes = new HashSet<>();
+        for (ServiceConfigurationAttribute attribute : attributes) {
+            indexes.add(attribute.getAttributeIndex());
+        }
+        User.getConfigurationAttributesWithCustomAttributes(attributes);
+        User.getConfigurationAttributesWithCustomAttributes(attributes);
+        for (ServiceConfigurationAttribute attribute : ObjectConverter.generateConfigurationAttributes(
+            SamplePrimitivesObject.class)) {
+            Assert.assertTrue(indexes.contains(attribute.getAttributeIndex()));
+        }
+    }
+
     @Test
     public void testCopyFromDataSetItem() throws UnsupportedAttributeException,
                                                  IllegalAccessException, UnableToWriteException {
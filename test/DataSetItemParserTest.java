@@ -0,0 +1,115 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.data.DataSetItem;
+import sdk.data.DataSetItemAttachment;
+import sdk.data.RelatedServiceConfiguration;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that reading a data set item from a token stream matches reading it from a json tree
+ */
+public class DataSetItemParserTest {
+
+    private List<ServiceConfigurationAttribute> getAttributes() {
+        List<ServiceConfigurationAttribute> childAttributes = new ArrayList<>();
+        childAttributes.add(new ServiceConfigurationAttribute.Builder(0).build());
+        childAttributes.add(new ServiceConfigurationAttribute.Builder(1).asInt().build());
+        RelatedServiceConfiguration childService =
+            new RelatedServiceConfiguration.Builder("Child").withAttributes(childAttributes).build();
+
+        List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        attributes.add(new ServiceConfigurationAttribute.Builder(0).build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(1).asInt().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(2).asDouble().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(3).asBool().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(4).asTimeInterval().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(5).asRelationship(childService).build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(6).asAttachments().build());
+        return attributes;
+    }
+
+    private DataSetItem getItem() {
+        DataSetItem item = new DataSetItem(getAttributes());
+        item.setPrimaryKey("1");
+        item.setString("parent", 0);
+        item.setInt(12, 1);
+        item.setDouble(1.5, 2);
+        item.setBool(true, 3);
+        item.setTimeInterval(60000L, 4);
+        for (int i = 0; i < 3; i++) {
+            DataSetItem child = item.addNewDataSetItemForAttributeIndex(5);
+            child.setPrimaryKey("c" + i);
+            child.setString("child" + i, 0);
+            child.setInt(i, 1);
+        }
+        DataSetItemAttachment attachment = item.addNewAttachmentForAttributeIndex(6);
+        attachment.setPrimaryKey("a1");
+        attachment.setTitle("photo");
+        return item;
+    }
+
+    private DataSetItem parse(String json) throws Exception {
+        DataSetItem item = new DataSetItem(getAttributes());
+        try (JsonParser parser = new JsonFactory().createParser(json)) {
+            parser.nextToken();
+            item.updateFromJSON(parser, null, false);
+        }
+        return item;
+    }
+
+    @Test
+    public void testStreamMatchesTree() throws Exception {
+        ObjectNode json = getItem().toJSONWithPrimaryKey();
+        DataSetItem fromTree = new DataSetItem(getAttributes());
+        fromTree.updateFromJSON(json, null, false);
+        DataSetItem fromStream = parse(json.toString());
+
+        Assert.assertEquals(fromTree, fromStream);
+        Assert.assertEquals(json, fromStream.toJSONWithPrimaryKey());
+        Assert.assertEquals(3, fromStream.getDataSetItems(5).size());
+        Assert.assertTrue(fromStream.getDataSetItems(6).get(0) instanceof DataSetItemAttachment);
+    }
+
+    @Test
+    public void testAttributesBeforeRecordType() throws Exception {
+        String json = "{\"primaryKey\":\"1\",\"attributes\":[null,null,null,null,null,null," +
+                      "[{\"attributes\":[null,\"photo\"],\"primaryKey\":\"a1\",\"recordType\":\"ATTACHMENT\"}]]}";
+        DataSetItem item = parse(json);
+        DataSetItem attachment = item.getDataSetItems(6).get(0);
+        Assert.assertTrue(attachment instanceof DataSetItemAttachment);
+        Assert.assertEquals("a1", attachment.getPrimaryKey());
+        Assert.assertEquals("photo", attachment.getString(DataSetItemAttachment.AttachmentAttributeTitle));
+    }
+
+    @Test
+    public void testMismatchedValuesAreSkipped() throws Exception {
+        String json = "{\"primaryKey\":\"1\",\"unknown\":{\"a\":[1,2]}," +
+                      "\"attributes\":[[\"not\",\"text\"],{\"not\":1},\"2.5\",\"Y\",\"30\",\"not a list\",null,\"extra\"]}";
+        DataSetItem item = parse(json);
+        Assert.assertEquals("1", item.getPrimaryKey());
+        Assert.assertNull(item.getString(0));
+        Assert.assertFalse(item.getOptionalInt(1).isPresent());
+        Assert.assertEquals(2.5, item.getDouble(2), 0.0);
+        Assert.assertTrue(item.getBool(3));
+        Assert.assertEquals(30L, item.getTimeInterval(4));
+        Assert.assertNull(item.getDataSetItems(5));
+    }
+
+    @Test
+    public void testObjectMapperParser() throws Exception {
+        ObjectNode json = getItem().toJSONWithPrimaryKey();
+        DataSetItem item = new DataSetItem(getAttributes());
+        try (JsonParser parser = new ObjectMapper().getFactory().createParser(json.toString().getBytes("UTF-8"))) {
+            parser.nextToken();
+            item.updateFromJSON(parser, null, false);
+        }
+        Assert.assertEquals(getItem(), item);
+    }
+}
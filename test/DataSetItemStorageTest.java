@@ -0,0 +1,81 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the array backed attribute storage of DataSetItem
+ */
+public class DataSetItemStorageTest {
+    private List<ServiceConfigurationAttribute> getAttributes() {
+        List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        attributes.add(new ServiceConfigurationAttribute.Builder(0).build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(1).asInt().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(2).asInt().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(3).asDouble().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(4).asDouble().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(5).asBool().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(6).asTimeInterval().build());
+        return attributes;
+    }
+
+    private void fill(DataSetItem item, int i) {
+        item.setPrimaryKey(String.valueOf(i));
+        item.setString("name" + i, 0);
+        item.setInt(i, 1);
+        item.setInt(-i, 2);
+        item.setDouble(i / 4.0, 3);
+        item.setDouble(0.1 * i, 4);
+        item.setBool(i % 2 == 0, 5);
+        item.setTimeInterval(i * 1000L, 6);
+    }
+
+    @Test
+    public void testPrimitiveValues() {
+        DataSetItem item = new DataSetItem(getAttributes());
+        fill(item, 7);
+        Assert.assertEquals(7, item.getInt(1));
+        Assert.assertEquals(-7, item.getInt(2));
+        Assert.assertEquals(1.75, item.getDouble(3), 0.0);
+        Assert.assertEquals(0.1 * 7, item.getDouble(4), 0.0);
+        Assert.assertFalse(item.getBool(5));
+        Assert.assertEquals(7000L, item.getTimeInterval(6));
+        Assert.assertEquals("7", item.getString(1));
+        Assert.assertEquals("1.75", item.getString(3));
+        Assert.assertEquals("N", item.getString(5));
+        Assert.assertEquals(0, item.getInt(10));
+        Assert.assertFalse(item.getOptionalInt(10).isPresent());
+    }
+
+    @Test
+    public void testJSONValues() {
+        DataSetItem item = new DataSetItem(getAttributes());
+        fill(item, 2);
+        JsonNode attributes = item.toJSON().get("attributes");
+        Assert.assertEquals(7, attributes.size());
+        Assert.assertEquals("name2", attributes.get(0).textValue());
+        Assert.assertEquals("2", attributes.get(1).textValue());
+        Assert.assertEquals("-2", attributes.get(2).textValue());
+        Assert.assertEquals("0.5", attributes.get(3).textValue());
+        Assert.assertEquals(String.valueOf(0.1 * 2), attributes.get(4).textValue());
+        Assert.assertEquals("Y", attributes.get(5).textValue());
+        Assert.assertEquals("2000", attributes.get(6).textValue());
+    }
+
+    @Test
+    public void testEquality() {
+        DataSetItem item = new DataSetItem(getAttributes());
+        DataSetItem sameItem = new DataSetItem(getAttributes());
+        fill(item, 3);
+        fill(sameItem, 3);
+        Assert.assertEquals(item, sameItem);
+        Assert.assertEquals(item.hashCode(), sameItem.hashCode());
+        sameItem.setInt(4, 2);
+        Assert.assertNotEquals(item, sameItem);
+    }
+}
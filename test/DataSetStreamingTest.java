@@ -0,0 +1,67 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.converter.ObjectConverter;
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.InvalidPrimaryKeyException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the streamed data set json matches the json tree
+ */
+public class DataSetStreamingTest {
+
+    private JsonNode stream(DataSet dataSet) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        dataSet.writeJSON(outputStream);
+        return new ObjectMapper().readTree(outputStream.toByteArray());
+    }
+
+    @Test
+    public void testPrimitivesMatchTree() throws Exception {
+        List<SamplePrimitivesObject> objects = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            SamplePrimitivesObject obj = new SamplePrimitivesObject();
+            obj.pk = i;
+            obj.anInt = i;
+            obj.aDouble = i / 3.0;
+            objects.add(obj);
+        }
+        DataSet dataSet = ObjectConverter.getDataSetFromCollection(objects,
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class));
+        dataSet.setMessage("done");
+        Assert.assertEquals(dataSet.toJSON(), stream(dataSet));
+    }
+
+    @Test
+    public void testRelationshipsMatchTree() throws Exception {
+        SampleLazyLoadObj obj = new SampleLazyLoadObj();
+        obj.pk = 1;
+        obj.objList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SampleLazyLoadObj.LazilyLoadedObj child = new SampleLazyLoadObj.LazilyLoadedObj();
+            child.pk = i;
+            child.name = "child" + i;
+            obj.objList.add(child);
+        }
+        DataSet dataSet = new DataSet(
+            ObjectConverter.generateConfigurationAttributes(SampleLazyLoadObj.class));
+        DataSetItem item = dataSet.addNewDataSetItem();
+        ObjectConverter.copyToRecord(item, obj, Arrays.asList(0));
+        Assert.assertEquals(dataSet.toJSON(), stream(dataSet));
+    }
+
+    @Test(expected = InvalidPrimaryKeyException.class)
+    public void testMissingPrimaryKeyIsRejectedUpFront() {
+        DataSet dataSet = new DataSet(
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class));
+        dataSet.addNewDataSetItem();
+        dataSet.validatePrimaryKeys();
+    }
+}
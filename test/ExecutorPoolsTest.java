@@ -0,0 +1,88 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.utils.ExecutorPools;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the bounds and rejection policies of the SDK pools
+ */
+public class ExecutorPoolsTest {
+
+    private static void block(ThreadPoolExecutor executor, CountDownLatch gate) {
+        executor.execute(() -> {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Test
+    public void testFullPoolRejectsTasks() throws Exception {
+        ThreadPoolExecutor executor = ExecutorPools.newBoundedExecutor("test-abort", 1, 1, ExecutorPools.ABORT);
+        CountDownLatch gate = new CountDownLatch(1);
+        block(executor, gate);
+        block(executor, gate);
+        try {
+            CompletableFuture.runAsync(() -> {}, executor);
+            Assert.fail("The task should have been rejected");
+        } catch (RejectedExecutionException expected) {
+            Assert.assertTrue(expected.getMessage().contains("test-abort"));
+        }
+        gate.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejectedTaskFailsTheFuture() throws Exception {
+        ThreadPoolExecutor executor = ExecutorPools.newBoundedExecutor("test-failed", 1, 0, ExecutorPools.ABORT);
+        CountDownLatch gate = new CountDownLatch(1);
+        block(executor, gate);
+        CompletableFuture<String> future = ExecutorPools.supplyAsync(() -> "ran", executor);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("The task should have been rejected");
+        } catch (ExecutionException expected) {
+            Assert.assertTrue(expected.getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertTrue(ExecutorPools.runAsync(() -> {}, executor).isCompletedExceptionally());
+        gate.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFullPoolRunsTasksOnTheCaller() throws Exception {
+        ThreadPoolExecutor executor = ExecutorPools.newBoundedExecutor("test-caller", 1, 0, ExecutorPools.CALLER_RUNS);
+        CountDownLatch gate = new CountDownLatch(1);
+        block(executor, gate);
+        String thread = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Thread.currentThread().getName(), thread);
+        gate.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testThreadsAreNamedAfterThePool() throws Exception {
+        ThreadPoolExecutor executor = ExecutorPools.newBoundedExecutor("test-names", 2, 10, ExecutorPools.ABORT);
+        String thread = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("apptree-test-names-1", thread);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testEachDataSourceHasItsOwnPool() {
+        Assert.assertSame(ExecutorPools.getDataSourceExecutor("workOrders"), ExecutorPools.getDataSourceExecutor("workOrders"));
+        Assert.assertNotSame(ExecutorPools.getDataSourceExecutor("workOrders"), ExecutorPools.getDataSourceExecutor("assets"));
+        Assert.assertNotSame(ExecutorPools.getDataSourceExecutor("workOrders"), ExecutorPools.getConversionExecutor());
+        Assert.assertNotSame(ExecutorPools.getStreamExecutor(), ExecutorPools.getConversionExecutor());
+        Assert.assertNotNull(ExecutorPools.getPool(ExecutorPools.DATA_SOURCES + ".workOrders"));
+    }
+}
@@ -0,0 +1,107 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sdk.list.List;
+import sdk.list.ListArtifactCache;
+
+/**
+ * Checks that list databases are only built again when the list content changes
+ */
+public class ListArtifactCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameContentIsNotRebuilt() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        ListArtifactCache.ListArtifact first = cache.getArtifact("Buildings", null, ListFixtures.getList("a", "b"), null);
+        ListArtifactCache.ListArtifact second = cache.getArtifact("Buildings", null, ListFixtures.getList("a", "b"), null);
+
+        Assert.assertEquals(first.getFile(), second.getFile());
+        Assert.assertEquals(2, second.getItemCount());
+        Assert.assertTrue(second.getFile().exists());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testChangedContentIsRebuilt() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        ListArtifactCache.ListArtifact first = cache.getArtifact("Buildings", null, ListFixtures.getList("a", "b"), null);
+        List changed = ListFixtures.getList("a", "b");
+        changed.listItems.get(1).setAttributeForIndex("changed", 0);
+        ListArtifactCache.ListArtifact second = cache.getArtifact("Buildings", null, changed, null);
+
+        Assert.assertNotEquals(first.getFile(), second.getFile());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testAuthScopeSeparatesLists() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        ListArtifactCache.ListArtifact first = cache.getArtifact("Buildings", "user:1", ListFixtures.getList("a"), null);
+        ListArtifactCache.ListArtifact second = cache.getArtifact("Buildings", "user:2", ListFixtures.getList("a"), null);
+
+        Assert.assertNotEquals(first.getFile(), second.getFile());
+    }
+
+    @Test
+    public void testVersionLookup() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        String versionKey = cache.getVersionKey("Buildings", null, "v1", ListFixtures.getParameters("site", "1"));
+        Assert.assertFalse(cache.getByVersion(versionKey).isPresent());
+        Assert.assertNull(cache.getVersionKey("Buildings", null, null, ListFixtures.getParameters("site", "1")));
+        Assert.assertNotEquals(versionKey, cache.getVersionKey("Buildings", null, "v1", ListFixtures.getParameters("site", "2")));
+
+        ListArtifactCache.ListArtifact artifact = cache.getArtifact("Buildings", null, ListFixtures.getList("a"), versionKey);
+        Assert.assertEquals(artifact.getFile(), cache.getByVersion(versionKey).get().getFile());
+        Assert.assertFalse(cache.getByVersion(cache.getVersionKey("Buildings", null, "v2", ListFixtures.getParameters("site", "1"))).isPresent());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 2);
+        ListArtifactCache.ListArtifact a = cache.getArtifact("A", null, ListFixtures.getList("a"), null);
+        ListArtifactCache.ListArtifact b = cache.getArtifact("B", null, ListFixtures.getList("b"), null);
+        a.release();
+        b.release();
+        cache.getArtifact("A", null, ListFixtures.getList("a"), null).release();
+        ListArtifactCache.ListArtifact c = cache.getArtifact("C", null, ListFixtures.getList("c"), null);
+        c.release();
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(a.getFile().exists());
+        Assert.assertFalse(b.getFile().exists());
+        Assert.assertTrue(c.getFile().exists());
+    }
+
+    @Test
+    public void testEvictedArtifactIsKeptUntilReleased() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 1);
+        ListArtifactCache.ListArtifact a = cache.getArtifact("A", null, ListFixtures.getList("a"), null);
+        ListArtifactCache.ListArtifact snapshot = cache.getSnapshot("A", null, a.getContentKey()).get();
+        a.release();
+        cache.getArtifact("B", null, ListFixtures.getList("b"), null).release();
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertFalse(cache.getSnapshot("A", null, a.getContentKey()).isPresent());
+        Assert.assertTrue(snapshot.getFile().exists());
+        snapshot.release();
+        Assert.assertFalse(snapshot.getFile().exists());
+    }
+
+    @Test
+    public void testCacheIsBoundedBySize() {
+        ListArtifactCache.ListArtifact first = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10).getArtifact("A", null, ListFixtures.getList("a"), null);
+        long artifactSize = first.getFile().length();
+
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), artifactSize * 2 + artifactSize / 2, 10);
+        Assert.assertFalse(first.getFile().exists());
+        cache.getArtifact("A", null, ListFixtures.getList("a"), null);
+        cache.getArtifact("B", null, ListFixtures.getList("b"), null);
+        cache.getArtifact("C", null, ListFixtures.getList("c"), null);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.getTotalBytes() <= artifactSize * 2 + artifactSize / 2);
+    }
+}
@@ -0,0 +1,133 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sdk.list.List;
+import sdk.list.ListArtifactCache;
+import sdk.list.ListBuildCoalescer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that concurrent requests for a list share one build
+ */
+public class ListBuildCoalescerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testConcurrentRequestsShareBuild() throws Exception {
+        ListBuildCoalescer coalescer = new ListBuildCoalescer(0);
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        CompletableFuture<List> backend = new CompletableFuture<>();
+        AtomicInteger builds = new AtomicInteger();
+        String key = ListBuildCoalescer.getKey("Buildings", null, ListFixtures.getParameters("site", "1"));
+
+        ArrayList<CompletableFuture<ListArtifactCache.ListArtifact>> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(coalescer.getArtifact("Buildings", key, () -> {
+                builds.incrementAndGet();
+                return backend.thenApply(list -> cache.getArtifact("Buildings", null, list, null));
+            }));
+        }
+        Assert.assertEquals(1, coalescer.getInFlightCount());
+        backend.complete(ListFixtures.getList("a", "b"));
+
+        Assert.assertEquals(1, builds.get());
+        Assert.assertEquals(4, coalescer.getSharedCount());
+        Assert.assertEquals(0, coalescer.getInFlightCount());
+        for (CompletableFuture<ListArtifactCache.ListArtifact> request : requests) {
+            Assert.assertEquals(requests.get(0).get().getFile(), request.get().getFile());
+        }
+    }
+
+    @Test
+    public void testDifferentKeysBuildSeparately() {
+        String first = ListBuildCoalescer.getKey("Buildings", null, ListFixtures.getParameters("site", "1"));
+        Assert.assertNotEquals(first, ListBuildCoalescer.getKey("Buildings", null, ListFixtures.getParameters("site", "2")));
+        Assert.assertNotEquals(first, ListBuildCoalescer.getKey("Buildings", "user:1", ListFixtures.getParameters("site", "1")));
+        Assert.assertNotEquals(first, ListBuildCoalescer.getKey("Rooms", null, ListFixtures.getParameters("site", "1")));
+    }
+
+    @Test
+    public void testSharedUncachedArtifactIsKeptUntilEveryRequestReleasesIt() throws Exception {
+        ListBuildCoalescer coalescer = new ListBuildCoalescer(0);
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 0, 10);
+        CompletableFuture<List> backend = new CompletableFuture<>();
+        CompletableFuture<ListArtifactCache.ListArtifact> first = coalescer.getArtifact("Buildings", "key",
+                () -> backend.thenApply(list -> cache.getArtifact("Buildings", null, list, null)));
+        CompletableFuture<ListArtifactCache.ListArtifact> second = coalescer.getArtifact("Buildings", "key", () -> null);
+        backend.complete(ListFixtures.getList("a"));
+
+        File file = first.get().getFile();
+        first.get().release();
+        Assert.assertTrue(file.exists());
+        second.get().release();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testBuildsOfAListAreLimited() throws Exception {
+        ListBuildCoalescer coalescer = new ListBuildCoalescer(1);
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        CompletableFuture<List> firstBackend = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<ListArtifactCache.ListArtifact> first = coalescer.getArtifact("Buildings", "user1", () -> {
+            started.incrementAndGet();
+            return firstBackend.thenApply(list -> cache.getArtifact("Buildings", "user:1", list, null));
+        });
+        CompletableFuture<ListArtifactCache.ListArtifact> second = coalescer.getArtifact("Buildings", "user2", () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(cache.getArtifact("Buildings", "user:2", ListFixtures.getList("b"), null));
+        });
+        CompletableFuture<ListArtifactCache.ListArtifact> other = coalescer.getArtifact("Rooms", "rooms", () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(cache.getArtifact("Rooms", null, ListFixtures.getList("c"), null));
+        });
+
+        Assert.assertEquals(2, started.get());
+        Assert.assertFalse(second.isDone());
+        Assert.assertTrue(other.isDone());
+        firstBackend.complete(ListFixtures.getList("a"));
+        Assert.assertTrue(first.isDone());
+        Assert.assertEquals(1, second.get().getItemCount());
+        Assert.assertEquals(3, started.get());
+    }
+
+    @Test
+    public void testFullWaitingQueueFailsFast() throws Exception {
+        ListBuildCoalescer coalescer = new ListBuildCoalescer(1, 1);
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10);
+        CompletableFuture<List> backend = new CompletableFuture<>();
+        CompletableFuture<ListArtifactCache.ListArtifact> running = coalescer.getArtifact("Buildings", "user1",
+                () -> backend.thenApply(list -> cache.getArtifact("Buildings", "user:1", list, null)));
+        CompletableFuture<ListArtifactCache.ListArtifact> waiting = coalescer.getArtifact("Buildings", "user2",
+                () -> CompletableFuture.completedFuture(cache.getArtifact("Buildings", "user:2", ListFixtures.getList("b"), null)));
+        CompletableFuture<ListArtifactCache.ListArtifact> rejected = coalescer.getArtifact("Buildings", "user3", () -> null);
+
+        Assert.assertTrue(rejected.isCompletedExceptionally());
+        Assert.assertFalse(waiting.isDone());
+        Assert.assertEquals(2, coalescer.getInFlightCount());
+        backend.complete(ListFixtures.getList("a"));
+        Assert.assertEquals(1, running.get().getItemCount());
+        Assert.assertEquals(1, waiting.get(10, TimeUnit.SECONDS).getItemCount());
+    }
+
+    @Test
+    public void testFailedBuildFailsEveryRequest() {
+        ListBuildCoalescer coalescer = new ListBuildCoalescer(2);
+        CompletableFuture<List> backend = new CompletableFuture<>();
+        CompletableFuture<ListArtifactCache.ListArtifact> first = coalescer.getArtifact("Buildings", "key",
+                () -> backend.thenApply(list -> (ListArtifactCache.ListArtifact) null));
+        CompletableFuture<ListArtifactCache.ListArtifact> second = coalescer.getArtifact("Buildings", "key", () -> null);
+        backend.completeExceptionally(new RuntimeException("backend down"));
+
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(second.isCompletedExceptionally());
+        Assert.assertEquals(0, coalescer.getInFlightCount());
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sdk.list.List;
+import sdk.list.ListArtifactCache;
+import sdk.list.ListCompression;
+import sdk.list.ListDatabaseSchema;
+import sdk.list.ListDatabaseWriter;
+import sdk.list.ListDiff;
+import sdk.list.ListItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+
+/**
+ * Checks that list databases come back the same after each kind of compression
+ */
+public class ListCompressionTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    private File getDatabase(String... values) {
+        try (ListDatabaseWriter writer = new ListDatabaseWriter()) {
+            for (String value : values) {
+                ListItem listItem = new ListItem(value);
+                listItem.setAttributeForIndex(value + " attribute", 0);
+                writer.accept(listItem);
+            }
+            return writer.finish(ListCompression.NONE, Deflater.DEFAULT_COMPRESSION);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File databaseFile = getDatabase("a", "b", "c");
+        byte[] database = Files.readAllBytes(databaseFile.toPath());
+        try {
+            for (ListCompression compression : ListCompression.values()) {
+                File compressedFile = new File(folder.getRoot(), "list" + compression.getFileSuffix());
+                try (OutputStream outputStream = Files.newOutputStream(compressedFile.toPath())) {
+                    compression.compress(databaseFile, outputStream, Deflater.BEST_SPEED);
+                }
+                File restoredFile = new File(folder.getRoot(), "restored.sqlite");
+                compression.decompress(compressedFile, restoredFile);
+                Assert.assertArrayEquals(compression.name(), database, Files.readAllBytes(restoredFile.toPath()));
+            }
+        } finally {
+            databaseFile.delete();
+        }
+    }
+
+    @Test
+    public void testStreamIsLeftOpen() throws Exception {
+        File databaseFile = getDatabase("a", "b");
+        try {
+            for (ListCompression compression : ListCompression.values()) {
+                AtomicBoolean closed = new AtomicBoolean();
+                OutputStream outputStream = new FilterOutputStream(new ByteArrayOutputStream()) {
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                };
+                compression.compress(databaseFile, outputStream, Deflater.BEST_COMPRESSION);
+                Assert.assertFalse(compression.name(), closed.get());
+            }
+        } finally {
+            databaseFile.delete();
+        }
+    }
+
+    @Test
+    public void testNoneIsNotCompressed() throws Exception {
+        File databaseFile = getDatabase("a");
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ListCompression.NONE.compress(databaseFile, outputStream, Deflater.BEST_COMPRESSION);
+            Assert.assertArrayEquals(Files.readAllBytes(databaseFile.toPath()), outputStream.toByteArray());
+        } finally {
+            databaseFile.delete();
+        }
+    }
+
+    @Test
+    public void testCacheUsesConfiguredCompression() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 1024 * 1024, 10, ListCompression.GZIP, Deflater.BEST_SPEED);
+        List list = new List();
+        list.addListItem(new ListItem("a"));
+        ListArtifactCache.ListArtifact artifact = cache.getArtifact("Buildings", null, list, null);
+
+        Assert.assertEquals(ListCompression.GZIP, artifact.getCompression());
+        Assert.assertTrue(artifact.getFile().getName().endsWith(".sqlite.gz"));
+
+        list.addListItem(new ListItem("b"));
+        Assert.assertEquals(1, ListDiff.diff(artifact.getFile(), artifact.getCompression(), list, ListDatabaseSchema.LEGACY).size());
+    }
+
+    @Test
+    public void testDisabledCacheLeavesDatabaseUncompressed() {
+        ListArtifactCache cache = new ListArtifactCache(folder.getRoot(), 0, 10, ListCompression.ZIP, Deflater.DEFAULT_COMPRESSION);
+        List list = new List();
+        list.addListItem(new ListItem("a"));
+        ListArtifactCache.ListArtifact artifact = cache.getArtifact("Buildings", null, list, null);
+        try {
+            Assert.assertEquals(ListCompression.NONE, artifact.getCompression());
+            Assert.assertNull(artifact.getContentKey());
+            Assert.assertTrue(artifact.getFile().getName().endsWith(".sqlite"));
+        } finally {
+            artifact.getFile().delete();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.list.List;
+import sdk.list.ListDatabaseBuilder;
+import sdk.list.ListDatabaseSchema;
+import sdk.list.ListItem;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * Checks the SQLite list database builder
+ */
+public class ListDatabaseBuilderTest {
+
+    private List getList(int size) {
+        List list = new List();
+        for (int i = 0; i < size; i++) {
+            ListItem listItem = new ListItem("value" + i);
+            listItem.id = "id" + i;
+            listItem.parentID = i % 10 == 0 ? null : "id" + (i - i % 10);
+            listItem.latitude = i / 1000.0;
+            listItem.longitude = -i / 1000.0;
+            for (int attribute = 0; attribute < 12; attribute++) {
+                listItem.setAttributeForIndex("attribute " + attribute + " of " + i, attribute);
+            }
+            listItem.setAttributeForIndex(i, 40);
+            list.addListItem(listItem);
+        }
+        return list;
+    }
+
+    private File getDatabaseFile() throws Exception {
+        File file = File.createTempFile("list", ".sqlite");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testBuildListDatabase() throws Exception {
+        File file = getDatabaseFile();
+        Assert.assertEquals(25, ListDatabaseBuilder.build(getList(25), file));
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+             Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM LIST_ITEM");
+            Assert.assertEquals(25, resultSet.getInt(1));
+
+            resultSet = statement.executeQuery(
+                "SELECT ID, PARENT_ID, VALUE, ATTRIBUTE01, ATTRIBUTE12, ATTRIBUTE13, ATTRIBUTE41, LATITUDE " +
+                "FROM LIST_ITEM WHERE ID = 'id13'");
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals("id10", resultSet.getString("PARENT_ID"));
+            Assert.assertEquals("value13", resultSet.getString("VALUE"));
+            Assert.assertEquals("attribute 0 of 13", resultSet.getString("ATTRIBUTE01"));
+            Assert.assertEquals("attribute 11 of 13", resultSet.getString("ATTRIBUTE12"));
+            Assert.assertNull(resultSet.getString("ATTRIBUTE13"));
+            Assert.assertEquals("13", resultSet.getString("ATTRIBUTE41"));
+            Assert.assertEquals(0.013, resultSet.getDouble("LATITUDE"), 0.0);
+
+            resultSet = statement.executeQuery(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name LIKE 'list_item_index_%'");
+            Assert.assertEquals(12, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    public void testUnfinishedBuildIsRolledBack() throws Exception {
+        File file = getDatabaseFile();
+        try (ListDatabaseBuilder builder = new ListDatabaseBuilder(file)) {
+            builder.add(new ListItem("one"));
+            Assert.assertEquals(1, builder.getCount());
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+             Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM LIST_ITEM");
+            Assert.assertEquals(0, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    public void testSchemaFromAttributes() {
+        java.util.List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        attributes.add(new ServiceConfigurationAttribute.Builder(0).build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(3).build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(40).build());
+
+        ListDatabaseSchema schema = ListDatabaseSchema.forAttributes(attributes, null);
+        Assert.assertArrayEquals(new int[]{0, 3, 40}, schema.getAttributeIndexes());
+        Assert.assertArrayEquals(new int[]{0, 3}, schema.getIndexedAttributes());
+
+        attributes.add(new ServiceConfigurationAttribute.Builder(12).canSearch().build());
+        schema = ListDatabaseSchema.forAttributes(attributes, null);
+        Assert.assertArrayEquals(new int[]{0, 3, 12, 40}, schema.getAttributeIndexes());
+        Assert.assertArrayEquals(new int[]{12}, schema.getIndexedAttributes());
+
+        schema = ListDatabaseSchema.forAttributes(attributes, new HashSet<>(Arrays.asList(40, 70)));
+        Assert.assertArrayEquals(new int[]{40}, schema.getIndexedAttributes());
+
+        Assert.assertSame(ListDatabaseSchema.LEGACY, ListDatabaseSchema.forAttributes(Collections.emptyList(), null));
+    }
+
+    @Test
+    public void testBuildWithSchema() throws Exception {
+        java.util.List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        attributes.add(new ServiceConfigurationAttribute.Builder(0).canSearch().build());
+        attributes.add(new ServiceConfigurationAttribute.Builder(40).build());
+        File file = getDatabaseFile();
+        Assert.assertEquals(25, ListDatabaseBuilder.build(getList(25), file, ListDatabaseSchema.forAttributes(attributes, null)));
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+             Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT * FROM LIST_ITEM WHERE ID = 'id13'");
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(8, resultSet.getMetaData().getColumnCount());
+            Assert.assertEquals("attribute 0 of 13", resultSet.getString("ATTRIBUTE01"));
+            Assert.assertEquals("13", resultSet.getString("ATTRIBUTE41"));
+            Assert.assertEquals(0.013, resultSet.getDouble("LATITUDE"), 0.0);
+
+            resultSet = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND name LIKE 'list_item_index_%' ORDER BY name");
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals("list_item_index_1", resultSet.getString(1));
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals("list_item_index_id", resultSet.getString(1));
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals("list_item_index_value", resultSet.getString(1));
+            Assert.assertFalse(resultSet.next());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.list.CacheListSQLGenerator;
+import sdk.list.List;
+import sdk.list.ListChanges;
+import sdk.list.ListDatabaseSchema;
+import sdk.list.ListDiff;
+import sdk.list.ListItem;
+import sdk.list.ListSyncToken;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Checks that the changes between a list database and the current list are worked out by row
+ */
+public class ListDiffTest {
+
+    private List getList(int size) {
+        List list = new List();
+        for (int i = 0; i < size; i++) {
+            ListItem listItem = new ListItem("value" + i);
+            listItem.id = "id" + i;
+            listItem.setAttributeForIndex("attribute " + i, 0);
+            listItem.setAttributeForIndex(i, 20);
+            list.addListItem(listItem);
+        }
+        return list;
+    }
+
+    @Test
+    public void testDiff() {
+        File snapshot = CacheListSQLGenerator.generateDatabaseForList(getList(10));
+        try {
+            List list = getList(12);
+            list.listItems.remove(3);
+            list.listItems.get(0).setAttributeForIndex("changed", 0);
+            list.listItems.get(1).setAttributeForIndex("new attribute", 79);
+            list.listItems.get(4).latitude = 45.5;
+
+            ListChanges changes = ListDiff.diff(snapshot, list);
+            Assert.assertEquals(2, changes.getInsertedItems().size());
+            Assert.assertEquals("id10", changes.getInsertedItems().get(0).id);
+            Assert.assertEquals(3, changes.getUpdatedItems().size());
+            Assert.assertEquals("id0", changes.getUpdatedItems().get(0).id);
+            Assert.assertEquals("id1", changes.getUpdatedItems().get(1).id);
+            Assert.assertEquals("id5", changes.getUpdatedItems().get(2).id);
+            Assert.assertEquals(1, changes.getDeletedItemIDs().size());
+            Assert.assertEquals("id3", changes.getDeletedItemIDs().get(0));
+
+            Assert.assertEquals(0, ListDiff.diff(snapshot, getList(10)).size());
+        } finally {
+            snapshot.delete();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testDiffWithDifferentLayout() {
+        java.util.List<ServiceConfigurationAttribute> attributes = new ArrayList<>();
+        attributes.add(new ServiceConfigurationAttribute.Builder(0).build());
+        File snapshot = CacheListSQLGenerator.generateDatabaseForList(getList(10));
+        try {
+            ListDiff.diff(snapshot, getList(10), ListDatabaseSchema.forAttributes(attributes, null));
+        } finally {
+            snapshot.delete();
+        }
+    }
+
+    @Test
+    public void testSyncToken() {
+        ListSyncToken token = ListSyncToken.parse(new ListSyncToken(1500, "abc").toString()).get();
+        Assert.assertEquals(1500, token.getTimestamp());
+        Assert.assertEquals("abc", token.getContentKey());
+
+        token = ListSyncToken.parse(new ListSyncToken(1500, null).toString()).get();
+        Assert.assertEquals(1500, token.getTimestamp());
+        Assert.assertNull(token.getContentKey());
+
+        Assert.assertFalse(ListSyncToken.parse("not a token").isPresent());
+        Assert.assertFalse(ListSyncToken.parse(null).isPresent());
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sdk.list.ListFileJanitor;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks that the list directory is cleaned by age and quota without touching files in use
+ */
+public class ListFileJanitorTest {
+    private static final long MINUTE = 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    private File createFile(String name, int size, long ageMillis) throws Exception {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), new byte[size]);
+        file.setLastModified(System.currentTimeMillis() - ageMillis);
+        return file;
+    }
+
+    @Test
+    public void testOldFilesAreRemoved() throws Exception {
+        ListFileJanitor janitor = new ListFileJanitor(folder.getRoot(), 1024 * 1024, 10 * MINUTE, 60 * MINUTE);
+        File old = createFile("old.zip", 100, 20 * MINUTE);
+        File recent = createFile("recent.zip", 100, MINUTE);
+        janitor.clean();
+
+        Assert.assertFalse(old.exists());
+        Assert.assertTrue(recent.exists());
+        Assert.assertEquals(1, janitor.getExpiredCount());
+        Assert.assertEquals(100, janitor.getDeletedBytes());
+        Assert.assertEquals(1, janitor.getFileCount());
+        Assert.assertEquals(100, janitor.getDirectoryBytes());
+        Assert.assertEquals(1, janitor.getRunCount());
+    }
+
+    @Test
+    public void testOldestFilesAreEvictedOverQuota() throws Exception {
+        ListFileJanitor janitor = new ListFileJanitor(folder.getRoot(), 250, 10 * MINUTE, 60 * MINUTE);
+        File first = createFile("first.zip", 100, 3 * MINUTE);
+        File second = createFile("second.zip", 100, 2 * MINUTE);
+        File third = createFile("third.zip", 100, MINUTE);
+        janitor.clean();
+
+        Assert.assertFalse(first.exists());
+        Assert.assertTrue(second.exists());
+        Assert.assertTrue(third.exists());
+        Assert.assertEquals(1, janitor.getEvictedCount());
+        Assert.assertEquals(200, janitor.getDirectoryBytes());
+    }
+
+    @Test
+    public void testRetainedFilesAreKept() throws Exception {
+        ListFileJanitor janitor = new ListFileJanitor(folder.getRoot(), 50, 10 * MINUTE, 60 * MINUTE);
+        File old = createFile("old.zip", 100, 20 * MINUTE);
+        File streaming = createFile("streaming.zip", 100, MINUTE);
+        janitor.retain(old);
+        janitor.retain(streaming);
+        janitor.retain(streaming);
+        janitor.clean();
+
+        Assert.assertTrue(old.exists());
+        Assert.assertTrue(streaming.exists());
+
+        janitor.release(old);
+        janitor.release(streaming);
+        janitor.clean();
+        Assert.assertFalse(old.exists());
+        Assert.assertTrue(streaming.exists());
+
+        janitor.release(streaming);
+        janitor.clean();
+        Assert.assertFalse(streaming.exists());
+        Assert.assertEquals(0, janitor.getLeaseCount());
+    }
+
+    @Test
+    public void testExpiredLeasesAreDropped() throws Exception {
+        ListFileJanitor janitor = new ListFileJanitor(folder.getRoot(), 1024 * 1024, 10 * MINUTE, -1);
+        File old = createFile("old.zip", 100, 20 * MINUTE);
+        janitor.retain(old);
+        janitor.clean();
+
+        Assert.assertFalse(old.exists());
+        Assert.assertFalse(janitor.isRetained(old));
+    }
+
+    @Test
+    public void testScheduledTasksOnlyRunWhileStarted() throws Exception {
+        ListFileJanitor janitor = new ListFileJanitor(folder.getRoot(), 1024 * 1024, 10 * MINUTE, 60 * MINUTE);
+        CountDownLatch ran = new CountDownLatch(1);
+        janitor.schedule(ran::countDown, 0, TimeUnit.MILLISECONDS);
+        janitor.start(MINUTE);
+        janitor.schedule(ran::countDown, 10, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(ran.await(10, TimeUnit.SECONDS));
+
+        AtomicBoolean ranAfterStop = new AtomicBoolean();
+        janitor.schedule(() -> ranAfterStop.set(true), 100, TimeUnit.MILLISECONDS);
+        janitor.stop();
+        janitor.schedule(() -> ranAfterStop.set(true), 0, TimeUnit.MILLISECONDS);
+        Thread.sleep(200);
+        Assert.assertFalse(ranAfterStop.get());
+    }
+}
@@ -0,0 +1,32 @@
+import sdk.list.List;
+import sdk.list.ListItem;
+import sdk.utils.Parameters;
+
+import java.util.HashMap;
+
+/**
+ * Lists and request parameters shared by the list cache tests
+ */
+class ListFixtures {
+
+    /**
+     * @return A list with an item for each value, each with one attribute
+     */
+    static List getList(String... values) {
+        List list = new List();
+        for (String value : values) {
+            ListItem listItem = new ListItem(value);
+            listItem.setAttributeForIndex(value + " attribute", 0);
+            list.addListItem(listItem);
+        }
+        return list;
+    }
+
+    static Parameters getParameters(String... keysAndValues) {
+        HashMap<String, String[]> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], new String[]{keysAndValues[i + 1]});
+        }
+        return new Parameters(map);
+    }
+}
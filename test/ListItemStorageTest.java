@@ -0,0 +1,85 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import play.libs.Json;
+import sdk.list.ListItem;
+import sdk.list.ListItemAttribute;
+import sdk.models.Color;
+
+/**
+ * Checks the array backed attribute storage of ListItem
+ */
+public class ListItemStorageTest {
+    private static final String[] STATUSES = {"Open", "Closed", "On Hold"};
+
+    private void fill(ListItem item, int i) {
+        item.id = String.valueOf(i);
+        item.value = "Item " + i;
+        item.setAttributeForIndex(STATUSES[i % STATUSES.length], 0);
+        item.setAttributeForIndex(i, 1);
+        item.setAttributeForIndex(i / 4.0, 2);
+        item.setAttributeForIndex(i % 2 == 0, 3);
+        item.setAttributeForIndex(i * 1000L, 4);
+        item.setAttributeForIndex("Building " + i, 5);
+    }
+
+    @Test
+    public void testValues() {
+        ListItem item = new ListItem();
+        fill(item, 7);
+        item.setColor(new Color(1, 2, 3, 4), 6);
+        item.setDateAttributeForIndex(new DateTime(2016, 5, 3, 0, 0), false, 7);
+        Assert.assertEquals("Closed", item.getString(0));
+        Assert.assertEquals(7, item.getInt(1));
+        Assert.assertEquals(1.75, item.getDouble(2), 0.0);
+        Assert.assertFalse(item.getBool(3));
+        Assert.assertEquals("7000", item.getString(4));
+        Assert.assertEquals(2, item.getColor(6).getG());
+        Assert.assertEquals(2016, item.getDate(7).getYear());
+        Assert.assertNull(item.getString(8));
+        Assert.assertFalse(item.getOptionalString(79).isPresent());
+
+        ListItemAttribute attribute = item.getAttributeForIndex(1);
+        Assert.assertEquals(7, attribute.getIntValue());
+        item.setAttributeForIndex(null, 1);
+        Assert.assertNull(item.getAttributeForIndex(1));
+    }
+
+    @Test
+    public void testJSONValues() {
+        ListItem item = new ListItem();
+        fill(item, 2);
+        item.setAttributeForIndex("last", 79);
+        JsonNode json = Json.toJson(item);
+        Assert.assertEquals("On Hold", json.get("attribute01").textValue());
+        Assert.assertEquals("2", json.get("attribute02").textValue());
+        Assert.assertEquals("0.5", json.get("attribute03").textValue());
+        Assert.assertEquals("Y", json.get("attribute04").textValue());
+        Assert.assertEquals("2000", json.get("attribute05").textValue());
+        Assert.assertEquals("Building 2", json.get("attribute06").textValue());
+        Assert.assertEquals("last", json.get("attribute80").textValue());
+        Assert.assertNull(json.get("attribute07"));
+    }
+
+    @Test
+    public void testEquality() {
+        ListItem item = new ListItem();
+        ListItem sameItem = new ListItem();
+        fill(item, 3);
+        fill(sameItem, 3);
+        Assert.assertEquals(item, sameItem);
+        Assert.assertEquals(item.hashCode(), sameItem.hashCode());
+        sameItem.setAttributeForIndex(4, 1);
+        Assert.assertNotEquals(item.hashCode(), sameItem.hashCode());
+    }
+
+    @Test
+    public void testRepeatedValuesAreShared() {
+        ListItem first = new ListItem();
+        ListItem second = new ListItem();
+        first.setAttributeForIndex(new String("Open"), 0);
+        second.setAttributeForIndex(new String("Open"), 0);
+        Assert.assertSame(first.getString(0), second.getString(0));
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.list.List;
+import sdk.list.ListDatabaseSchema;
+import sdk.list.ListItem;
+import sdk.list.ListSearchIndex;
+import sdk.list.ListSearchIndexCache;
+import sdk.utils.ServiceParameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Checks that list searches answered in memory find what the list contains
+ */
+public class ListSearchIndexTest {
+
+    private List getList() {
+        List list = new List();
+        list.addListItem(getItem("1", "Main Building", "BC-0001"));
+        list.addListItem(getItem("2", "North Annex", "BC-0002"));
+        list.addListItem(getItem("3", "Boiler Room", "BC-0003"));
+        ListItem unsearched = getItem("4", "Garage", null);
+        unsearched.setAttributeForIndex("Building hidden", 20);
+        list.addListItem(unsearched);
+        return list;
+    }
+
+    private ListItem getItem(String id, String value, String barcode) {
+        ListItem listItem = new ListItem(value);
+        listItem.id = id;
+        listItem.setAttributeForIndex(barcode, 0);
+        return listItem;
+    }
+
+    private java.util.List<String> getIDs(List list) {
+        ArrayList<String> ids = new ArrayList<>();
+        for (ListItem listItem : list.listItems) {
+            ids.add(listItem.id);
+        }
+        return ids;
+    }
+
+    @Test
+    public void testSubstringSearch() {
+        ListSearchIndex index = new ListSearchIndex(getList(), ListDatabaseSchema.LEGACY);
+
+        Assert.assertEquals(Arrays.asList("1"), getIDs(index.search("BUILD")));
+        Assert.assertEquals(Arrays.asList("2"), getIDs(index.search("annex")));
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), getIDs(index.search("bc-000")));
+        Assert.assertEquals(Arrays.asList("2"), getIDs(index.search("th ann")));
+        Assert.assertTrue(index.search("cellar").listItems.isEmpty());
+    }
+
+    @Test
+    public void testShortSearchMatchesWordStarts() {
+        ListSearchIndex index = new ListSearchIndex(getList(), ListDatabaseSchema.LEGACY);
+
+        Assert.assertEquals(Arrays.asList("1"), getIDs(index.search("bu")));
+        Assert.assertEquals(Arrays.asList("3"), getIDs(index.search("r")));
+        Assert.assertTrue(index.search("ui").listItems.isEmpty());
+        Assert.assertEquals(4, index.search("").listItems.size());
+    }
+
+    @Test
+    public void testBarcodeSearchIsExact() {
+        ListSearchIndex index = new ListSearchIndex(getList(), ListDatabaseSchema.LEGACY);
+
+        Assert.assertEquals(Arrays.asList("2"), getIDs(index.findBarcode("bc-0002")));
+        Assert.assertTrue(index.findBarcode("BC-000").listItems.isEmpty());
+        Assert.assertEquals("Boiler Room", index.getItem("3").value);
+        Assert.assertNull(index.getItem("5"));
+    }
+
+    @Test
+    public void testOnlySearchableAttributesAreIndexed() {
+        ListSearchIndex index = new ListSearchIndex(getList(), ListDatabaseSchema.LEGACY);
+
+        Assert.assertFalse(getIDs(index.search("hidden")).contains("4"));
+    }
+
+    @Test
+    public void testStaleIndexesAreNotUsed() throws Exception {
+        ListSearchIndexCache cache = new ListSearchIndexCache(50, 1024 * 1024, 10);
+        cache.put("key", getList(), ListDatabaseSchema.LEGACY).get();
+        long staleAt = cache.get("key").get().getBuiltAt() + 50;
+        while (System.currentTimeMillis() <= staleAt) {
+            Thread.sleep(staleAt + 1 - System.currentTimeMillis());
+        }
+        Assert.assertFalse(cache.get("key").isPresent());
+
+        ListSearchIndexCache disabled = new ListSearchIndexCache(0, 1024 * 1024, 10);
+        disabled.put("key", getList(), ListDatabaseSchema.LEGACY).get();
+        Assert.assertFalse(disabled.get("key").isPresent());
+    }
+
+    @Test
+    public void testCacheIsBoundedByMemory() throws Exception {
+        long indexBytes = new ListSearchIndex(getList(), ListDatabaseSchema.LEGACY).getEstimatedBytes();
+        ListSearchIndexCache cache = new ListSearchIndexCache(60000, indexBytes * 2 + indexBytes / 2, 10);
+        cache.put("a", getList(), ListDatabaseSchema.LEGACY).get();
+        cache.put("b", getList(), ListDatabaseSchema.LEGACY).get();
+        cache.put("c", getList(), ListDatabaseSchema.LEGACY).get();
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(indexBytes * 2, cache.getTotalBytes());
+        Assert.assertFalse(cache.get("a").isPresent());
+
+        ListSearchIndexCache small = new ListSearchIndexCache(60000, indexBytes - 1, 10);
+        small.put("a", getList(), ListDatabaseSchema.LEGACY).get();
+        Assert.assertEquals(0, small.size());
+    }
+
+    @Test
+    public void testKeyOnlyUsesFilterParameters() {
+        ServiceParameter site = new ServiceParameter();
+        site.setKey("site");
+        java.util.List<ServiceParameter> filterParameters = Collections.singletonList(site);
+        String key = ListSearchIndexCache.getKey("Buildings", null, ListFixtures.getParameters("site", "1", "page", "1"), filterParameters);
+
+        Assert.assertEquals(key, ListSearchIndexCache.getKey("Buildings", null, ListFixtures.getParameters("site", "1", "page", "2"), filterParameters));
+        Assert.assertNotEquals(key, ListSearchIndexCache.getKey("Buildings", null, ListFixtures.getParameters("site", "2", "page", "1"), filterParameters));
+        Assert.assertNotEquals(key, ListSearchIndexCache.getKey("Buildings", "user:1", ListFixtures.getParameters("site", "1", "page", "1"), filterParameters));
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.converter.ObjectConverter;
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelConversionTest {
+    private static final int SIZE = 10000;
+
+    @After
+    public void resetSettings() {
+        ObjectConverter.setParallelConversionThreshold(2000);
+        ObjectConverter.setParallelConversionParallelism(0);
+    }
+
+    private List<SamplePrimitivesObject> getObjects() {
+        List<SamplePrimitivesObject> objects = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            SamplePrimitivesObject obj = new SamplePrimitivesObject();
+            obj.pk = i;
+            obj.anInt = i;
+            obj.aDouble = i / 2.0;
+            objects.add(obj);
+        }
+        return objects;
+    }
+
+    @Test
+    public void testParallelConversionKeepsOrder() {
+        Collection<ServiceConfigurationAttribute> attributes =
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class);
+        ObjectConverter.setParallelConversionParallelism(4);
+        ObjectConverter.setParallelConversionThreshold(1);
+        DataSet parallel = ObjectConverter.getDataSetFromCollection(getObjects(), attributes);
+        ObjectConverter.setParallelConversionThreshold(0);
+        DataSet serial = ObjectConverter.getDataSetFromCollection(getObjects(), attributes);
+
+        Assert.assertEquals(SIZE, parallel.getDataSetItems().size());
+        for (int i = 0; i < SIZE; i++) {
+            DataSetItem item = parallel.getDataSetItems().get(i);
+            Assert.assertEquals(String.valueOf(i), item.getPrimaryKey());
+            Assert.assertEquals(i, item.getInt(2));
+            Assert.assertEquals(serial.getDataSetItems().get(i), item);
+        }
+    }
+
+    @Test
+    public void testParallelismChangesDuringConversions() throws Exception {
+        Collection<ServiceConfigurationAttribute> attributes =
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class);
+        ObjectConverter.setParallelConversionParallelism(2);
+        ObjectConverter.setParallelConversionThreshold(1);
+        List<CompletableFuture<DataSet>> conversions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            conversions.add(CompletableFuture.supplyAsync(() -> ObjectConverter.getDataSetFromCollection(getObjects(), attributes)));
+            ObjectConverter.setParallelConversionParallelism(2 + i % 3);
+        }
+        for (CompletableFuture<DataSet> conversion : conversions) {
+            Assert.assertEquals(SIZE, conversion.get(30, TimeUnit.SECONDS).getDataSetItems().size());
+        }
+    }
+}
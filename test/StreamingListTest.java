@@ -0,0 +1,129 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.datasources.ListDataSource_Internal;
+import sdk.datasources.base.StreamingList;
+import sdk.list.List;
+import sdk.list.ListArtifactCache;
+import sdk.list.ListDatabaseWriter;
+import sdk.list.ListItem;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.ListStreamer;
+import sdk.utils.Parameters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.function.Consumer;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Checks that streamed lists end up in the same list database and json as lists returned whole
+ */
+public class StreamingListTest {
+
+    private static class CountingList implements StreamingList {
+        private final int size;
+        private final int failAt;
+
+        CountingList(int size, int failAt) {
+            this.size = size;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void streamList(AuthenticationInfo authenticationInfo, Parameters params, Consumer<ListItem> sink) {
+            for (int i = 0; i < size; i++) {
+                if (i == failAt) throw new RuntimeException("Lost the connection");
+                ListItem listItem = new ListItem("value" + i);
+                listItem.id = "id" + i;
+                listItem.setAttributeForIndex("attribute " + i, 0);
+                sink.accept(listItem);
+            }
+        }
+
+        @Override
+        public boolean isListContentGlobal() {
+            return true;
+        }
+
+        @Override
+        public <T extends ServiceConfigurationAttribute> Collection<T> getListServiceAttributes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getServiceName() {
+            return "Counting";
+        }
+    }
+
+    private Parameters getParameters() {
+        return new Parameters(new HashMap<>());
+    }
+
+    @Test
+    public void testStreamedDatabaseMatchesList() throws Exception {
+        File directory = Files.createTempDirectory("listCache").toFile();
+        try {
+            ListArtifactCache cache = new ListArtifactCache(directory, 1024 * 1024, 10);
+            ListDataSource_Internal dataSource = new ListDataSource_Internal(new CountingList(500, -1));
+            ListDatabaseWriter writer = new ListDatabaseWriter("Counting", null);
+            dataSource.streamList(null, getParameters(), writer).get();
+            ListArtifactCache.ListArtifact streamed = cache.getArtifact(writer, null);
+            Assert.assertEquals(500, streamed.getItemCount());
+
+            List list = dataSource.getList(null, getParameters()).get();
+            Assert.assertEquals(500, list.listItems.size());
+            ListArtifactCache.ListArtifact fromList = cache.getArtifact("Counting", null, list, null);
+            Assert.assertEquals(streamed.getFile(), fromList.getFile());
+            Assert.assertEquals(1, cache.size());
+
+            File databaseFile = File.createTempFile("streamed", ".sqlite");
+            try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(streamed.getFile().toPath()))) {
+                zipInputStream.getNextEntry();
+                Files.copy(zipInputStream, databaseFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getPath());
+                 Statement statement = connection.createStatement()) {
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM LIST_ITEM");
+                Assert.assertEquals(500, resultSet.getInt(1));
+            } finally {
+                databaseFile.delete();
+            }
+            cache.clear();
+        } finally {
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testStreamedJSON() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ListStreamer.write(new ListDataSource_Internal(new CountingList(3, -1)), null, getParameters(), outputStream).get();
+        JsonNode json = new ObjectMapper().readTree(outputStream.toByteArray());
+        Assert.assertTrue(json.path("success").booleanValue());
+        Assert.assertEquals(3, json.path("records").size());
+        Assert.assertEquals("id2", json.path("records").path(2).path("id").textValue());
+        Assert.assertEquals("attribute 2", json.path("records").path(2).path("attribute01").textValue());
+    }
+
+    @Test
+    public void testFailedStreamEndsWithError() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ListStreamer.write(new ListDataSource_Internal(new CountingList(10, 5)), null, getParameters(), outputStream).get();
+        JsonNode json = new ObjectMapper().readTree(outputStream.toByteArray());
+        Assert.assertFalse(json.path("success").booleanValue());
+        Assert.assertEquals("Lost the connection", json.path("message").textValue());
+        Assert.assertEquals(5, json.path("records").size());
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.converter.ObjectConverter;
+import sdk.converter.TypeManager;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts objects from many threads while the class metadata is being invalidated
+ */
+public class TypeManagerConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void testConcurrentConversion() throws Exception {
+        Collection<ServiceConfigurationAttribute> primitiveAttributes =
+            ObjectConverter.generateConfigurationAttributes(SamplePrimitivesObject.class);
+        Collection<ServiceConfigurationAttribute> accessorAttributes =
+            ObjectConverter.generateConfigurationAttributes(
+                AttributeAccessorTest.AccessorObject.class);
+        DataSetItem expectedPrimitives = new DataSetItem(primitiveAttributes);
+        ObjectConverter.copyToRecord(expectedPrimitives, new SamplePrimitivesObject());
+        DataSetItem expectedAccessor = new DataSetItem(accessorAttributes);
+        ObjectConverter.copyToRecord(expectedAccessor, new AttributeAccessorTest.AccessorObject());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger conversions = new AtomicInteger();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        try {
+                            DataSetItem item = new DataSetItem(primitiveAttributes);
+                            ObjectConverter.copyToRecord(item, new SamplePrimitivesObject());
+                            if (!expectedPrimitives.equals(item))
+                                throw new AssertionError("primitive conversion differs");
+                            DataSetItem accessorItem = new DataSetItem(accessorAttributes);
+                            ObjectConverter.copyToRecord(accessorItem,
+                                                         new AttributeAccessorTest.AccessorObject());
+                            if (!expectedAccessor.equals(accessorItem))
+                                throw new AssertionError("accessor conversion differs");
+                            conversions.incrementAndGet();
+                        } catch (Throwable throwable) {
+                            errors.add(throwable);
+                        }
+                    }
+                    return null;
+                });
+            }
+            Future<?> invalidator = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS / 10; i++) {
+                    if (i % 2 == 0) TypeManager.invalidateClassMetadata(SamplePrimitivesObject.class);
+                    else TypeManager.clearClassMetadata();
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+            invalidator.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!errors.isEmpty()) {
+            throw new AssertionError(errors.size() + " concurrent conversions failed", errors.peek());
+        }
+        Assert.assertEquals(THREADS * ITERATIONS, conversions.get());
+    }
+}
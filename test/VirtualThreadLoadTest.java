@@ -0,0 +1,132 @@
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import sdk.data.DataSet;
+import sdk.data.DataSetItem;
+import sdk.data.ServiceConfigurationAttribute;
+import sdk.datasources.DataSource_Internal;
+import sdk.datasources.base.DataSource;
+import sdk.utils.AuthenticationInfo;
+import sdk.utils.ExecutorPools;
+import sdk.utils.Parameters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking data sources with a slow backend on a bounded pool and on virtual threads. The
+ * latency is kept short so the tests stay quick, bench/VirtualThreadThroughput measures the
+ * throughput with a realistic one.
+ */
+public class VirtualThreadLoadTest {
+    private static final long LATENCY_MILLIS = 200;
+    private static final int REQUESTS = 160;
+    private static final int POOL_THREADS = 32;
+
+    /**
+     * A blocking data source whose backend takes a while to answer. It counts how many calls
+     * were waiting on the backend at once.
+     */
+    private static class SlowDataSource implements DataSource {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger mostRunning = new AtomicInteger();
+
+        @Override
+        public DataSet getDataSet(AuthenticationInfo authenticationInfo, Parameters params) {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return new DataSet(getAttributes());
+        }
+
+        @Override
+        public DataSetItem getRecord(String id, AuthenticationInfo authenticationInfo, Parameters parameters) {
+            return null;
+        }
+
+        @Override
+        public String getServiceDescription() {
+            return "Slow";
+        }
+
+        @Override
+        public Collection<ServiceConfigurationAttribute> getAttributes() {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class Load {
+        long millis;
+        int mostRunning;
+    }
+
+    private static Load run(ExecutorService executor) throws Exception {
+        SlowDataSource slowDataSource = new SlowDataSource();
+        DataSource_Internal dataSource = new DataSource_Internal(slowDataSource, executor);
+        long start = System.nanoTime();
+        List<CompletableFuture<DataSet>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(dataSource.getDataSet(null, null));
+        }
+        for (CompletableFuture<DataSet> response : responses) {
+            Assert.assertNotNull(response.get(30, TimeUnit.SECONDS));
+        }
+        Load load = new Load();
+        load.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        load.mostRunning = slowDataSource.mostRunning.get();
+        executor.shutdown();
+        return load;
+    }
+
+    @Test
+    public void testBoundedPoolRunsOneCallPerThread() throws Exception {
+        Load load = run(ExecutorPools.newBoundedExecutor("load-pool", POOL_THREADS, REQUESTS, ExecutorPools.ABORT));
+        Assert.assertEquals(POOL_THREADS, load.mostRunning);
+        // the calls run in waves of one per thread
+        Assert.assertTrue(load.millis >= REQUESTS / POOL_THREADS * LATENCY_MILLIS);
+    }
+
+    @Test
+    public void testVirtualThreadsRunEveryCallAtOnce() throws Exception {
+        Assume.assumeTrue(ExecutorPools.isVirtualThreadSupported());
+        Load pooled = run(ExecutorPools.newBoundedExecutor("load-pool", POOL_THREADS, REQUESTS, ExecutorPools.ABORT));
+        Load virtual = run(ExecutorPools.newVirtualThreadExecutor());
+        Assert.assertTrue(virtual.mostRunning > POOL_THREADS);
+        Assert.assertTrue(virtual.millis * 2 < pooled.millis);
+    }
+
+    @Test
+    public void testUnsupportedJDKFallsBackToThePool() {
+        Assume.assumeFalse(ExecutorPools.isVirtualThreadSupported());
+        Assert.assertNull(ExecutorPools.newVirtualThreadExecutor());
+        ExecutorPools.setVirtualThreads("loadFallback", true);
+        Executor executor = ExecutorPools.getDataSourceExecutor("loadFallback");
+        Assert.assertTrue(executor instanceof ThreadPoolExecutor);
+        Assert.assertSame(ExecutorPools.getPool(ExecutorPools.DATA_SOURCES + ".loadFallback"), executor);
+    }
+
+    @Test
+    public void testSupportedJDKUsesVirtualThreads() {
+        Assume.assumeTrue(ExecutorPools.isVirtualThreadSupported());
+        ExecutorPools.setVirtualThreads("loadVirtual", true);
+        Executor executor = ExecutorPools.getDataSourceExecutor("loadVirtual");
+        Assert.assertFalse(executor instanceof ThreadPoolExecutor);
+        Assert.assertNull(ExecutorPools.getPool(ExecutorPools.DATA_SOURCES + ".loadVirtual"));
+
+        ExecutorPools.setVirtualThreads("loadVirtual", false);
+        Assert.assertTrue(ExecutorPools.getDataSourceExecutor("loadVirtual") instanceof ThreadPoolExecutor);
+    }
+}
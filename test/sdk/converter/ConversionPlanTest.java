@@ -0,0 +1,99 @@
+package sdk.converter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sdk.annotations.Attribute;
+import sdk.annotations.PrimaryKey;
+import sdk.data.DataSetItem;
+import sdk.models.AttributeType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks how conversion plans are built, shared between conversions and dropped with the class
+ * metadata. In the converter package since the plan is package private
+ */
+public class ConversionPlanTest {
+
+    public static class PlanModel {
+        @PrimaryKey
+        @Attribute(index = 0)
+        public int id = 3;
+
+        @Attribute(index = 1)
+        public String name = "plan";
+
+        @Attribute(index = 2)
+        public double amount = 1.5;
+    }
+
+    private static DataSetItem newItem() {
+        return new DataSetItem(ObjectConverter.generateConfigurationAttributes(PlanModel.class));
+    }
+
+    @Test
+    public void testPlanHasAStepPerMember() {
+        ClassMetadata metadata = TypeManager.getClassMetadata(PlanModel.class);
+        ConversionPlan plan = new ConversionPlan(metadata, (field, type) -> null, (field, type) -> null);
+        ConversionPlan.FieldPlan[] fields = plan.getFields();
+
+        Assert.assertEquals(metadata.getAttributeProxies().size(), fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            Assert.assertSame(metadata.getAttributeProxies().get(i), fields[i].proxy);
+            Assert.assertEquals(fields[i].proxy.getIndex(), fields[i].index);
+            Assert.assertEquals(fields[i].proxy.isPrimaryKey(), fields[i].isPrimaryKey);
+        }
+    }
+
+    @Test
+    public void testStepsAreCompiledOncePerType() {
+        AtomicInteger compiled = new AtomicInteger();
+        ConversionPlan plan = new ConversionPlan(TypeManager.getClassMetadata(PlanModel.class),
+                                                 (field, type) -> {
+                                                     compiled.incrementAndGet();
+                                                     return (destination, record, index, parserContext) -> {};
+                                                 },
+                                                 (field, type) -> null);
+        ConversionPlan.FieldPlan field = plan.getFields()[0];
+
+        ConversionPlan.ObjectStep step = field.getObjectStep(AttributeType.String);
+        Assert.assertSame(step, field.getObjectStep(AttributeType.String));
+        Assert.assertEquals(1, compiled.get());
+        field.getObjectStep(AttributeType.Int);
+        field.getObjectStep(AttributeType.Int);
+        Assert.assertEquals(2, compiled.get());
+    }
+
+    @Test
+    public void testPlanIsReusedAcrossConversions() {
+        ObjectConverter.copyToRecord(newItem(), new PlanModel());
+        ConversionPlan plan = TypeManager.getClassMetadata(PlanModel.class).getConversionPlan();
+        Assert.assertNotNull(plan);
+
+        DataSetItem item = newItem();
+        ObjectConverter.copyToRecord(item, new PlanModel());
+        PlanModel copy = new PlanModel();
+        copy.name = null;
+        ObjectConverter.copyFromRecord(item, copy, false);
+        Assert.assertSame(plan, TypeManager.getClassMetadata(PlanModel.class).getConversionPlan());
+        Assert.assertEquals("plan", copy.name);
+    }
+
+    @Test
+    public void testInvalidatedClassGetsANewPlan() {
+        ObjectConverter.copyToRecord(newItem(), new PlanModel());
+        ConversionPlan plan = TypeManager.getClassMetadata(PlanModel.class).getConversionPlan();
+
+        TypeManager.invalidateClassMetadata(PlanModel.class);
+        Assert.assertNull(TypeManager.getClassMetadata(PlanModel.class).getConversionPlan());
+        DataSetItem item = newItem();
+        ObjectConverter.copyToRecord(item, new PlanModel());
+        ConversionPlan rebuilt = TypeManager.getClassMetadata(PlanModel.class).getConversionPlan();
+        Assert.assertNotNull(rebuilt);
+        Assert.assertNotSame(plan, rebuilt);
+        Assert.assertEquals("plan", item.getString(1));
+
+        TypeManager.clearClassMetadata();
+        Assert.assertNull(TypeManager.getClassMetadata(PlanModel.class).getConversionPlan());
+    }
+}